@@ -0,0 +1,78 @@
+package backend.academy.analyzer;
+
+import backend.academy.dimension.Dimension;
+import backend.academy.quantile.QuantileEngine;
+import backend.academy.series.SeriesInterval;
+import java.util.List;
+import static backend.academy.config.ErrorMessages.INVALID_PERCENTILE;
+import static backend.academy.config.ErrorMessages.INVALID_RESOURCE_CAPACITY;
+import static backend.academy.config.ErrorMessages.INVALID_TOP_SIZE;
+
+/**
+ * Параметры анализа логов.
+ *
+ * @param quantileEngine   Движок вычисления процентилей размера ответа.
+ * @param percentiles      Дополнительные процентили в процентах (например, 99.9), которые
+ *                         выводятся в отчете помимо 25%, 50% и 95%.
+ * @param resourceCapacity Наибольшее количество ресурсов, счетчики которых хранятся одновременно
+ *                         ({@link backend.academy.topk.SpaceSaving}); 0 — точный подсчет всех ресурсов.
+ * @param topSize          Количество строк в топах ресурсов, кодов ответа и разбивок.
+ * @param dimensions       Дополнительные разбивки, топы которых считаются за тот же проход.
+ * @param seriesInterval   Интервал временного ряда или null, если ряд не нужен.
+ * @param uniqueCounts     true, если оцениваются количества уникальных IP-адресов и ресурсов,
+ *                         в том числе уникальных IP-адресов самых популярных ресурсов.
+ */
+public record AnalysisOptions(
+    QuantileEngine quantileEngine, List<Double> percentiles, int resourceCapacity, int topSize,
+    List<Dimension> dimensions, SeriesInterval seriesInterval, boolean uniqueCounts
+) {
+    public static final int DEFAULT_TOP_SIZE = 3;
+    public static final AnalysisOptions DEFAULT = new AnalysisOptions(QuantileEngine.HDR, List.of());
+
+    private static final double MAX_PERCENT = 100;
+
+    public AnalysisOptions {
+        for (double percent : percentiles) {
+            if (percent < 0 || percent > MAX_PERCENT) {
+                throw new IllegalArgumentException(INVALID_PERCENTILE + " " + percent);
+            }
+        }
+        if (resourceCapacity < 0) {
+            throw new IllegalArgumentException(INVALID_RESOURCE_CAPACITY + " " + resourceCapacity);
+        }
+        if (topSize <= 0) {
+            throw new IllegalArgumentException(INVALID_TOP_SIZE + " " + topSize);
+        }
+        percentiles = List.copyOf(percentiles);
+        dimensions = List.copyOf(dimensions);
+    }
+
+    public AnalysisOptions(QuantileEngine quantileEngine, List<Double> percentiles) {
+        this(quantileEngine, percentiles, 0);
+    }
+
+    public AnalysisOptions(QuantileEngine quantileEngine, List<Double> percentiles, int resourceCapacity) {
+        this(quantileEngine, percentiles, resourceCapacity, DEFAULT_TOP_SIZE, List.of());
+    }
+
+    public AnalysisOptions(
+        QuantileEngine quantileEngine, List<Double> percentiles, int resourceCapacity, int topSize,
+        List<Dimension> dimensions
+    ) {
+        this(quantileEngine, percentiles, resourceCapacity, topSize, dimensions, null);
+    }
+
+    public AnalysisOptions(
+        QuantileEngine quantileEngine, List<Double> percentiles, int resourceCapacity, int topSize,
+        List<Dimension> dimensions, SeriesInterval seriesInterval
+    ) {
+        this(quantileEngine, percentiles, resourceCapacity, topSize, dimensions, seriesInterval, false);
+    }
+
+    /**
+     * @return true, если самые популярные ресурсы считаются приближенно в ограниченной памяти.
+     */
+    public boolean boundedResources() {
+        return resourceCapacity > 0;
+    }
+}
@@ -2,8 +2,10 @@ package backend.academy.analyzer;
 
 import backend.academy.nginx.NginxLog;
 import backend.academy.statistic.Metrics;
+import backend.academy.table.LogTable;
 import java.util.List;
 import java.util.Map;
+import java.util.stream.Stream;
 
 /**
  * Класс Analyzer предоставляет интерфейс для анализа логов Nginx.
@@ -12,12 +14,26 @@ import java.util.Map;
  * для анализа логов с различными параметрами фильтрации, такими как временные
  * рамки и ресурсы.
  * </p>
+ * <p>
+ * Каждый метод принимает как список, так и ленивый поток логов. Потоковые варианты
+ * обрабатывают записи по одной, не накапливая их в памяти. Списки анализируются
+ * параллельно через {@link List#parallelStream()}: статистика частей собирается в отдельные
+ * {@link LogAccumulator} и затем объединяется, поэтому результат не зависит от планирования потоков.
+ * Колоночная таблица {@link LogTable} анализируется просмотром ее столбцов.
+ * </p>
  */
 public final class Analyzer extends AnalyzerLogic {
 
     public Analyzer() {
     }
 
+    /**
+     * @param options Параметры анализа: движок и дополнительные процентили.
+     */
+    public Analyzer(AnalysisOptions options) {
+        super(options);
+    }
+
     /**
      * Анализирует список логов Nginx без фильтрации.
      *
@@ -25,7 +41,17 @@ public final class Analyzer extends AnalyzerLogic {
      * @return Объект Metrics, содержащий результаты анализа.
      */
     public Metrics analyze(List<NginxLog> logs) {
-        return analyzeLogs(logs.stream());
+        return analyze(logs.parallelStream());
+    }
+
+    /**
+     * Анализирует поток логов Nginx без фильтрации.
+     *
+     * @param logs Поток логов Nginx для анализа.
+     * @return Объект Metrics, содержащий результаты анализа.
+     */
+    public Metrics analyze(Stream<NginxLog> logs) {
+        return analyzeLogs(logs);
     }
 
     /**
@@ -37,7 +63,19 @@ public final class Analyzer extends AnalyzerLogic {
      * @return Объект Metrics, содержащий результаты анализа с учетом временного фильтра.
      */
     public Metrics analyze(List<NginxLog> logs, String startDate, String endDate) {
-        return analyzeLogsWithDateFilter(logs.stream(), startDate, endDate);
+        return analyze(logs.parallelStream(), startDate, endDate);
+    }
+
+    /**
+     * Анализирует поток логов Nginx с фильтрацией по временным рамкам.
+     *
+     * @param logs      Поток логов Nginx для анализа.
+     * @param startDate Дата начала фильтрации в формате "dd/MMM/yyyy:HH:mm:ss Z".
+     * @param endDate   Дата окончания фильтрации в формате "dd/MMM/yyyy:HH:mm:ss Z".
+     * @return Объект Metrics, содержащий результаты анализа с учетом временного фильтра.
+     */
+    public Metrics analyze(Stream<NginxLog> logs, String startDate, String endDate) {
+        return analyzeLogsWithDateFilter(logs, startDate, endDate);
     }
 
     /**
@@ -49,7 +87,19 @@ public final class Analyzer extends AnalyzerLogic {
      * @return Объект Metrics, содержащий результаты анализа с учетом фильтрации по ресурсам.
      */
     public Metrics analyze(List<NginxLog> logs, Map<String, String> filters) {
-        return analyzeLogsWithResourceFilter(logs.stream(), filters);
+        return analyze(logs.parallelStream(), filters);
+    }
+
+    /**
+     * Анализирует поток логов Nginx с фильтрацией по ресурсам.
+     *
+     * @param logs    Поток логов Nginx для анализа.
+     * @param filters Карта фильтров, где ключи представляют собой имена ресурсов,
+     *                а значения — соответствующие условия фильтрации.
+     * @return Объект Metrics, содержащий результаты анализа с учетом фильтрации по ресурсам.
+     */
+    public Metrics analyze(Stream<NginxLog> logs, Map<String, String> filters) {
+        return analyzeLogsWithResourceFilter(logs, filters);
     }
 
     /**
@@ -63,7 +113,69 @@ public final class Analyzer extends AnalyzerLogic {
      * @return Объект Metrics, содержащий результаты анализа с учетом обоих фильтров.
      */
     public Metrics analyze(List<NginxLog> logs, Map<String, String> filters, String startDate, String endDate) {
-        return analyzeLogsWithResourceAndDateFilter(logs.stream(), filters, startDate, endDate);
+        return analyze(logs.parallelStream(), filters, startDate, endDate);
+    }
+
+    /**
+     * Анализирует поток логов Nginx с фильтрацией по ресурсам и временным рамкам.
+     *
+     * @param logs      Поток логов Nginx для анализа.
+     * @param filters   Карта фильтров, где ключи представляют собой имена ресурсов,
+     *                  а значения — соответствующие условия фильтрации.
+     * @param startDate Дата начала фильтрации в формате "dd/MMM/yyyy:HH:mm:ss Z".
+     * @param endDate   Дата окончания фильтрации в формате "dd/MMM/yyyy:HH:mm:ss Z".
+     * @return Объект Metrics, содержащий результаты анализа с учетом обоих фильтров.
+     */
+    public Metrics analyze(Stream<NginxLog> logs, Map<String, String> filters, String startDate, String endDate) {
+        return analyzeLogsWithResourceAndDateFilter(logs, filters, startDate, endDate);
+    }
+
+    /**
+     * Анализирует колоночную таблицу логов Nginx без фильтрации.
+     *
+     * @param table Таблица логов Nginx для анализа.
+     * @return Объект Metrics, содержащий результаты анализа.
+     */
+    public Metrics analyze(LogTable table) {
+        return analyzeTable(table, Map.of());
+    }
+
+    /**
+     * Анализирует колоночную таблицу логов Nginx с фильтрацией по временным рамкам.
+     *
+     * @param table     Таблица логов Nginx для анализа.
+     * @param startDate Дата начала фильтрации в формате "dd/MMM/yyyy:HH:mm:ss Z".
+     * @param endDate   Дата окончания фильтрации в формате "dd/MMM/yyyy:HH:mm:ss Z".
+     * @return Объект Metrics, содержащий результаты анализа с учетом временного фильтра.
+     */
+    public Metrics analyze(LogTable table, String startDate, String endDate) {
+        return analyzeTableWithDateFilter(table, Map.of(), startDate, endDate);
+    }
+
+    /**
+     * Анализирует колоночную таблицу логов Nginx с фильтрацией по ресурсам.
+     *
+     * @param table   Таблица логов Nginx для анализа.
+     * @param filters Карта фильтров, где ключи представляют собой имена ресурсов,
+     *                а значения — соответствующие условия фильтрации.
+     * @return Объект Metrics, содержащий результаты анализа с учетом фильтрации по ресурсам.
+     */
+    public Metrics analyze(LogTable table, Map<String, String> filters) {
+        return analyzeTable(table, filters);
+    }
+
+    /**
+     * Анализирует колоночную таблицу логов Nginx с фильтрацией по ресурсам и временным рамкам.
+     *
+     * @param table     Таблица логов Nginx для анализа.
+     * @param filters   Карта фильтров, где ключи представляют собой имена ресурсов,
+     *                  а значения — соответствующие условия фильтрации.
+     * @param startDate Дата начала фильтрации в формате "dd/MMM/yyyy:HH:mm:ss Z".
+     * @param endDate   Дата окончания фильтрации в формате "dd/MMM/yyyy:HH:mm:ss Z".
+     * @return Объект Metrics, содержащий результаты анализа с учетом обоих фильтров.
+     */
+    public Metrics analyze(LogTable table, Map<String, String> filters, String startDate, String endDate) {
+        return analyzeTableWithDateFilter(table, filters, startDate, endDate);
     }
 }
 
@@ -1,19 +1,23 @@
 package backend.academy.analyzer;
 
+import backend.academy.cardinality.DistinctCounts;
 import backend.academy.datefilter.DateFilter;
+import backend.academy.dimension.DimensionCounts;
+import backend.academy.filter.LogFilter;
 import backend.academy.nginx.NginxLog;
+import backend.academy.quantile.QuantileSketch;
+import backend.academy.series.TimeSeries;
 import backend.academy.statistic.Metrics;
-import java.security.SecureRandom;
-import java.util.ArrayList;
-import java.util.Collections;
+import backend.academy.statistic.UniqueCounts;
+import backend.academy.table.LogTable;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
-import java.util.List;
 import java.util.LongSummaryStatistics;
 import java.util.Map;
 import java.util.PriorityQueue;
-import java.util.Random;
+import java.util.function.IntPredicate;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -21,8 +25,8 @@ import java.util.stream.Stream;
  * Класс AnalyzerLogic предоставляет функциональность для анализа логов Nginx.
  * <p>
  * Он собирает статистику о размерах ответов, количестве ресурсов и кодах ответов.
- * Класс поддерживает выборку логов для более эффективного анализа, а также
- * может анализировать логи с учетом временных фильтров.
+ * Класс вычисляет процентили размеров ответов выбранным движком {@link QuantileSketch},
+ * а также может анализировать логи с учетом временных фильтров.
  * </p>
  * <p>
  * Основные характеристики:
@@ -30,21 +34,32 @@ import java.util.stream.Stream;
  *     <li>Сбор статистики по размерам ответов с использованием {@link LongSummaryStatistics}.</li>
  *     <li>Подсчет количества обращений к различным ресурсам с помощью {@link HashMap}.</li>
  *     <li>Подсчет кодов ответов HTTP и их частоты.</li>
- *     <li>Поддержка выборки логов для уменьшения объема обрабатываемых данных.</li>
+ *     <li>Процентили размеров ответов по всем логам с фиксированным объемом памяти.</li>
  * </ul>
  * </p>
+ * <p>
+ * Каждый вызов метода анализа собирает статистику в новый {@link LogAccumulator} через
+ * {@link LogAccumulator#collector(AnalysisOptions)}, поэтому повторные вызовы не суммируют результаты,
+ * а потоки логов можно обрабатывать параллельно. Геттеры возвращают состояние последнего анализа.
+ * </p>
  */
 @SuppressWarnings("LambdaParameterName")
 public class AnalyzerLogic {
-    private static final int NUMBER_OF_TOP_RESPONSE_CODES = 3;
-    private static final int NUMBER_OF_TOP_RESOURCE = 3;
-    public static final int SAMPLE_SIZE = 5000; // Размер выборки
-    private static final double SAMPLE_PROBABILITY = 0.1;
-    private static final Random RAND = new SecureRandom();
-    private final LongSummaryStatistics responseSizeStats = new LongSummaryStatistics();
-    private final Map<String, Long> resourceCountMap = new HashMap<>();
-    private final Map<Integer, Integer> responseCodeCountMap = new HashMap<>();
-    private final List<Long> sampledResponseSizes = new ArrayList<>();
+    private static final double PERCENT = 100.0;
+    private final AnalysisOptions options;
+    private volatile LogAccumulator lastAccumulator;
+
+    public AnalyzerLogic() {
+        this(AnalysisOptions.DEFAULT);
+    }
+
+    /**
+     * @param options Параметры анализа: движок и дополнительные процентили.
+     */
+    public AnalyzerLogic(AnalysisOptions options) {
+        this.options = options;
+        this.lastAccumulator = new LogAccumulator(options);
+    }
 
     /**
      * Обрабатывает лог Nginx, обновляя статистику размера ответа, счетчики ресурсов и кодов ответов.
@@ -53,57 +68,34 @@ public class AnalyzerLogic {
      * @param responseSizeStats    Статистика по размерам ответов.
      * @param resourceCountMap     Карта, хранящая количество запросов к каждому ресурсу.
      * @param responseCodeCountMap Карта, хранящая количество ответов для каждого кода состояния.
-     * @param sampledResponseSizes Список, хранящий выборочные размеры ответов.
+     * @param responseSizeQuantiles Структура для вычисления процентилей размеров ответов.
      */
     public void processLog(
         NginxLog log,
         LongSummaryStatistics responseSizeStats,
         Map<String, Long> resourceCountMap,
         Map<Integer, Integer> responseCodeCountMap,
-        List<Long> sampledResponseSizes
+        QuantileSketch responseSizeQuantiles
     ) {
-        long responseSize = log.responseSize();
-        responseSizeStats.accept(responseSize);
-
-        resourceCountMap.merge(log.resource(), 1L, Long::sum);
-        responseCodeCountMap.merge(log.statusCode(), 1, Integer::sum);
-
-        updateSampledResponseSizes(sampledResponseSizes, responseSize);
+        LogAccumulator.accumulate(log, responseSizeStats, resourceCountMap, responseCodeCountMap,
+            responseSizeQuantiles);
     }
 
     /**
-     * Обновляет выборочные размеры ответов. Если размер выборки меньше заданного значения,
-     * добавляет новый размер. В противном случае заменяет случайный элемент в выборке.
-     *
-     * @param sampledResponseSizes Список выборочных размеров ответов.
-     * @param responseSize         Размер ответа для добавления или замены.
-     */
-    public void updateSampledResponseSizes(List<Long> sampledResponseSizes, long responseSize) {
-        if (sampledResponseSizes.size() < SAMPLE_SIZE) {
-            sampledResponseSizes.add(responseSize);
-        } else {
-            if (RAND.nextDouble() < SAMPLE_PROBABILITY) {
-                int indexToReplace = RAND.nextInt(SAMPLE_SIZE);
-                sampledResponseSizes.set(indexToReplace, responseSize);
-            }
-        }
-    }
-
-    /**
-     * Генерирует метрики на основе статистики размеров ответов, выборочных данных,
+     * Генерирует метрики на основе статистики размеров ответов, процентилей,
      * счетчиков ресурсов и кодов ответов.
      *
-     * @param responseSizeStats    Статистика по размерам ответов.
-     * @param sampledResponseSizes Список выборочных размеров ответов.
-     * @param resourceCountMap     Карта, хранящая количество запросов к каждому ресурсу.
-     * @param responseCodeCountMap Карта, хранящая количество ответов для каждого кода состояния.
-     * @param startDate            Дата начала периода.
-     * @param endDate              Дата окончания периода.
+     * @param responseSizeStats     Статистика по размерам ответов.
+     * @param responseSizeQuantiles Структура для вычисления процентилей размеров ответов.
+     * @param resourceCountMap      Карта, хранящая количество запросов к каждому ресурсу.
+     * @param responseCodeCountMap  Карта, хранящая количество ответов для каждого кода состояния.
+     * @param startDate             Дата начала периода.
+     * @param endDate               Дата окончания периода.
      * @return Объект Metrics с вычисленными метриками.
      */
     public Metrics generateMetrics(
         LongSummaryStatistics responseSizeStats,
-        List<Long> sampledResponseSizes,
+        QuantileSketch responseSizeQuantiles,
         Map<String, Long> resourceCountMap,
         Map<Integer, Integer> responseCodeCountMap,
         String startDate,
@@ -112,37 +104,63 @@ public class AnalyzerLogic {
         long logsQuantity = responseSizeStats.getCount();
         long averageResponseSize = (long) responseSizeStats.getAverage();
         final double percent95 = 0.95;
-        long percentile95 = calcPercentile(sampledResponseSizes, percent95);
+        long percentile95 = calcPercentile(responseSizeQuantiles, percent95);
         final double percent50 = 0.50;
-        long median = calcPercentile(sampledResponseSizes, percent50);
+        long median = calcPercentile(responseSizeQuantiles, percent50);
         final double percent25 = 0.25;
-        long percentile25 = calcPercentile(sampledResponseSizes, percent25);
+        long percentile25 = calcPercentile(responseSizeQuantiles, percent25);
         Map<String, Long> popularResources = findMostPopularResources(resourceCountMap);
         Map<Integer, Integer> topResponseCodes = findTopResponseCodes(responseCodeCountMap);
+        Map<Double, Long> percentiles = new LinkedHashMap<>();
+        for (double percent : options.percentiles()) {
+            percentiles.put(percent, calcPercentile(responseSizeQuantiles, percent / PERCENT));
+        }
 
         return new Metrics(logsQuantity, averageResponseSize, percentile95, median, percentile25, popularResources,
-            topResponseCodes, startDate, endDate);
+            topResponseCodes, startDate, endDate, percentiles);
     }
 
     /**
-     * Вычисляет процентиль для списка выборочных размеров ответов.
+     * Генерирует метрики на основе накопленной статистики и запоминает ее как результат последнего анализа.
      *
-     * @param sampledResponseSizes Список выборочных размеров ответов.
-     * @param percent              Процентиль для вычисления (например, 0.95 для 95-го перцентиля).
-     * @return Значение процентиля.
+     * @param accumulator Накопитель статистики.
+     * @param startDate   Дата начала периода.
+     * @param endDate     Дата окончания периода.
+     * @return Объект Metrics с вычисленными метриками.
      */
-    public long calcPercentile(List<Long> sampledResponseSizes, double percent) {
-        if (sampledResponseSizes.isEmpty()) {
-            return 0;
+    public Metrics generateMetrics(LogAccumulator accumulator, String startDate, String endDate) {
+        lastAccumulator = accumulator;
+        Metrics metrics = generateMetrics(accumulator.getResponseSizeStats(), accumulator.getResponseSizeQuantiles(),
+            accumulator.getResourceCountMap(), accumulator.getResponseCodeCountMap(), startDate, endDate);
+        DimensionCounts dimensionCounts = accumulator.getDimensionCounts();
+        if (dimensionCounts != null) {
+            metrics = metrics.withDimensions(dimensionCounts.top(options.topSize()));
         }
-
-        if (sampledResponseSizes.size() == 1) {
-            return sampledResponseSizes.getFirst();
+        TimeSeries series = accumulator.getSeries();
+        if (series != null) {
+            metrics = metrics.withSeries(series.interval(), series.points());
+        }
+        DistinctCounts distinctCounts = accumulator.getDistinctCounts();
+        if (distinctCounts == null) {
+            return metrics;
         }
+        accumulator.trimDistinctResources();
+        Map<String, Long> ipAddressesByResource = new LinkedHashMap<>();
+        metrics.topResources().keySet()
+            .forEach(resource -> ipAddressesByResource.put(resource, distinctCounts.ipAddresses(resource)));
+        return metrics.withUniqueCounts(
+            new UniqueCounts(distinctCounts.ipAddresses(), distinctCounts.resources(), ipAddressesByResource));
+    }
 
-        Collections.sort(sampledResponseSizes);
-        int index = (int) Math.ceil(sampledResponseSizes.size() * percent) - 1;
-        return sampledResponseSizes.get(index);
+    /**
+     * Вычисляет процентиль размеров ответов.
+     *
+     * @param responseSizeQuantiles Структура для вычисления процентилей размеров ответов.
+     * @param percent               Процентиль для вычисления (например, 0.95 для 95-го перцентиля).
+     * @return Значение процентиля или 0, если логов нет.
+     */
+    public long calcPercentile(QuantileSketch responseSizeQuantiles, double percent) {
+        return responseSizeQuantiles.quantile(percent);
     }
 
     /**
@@ -160,7 +178,7 @@ public class AnalyzerLogic {
         for (Map.Entry<String, Long> entry : resourceCountMap.entrySet()) {
             minHeap.offer(entry);
 
-            if (minHeap.size() > NUMBER_OF_TOP_RESOURCE) {
+            if (minHeap.size() > options.topSize()) {
                 minHeap.poll();
             }
         }
@@ -197,15 +215,14 @@ public class AnalyzerLogic {
     ) {
         DateFilter dateFilter = new DateFilter();
         dateFilter.setDateFromTo(startDateStr, endDateStr);
+        LogFilter filter = LogFilter.compile(filters);
 
-        logStream
+        LogAccumulator accumulator = logStream
+            .filter(log -> applyFilters(log, filter))
             .filter(log -> dateFilter.isWithinRange(log.timestamp()))
-            .filter(log -> applyFilters(log, filters))
-            .forEach(log -> processLog(log, responseSizeStats, resourceCountMap, responseCodeCountMap,
-                sampledResponseSizes));
+            .collect(LogAccumulator.collector(options));
 
-        return generateMetrics(responseSizeStats, sampledResponseSizes, resourceCountMap, responseCodeCountMap,
-            startDateStr, endDateStr);
+        return generateMetrics(accumulator, startDateStr, endDateStr);
     }
 
     /**
@@ -217,14 +234,14 @@ public class AnalyzerLogic {
     @SuppressWarnings("IllegalIdentifierName")
     protected Map<Integer, Integer> findTopResponseCodes(Map<Integer, Integer> responseCodeCountMap) {
         PriorityQueue<Map.Entry<Integer, Integer>> minHeap = new PriorityQueue<>(
-            NUMBER_OF_TOP_RESPONSE_CODES,
+            options.topSize(),
             Map.Entry.comparingByValue()
         );
 
         for (Map.Entry<Integer, Integer> entry : responseCodeCountMap.entrySet()) {
             minHeap.offer(entry);
 
-            if (minHeap.size() > NUMBER_OF_TOP_RESPONSE_CODES) {
+            if (minHeap.size() > options.topSize()) {
                 minHeap.poll();
             }
         }
@@ -248,38 +265,23 @@ public class AnalyzerLogic {
     public Metrics analyzeLogsWithResourceFilter(
         Stream<NginxLog> logStream, Map<String, String> filters
     ) {
-        logStream.filter(log -> applyFilters(log, filters))
-            .forEach(log -> processLog(log, responseSizeStats, resourceCountMap, responseCodeCountMap,
-                sampledResponseSizes));
+        LogFilter filter = LogFilter.compile(filters);
+        LogAccumulator accumulator = logStream
+            .filter(log -> applyFilters(log, filter))
+            .collect(LogAccumulator.collector(options));
 
-        return generateMetrics(responseSizeStats, sampledResponseSizes, resourceCountMap, responseCodeCountMap,
-            "-", "-");
+        return generateMetrics(accumulator, "-", "-");
     }
 
     /**
-     * Применяет заданные фильтры к логам Nginx.
+     * Применяет скомпилированный фильтр к логу Nginx.
      *
-     * @param log     Лог Nginx для проверки.
-     * @param filters Карта фильтров, применяемых к логам.
+     * @param log    Лог Nginx для проверки.
+     * @param filter Фильтр, скомпилированный из настроек один раз перед анализом.
      * @return true, если лог соответствует всем фильтрам; иначе false.
      */
-    protected boolean applyFilters(NginxLog log, Map<String, String> filters) {
-        return filters.entrySet().stream().allMatch(entry -> {
-            String filterKey = entry.getKey();
-            String filterValue = entry.getValue();
-            return switch (filterKey) {
-                case "ipAddress" -> log.ipAddress().equals(filterValue);
-                case "userIdentifier" -> log.userIdentifier().equals(filterValue);
-                case "userId" -> log.userId().equals(filterValue);
-                case "timestamp" -> log.timestamp().equals(filterValue);
-                case "requestMethod" -> log.requestMethod().equals(filterValue);
-                case "resource" -> log.resource().equals(filterValue);
-                case "httpVersion" -> log.httpVersion().equals(filterValue);
-                case "statusCode" -> log.statusCode() == Integer.parseInt(filterValue);
-                case "responseSize" -> log.responseSize() == Long.parseLong(filterValue);
-                default -> true;
-            };
-        });
+    protected boolean applyFilters(NginxLog log, LogFilter filter) {
+        return filter.test(log);
     }
 
     /**
@@ -294,13 +296,11 @@ public class AnalyzerLogic {
         DateFilter dateFilter = new DateFilter();
         dateFilter.setDateFromTo(startDateStr, endDateStr);
 
-        logStream
+        LogAccumulator accumulator = logStream
             .filter(log -> dateFilter.isWithinRange(log.timestamp()))
-            .forEach(log -> processLog(log, responseSizeStats, resourceCountMap, responseCodeCountMap,
-                sampledResponseSizes));
+            .collect(LogAccumulator.collector(options));
 
-        return generateMetrics(responseSizeStats, sampledResponseSizes, resourceCountMap, responseCodeCountMap,
-            startDateStr, endDateStr);
+        return generateMetrics(accumulator, startDateStr, endDateStr);
     }
 
     /**
@@ -310,27 +310,82 @@ public class AnalyzerLogic {
      * @return Объект Metrics, содержащий результаты анализа логов.
      */
     public Metrics analyzeLogs(Stream<NginxLog> logStream) {
-        logStream.forEach(
-            log -> processLog(log, responseSizeStats, resourceCountMap, responseCodeCountMap, sampledResponseSizes));
+        LogAccumulator accumulator = logStream.collect(LogAccumulator.collector(options));
 
-        return generateMetrics(responseSizeStats, sampledResponseSizes, resourceCountMap, responseCodeCountMap, "-",
-            "-");
+        return generateMetrics(accumulator, "-", "-");
+    }
+
+    /**
+     * Анализирует колоночную таблицу логов с учетом фильтров.
+     * <p>
+     * Условие на код и размер ответа проверяется по столбцам таблицы, а условия на строковые поля —
+     * по идентификаторам словарей: каждое значение словаря проверяется один раз, записи не восстанавливаются.
+     * </p>
+     *
+     * @param table   Таблица логов Nginx.
+     * @param filters Карта фильтров, применяемых к логам.
+     * @return Объект Metrics, содержащий результаты анализа логов.
+     */
+    public Metrics analyzeTable(LogTable table, Map<String, String> filters) {
+        LogAccumulator accumulator = table.accumulate(options, tableFilter(table, LogFilter.compile(filters)));
+
+        return generateMetrics(accumulator, "-", "-");
+    }
+
+    /**
+     * Анализирует колоночную таблицу логов с учетом фильтров и диапазона дат.
+     * <p>
+     * Диапазон дат проверяется по столбцу секунд эпохи без разбора строк времени.
+     * </p>
+     *
+     * @param table        Таблица логов Nginx.
+     * @param filters      Карта фильтров, применяемых к логам.
+     * @param startDateStr Строка, представляющая дату начала диапазона.
+     * @param endDateStr   Строка, представляющая дату окончания диапазона.
+     * @return Объект Metrics, содержащий результаты анализа логов.
+     */
+    public Metrics analyzeTableWithDateFilter(
+        LogTable table, Map<String, String> filters,
+        String startDateStr, String endDateStr
+    ) {
+        DateFilter dateFilter = new DateFilter();
+        dateFilter.setDateFromTo(startDateStr, endDateStr);
+        IntPredicate filter = tableFilter(table, LogFilter.compile(filters));
+
+        LogAccumulator accumulator = table.accumulate(options,
+            row -> dateFilter.isWithinRange(table.epochSecond(row)) && filter.test(row));
+
+        return generateMetrics(accumulator, startDateStr, endDateStr);
+    }
+
+    private IntPredicate tableFilter(LogTable table, LogFilter filter) {
+        if (filter == LogFilter.ACCEPT_ALL) {
+            return row -> true;
+        }
+        if (filter.statusSizeOnly()) {
+            return row -> filter.statusSize().test(table.statusCode(row), table.responseSize(row));
+        }
+        IntPredicate rows = row -> filter.statusSize().test(table.statusCode(row), table.responseSize(row));
+        for (Map.Entry<String, Predicate<String>> field : filter.fields().entrySet()) {
+            rows = rows.and(table.fieldCondition(field.getKey(), field.getValue()));
+        }
+        return rows;
     }
 
     public LongSummaryStatistics getResponseSizeStats() {
-        return responseSizeStats;
+        return lastAccumulator.getResponseSizeStats();
     }
 
     public Map<String, Long> getResourceCountMap() {
-        return resourceCountMap;
+        return lastAccumulator.getResourceCountMap();
     }
 
     public Map<Integer, Integer> getResponseCodeCountMap() {
-        return responseCodeCountMap;
+        return lastAccumulator.getResponseCodeCountMap();
     }
 
-    public List<Long> getSampledResponseSizes() {
-        return sampledResponseSizes;
+    public QuantileSketch getResponseSizeQuantiles() {
+        return lastAccumulator.getResponseSizeQuantiles();
     }
 }
 
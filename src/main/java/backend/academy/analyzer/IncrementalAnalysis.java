@@ -0,0 +1,104 @@
+package backend.academy.analyzer;
+
+import backend.academy.datefilter.DateFilter;
+import backend.academy.filter.LogFilter;
+import backend.academy.nginx.NginxLog;
+import backend.academy.statistic.Metrics;
+import java.util.Map;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+/**
+ * Анализ, статистика которого пополняется новыми записями между построениями отчета.
+ * <p>
+ * Фильтры компилируются один раз при создании, а записи учитываются в одном
+ * {@link LogAccumulator}, поэтому каждое обновление обрабатывает только новые записи.
+ * Используется в режиме {@code --follow} и при продолжении анализа с контрольной точки
+ * ({@code --checkpoint}). Экземпляр не потокобезопасен.
+ * </p>
+ */
+public final class IncrementalAnalysis {
+    private static final String NO_DATE = "-";
+
+    private final AnalyzerLogic analyzer;
+    private final AnalysisOptions options;
+    private final LogAccumulator accumulator;
+    private final Predicate<NginxLog> filter;
+    private final String startDate;
+    private final String endDate;
+
+    /**
+     * @param analyzer  Анализатор, строящий метрики по накопленной статистике.
+     * @param options   Параметры анализа.
+     * @param filters   Фильтры по полям записи; пустая карта отключает фильтрацию.
+     * @param startDate Начало диапазона дат или null.
+     * @param endDate   Конец диапазона дат или null. Диапазон применяется, только если заданы обе границы.
+     */
+    public IncrementalAnalysis(
+        AnalyzerLogic analyzer, AnalysisOptions options, Map<String, String> filters, String startDate, String endDate
+    ) {
+        this(analyzer, options, new LogAccumulator(options), filters, startDate, endDate);
+    }
+
+    /**
+     * Продолжает анализ с ранее накопленной статистикой.
+     *
+     * @param analyzer    Анализатор, строящий метрики по накопленной статистике.
+     * @param options     Параметры анализа.
+     * @param accumulator Статистика, накопленная с теми же фильтрами и движком процентилей.
+     * @param filters     Фильтры по полям записи; пустая карта отключает фильтрацию.
+     * @param startDate   Начало диапазона дат или null.
+     * @param endDate     Конец диапазона дат или null.
+     */
+    public IncrementalAnalysis(
+        AnalyzerLogic analyzer, AnalysisOptions options, LogAccumulator accumulator, Map<String, String> filters,
+        String startDate, String endDate
+    ) {
+        this.analyzer = analyzer;
+        this.options = options;
+        this.accumulator = accumulator;
+        LogFilter logFilter = LogFilter.compile(filters);
+        if (startDate != null && endDate != null) {
+            DateFilter dateFilter = new DateFilter();
+            dateFilter.setDateFromTo(startDate, endDate);
+            this.filter = log -> logFilter.test(log) && dateFilter.isWithinRange(log.timestamp());
+            this.startDate = startDate;
+            this.endDate = endDate;
+        } else {
+            this.filter = logFilter::test;
+            this.startDate = NO_DATE;
+            this.endDate = NO_DATE;
+        }
+    }
+
+    /**
+     * Учитывает новые записи в накопленной статистике.
+     *
+     * @param logs Поток новых записей; может быть параллельным.
+     */
+    public void accept(Stream<NginxLog> logs) {
+        accumulator.combine(logs.filter(filter).collect(LogAccumulator.collector(options)));
+    }
+
+    /**
+     * @param log Лог Nginx.
+     * @return true, если запись проходит фильтры и диапазон дат анализа.
+     */
+    public boolean test(NginxLog log) {
+        return filter.test(log);
+    }
+
+    /**
+     * @return Накопленная статистика, например, для сохранения в контрольной точке.
+     */
+    public LogAccumulator accumulator() {
+        return accumulator;
+    }
+
+    /**
+     * @return Метрики по всем записям, учтенным к этому моменту.
+     */
+    public Metrics metrics() {
+        return analyzer.generateMetrics(accumulator, startDate, endDate);
+    }
+}
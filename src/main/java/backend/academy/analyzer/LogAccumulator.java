@@ -0,0 +1,370 @@
+package backend.academy.analyzer;
+
+import backend.academy.cardinality.DistinctCounts;
+import backend.academy.cardinality.HyperLogLog;
+import backend.academy.dimension.DimensionCounts;
+import backend.academy.nginx.NginxLog;
+import backend.academy.quantile.QuantileSketch;
+import backend.academy.series.TimeSeries;
+import backend.academy.topk.SpaceSaving;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.LongSummaryStatistics;
+import java.util.Map;
+import java.util.stream.Collector;
+
+/**
+ * Накопитель статистики по логам Nginx, поддерживающий объединение частичных результатов.
+ * <p>
+ * Каждый экземпляр хранит собственное состояние: статистику размеров ответов, счетчики
+ * ресурсов и кодов ответов, а также структуру {@link QuantileSketch} для процентилей размеров
+ * ответов. Экземпляр не потокобезопасен, но независимые экземпляры, заполненные в разных потоках,
+ * можно объединить методом {@link #combine(LogAccumulator)}. Именно так работает
+ * {@link #collector(AnalysisOptions)} в параллельных потоках: каждая часть данных агрегируется
+ * в свой накопитель, а затем накопители объединяются.
+ * </p>
+ * <p>
+ * Счетчики, суммы и процентили после объединения не зависят от порядка обработки и распределения
+ * данных по потокам (для t-digest процентили остаются в пределах его погрешности).
+ * </p>
+ * <p>
+ * Если в параметрах задано {@link AnalysisOptions#resourceCapacity()}, запросы к ресурсам считаются
+ * не в карте всех ресурсов, а в структуре {@link SpaceSaving} с ограниченным числом счетчиков:
+ * память не зависит от количества различных ресурсов, а счетчики самых популярных ресурсов
+ * завышаются не больше чем на долю {@code 1 / resourceCapacity} от числа записей.
+ * </p>
+ * <p>
+ * Дополнительные разбивки {@link AnalysisOptions#dimensions()} считаются в {@link DimensionCounts},
+ * а временной ряд {@link AnalysisOptions#seriesInterval()} — в {@link TimeSeries} при том же проходе по записям.
+ * </p>
+ * <p>
+ * Если задано {@link AnalysisOptions#uniqueCounts()}, количество уникальных IP-адресов и ресурсов, а также
+ * уникальных IP-адресов каждого ресурса оценивается в {@link DistinctCounts}. Оценки по ресурсам сокращаются
+ * до {@link #distinctResourceCapacity()} самых популярных ресурсов методом {@link #trimDistinctResources()}
+ * один раз, перед отчетом или записью: при ограниченном подсчете остаются ресурсы, которые отслеживает
+ * {@link SpaceSaving}, а при точном — {@link #DISTINCT_RESOURCE_CAPACITY} ресурсов с наибольшим числом
+ * запросов. Частичные результаты не сокращаются, чтобы ресурс, редкий в одной части данных, не потерял
+ * IP-адреса этой части при объединении.
+ * </p>
+ */
+public final class LogAccumulator {
+    public static final int DISTINCT_RESOURCE_CAPACITY = 1024;
+
+    private final LongSummaryStatistics responseSizeStats = new LongSummaryStatistics();
+    private final Map<String, Long> resourceCountMap = new HashMap<>();
+    private final Map<Integer, Integer> responseCodeCountMap = new HashMap<>();
+    private final SpaceSaving resourceHeavyHitters;
+    private final DimensionCounts dimensionCounts;
+    private final TimeSeries series;
+    private final DistinctCounts distinctCounts;
+    private final int distinctResourceCapacity;
+    private QuantileSketch responseSizeQuantiles;
+
+    public LogAccumulator() {
+        this(AnalysisOptions.DEFAULT);
+    }
+
+    /**
+     * @param options Параметры анализа, определяющие движок процентилей и подсчет ресурсов.
+     */
+    public LogAccumulator(AnalysisOptions options) {
+        this.responseSizeQuantiles = options.quantileEngine().create();
+        this.resourceHeavyHitters = options.boundedResources() ? new SpaceSaving(options.resourceCapacity()) : null;
+        this.dimensionCounts = options.dimensions().isEmpty() ? null : new DimensionCounts(options.dimensions());
+        this.series = options.seriesInterval() == null ? null : new TimeSeries(options.seriesInterval());
+        this.distinctCounts = options.uniqueCounts() ? new DistinctCounts() : null;
+        this.distinctResourceCapacity = options.boundedResources() ? options.resourceCapacity()
+            : Math.max(options.topSize(), DISTINCT_RESOURCE_CAPACITY);
+    }
+
+    /**
+     * Создает коллектор с параметрами по умолчанию.
+     *
+     * @return Коллектор логов Nginx.
+     */
+    public static Collector<NginxLog, LogAccumulator, LogAccumulator> collector() {
+        return collector(AnalysisOptions.DEFAULT);
+    }
+
+    /**
+     * Создает коллектор, агрегирующий поток логов в {@link LogAccumulator}.
+     * <p>
+     * Коллектор не зависит от порядка элементов и может использоваться с параллельными потоками.
+     * </p>
+     *
+     * @param options Параметры анализа.
+     * @return Коллектор логов Nginx.
+     */
+    public static Collector<NginxLog, LogAccumulator, LogAccumulator> collector(AnalysisOptions options) {
+        return Collector.of(
+            () -> new LogAccumulator(options),
+            LogAccumulator::accept,
+            LogAccumulator::combine,
+            Collector.Characteristics.UNORDERED,
+            Collector.Characteristics.IDENTITY_FINISH
+        );
+    }
+
+    /**
+     * Учитывает лог в накопленной статистике.
+     *
+     * @param log Лог Nginx, содержащий информацию о запросе.
+     */
+    public void accept(NginxLog log) {
+        if (dimensionCounts != null) {
+            dimensionCounts.accept(log);
+        }
+        if (series != null) {
+            series.accept(log);
+        }
+        if (distinctCounts != null) {
+            distinctCounts.accept(log.ipAddress(), log.resource());
+        }
+        if (resourceHeavyHitters == null) {
+            accumulate(log, responseSizeStats, resourceCountMap, responseCodeCountMap, responseSizeQuantiles);
+        } else {
+            long responseSize = log.responseSize();
+            responseSizeStats.accept(responseSize);
+            resourceHeavyHitters.add(log.resource(), 1);
+            responseCodeCountMap.merge(log.statusCode(), 1, Integer::sum);
+            responseSizeQuantiles.add(responseSize);
+        }
+    }
+
+    /**
+     * Учитывает несколько запросов к ресурсу.
+     *
+     * @param resource    Ресурс.
+     * @param count       Количество запросов.
+     * @param ipAddresses Оценка уникальных IP-адресов, от которых пришли эти запросы, или null, если
+     *                    ресурс не входит в {@link #distinctResourceCapacity()} самых популярных; не изменяется.
+     *                    Не используется, если уникальные значения не оцениваются.
+     */
+    public void addResource(String resource, long count, HyperLogLog ipAddresses) {
+        if (distinctCounts != null) {
+            distinctCounts.addResource(resource, ipAddresses);
+        }
+        if (resourceHeavyHitters == null) {
+            resourceCountMap.merge(resource, count, Long::sum);
+        } else {
+            resourceHeavyHitters.add(resource, count);
+        }
+    }
+
+    /**
+     * Добавляет к текущему накопителю статистику другого накопителя.
+     *
+     * @param other Накопитель, статистика которого добавляется к текущему.
+     * @return Текущий накопитель с объединенной статистикой.
+     */
+    public LogAccumulator combine(LogAccumulator other) {
+        responseSizeStats.combine(other.responseSizeStats);
+        if (resourceHeavyHitters == null) {
+            other.resourceCountMap.forEach((resource, count) -> resourceCountMap.merge(resource, count, Long::sum));
+        } else {
+            resourceHeavyHitters.merge(other.resourceHeavyHitters);
+        }
+        other.responseCodeCountMap.forEach((code, count) -> responseCodeCountMap.merge(code, count, Integer::sum));
+        responseSizeQuantiles = responseSizeQuantiles.merge(other.responseSizeQuantiles);
+        if (dimensionCounts != null) {
+            dimensionCounts.combine(other.dimensionCounts);
+        }
+        if (series != null) {
+            series.combine(other.series);
+        }
+        if (distinctCounts != null) {
+            distinctCounts.combine(other.distinctCounts);
+        }
+        return this;
+    }
+
+    /**
+     * @return Наибольшее количество ресурсов, для которых хранится оценка уникальных IP-адресов.
+     */
+    public int distinctResourceCapacity() {
+        return distinctResourceCapacity;
+    }
+
+    /**
+     * Удаляет оценки уникальных IP-адресов для ресурсов вне {@link #distinctResourceCapacity()} самых популярных:
+     * при ограниченном подсчете — для ресурсов, которые не отслеживает {@link SpaceSaving}, при точном — для
+     * ресурсов с меньшим числом запросов. Вызывается для итогового накопителя, а не для частичных результатов.
+     */
+    public void trimDistinctResources() {
+        if (distinctCounts == null || distinctCounts.trackedResources() <= distinctResourceCapacity) {
+            return;
+        }
+        if (resourceHeavyHitters == null) {
+            distinctCounts.retainTopResources(distinctResourceCapacity,
+                resource -> resourceCountMap.getOrDefault(resource, 0L));
+        } else {
+            distinctCounts.retainResources(resource -> resourceHeavyHitters.error(resource) >= 0);
+        }
+    }
+
+    /**
+     * Обновляет переданные структуры статистики данными одного лога.
+     *
+     * @param log                   Лог Nginx, содержащий информацию о запросе.
+     * @param responseSizeStats     Статистика по размерам ответов.
+     * @param resourceCountMap      Карта, хранящая количество запросов к каждому ресурсу.
+     * @param responseCodeCountMap  Карта, хранящая количество ответов для каждого кода состояния.
+     * @param responseSizeQuantiles Структура для вычисления процентилей размеров ответов.
+     */
+    static void accumulate(
+        NginxLog log,
+        LongSummaryStatistics responseSizeStats,
+        Map<String, Long> resourceCountMap,
+        Map<Integer, Integer> responseCodeCountMap,
+        QuantileSketch responseSizeQuantiles
+    ) {
+        long responseSize = log.responseSize();
+        responseSizeStats.accept(responseSize);
+
+        resourceCountMap.merge(log.resource(), 1L, Long::sum);
+        responseCodeCountMap.merge(log.statusCode(), 1, Integer::sum);
+
+        responseSizeQuantiles.add(responseSize);
+    }
+
+    /**
+     * Записывает накопленную статистику в двоичном виде. Перед записью оценки уникальных IP-адресов
+     * сокращаются до самых популярных ресурсов ({@link #trimDistinctResources()}).
+     *
+     * @param out Поток для записи.
+     * @throws IOException если запись не удалась.
+     */
+    public void writeTo(DataOutput out) throws IOException {
+        trimDistinctResources();
+        out.writeLong(responseSizeStats.getCount());
+        out.writeLong(responseSizeStats.getSum());
+        out.writeLong(responseSizeStats.getMin());
+        out.writeLong(responseSizeStats.getMax());
+        if (resourceHeavyHitters == null) {
+            writeResourceCounts(out);
+        } else {
+            resourceHeavyHitters.writeTo(out);
+        }
+        out.writeInt(responseCodeCountMap.size());
+        for (Map.Entry<Integer, Integer> entry : responseCodeCountMap.entrySet()) {
+            out.writeInt(entry.getKey());
+            out.writeInt(entry.getValue());
+        }
+        responseSizeQuantiles.writeTo(out);
+        if (dimensionCounts != null) {
+            dimensionCounts.writeTo(out);
+        }
+        if (series != null) {
+            series.writeTo(out);
+        }
+        if (distinctCounts != null) {
+            distinctCounts.writeTo(out);
+        }
+    }
+
+    private void writeResourceCounts(DataOutput out) throws IOException {
+        out.writeInt(resourceCountMap.size());
+        for (Map.Entry<String, Long> entry : resourceCountMap.entrySet()) {
+            byte[] resource = entry.getKey().getBytes(StandardCharsets.UTF_8);
+            out.writeInt(resource.length);
+            out.write(resource);
+            out.writeLong(entry.getValue());
+        }
+    }
+
+    /**
+     * Восстанавливает статистику, записанную методом {@link #writeTo(DataOutput)}.
+     *
+     * @param in      Поток для чтения.
+     * @param options Параметры анализа; движок процентилей и подсчет ресурсов должны совпадать с параметрами
+     *                при записи.
+     * @return Накопитель с восстановленной статистикой.
+     * @throws IOException если чтение не удалось.
+     */
+    public static LogAccumulator readFrom(DataInput in, AnalysisOptions options) throws IOException {
+        LogAccumulator accumulator = new LogAccumulator(options);
+        long count = in.readLong();
+        long sum = in.readLong();
+        long min = in.readLong();
+        long max = in.readLong();
+        if (count > 0) {
+            accumulator.responseSizeStats.combine(new LongSummaryStatistics(count, min, max, sum));
+        }
+        if (accumulator.resourceHeavyHitters == null) {
+            int resources = in.readInt();
+            for (int i = 0; i < resources; i++) {
+                byte[] resource = new byte[in.readInt()];
+                in.readFully(resource);
+                accumulator.resourceCountMap.put(new String(resource, StandardCharsets.UTF_8), in.readLong());
+            }
+        } else {
+            accumulator.resourceHeavyHitters.merge(SpaceSaving.readFrom(in));
+        }
+        int codes = in.readInt();
+        for (int i = 0; i < codes; i++) {
+            accumulator.responseCodeCountMap.put(in.readInt(), in.readInt());
+        }
+        accumulator.responseSizeQuantiles = options.quantileEngine().read(in);
+        if (accumulator.dimensionCounts != null) {
+            accumulator.dimensionCounts.combine(DimensionCounts.readFrom(in, options.dimensions()));
+        }
+        if (accumulator.series != null) {
+            accumulator.series.combine(TimeSeries.readFrom(in, options.seriesInterval()));
+        }
+        if (accumulator.distinctCounts != null) {
+            accumulator.distinctCounts.combine(DistinctCounts.readFrom(in));
+        }
+        return accumulator;
+    }
+
+    public LongSummaryStatistics getResponseSizeStats() {
+        return responseSizeStats;
+    }
+
+    /**
+     * @return Количество запросов к каждому ресурсу; при ограниченной памяти — неизменяемая копия
+     *     оценок для отслеживаемых ресурсов.
+     */
+    public Map<String, Long> getResourceCountMap() {
+        return resourceHeavyHitters == null ? resourceCountMap : Map.copyOf(resourceHeavyHitters.counts());
+    }
+
+    /**
+     * @return Оценки количества уникальных IP-адресов и ресурсов или null, если они не вычисляются.
+     */
+    public DistinctCounts getDistinctCounts() {
+        return distinctCounts;
+    }
+
+    /**
+     * @return Временной ряд или null, если интервал ряда не задан.
+     */
+    public TimeSeries getSeries() {
+        return series;
+    }
+
+    /**
+     * @return Счетчики дополнительных разбивок или null, если разбивки не заданы.
+     */
+    public DimensionCounts getDimensionCounts() {
+        return dimensionCounts;
+    }
+
+    /**
+     * @return Структура приближенного подсчета ресурсов или null, если ресурсы считаются точно.
+     */
+    public SpaceSaving getResourceHeavyHitters() {
+        return resourceHeavyHitters;
+    }
+
+    public Map<Integer, Integer> getResponseCodeCountMap() {
+        return responseCodeCountMap;
+    }
+
+    public QuantileSketch getResponseSizeQuantiles() {
+        return responseSizeQuantiles;
+    }
+}
@@ -1,9 +1,64 @@
 package backend.academy.analyzer;
 
+import backend.academy.dimension.Dimension;
+import backend.academy.dimension.LogField;
+import backend.academy.nginx.FieldMask;
+import java.util.Map;
+
 public enum ProcessingMode {
     TIME_AND_FILTER,
     FILTER,
     TIME,
-    NO_FILTERS
-}
+    NO_FILTERS;
 
+    /**
+     * Определяет режим обработки по фильтрам и диапазону дат.
+     *
+     * @param filters   Фильтры по полям записи.
+     * @param startDate Начало диапазона дат или null.
+     * @param endDate   Конец диапазона дат или null.
+     * @return Режим обработки.
+     */
+    public static ProcessingMode of(Map<String, String> filters, String startDate, String endDate) {
+        boolean time = startDate != null && endDate != null;
+        if (time && !filters.isEmpty()) {
+            return TIME_AND_FILTER;
+        } else if (!filters.isEmpty()) {
+            return FILTER;
+        } else if (time) {
+            return TIME;
+        } else {
+            return NO_FILTERS;
+        }
+    }
+
+    /**
+     * Определяет строковые поля записи, которые нужны анализу в этом режиме.
+     * <p>
+     * Статистика всегда использует ресурс; IP-адрес нужен для оценки уникальных значений, время — для
+     * диапазона дат и временного ряда, остальные поля — только если по ним задан фильтр или разбивка.
+     * </p>
+     *
+     * @param filters Фильтры по полям записи.
+     * @param options Параметры анализа.
+     * @return Поля, которые парсер должен копировать из строки лога.
+     */
+    public FieldMask requiredFields(Map<String, String> filters, AnalysisOptions options) {
+        FieldMask fields = FieldMask.NONE.with(FieldMask.RESOURCE);
+        if (options.uniqueCounts()) {
+            fields = fields.with(FieldMask.IP_ADDRESS);
+        }
+        if (this == TIME_AND_FILTER || this == TIME || options.seriesInterval() != null) {
+            fields = fields.with(FieldMask.TIMESTAMP);
+        }
+        for (String field : filters.keySet()) {
+            fields = fields.with(field);
+        }
+        for (Dimension dimension : options.dimensions()) {
+            for (LogField field : dimension.fields()) {
+                fields = fields.with(field.fieldName());
+            }
+        }
+        return fields;
+    }
+}
@@ -2,8 +2,7 @@ package backend.academy.app;
 
 import backend.academy.analyzer.ProcessingMode;
 import backend.academy.nginx.NginxLog;
-import java.util.List;
-import lombok.SneakyThrows;
+import java.util.stream.Stream;
 
 /**
  * Класс {@code App} представляет собой основную точку входа в приложение.
@@ -23,27 +22,52 @@ public final class App {
     /**
      * Запускает процесс анализа логов Nginx.
      * <p>
-     * Метод читает логи, определяет режим обработки на основе настроек
+     * Метод открывает поток логов, определяет режим обработки на основе настроек
      * и вызывает соответствующий метод логики приложения для анализа логов.
+     * Логи не накапливаются в памяти: записи передаются в анализатор по мере чтения.
+     * С флагом {@code --follow} файлы читаются по мере дописывания, а отчет обновляется периодически;
+     * с {@code --checkpoint} разбираются только данные, появившиеся после прошлого запуска.
+     * С {@code --queries} все запросы файла выполняются за один проход, и на каждый записывается свой отчет.
+     * С {@code --cache} повторный запрос по неизменным файлам берется из кэша без чтения логов.
+     * С {@code --serve} логи загружаются в память один раз, а отчеты строятся по HTTP-запросам.
      */
-    @SneakyThrows
     public void run() {
-        List<NginxLog> lines = logic.readNginxLogs();
+        if (logic.isServe()) {
+            logic.serve();
+            return;
+        }
+        if (logic.hasQueries()) {
+            logic.runQueries();
+            return;
+        }
+        if (logic.isFollow()) {
+            logic.follow();
+            return;
+        }
+        if (logic.hasCheckpoint()) {
+            logic.runWithCheckpoint();
+            return;
+        }
+        if (logic.writeCachedReport()) {
+            return;
+        }
         ProcessingMode mode = logic.processingMode();
 
-        switch (mode) {
-            case TIME_AND_FILTER:
-                logic.runWithTimeAndFilter(lines);
-                break;
-            case FILTER:
-                logic.runWithFilter(lines);
-                break;
-            case TIME:
-                logic.runWithTime(lines);
-                break;
-            default:
-                logic.runWithoutFilters(lines);
-                break;
+        try (Stream<NginxLog> lines = logic.streamNginxLogs()) {
+            switch (mode) {
+                case TIME_AND_FILTER:
+                    logic.runWithTimeAndFilter(lines);
+                    break;
+                case FILTER:
+                    logic.runWithFilter(lines);
+                    break;
+                case TIME:
+                    logic.runWithTime(lines);
+                    break;
+                default:
+                    logic.runWithoutFilters(lines);
+                    break;
+            }
         }
     }
 }
@@ -1,24 +1,59 @@
 package backend.academy.app;
 
 import backend.academy.analyzer.Analyzer;
+import backend.academy.analyzer.IncrementalAnalysis;
 import backend.academy.analyzer.ProcessingMode;
+import backend.academy.cache.CachedResult;
+import backend.academy.cache.ResultCache;
+import backend.academy.checkpoint.CheckpointedAnalysis;
+import backend.academy.datefilter.TimeRange;
+import backend.academy.filter.LogFilter;
+import backend.academy.nginx.FieldMask;
 import backend.academy.nginx.NginxLog;
+import backend.academy.query.MultiQueryAnalysis;
+import backend.academy.query.Query;
+import backend.academy.query.QueryFile;
+import backend.academy.readers.LogFileReader;
 import backend.academy.readers.LogReader;
+import backend.academy.readers.LogTailer;
+import backend.academy.readers.RejectedLineCounter;
+import backend.academy.readers.SourceProgress;
+import backend.academy.server.QueryServer;
 import backend.academy.statistic.Metrics;
+import backend.academy.statistic.RejectedLines;
 import backend.academy.writers.ReportWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.nio.file.Path;
+import java.time.Duration;
 import java.util.List;
-import lombok.SneakyThrows;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+import static backend.academy.config.ErrorMessages.CACHE_READ_ERROR;
+import static backend.academy.config.ErrorMessages.INVALID_REFRESH_INTERVAL;
+import static backend.academy.config.ErrorMessages.SERVER_STARTED_MESSAGE;
+import static backend.academy.config.ErrorMessages.SERVER_START_ERROR;
+import static backend.academy.config.ErrorMessages.UNSUPPORTED_QUERIES_MODE;
+import static backend.academy.config.ErrorMessages.UNSUPPORTED_SERVE_MODE;
 
 /**
  * Класс {@code AppLogic} отвечает за основную логику приложения, включая чтение
  * логов Nginx, анализ метрик и генерацию отчетов на основе заданных параметров.
  */
 public final class AppLogic {
+    private static final Logger LOGGER = Logger.getLogger(AppLogic.class.getName());
+    private static final String REPORT_NAME = "report";
 
     private final AppSettings settings;
-    private final Analyzer analyzer = new Analyzer();
+    private final Analyzer analyzer;
     private final ReportWriter reportWriter = new ReportWriter();
     private final LogReader logReader = new LogReader();
+    private ResultCache resultCache;
+    private String cacheKey;
 
     /**
      * Конструктор класса {@code AppLogic}.
@@ -27,56 +62,303 @@ public final class AppLogic {
      */
     public AppLogic(AppSettings settings) {
         this.settings = settings;
+        this.analyzer = new Analyzer(settings.getAnalysisOptions());
     }
 
     /**
-     * Читает логи Nginx из указанных путей в настройках приложения.
+     * Открывает ленивый поток логов Nginx из указанных путей в настройках приложения.
      *
-     * @return список объектов {@code NginxLog}, представляющих прочитанные логи
+     * <p>Записи читаются и разбираются по мере анализа, поэтому объем памяти не зависит
+     * от размера логов. Поток параллельный: файлы и их фрагменты разбираются и агрегируются
+     * на всех ядрах. Источники читаются одновременно, не более {@code --parallelism} задач сразу;
+     * с флагом {@code --progress} ход чтения каждого источника записывается в журнал.
+     * Из строк копируются только поля, нужные фильтрам, разбивкам и отчету ({@link ProcessingMode#requiredFields}).
+     * Условия фильтра на код и размер ответа проверяются еще при разборе строк, а при заданных
+     * {@code --from} и {@code --to} части файлов вне диапазона пропускаются по индексу времени.
+     * Строки неверного формата обрабатываются согласно {@code --invalid-lines}; пропущенные строки
+     * попадают в отчет. Поток необходимо закрыть после использования.</p>
+     *
+     * @return поток объектов {@code NginxLog}, представляющих прочитанные логи
+     */
+    public Stream<NginxLog> streamNginxLogs() {
+        logReader.setPrefilter(LogFilter.compile(settings.getFilter()).statusSize());
+        logReader.setFields(requiredFields());
+        logReader.setParallelism(settings.getParallelism());
+        logReader.setParsePolicy(settings.getParsePolicy());
+        if (settings.getFrom() != null && settings.getTo() != null) {
+            logReader.setTimeRange(TimeRange.of(settings.getFrom(), settings.getTo()));
+        }
+        if (settings.isProgress()) {
+            logReader.setProgressListener(AppLogic::logProgress);
+        }
+        return logReader.streamLogs(settings.getPaths()).parallel();
+    }
+
+    /**
+     * Запускает анализ с продолжением от контрольной точки {@code --checkpoint}.
+     *
+     * <p>Разбираются только байты, дописанные в файлы после прошлого запуска, и новые файлы;
+     * новые записи объединяются с сохраненной статистикой, после чего контрольная точка обновляется.</p>
+     */
+    public void runWithCheckpoint() {
+        CheckpointedAnalysis analysis = new CheckpointedAnalysis(analyzer, settings.getAnalysisOptions(),
+            settings.getFilter(), settings.getFrom(), settings.getTo());
+        analysis.setParsePolicy(settings.getParsePolicy());
+        Metrics metrics = analysis.analyze(settings.getPaths(), Path.of(settings.getCheckpoint()));
+        writeReport(metrics, analysis.getRejectedLines());
+    }
+
+    /**
+     * Выполняет запросы из файла {@code --queries} за один проход по логам и записывает отчет
+     * каждого запроса в файл {@code report-<имя запроса>}.
+     *
+     * <p>Строки читаются и разбираются один раз: из них копируются поля, нужные хотя бы одному запросу,
+     * а при разборе отбрасываются только записи, не нужные ни одному запросу. Каждая запись передается
+     * накопителям запросов, фильтры и диапазон дат которых она проходит ({@link MultiQueryAnalysis}).
+     * Параметры {@code --filter}, {@code --from} и {@code --to} к запросам не применяются.</p>
+     *
+     * @throws IllegalArgumentException если одновременно задан {@code --follow} или {@code --checkpoint}
+     */
+    public void runQueries() {
+        if (isFollow() || hasCheckpoint()) {
+            throw new IllegalArgumentException(UNSUPPORTED_QUERIES_MODE);
+        }
+        List<Query> queries = QueryFile.load(Path.of(settings.getQueries()), settings.getAnalysisOptions(),
+            settings.getFormat());
+        MultiQueryAnalysis analysis = new MultiQueryAnalysis(queries);
+        logReader.setPrefilter(analysis.prefilter());
+        logReader.setFields(analysis.requiredFields());
+        logReader.setTimeRange(analysis.timeRange());
+        logReader.setParallelism(settings.getParallelism());
+        logReader.setParsePolicy(settings.getParsePolicy());
+        if (settings.isProgress()) {
+            logReader.setProgressListener(AppLogic::logProgress);
+        }
+        try (Stream<NginxLog> logs = logReader.streamLogs(settings.getPaths()).parallel()) {
+            analysis.accept(logs);
+        }
+        List<Metrics> metrics = analysis.metrics();
+        Map<String, RejectedLines> rejectedLines = logReader.getRejectedLines().summary();
+        for (int i = 0; i < queries.size(); i++) {
+            Query query = queries.get(i);
+            reportWriter.writeReport(metrics.get(i).withRejectedLines(rejectedLines), query.format(),
+                "report-" + query.name());
+        }
+    }
+
+    /**
+     * Записывает отчет из кэша результатов {@code --cache}, если тот же запрос уже выполнялся
+     * по тем же файлам.
+     *
+     * <p>Ключ кэша зависит от фильтров, дат, формата, параметров анализа и сведений о каждом файле
+     * ({@link ResultCache#key}), поэтому изменение любого файла делает сохраненный результат недоступным.
+     * При промахе ключ запоминается, и отчет, построенный анализом, сохраняется в кэш, если файлы
+     * не изменились за время чтения. Запросы к URL-адресам не кэшируются: их содержимое нельзя
+     * проверить без загрузки.</p>
+     *
+     * @return true, если отчет взят из кэша и анализ не нужен
+     */
+    public boolean writeCachedReport() {
+        if (settings.getCache() == null || settings.getPaths().stream().anyMatch(LogReader::isUrl)) {
+            return false;
+        }
+        resultCache = new ResultCache(Path.of(settings.getCache()), ResultCache.DEFAULT_MEMORY_ENTRIES);
+        String key = cacheKey();
+        CachedResult cached = key == null ? null : resultCache.get(key);
+        if (cached != null) {
+            reportWriter.writeRenderedReport(cached.report(), settings.getFormat(), REPORT_NAME);
+            return true;
+        }
+        cacheKey = key;
+        return false;
+    }
+
+    /**
+     * Загружает логи в память один раз и отвечает на запросы по HTTP до прерывания потока.
+     *
+     * <p>Логи читаются целиком в колоночную таблицу ({@link backend.academy.table.LogTable}); запрос
+     * {@code GET /metrics} с параметрами {@code filter}, {@code from}, {@code to} и {@code format}
+     * только просматривает ее столбцы, без чтения и разбора файлов ({@link QueryServer}).
+     * Параметры анализа берутся из командной строки, а {@code --filter}, {@code --from} и {@code --to}
+     * к запросам не применяются. Сервер принимает подключения на адресе {@code --bind}, а если он не задан —
+     * только с локальной машины.</p>
+     *
+     * @throws IllegalArgumentException если одновременно задан {@code --follow}, {@code --checkpoint}
+     *                                  или {@code --queries}
+     * @throws UncheckedIOException     если адрес не распознан или порт не удалось занять
+     */
+    public void serve() {
+        if (isFollow() || hasCheckpoint() || hasQueries()) {
+            throw new IllegalArgumentException(UNSUPPORTED_SERVE_MODE);
+        }
+        logReader.setParallelism(settings.getParallelism());
+        logReader.setParsePolicy(settings.getParsePolicy());
+        if (settings.isProgress()) {
+            logReader.setProgressListener(AppLogic::logProgress);
+        }
+        try (QueryServer server = new QueryServer(logReader.readTable(settings.getPaths()), analyzer,
+            logReader.getRejectedLines().summary())) {
+            startServer(server);
+            LOGGER.log(Level.INFO,
+                SERVER_STARTED_MESSAGE + " " + server.address().getHostAddress() + ":" + server.port());
+            Thread.currentThread().join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * @return true, если задан порт сервера запросов {@code --serve}
+     */
+    public boolean isServe() {
+        return settings.getServe() != null;
+    }
+
+    /**
+     * @return true, если задан файл запросов {@code --queries}
+     */
+    public boolean hasQueries() {
+        return settings.getQueries() != null;
+    }
+
+    /**
+     * @return true, если задан файл контрольной точки {@code --checkpoint}
+     */
+    public boolean hasCheckpoint() {
+        return settings.getCheckpoint() != null;
+    }
+
+    /**
+     * Следит за дописываемыми файлами логов и обновляет отчет каждые {@code --refresh-interval} секунд.
+     *
+     * <p>При первом обновлении файлы читаются с начала, затем в накопленную статистику добавляются
+     * только новые записи, поэтому ранее прочитанные данные не перечитываются. Ротация файлов
+     * учитывается ({@link LogTailer}). Метод работает до прерывания потока.</p>
+     *
+     * @throws IllegalArgumentException если интервал обновления не положителен
+     */
+    public void follow() {
+        if (settings.getRefreshInterval() < 1) {
+            throw new IllegalArgumentException(INVALID_REFRESH_INTERVAL + " " + settings.getRefreshInterval());
+        }
+        IncrementalAnalysis analysis = new IncrementalAnalysis(analyzer, settings.getAnalysisOptions(),
+            settings.getFilter(), settings.getFrom(), settings.getTo());
+        Duration interval = Duration.ofSeconds(settings.getRefreshInterval());
+        try (LogTailer tailer = new LogTailer()) {
+            tailer.setPrefilter(LogFilter.compile(settings.getFilter()).statusSize());
+            tailer.setFields(requiredFields());
+            tailer.setParsePolicy(settings.getParsePolicy());
+            while (!Thread.currentThread().isInterrupted()) {
+                try (Stream<NginxLog> logs = tailer.streamLogs(settings.getPaths())) {
+                    analysis.accept(logs);
+                }
+                writeReport(analysis.metrics(), tailer.getRejectedLines());
+                Thread.sleep(interval);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Записывает отчет, добавляя к метрикам строки неверного формата, отброшенные при чтении.
+     */
+    private void writeReport(Metrics metrics, RejectedLineCounter rejectedLines) {
+        Metrics result = metrics.withRejectedLines(rejectedLines.summary());
+        String report = reportWriter.render(result, settings.getFormat());
+        reportWriter.writeRenderedReport(report, settings.getFormat(), REPORT_NAME);
+        if (cacheKey != null && cacheKey.equals(cacheKey())) {
+            resultCache.put(cacheKey, new CachedResult(result, report));
+        }
+    }
+
+    /**
+     * Вычисляет ключ кэша результатов по текущему состоянию файлов.
+     *
+     * @return ключ или null, если сведения о файлах не удалось получить
      */
-    @SneakyThrows
-    public List<NginxLog> readNginxLogs() {
-        return logReader.readLogs(settings.getPaths());
+    private String cacheKey() {
+        try {
+            return ResultCache.key(cacheQuery(), new LogFileReader().listFiles(settings.getPaths()));
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, CACHE_READ_ERROR + " " + settings.getCache(), e);
+            return null;
+        }
+    }
+
+    /**
+     * Нормализованное описание запроса: порядок фильтров и регистр формата не влияют на результат.
+     */
+    private String cacheQuery() {
+        String format = "markdown".equalsIgnoreCase(settings.getFormat()) ? "markdown" : "adoc";
+        return "filters=" + new TreeMap<>(settings.getFilter())
+            + ";from=" + settings.getFrom()
+            + ";to=" + settings.getTo()
+            + ";format=" + format
+            + ";options=" + settings.getAnalysisOptions()
+            + ";invalid-lines=" + settings.getParsePolicy();
+    }
+
+    private void startServer(QueryServer server) {
+        String bind = settings.getBind() == null
+            ? InetAddress.getLoopbackAddress().getHostAddress() : settings.getBind();
+        try {
+            server.start(InetAddress.getByName(bind), settings.getServe());
+        } catch (IOException e) {
+            throw new UncheckedIOException(SERVER_START_ERROR + " " + bind + ":" + settings.getServe(), e);
+        }
+    }
+
+    private static void logProgress(SourceProgress progress) {
+        LOGGER.log(Level.INFO, progress.source() + ": " + progress.state() + " " + progress.tasksDone() + "/"
+            + progress.tasks() + ", " + progress.records());
     }
 
     /**
      * Запускает анализ логов с учетом временного диапазона и фильтра.
      *
-     * @param lines список объектов {@code NginxLog}, представляющих логи для анализа
+     * @param lines поток объектов {@code NginxLog}, представляющих логи для анализа
      */
-    public void runWithTimeAndFilter(List<NginxLog> lines) {
+    public void runWithTimeAndFilter(Stream<NginxLog> lines) {
         Metrics metrics = analyzer.analyze(lines, settings.getFilter(), settings.getFrom(), settings.getTo());
-        reportWriter.writeReport(metrics, settings.getFormat());
+        writeReport(metrics, logReader.getRejectedLines());
     }
 
     /**
      * Запускает анализ логов с учетом фильтра.
      *
-     * @param lines список объектов {@code NginxLog}, представляющих логи для анализа
+     * @param lines поток объектов {@code NginxLog}, представляющих логи для анализа
      */
-    public void runWithFilter(List<NginxLog> lines) {
+    public void runWithFilter(Stream<NginxLog> lines) {
         Metrics metrics = analyzer.analyze(lines, settings.getFilter());
-        reportWriter.writeReport(metrics, settings.getFormat());
+        writeReport(metrics, logReader.getRejectedLines());
     }
 
     /**
      * Запускает анализ логов с учетом временного диапазона.
      *
-     * @param lines список объектов {@code NginxLog}, представляющих логи для анализа
+     * @param lines поток объектов {@code NginxLog}, представляющих логи для анализа
      */
-    public void runWithTime(List<NginxLog> lines) {
+    public void runWithTime(Stream<NginxLog> lines) {
         Metrics metrics = analyzer.analyze(lines, settings.getFrom(), settings.getTo());
-        reportWriter.writeReport(metrics, settings.getFormat());
+        writeReport(metrics, logReader.getRejectedLines());
     }
 
     /**
      * Запускает анализ логов без фильтров.
      *
-     * @param lines список объектов {@code NginxLog}, представляющих логи для анализа
+     * @param lines поток объектов {@code NginxLog}, представляющих логи для анализа
      */
-    public void runWithoutFilters(List<NginxLog> lines) {
+    public void runWithoutFilters(Stream<NginxLog> lines) {
         Metrics metrics = analyzer.analyze(lines);
-        reportWriter.writeReport(metrics, settings.getFormat());
+        writeReport(metrics, logReader.getRejectedLines());
+    }
+
+    /**
+     * @return true, если задан режим слежения за файлами {@code --follow}
+     */
+    public boolean isFollow() {
+        return settings.isFollow();
     }
 
     /**
@@ -85,15 +367,14 @@ public final class AppLogic {
      * @return режим обработки {@code ProcessingMode}, определяющий способ анализа логов
      */
     public ProcessingMode processingMode() {
-        if (settings.getFrom() != null && settings.getTo() != null && !settings.getFilter().isEmpty()) {
-            return ProcessingMode.TIME_AND_FILTER;
-        } else if (!settings.getFilter().isEmpty()) {
-            return ProcessingMode.FILTER;
-        } else if (settings.getFrom() != null && settings.getTo() != null) {
-            return ProcessingMode.TIME;
-        } else {
-            return ProcessingMode.NO_FILTERS;
-        }
+        return ProcessingMode.of(settings.getFilter(), settings.getFrom(), settings.getTo());
+    }
+
+    /**
+     * @return строковые поля записи, которые нужны анализу при заданных фильтрах, датах и разбивках
+     */
+    private FieldMask requiredFields() {
+        return processingMode().requiredFields(settings.getFilter(), settings.getAnalysisOptions());
     }
 }
 
@@ -1,13 +1,22 @@
 package backend.academy.app;
 
+import backend.academy.analyzer.AnalysisOptions;
+import backend.academy.dimension.Dimension;
+import backend.academy.filter.LogFilter;
+import backend.academy.nginx.ParsePolicy;
+import backend.academy.quantile.QuantileEngine;
+import backend.academy.readers.ConcurrentLogReader;
+import backend.academy.series.SeriesInterval;
 import com.beust.jcommander.Parameter;
 import com.beust.jcommander.Parameters;
-import java.util.HashMap;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 
 @Parameters(separators = "=")
 public final class AppSettings {
+    public static final int DEFAULT_REFRESH_INTERVAL = 5;
+
     @Parameter(names = "--path", required = true, description = "Пути к файлам логов")
     private List<String> paths;
 
@@ -23,17 +32,68 @@ public final class AppSettings {
     @Parameter(names = "--filter", description = "Фильтры в формате field-value")
     private List<String> filters;
 
+    @Parameter(names = "--quantile-engine", description = "Движок процентилей (exact, hdr, tdigest)")
+    private QuantileEngine quantileEngine = AnalysisOptions.DEFAULT.quantileEngine();
+
+    @Parameter(names = "--percentiles", description = "Дополнительные процентили через запятую (например, 99,99.9)")
+    private List<Double> percentiles = new ArrayList<>();
+
+    @Parameter(names = "--resource-capacity",
+        description = "Число счетчиков для приближенного топа ресурсов в ограниченной памяти (0 — точный подсчет)")
+    private int resourceCapacity;
+
+    @Parameter(names = "--top", description = "Количество строк в топах ресурсов, кодов ответа и разбивок")
+    private int topSize = AnalysisOptions.DEFAULT_TOP_SIZE;
+
+    @Parameter(names = "--dimension",
+        description = "Дополнительные разбивки: поля через запятую, сочетание двух полей через +"
+            + " (например, ipAddress,requestMethod+statusCode)")
+    private List<String> dimensions = new ArrayList<>();
+
+    @Parameter(names = "--series", description = "Интервал временного ряда в отчете (minute, hour, day)")
+    private SeriesInterval seriesInterval;
+
+    @Parameter(names = "--unique",
+        description = "Оценивать количество уникальных IP-адресов и ресурсов, в том числе по самым популярным ресурсам")
+    private boolean uniqueCounts;
+
+    @Parameter(names = "--invalid-lines",
+        description = "Строки неверного формата: skip — пропустить и учесть в отчете, strict — прервать анализ")
+    private ParsePolicy parsePolicy = ParsePolicy.SKIP;
+
+    @Parameter(names = "--parallelism", description = "Число одновременно читаемых фрагментов файлов и URL-адресов")
+    private int parallelism = ConcurrentLogReader.DEFAULT_PARALLELISM;
+
+    @Parameter(names = "--progress", description = "Выводить ход чтения каждого источника")
+    private boolean progress;
+
+    @Parameter(names = "--follow", description = "Следить за дописываемыми файлами и периодически обновлять отчет")
+    private boolean follow;
+
+    @Parameter(names = "--checkpoint", description = "Файл контрольной точки для повторного анализа только новых данных")
+    private String checkpoint;
+
+    @Parameter(names = "--queries",
+        description = "Файл именованных запросов, выполняемых за один проход (отчет на каждый запрос)")
+    private String queries;
+
+    @Parameter(names = "--cache",
+        description = "Директория кэша результатов: повторный запрос по неизменным файлам не перечитывает логи")
+    private String cache;
+
+    @Parameter(names = "--serve",
+        description = "Порт HTTP-сервера: логи загружаются в память один раз, отчеты строятся по запросам")
+    private Integer serve;
+
+    @Parameter(names = "--bind",
+        description = "Адрес сервера --serve; по умолчанию 127.0.0.1 (только локальные подключения), 0.0.0.0 — все")
+    private String bind;
+
+    @Parameter(names = "--refresh-interval", description = "Интервал обновления отчета в режиме --follow, секунды")
+    private int refreshInterval = DEFAULT_REFRESH_INTERVAL;
+
     public Map<String, String> getFilter() {
-        Map<String, String> filterMap = new HashMap<>();
-        if (filters != null) {
-            for (String filter : filters) {
-                String[] parts = filter.split("-");
-                if (parts.length == 2) {
-                    filterMap.put(parts[0], parts[1]);
-                }
-            }
-        }
-        return filterMap;
+        return LogFilter.parseArguments(filters == null ? List.of() : filters);
     }
 
     public List<String> getPaths() {
@@ -51,6 +111,51 @@ public final class AppSettings {
     public String getFormat() {
         return format;
     }
+
+    public ParsePolicy getParsePolicy() {
+        return parsePolicy;
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    public boolean isProgress() {
+        return progress;
+    }
+
+    public boolean isFollow() {
+        return follow;
+    }
+
+    public String getCheckpoint() {
+        return checkpoint;
+    }
+
+    public String getQueries() {
+        return queries;
+    }
+
+    public String getCache() {
+        return cache;
+    }
+
+    public Integer getServe() {
+        return serve;
+    }
+
+    public String getBind() {
+        return bind;
+    }
+
+    public int getRefreshInterval() {
+        return refreshInterval;
+    }
+
+    public AnalysisOptions getAnalysisOptions() {
+        return new AnalysisOptions(quantileEngine, percentiles, resourceCapacity, topSize,
+            dimensions.stream().map(Dimension::parse).toList(), seriesInterval, uniqueCounts);
+    }
 }
 
 
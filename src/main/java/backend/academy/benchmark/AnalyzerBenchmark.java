@@ -0,0 +1,138 @@
+package backend.academy.benchmark;
+
+import backend.academy.analyzer.AnalysisOptions;
+import backend.academy.analyzer.AnalyzerLogic;
+import backend.academy.filter.LogFilter;
+import backend.academy.nginx.NginxLog;
+import backend.academy.nginx.NginxLogParser;
+import backend.academy.quantile.QuantileSketch;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.LongSummaryStatistics;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Горячие методы {@link AnalyzerLogic}: проверка фильтра, обработка записи и выбор популярных ресурсов.
+ * <p>
+ * Записи берутся по кругу из синтетического лога. Фильтр задается параметром {@code filter}
+ * в виде значения {@code --filter}, число различных ресурсов для
+ * {@code findMostPopularResources} — параметром {@code resources}. Параметры вынесены
+ * в отдельные состояния, чтобы каждый бенчмарк запускался только со своими параметрами.
+ * </p>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AnalyzerBenchmark {
+    private static final int LINES = 100_000;
+    private static final long SEED = 42;
+    private static final int MAX_RESOURCE_COUNT = 10_000;
+
+    private final ExposedAnalyzerLogic analyzer = new ExposedAnalyzerLogic();
+    private NginxLog[] logs;
+    private int index;
+
+    private LongSummaryStatistics responseSizeStats;
+    private Map<String, Long> processedResources;
+    private Map<Integer, Integer> processedCodes;
+    private QuantileSketch responseSizeQuantiles;
+
+    @Setup
+    public void setUp() throws IOException {
+        String[] lines = SyntheticLogs.lines(LINES);
+        logs = new NginxLog[lines.length];
+        for (int i = 0; i < lines.length; i++) {
+            logs[i] = NginxLogParser.parseLogLine(lines[i]);
+        }
+
+        responseSizeStats = new LongSummaryStatistics();
+        processedResources = new HashMap<>();
+        processedCodes = new HashMap<>();
+        responseSizeQuantiles = AnalysisOptions.DEFAULT.quantileEngine().create();
+    }
+
+    @Benchmark
+    public boolean applyFilters(Filters filters) {
+        return analyzer.matches(logs[nextIndex()], filters.logFilter);
+    }
+
+    @Benchmark
+    public long processLog() {
+        analyzer.processLog(logs[nextIndex()], responseSizeStats, processedResources, processedCodes,
+            responseSizeQuantiles);
+        return responseSizeStats.getCount();
+    }
+
+    @Benchmark
+    public Map<String, Long> findMostPopularResources(Resources resources) {
+        return analyzer.findMostPopularResources(resources.resourceCountMap);
+    }
+
+    private int nextIndex() {
+        int current = index;
+        index = (index + 1) % logs.length;
+        return current;
+    }
+
+    /**
+     * Фильтр, скомпилированный из значения {@code --filter}.
+     */
+    @State(Scope.Thread)
+    public static class Filters {
+        @Param({"statusCode-4xx", "resource-glob:/downloads/*", "ipAddress-80.91.0.0/16"})
+        public String filter;
+
+        private LogFilter logFilter;
+
+        @Setup
+        public void setUp() {
+            String[] setting = filter.split("-", 2);
+            logFilter = LogFilter.compile(Map.of(setting[0], setting[1]));
+        }
+    }
+
+    /**
+     * Счетчики запросов к заданному числу различных ресурсов.
+     */
+    @State(Scope.Thread)
+    public static class Resources {
+        @Param({"100", "100000"})
+        public int resources;
+
+        private Map<String, Long> resourceCountMap;
+
+        @Setup
+        public void setUp() {
+            SplittableRandom random = new SplittableRandom(SEED);
+            resourceCountMap = new HashMap<>();
+            for (int i = 0; i < resources; i++) {
+                resourceCountMap.put("/downloads/product_" + i, (long) random.nextInt(MAX_RESOURCE_COUNT));
+            }
+        }
+    }
+
+    /**
+     * Открывает защищенный {@link AnalyzerLogic#applyFilters} для бенчмарка.
+     */
+    private static final class ExposedAnalyzerLogic extends AnalyzerLogic {
+        boolean matches(NginxLog log, LogFilter filter) {
+            return applyFilters(log, filter);
+        }
+    }
+}
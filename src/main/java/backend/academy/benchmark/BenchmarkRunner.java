@@ -0,0 +1,32 @@
+package backend.academy.benchmark;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Запуск всех бенчмарков пакета с записью результатов в JSON.
+ * <p>
+ * Аргументы: путь к файлу результатов (по умолчанию {@code target/jmh-result.json}) и
+ * регулярное выражение для выбора бенчмарков (по умолчанию все бенчмарки пакета).
+ * Файлы результатов разных версий сравниваются, например, в JMH Visualizer.
+ * </p>
+ */
+public final class BenchmarkRunner {
+    private static final String DEFAULT_RESULT = "target/jmh-result.json";
+
+    private BenchmarkRunner() {
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        String result = args.length > 0 ? args[0] : DEFAULT_RESULT;
+        String include = args.length > 1 ? args[1] : BenchmarkRunner.class.getPackageName() + ".";
+        new Runner(new OptionsBuilder()
+            .include(include)
+            .resultFormat(ResultFormatType.JSON)
+            .result(result)
+            .build())
+            .run();
+    }
+}
@@ -0,0 +1,76 @@
+package backend.academy.benchmark;
+
+import backend.academy.datefilter.DateFilter;
+import backend.academy.datefilter.TimestampDecoder;
+import backend.academy.nginx.NginxLogParser;
+import java.io.IOException;
+import java.time.OffsetDateTime;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Проверка времени записи фильтром {@link DateFilter}.
+ * <p>
+ * {@code isWithinRangeTimestamp} декодирует строку времени на каждой проверке,
+ * {@code isWithinRangeEpochSecond} сравнивает заранее декодированные секунды, как колоночная
+ * таблица, а {@code formatterParse} показывает стоимость разбора через {@link OffsetDateTime}.
+ * </p>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DateFilterBenchmark {
+    private static final int LINES = 100_000;
+    private static final String FROM = "18/May/2015:00:00:00 +0000";
+    private static final String TO = "25/May/2015:00:00:00 +0000";
+
+    private final DateFilter dateFilter = new DateFilter();
+    private String[] timestamps;
+    private long[] epochSeconds;
+    private int index;
+
+    @Setup
+    public void setUp() throws IOException {
+        dateFilter.setDateFromTo(FROM, TO);
+        String[] lines = SyntheticLogs.lines(LINES);
+        timestamps = new String[lines.length];
+        epochSeconds = new long[lines.length];
+        for (int i = 0; i < lines.length; i++) {
+            timestamps[i] = NginxLogParser.parseLogLine(lines[i]).timestamp();
+            epochSeconds[i] = TimestampDecoder.toEpochSecond(timestamps[i]);
+        }
+    }
+
+    @Benchmark
+    public boolean isWithinRangeTimestamp() {
+        return dateFilter.isWithinRange(timestamps[nextIndex()]);
+    }
+
+    @Benchmark
+    public boolean isWithinRangeEpochSecond() {
+        return dateFilter.isWithinRange(epochSeconds[nextIndex()]);
+    }
+
+    @Benchmark
+    public OffsetDateTime formatterParse() {
+        return OffsetDateTime.parse(timestamps[nextIndex()], TimestampDecoder.FORMATTER);
+    }
+
+    private int nextIndex() {
+        int current = index;
+        index = (index + 1) % timestamps.length;
+        return current;
+    }
+}
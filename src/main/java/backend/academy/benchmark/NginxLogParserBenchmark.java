@@ -0,0 +1,88 @@
+package backend.academy.benchmark;
+
+import backend.academy.filter.StatusSizePredicate;
+import backend.academy.nginx.FieldMask;
+import backend.academy.nginx.NginxLog;
+import backend.academy.nginx.NginxLogParser;
+import backend.academy.nginx.RegexNginxLogParser;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Сравнение однопроходного {@link NginxLogParser} с парсером на регулярном выражении.
+ * <p>
+ * Вариант {@code regexCompiledPerLine} воспроизводит прежнее поведение, при котором шаблон
+ * компилировался для каждой строки, {@code regexPrecompiled} показывает стоимость самого
+ * сопоставления, {@code handWrittenProjected} копирует только поля типичного отчета (IP-адрес
+ * и ресурс). Строки берутся из {@code Files/logs.txt} по кругу.
+ * </p>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NginxLogParserBenchmark {
+    private static final Path SAMPLE_LOG = Path.of("src/main/java/backend/academy/Files/logs.txt");
+    private static final FieldMask REPORT_FIELDS = FieldMask.NONE.with(FieldMask.IP_ADDRESS).with(FieldMask.RESOURCE);
+
+    private String[] lines;
+    private int index;
+
+    @Setup
+    public void setUp() throws IOException {
+        lines = Files.readAllLines(SAMPLE_LOG, StandardCharsets.UTF_8).toArray(String[]::new);
+    }
+
+    @Benchmark
+    public NginxLog handWritten() {
+        return NginxLogParser.parseLogLine(nextLine());
+    }
+
+    @Benchmark
+    public NginxLog handWrittenProjected() {
+        return NginxLogParser.tryParseLogLine(nextLine(), StatusSizePredicate.ALWAYS, REPORT_FIELDS);
+    }
+
+    @Benchmark
+    public NginxLog regexPrecompiled() {
+        return RegexNginxLogParser.parseLogLine(nextLine());
+    }
+
+    @Benchmark
+    public NginxLog regexCompiledPerLine() {
+        Pattern pattern = Pattern.compile(RegexNginxLogParser.NGINX_LOG_PATTERN);
+        return RegexNginxLogParser.parseLogLine(nextLine(), pattern);
+    }
+
+    private String nextLine() {
+        String line = lines[index];
+        index = (index + 1) % lines.length;
+        return line;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+            .include(NginxLogParserBenchmark.class.getSimpleName())
+            .build())
+            .run();
+    }
+}
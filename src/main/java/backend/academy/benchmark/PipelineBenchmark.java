@@ -0,0 +1,84 @@
+package backend.academy.benchmark;
+
+import backend.academy.analyzer.Analyzer;
+import backend.academy.nginx.NginxLog;
+import backend.academy.readers.LogFileReader;
+import backend.academy.reportformats.MarkdownFormater;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Полный путь от файла до отчета: {@link LogFileReader} → {@link Analyzer} → {@link MarkdownFormater}.
+ * <p>
+ * Синтетический лог из {@code lines} строк записывается во временный файл один раз на запуск.
+ * {@code sequential} и {@code parallel} анализируют поток записей так же, как приложение без фильтров,
+ * {@code filtered} — с фильтром и диапазоном дат.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class PipelineBenchmark {
+    private static final Map<String, String> FILTERS = Map.of("statusCode", "4xx");
+    private static final String FROM = "18/May/2015:00:00:00 +0000";
+    private static final String TO = "25/May/2015:00:00:00 +0000";
+
+    @Param({"100000", "1000000", "5000000"})
+    public int lines;
+
+    private final Analyzer analyzer = new Analyzer();
+    private final MarkdownFormater formater = new MarkdownFormater();
+    private List<String> paths;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        paths = List.of(SyntheticLogs.write(lines).toString());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(Path.of(paths.getFirst()));
+    }
+
+    @Benchmark
+    public String sequential() {
+        try (Stream<NginxLog> logs = new LogFileReader().streamLogs(paths)) {
+            return formater.format(analyzer.analyze(logs));
+        }
+    }
+
+    @Benchmark
+    public String parallel() {
+        try (Stream<NginxLog> logs = new LogFileReader().streamLogs(paths).parallel()) {
+            return formater.format(analyzer.analyze(logs));
+        }
+    }
+
+    @Benchmark
+    public String filtered() {
+        try (Stream<NginxLog> logs = new LogFileReader().streamLogs(paths).parallel()) {
+            return formater.format(analyzer.analyze(logs, FILTERS, FROM, TO));
+        }
+    }
+}
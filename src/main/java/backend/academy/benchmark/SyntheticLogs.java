@@ -0,0 +1,103 @@
+package backend.academy.benchmark;
+
+import backend.academy.datefilter.TimestampDecoder;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Синтетические логи для бенчмарков, масштабированные из {@code Files/logs*.txt}.
+ * <p>
+ * Строки образцов повторяются по кругу; в каждом следующем повторе время записи сдвигается
+ * на {@link #COPY_SHIFT_SECONDS}, поэтому распределение ресурсов, кодов и размеров ответов
+ * совпадает с образцами, а диапазон времени растет вместе с объемом.
+ * </p>
+ */
+final class SyntheticLogs {
+    static final Path SAMPLE_DIR = Path.of("src/main/java/backend/academy/Files");
+    static final long COPY_SHIFT_SECONDS = 3600;
+
+    private static final String SAMPLE_GLOB = "logs*.txt";
+
+    private SyntheticLogs() {
+    }
+
+    /**
+     * @return Строки всех образцов в порядке имен файлов.
+     * @throws IOException если образцы не удалось прочитать.
+     */
+    static List<String> sampleLines() throws IOException {
+        List<Path> samples = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(SAMPLE_DIR, SAMPLE_GLOB)) {
+            files.forEach(samples::add);
+        }
+        samples.sort(null);
+        List<String> lines = new ArrayList<>();
+        for (Path sample : samples) {
+            Files.readAllLines(sample, StandardCharsets.UTF_8).stream()
+                .filter(line -> !line.isBlank())
+                .forEach(lines::add);
+        }
+        return lines;
+    }
+
+    /**
+     * @param count Количество строк.
+     * @return Синтетические строки лога.
+     * @throws IOException если образцы не удалось прочитать.
+     */
+    static String[] lines(int count) throws IOException {
+        List<String> samples = sampleLines();
+        String[] lines = new String[count];
+        for (int i = 0; i < count; i++) {
+            lines[i] = shift(samples.get(i % samples.size()), i / samples.size() * COPY_SHIFT_SECONDS);
+        }
+        return lines;
+    }
+
+    /**
+     * Записывает синтетический лог во временный файл, удаляемый при завершении JVM.
+     *
+     * @param count Количество строк.
+     * @return Путь к файлу.
+     * @throws IOException если файл не удалось записать.
+     */
+    static Path write(int count) throws IOException {
+        List<String> samples = sampleLines();
+        Path file = Files.createTempFile("synthetic-nginx-", ".log");
+        file.toFile().deleteOnExit();
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            for (int i = 0; i < count; i++) {
+                writer.write(shift(samples.get(i % samples.size()), i / samples.size() * COPY_SHIFT_SECONDS));
+                writer.newLine();
+            }
+        }
+        return file;
+    }
+
+    /**
+     * Сдвигает время в строке лога на заданное число секунд.
+     */
+    private static String shift(String line, long seconds) {
+        if (seconds == 0) {
+            return line;
+        }
+        int start = line.indexOf('[');
+        int end = line.indexOf(']', start + 1);
+        if (start < 0 || end < 0) {
+            return line;
+        }
+        String timestamp = line.substring(start + 1, end);
+        long epochSecond = TimestampDecoder.decodeFixedLayout(timestamp);
+        if (epochSecond == TimestampDecoder.NOT_FIXED_LAYOUT) {
+            return line;
+        }
+        String shifted = TimestampDecoder.format(epochSecond + seconds, TimestampDecoder.offsetSeconds(timestamp));
+        return line.substring(0, start + 1) + shifted + line.substring(end);
+    }
+}
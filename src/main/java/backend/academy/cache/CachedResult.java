@@ -0,0 +1,12 @@
+package backend.academy.cache;
+
+import backend.academy.statistic.Metrics;
+
+/**
+ * Сохраненный результат анализа: метрики и отчет, отформатированный по ним.
+ *
+ * @param metrics Метрики, включая строки неверного формата, отброшенные при чтении.
+ * @param report  Текст отчета в формате запроса.
+ */
+public record CachedResult(Metrics metrics, String report) {
+}
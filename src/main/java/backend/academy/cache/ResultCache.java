@@ -0,0 +1,135 @@
+package backend.academy.cache;
+
+import backend.academy.checkpoint.FileCheckpoint;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import static backend.academy.config.ErrorMessages.CACHE_READ_ERROR;
+import static backend.academy.config.ErrorMessages.CACHE_WRITE_ERROR;
+
+/**
+ * Кэш результатов анализа в директории на диске с промежуточным слоем в памяти процесса.
+ *
+ * <p>Ключ — хеш SHA-256 от нормализованного описания запроса (пути, фильтры, даты, формат,
+ * параметры анализа) и сведений о каждом файле: размера, времени изменения и контрольной суммы
+ * начала файла ({@link FileCheckpoint}). Дописанный, перезаписанный, удаленный или новый файл
+ * в директории меняет ключ, поэтому устаревший результат никогда не возвращается, а просто
+ * перестает запрашиваться.</p>
+ *
+ * <p>Каждый результат хранится в отдельном файле JSON {@code <ключ>.json}; файл записывается
+ * во временный файл рядом и атомарно переименовывается. Поврежденный файл считается отсутствующим.
+ * Последние результаты дополнительно хранятся в памяти ({@link Caffeine}), что полезно, когда
+ * один процесс выполняет много запросов.</p>
+ */
+public final class ResultCache {
+    public static final int DEFAULT_MEMORY_ENTRIES = 64;
+
+    private static final Logger LOGGER = Logger.getLogger(ResultCache.class.getName());
+    private static final String VERSION = "1";
+    private static final String SUFFIX = ".json";
+    private static final String TEMPORARY_SUFFIX = ".tmp";
+
+    private final Path directory;
+    private final Cache<String, CachedResult> memory;
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    /**
+     * @param directory     Директория кэша; создается при первой записи.
+     * @param memoryEntries Число результатов, хранимых в памяти.
+     */
+    public ResultCache(Path directory, int memoryEntries) {
+        this.directory = directory;
+        this.memory = Caffeine.newBuilder().maximumSize(memoryEntries).build();
+    }
+
+    /**
+     * Вычисляет ключ результата.
+     *
+     * @param query Нормализованное описание запроса: одинаковые запросы должны давать одинаковую строку.
+     * @param files Файлы логов, по которым выполняется запрос.
+     * @return Ключ в шестнадцатеричном виде.
+     * @throws IOException если сведения о файле не удалось получить.
+     */
+    public static String key(String query, List<Path> files) throws IOException {
+        MessageDigest digest = sha256();
+        update(digest, "version=" + VERSION);
+        update(digest, query);
+        for (Path file : files) {
+            FileCheckpoint checkpoint = FileCheckpoint.of(file, Files.size(file));
+            update(digest, checkpoint.path() + ";" + checkpoint.size() + ";" + checkpoint.lastModified() + ";"
+                + checkpoint.fingerprint());
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    /**
+     * @param key Ключ результата.
+     * @return Сохраненный результат или null, если его нет или файл поврежден.
+     */
+    public CachedResult get(String key) {
+        CachedResult cached = memory.getIfPresent(key);
+        if (cached != null) {
+            return cached;
+        }
+        Path file = directory.resolve(key + SUFFIX);
+        try (InputStream in = Files.newInputStream(file)) {
+            cached = mapper.readValue(in, CachedResult.class);
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException | RuntimeException e) {
+            LOGGER.log(Level.WARNING, CACHE_READ_ERROR + " " + file, e);
+            return null;
+        }
+        memory.put(key, cached);
+        return cached;
+    }
+
+    /**
+     * Сохраняет результат в памяти и на диске. Ошибка записи на диск записывается в журнал.
+     *
+     * @param key    Ключ результата.
+     * @param result Результат.
+     */
+    public void put(String key, CachedResult result) {
+        memory.put(key, result);
+        Path file = directory.resolve(key + SUFFIX).toAbsolutePath();
+        Path temporary = file.resolveSibling(file.getFileName() + TEMPORARY_SUFFIX);
+        try {
+            Files.createDirectories(file.getParent());
+            try (OutputStream out = Files.newOutputStream(temporary)) {
+                mapper.writeValue(out, result);
+            }
+            Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, CACHE_WRITE_ERROR + " " + file, e);
+        }
+    }
+
+    private static void update(MessageDigest digest, String value) {
+        digest.update(value.getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) '\n');
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            // SHA-256 входит в обязательный набор алгоритмов платформы Java
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package backend.academy.cardinality;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+import java.util.function.ToLongFunction;
+
+/**
+ * Оценки количества уникальных IP-адресов и ресурсов, а также уникальных IP-адресов каждого ресурса.
+ * <p>
+ * Каждое множество оценивается структурой {@link HyperLogLog}: общие оценки занимают по несколько
+ * килобайт независимо от количества записей, а оценки по ресурсам начинают с разреженного списка
+ * и растут до того же размера только у ресурсов с большим числом посетителей. Хеш IP-адреса
+ * вычисляется один раз на запись и используется в обеих оценках.
+ * </p>
+ * <p>
+ * Число оценок по ресурсам ограничивает владелец экземпляра методами {@link #retainResources(Predicate)}
+ * и {@link #retainTopResources(int, ToLongFunction)}, оставляя их только для самых популярных ресурсов.
+ * Оценки другого экземпляра копируются, а не сохраняются по ссылке.
+ * </p>
+ * <p>
+ * Экземпляр не потокобезопасен; экземпляры, заполненные в разных потоках, объединяются методом
+ * {@link #combine(DistinctCounts)}.
+ * </p>
+ */
+public final class DistinctCounts {
+    private final HyperLogLog ipAddresses = new HyperLogLog();
+    private final HyperLogLog resources = new HyperLogLog();
+    private final Map<String, HyperLogLog> ipAddressesByResource = new HashMap<>();
+
+    /**
+     * Учитывает запрос IP-адреса к ресурсу.
+     *
+     * @param ipAddress IP-адрес.
+     * @param resource  Ресурс.
+     */
+    public void accept(String ipAddress, String resource) {
+        long ipHash = HyperLogLog.hash(ipAddress);
+        ipAddresses.addHash(ipHash);
+        resources.add(resource);
+        ipAddressesByResource.computeIfAbsent(resource, key -> new HyperLogLog()).addHash(ipHash);
+    }
+
+    /**
+     * Учитывает IP-адрес по его хешу, вычисленному методом {@link HyperLogLog#hash(String)}.
+     *
+     * @param ipHash Хеш IP-адреса.
+     */
+    public void addIpAddressHash(long ipHash) {
+        ipAddresses.addHash(ipHash);
+    }
+
+    /**
+     * Учитывает ресурс вместе с оценкой уникальных IP-адресов, запрашивавших его.
+     *
+     * @param resource    Ресурс.
+     * @param ipAddresses Оценка уникальных IP-адресов ресурса или null, если оценка для ресурса не хранится;
+     *                    не изменяется.
+     */
+    public void addResource(String resource, HyperLogLog ipAddresses) {
+        resources.add(resource);
+        if (ipAddresses != null) {
+            ipAddressesByResource.computeIfAbsent(resource, key -> new HyperLogLog()).merge(ipAddresses);
+        }
+    }
+
+    /**
+     * Добавляет к текущим оценкам оценки другого экземпляра.
+     *
+     * @param other Оценки, которые добавляются к текущим.
+     * @return Текущий экземпляр с объединенными оценками.
+     */
+    public DistinctCounts combine(DistinctCounts other) {
+        ipAddresses.merge(other.ipAddresses);
+        resources.merge(other.resources);
+        other.ipAddressesByResource.forEach((resource, sketch) ->
+            ipAddressesByResource.computeIfAbsent(resource, key -> new HyperLogLog()).merge(sketch));
+        return this;
+    }
+
+    /**
+     * Удаляет оценки по ресурсам, не удовлетворяющим условию. Общие оценки не изменяются.
+     *
+     * @param keep Условие на ресурс, оценку которого нужно сохранить.
+     */
+    public void retainResources(Predicate<String> keep) {
+        ipAddressesByResource.keySet().removeIf(keep.negate());
+    }
+
+    /**
+     * Оставляет оценки только для {@code limit} ресурсов с наибольшим весом. Общие оценки не изменяются.
+     *
+     * @param limit  Наибольшее количество оценок по ресурсам.
+     * @param weight Вес ресурса, например количество запросов к нему.
+     */
+    public void retainTopResources(int limit, ToLongFunction<String> weight) {
+        if (ipAddressesByResource.size() <= limit) {
+            return;
+        }
+        List<String> tracked = new ArrayList<>(ipAddressesByResource.keySet());
+        tracked.sort(Comparator.comparingLong(weight).reversed());
+        tracked.subList(limit, tracked.size()).forEach(ipAddressesByResource::remove);
+    }
+
+    /**
+     * @return Количество ресурсов, для которых хранится оценка уникальных IP-адресов.
+     */
+    public int trackedResources() {
+        return ipAddressesByResource.size();
+    }
+
+    /**
+     * @return Оценка количества уникальных IP-адресов.
+     */
+    public long ipAddresses() {
+        return ipAddresses.estimate();
+    }
+
+    /**
+     * @return Оценка количества уникальных ресурсов.
+     */
+    public long resources() {
+        return resources.estimate();
+    }
+
+    /**
+     * @param resource Ресурс.
+     * @return Оценка количества уникальных IP-адресов, запрашивавших ресурс, или 0, если оценки нет.
+     */
+    public long ipAddresses(String resource) {
+        HyperLogLog sketch = ipAddressesByResource.get(resource);
+        return sketch == null ? 0 : sketch.estimate();
+    }
+
+    /**
+     * Записывает оценки в двоичном виде.
+     *
+     * @param out Поток для записи.
+     * @throws IOException если запись не удалась.
+     */
+    public void writeTo(DataOutput out) throws IOException {
+        ipAddresses.writeTo(out);
+        resources.writeTo(out);
+        out.writeInt(ipAddressesByResource.size());
+        for (Map.Entry<String, HyperLogLog> entry : ipAddressesByResource.entrySet()) {
+            byte[] resource = entry.getKey().getBytes(StandardCharsets.UTF_8);
+            out.writeInt(resource.length);
+            out.write(resource);
+            entry.getValue().writeTo(out);
+        }
+    }
+
+    /**
+     * Восстанавливает оценки, записанные методом {@link #writeTo(DataOutput)}.
+     *
+     * @param in Поток для чтения.
+     * @return Восстановленные оценки.
+     * @throws IOException если чтение не удалось.
+     */
+    public static DistinctCounts readFrom(DataInput in) throws IOException {
+        DistinctCounts counts = new DistinctCounts();
+        counts.ipAddresses.merge(HyperLogLog.readFrom(in));
+        counts.resources.merge(HyperLogLog.readFrom(in));
+        int size = in.readInt();
+        for (int i = 0; i < size; i++) {
+            byte[] resource = new byte[in.readInt()];
+            in.readFully(resource);
+            counts.ipAddressesByResource.put(new String(resource, StandardCharsets.UTF_8), HyperLogLog.readFrom(in));
+        }
+        return counts;
+    }
+}
@@ -0,0 +1,94 @@
+package backend.academy.checkpoint;
+
+import backend.academy.analyzer.AnalysisOptions;
+import backend.academy.analyzer.LogAccumulator;
+import backend.academy.readers.RejectedLineCounter;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import static backend.academy.config.ErrorMessages.CHECKPOINT_READ_ERROR;
+
+/**
+ * Контрольная точка анализа: прочитанные части файлов и статистика, накопленная по ним.
+ *
+ * <p>Хранится в двоичном файле: сигнатура и версия формата, конфигурация анализа, сведения
+ * о файлах ({@link FileCheckpoint}), состояние {@link LogAccumulator}, включая структуру процентилей,
+ * и счетчики строк неверного формата ({@link RejectedLineCounter}).
+ * Файл записывается во временный файл рядом и атомарно переименовывается, поэтому прерванная
+ * запись не портит предыдущую контрольную точку.</p>
+ *
+ * @param configuration Строка, описывающая фильтры, диапазон дат и движок процентилей; статистика
+ *                      с другой конфигурацией не может быть продолжена.
+ * @param files         Прочитанные файлы.
+ * @param state         Статистика по прочитанным частям файлов.
+ * @param rejectedLines Строки неверного формата, отброшенные в прочитанных частях файлов.
+ */
+public record Checkpoint(
+    String configuration, List<FileCheckpoint> files, LogAccumulator state, RejectedLineCounter rejectedLines
+) {
+    private static final int MAGIC = 0x4c414350;
+    private static final int VERSION = 3;
+    private static final String TEMPORARY_SUFFIX = ".tmp";
+    private static final Logger LOGGER = Logger.getLogger(Checkpoint.class.getName());
+
+    /**
+     * Читает контрольную точку.
+     *
+     * @param file          Файл контрольной точки.
+     * @param configuration Конфигурация текущего анализа.
+     * @param options       Параметры анализа для восстановления структуры процентилей.
+     * @return Контрольная точка или null, если файла нет, он поврежден или записан с другой конфигурацией.
+     */
+    public static Checkpoint load(Path file, String configuration, AnalysisOptions options) {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION || !configuration.equals(in.readUTF())) {
+                return null;
+            }
+            int count = in.readInt();
+            List<FileCheckpoint> files = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                files.add(FileCheckpoint.readFrom(in));
+            }
+            LogAccumulator state = LogAccumulator.readFrom(in, options);
+            return new Checkpoint(configuration, files, state, RejectedLineCounter.readFrom(in));
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException | RuntimeException e) {
+            LOGGER.log(Level.WARNING, CHECKPOINT_READ_ERROR + " " + file, e);
+            return null;
+        }
+    }
+
+    /**
+     * Атомарно записывает контрольную точку.
+     *
+     * @param file Файл контрольной точки.
+     * @throws IOException если запись не удалась.
+     */
+    public void save(Path file) throws IOException {
+        Path absolute = file.toAbsolutePath();
+        Path temporary = absolute.resolveSibling(absolute.getFileName() + TEMPORARY_SUFFIX);
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeUTF(configuration);
+            out.writeInt(files.size());
+            for (FileCheckpoint checkpoint : files) {
+                checkpoint.writeTo(out);
+            }
+            state.writeTo(out);
+            rejectedLines.writeTo(out);
+        }
+        Files.move(temporary, absolute, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+}
@@ -0,0 +1,273 @@
+package backend.academy.checkpoint;
+
+import backend.academy.analyzer.AnalysisOptions;
+import backend.academy.analyzer.AnalyzerLogic;
+import backend.academy.analyzer.IncrementalAnalysis;
+import backend.academy.analyzer.LogAccumulator;
+import backend.academy.analyzer.ProcessingMode;
+import backend.academy.dimension.Dimension;
+import backend.academy.filter.LogFilter;
+import backend.academy.nginx.NginxLog;
+import backend.academy.nginx.ParsePolicy;
+import backend.academy.readers.Compression;
+import backend.academy.readers.FileChunk;
+import backend.academy.readers.LogFileReader;
+import backend.academy.readers.LogReader;
+import backend.academy.readers.RejectedLineCounter;
+import backend.academy.statistic.Metrics;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+import static backend.academy.config.ErrorMessages.CHECKPOINT_INVALIDATED_MESSAGE;
+import static backend.academy.config.ErrorMessages.CHECKPOINT_WRITE_ERROR;
+import static backend.academy.config.ErrorMessages.INVALID_FILE_READING_MESSAGE;
+import static backend.academy.config.ErrorMessages.UNSUPPORTED_CHECKPOINT_SOURCE;
+
+/**
+ * Повторный анализ растущих файлов с продолжением от контрольной точки ({@link Checkpoint}).
+ *
+ * <p>Из файлов, прочитанных при прошлом запуске, разбираются только дописанные байты, новые файлы
+ * читаются целиком, а новые записи объединяются с сохраненной статистикой. Файл сопоставляется
+ * с прочитанным ранее по пути, а при ротации с переименованием — по отпечатку начала файла.
+ * Несжатые файлы читаются до конца последней завершенной строки. Сжатые файлы пропускаются,
+ * если они не изменились.</p>
+ *
+ * <p>Результат всегда совпадает с полным анализом тех же файлов. Поэтому контрольная точка
+ * отбрасывается, и файлы читаются заново, если прочитанный ранее файл исчез, был перезаписан,
+ * стал короче или был сжат после ротации. То же происходит при изменении фильтров, диапазона дат
+ * или движка процентилей.</p>
+ */
+public final class CheckpointedAnalysis {
+    private static final Logger LOGGER = Logger.getLogger(CheckpointedAnalysis.class.getName());
+
+    private final AnalyzerLogic analyzer;
+    private final AnalysisOptions options;
+    private final Map<String, String> filters;
+    private final String startDate;
+    private final String endDate;
+    private final LogFileReader reader = new LogFileReader();
+
+    /**
+     * @param analyzer  Анализатор, строящий метрики по накопленной статистике.
+     * @param options   Параметры анализа.
+     * @param filters   Фильтры по полям записи.
+     * @param startDate Начало диапазона дат или null.
+     * @param endDate   Конец диапазона дат или null.
+     */
+    public CheckpointedAnalysis(
+        AnalyzerLogic analyzer, AnalysisOptions options, Map<String, String> filters, String startDate, String endDate
+    ) {
+        this.analyzer = analyzer;
+        this.options = options;
+        this.filters = filters;
+        this.startDate = startDate;
+        this.endDate = endDate;
+        reader.setPrefilter(LogFilter.compile(filters).statusSize());
+        reader.setFields(ProcessingMode.of(filters, startDate, endDate).requiredFields(filters, options));
+    }
+
+    /**
+     * Задает поведение при строках неверного формата.
+     *
+     * @param parsePolicy Поведение при строках неверного формата.
+     */
+    public void setParsePolicy(ParsePolicy parsePolicy) {
+        reader.setParsePolicy(parsePolicy);
+    }
+
+    /**
+     * @return Счетчики строк неверного формата во всех прочитанных данных, включая сохраненные
+     *     в контрольной точке при прошлых запусках.
+     */
+    public RejectedLineCounter getRejectedLines() {
+        return reader.getRejectedLines();
+    }
+
+    /**
+     * Анализирует файлы, продолжая от контрольной точки, и сохраняет новую контрольную точку.
+     *
+     * @param paths          Пути к файлам и директориям.
+     * @param checkpointFile Файл контрольной точки; если его нет, файлы читаются целиком.
+     * @return Метрики по всем записям файлов.
+     * @throws IllegalArgumentException если среди путей есть URL-адрес.
+     */
+    public Metrics analyze(List<String> paths, Path checkpointFile) {
+        for (String path : paths) {
+            if (LogReader.isUrl(path)) {
+                throw new IllegalArgumentException(UNSUPPORTED_CHECKPOINT_SOURCE + " " + path);
+            }
+        }
+        String configuration = configuration();
+        List<Path> files = reader.listFiles(paths);
+        Checkpoint checkpoint = Checkpoint.load(checkpointFile, configuration, options);
+
+        Plan plan = checkpoint == null ? null : plan(files, checkpoint.files());
+        LogAccumulator state;
+        RejectedLineCounter rejectedLines = reader.getRejectedLines();
+        rejectedLines.clear();
+        if (plan == null) {
+            if (checkpoint != null) {
+                LOGGER.log(Level.INFO, CHECKPOINT_INVALIDATED_MESSAGE + " " + checkpointFile);
+            }
+            plan = plan(files, List.of());
+            state = new LogAccumulator(options);
+        } else {
+            state = checkpoint.state();
+            rejectedLines.addAll(checkpoint.rejectedLines());
+        }
+
+        IncrementalAnalysis analysis = new IncrementalAnalysis(analyzer, options, state, filters, startDate, endDate);
+        try (Stream<NginxLog> logs = reader.readChunks(plan.chunks())) {
+            analysis.accept(logs.parallel());
+        }
+        save(checkpointFile, new Checkpoint(configuration, plan.files(), analysis.accumulator(), rejectedLines));
+        return analysis.metrics();
+    }
+
+    /**
+     * Строка конфигурации, от которой зависит накопленная статистика.
+     * Емкость подсчета ресурсов, разбивки, интервал ряда и оценка уникальных значений указываются,
+     * только если они заданы.
+     */
+    private String configuration() {
+        StringBuilder configuration = new StringBuilder("engine=").append(options.quantileEngine())
+            .append(";filters=").append(new TreeMap<>(filters))
+            .append(";from=").append(startDate)
+            .append(";to=").append(endDate);
+        if (options.boundedResources()) {
+            configuration.append(";resources=").append(options.resourceCapacity());
+        }
+        if (!options.dimensions().isEmpty()) {
+            configuration.append(";dimensions=")
+                .append(options.dimensions().stream().map(Dimension::name).toList());
+        }
+        if (options.seriesInterval() != null) {
+            configuration.append(";series=").append(options.seriesInterval());
+        }
+        if (options.uniqueCounts()) {
+            configuration.append(";unique");
+        }
+        return configuration.toString();
+    }
+
+    /**
+     * Сопоставляет файлы с прочитанными ранее и составляет список непрочитанных фрагментов.
+     *
+     * @return План чтения или null, если статистику контрольной точки нельзя продолжить.
+     */
+    private Plan plan(List<Path> files, List<FileCheckpoint> previous) {
+        List<FileCheckpoint> unmatched = new ArrayList<>();
+        for (FileCheckpoint checkpoint : previous) {
+            if (checkpoint.offset() > 0) {
+                unmatched.add(checkpoint);
+            }
+        }
+        Map<Path, FileCheckpoint> matched = new LinkedHashMap<>();
+        Map<Path, Compression> compressions = new LinkedHashMap<>();
+        for (Path file : files) {
+            compressions.put(file, detectCompression(file));
+        }
+        // Сначала файлы, оставшиеся на месте, затем переименованные при ротации
+        for (boolean samePath : new boolean[] {true, false}) {
+            for (Path file : files) {
+                FileCheckpoint match = matched.containsKey(file) ? null
+                    : match(file, compressions.get(file), unmatched, samePath);
+                if (match != null) {
+                    matched.put(file, match);
+                }
+            }
+        }
+        if (!unmatched.isEmpty()) {
+            return null;
+        }
+
+        List<FileChunk> chunks = new ArrayList<>();
+        List<FileCheckpoint> checkpoints = new ArrayList<>();
+        for (Path file : files) {
+            FileCheckpoint known = matched.get(file);
+            try {
+                long start = known == null ? 0 : known.offset();
+                long end;
+                if (compressions.get(file) != Compression.NONE) {
+                    end = known == null ? file.toFile().length() : start;
+                    if (known == null) {
+                        chunks.add(new FileChunk(file, 0, end));
+                    }
+                } else {
+                    end = FileChunk.completeLinesEnd(file, start);
+                    chunks.addAll(FileChunk.split(file, start, end, LogFileReader.CHUNK_SIZE));
+                }
+                checkpoints.add(FileCheckpoint.of(file, end));
+            } catch (IOException e) {
+                // Нечитаемый новый файл пропускается, как и при полном анализе
+                LOGGER.log(Level.WARNING, INVALID_FILE_READING_MESSAGE + file, e);
+                if (known != null) {
+                    return null;
+                }
+            }
+        }
+        return new Plan(chunks, checkpoints);
+    }
+
+    /**
+     * Ищет среди несопоставленных сведений о файлах те, продолжением которых является файл,
+     * и удаляет найденные сведения из списка.
+     *
+     * @param samePath true, чтобы искать только сведения с тем же путем, false — только с другими путями.
+     * @return Найденные сведения или null.
+     */
+    private static FileCheckpoint match(
+        Path file, Compression compression, List<FileCheckpoint> unmatched, boolean samePath
+    ) {
+        Iterator<FileCheckpoint> iterator = unmatched.iterator();
+        while (iterator.hasNext()) {
+            FileCheckpoint checkpoint = iterator.next();
+            if (samePath != checkpoint.path().equals(file.toString())) {
+                continue;
+            }
+            boolean continued;
+            try {
+                continued = compression == Compression.NONE ? checkpoint.continuedBy(file) : checkpoint.unchanged(file);
+            } catch (IOException e) {
+                LOGGER.log(Level.WARNING, INVALID_FILE_READING_MESSAGE + file, e);
+                return null;
+            }
+            if (continued) {
+                iterator.remove();
+                return checkpoint;
+            }
+        }
+        return null;
+    }
+
+    private static Compression detectCompression(Path file) {
+        try {
+            return Compression.detect(file);
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, INVALID_FILE_READING_MESSAGE + file, e);
+            return Compression.NONE;
+        }
+    }
+
+    private static void save(Path checkpointFile, Checkpoint checkpoint) {
+        try {
+            checkpoint.save(checkpointFile);
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, CHECKPOINT_WRITE_ERROR + " " + checkpointFile, e);
+        }
+    }
+
+    /**
+     * Фрагменты, которые нужно прочитать, и сведения о файлах для новой контрольной точки.
+     */
+    private record Plan(List<FileChunk> chunks, List<FileCheckpoint> files) {
+    }
+}
@@ -0,0 +1,105 @@
+package backend.academy.checkpoint;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.CRC32C;
+
+/**
+ * Сведения о прочитанной части файла лога.
+ *
+ * <p>Файл считается тем же самым, если контрольная сумма его первых {@code fingerprintLength} байтов
+ * не изменилась: так распознается и переименованный при ротации файл, и файл, замененный другим
+ * под тем же путем.</p>
+ *
+ * @param path              Абсолютный путь к файлу при последнем чтении.
+ * @param size              Размер файла при последнем чтении.
+ * @param lastModified      Время изменения файла при последнем чтении, миллисекунды эпохи.
+ * @param offset            Позиция, до которой файл прочитан: конец последней завершенной строки.
+ * @param fingerprintLength Количество начальных байтов, по которым вычислен отпечаток.
+ * @param fingerprint       Контрольная сумма CRC32C первых {@code fingerprintLength} байтов.
+ */
+public record FileCheckpoint(
+    String path, long size, long lastModified, long offset, int fingerprintLength, long fingerprint
+) {
+    static final int FINGERPRINT_LENGTH = 4096;
+
+    /**
+     * Снимает сведения о файле, прочитанном до позиции {@code offset}.
+     *
+     * @param file   Путь к файлу.
+     * @param offset Позиция, до которой файл прочитан.
+     * @return Сведения о файле.
+     * @throws IOException если файл не удалось прочитать.
+     */
+    public static FileCheckpoint of(Path file, long offset) throws IOException {
+        int length = (int) Math.min(offset, FINGERPRINT_LENGTH);
+        return new FileCheckpoint(file.toString(), Files.size(file), Files.getLastModifiedTime(file).toMillis(),
+            offset, length, fingerprint(file, length));
+    }
+
+    /**
+     * Проверяет, что файл начинается с тех же байтов, что и прочитанный ранее, и не стал короче.
+     *
+     * @param file Путь к файлу.
+     * @return true, если файл можно дочитывать с позиции {@link #offset()}.
+     * @throws IOException если файл не удалось прочитать.
+     */
+    public boolean continuedBy(Path file) throws IOException {
+        return Files.size(file) >= offset && fingerprint(file, fingerprintLength) == fingerprint;
+    }
+
+    /**
+     * Проверяет, что файл не изменялся: совпадают размер, время изменения и отпечаток.
+     *
+     * @param file Путь к файлу.
+     * @return true, если файл не изменялся с последнего чтения.
+     * @throws IOException если файл не удалось прочитать.
+     */
+    public boolean unchanged(Path file) throws IOException {
+        return Files.size(file) == size && Files.getLastModifiedTime(file).toMillis() == lastModified
+            && fingerprint(file, fingerprintLength) == fingerprint;
+    }
+
+    /**
+     * Записывает сведения о файле в двоичном виде.
+     *
+     * @param out Поток для записи.
+     * @throws IOException если запись не удалась.
+     */
+    public void writeTo(DataOutput out) throws IOException {
+        out.writeUTF(path);
+        out.writeLong(size);
+        out.writeLong(lastModified);
+        out.writeLong(offset);
+        out.writeInt(fingerprintLength);
+        out.writeLong(fingerprint);
+    }
+
+    /**
+     * Читает сведения, записанные методом {@link #writeTo(DataOutput)}.
+     *
+     * @param in Поток для чтения.
+     * @return Сведения о файле.
+     * @throws IOException если чтение не удалось.
+     */
+    public static FileCheckpoint readFrom(DataInput in) throws IOException {
+        return new FileCheckpoint(in.readUTF(), in.readLong(), in.readLong(), in.readLong(), in.readInt(),
+            in.readLong());
+    }
+
+    private static long fingerprint(Path file, int length) throws IOException {
+        try (InputStream in = Files.newInputStream(file)) {
+            byte[] head = in.readNBytes(length);
+            if (head.length < length) {
+                return -1;
+            }
+            CRC32C crc = new CRC32C();
+            crc.update(head);
+            return crc.getValue();
+        }
+    }
+}
@@ -10,16 +10,59 @@ public class ErrorMessages {
     public static final String INVALID_FILE_READING_MESSAGE = "Ошибка чтения файла";
     public static final String FILE_WRITE_ERROR = "Ошибка при записи отчета в файл:";
     public static final String FILE_CLOSE_ERROR = "Ошибка закрытия файла";
+    public static final String UNSUPPORTED_FOLLOW_SOURCE = "В режиме --follow можно читать только файлы:";
+    public static final String UNSUPPORTED_CHECKPOINT_SOURCE = "Контрольная точка поддерживает только файлы:";
+    public static final String CHECKPOINT_READ_ERROR = "Ошибка чтения контрольной точки, файлы будут прочитаны целиком:";
+    public static final String CHECKPOINT_WRITE_ERROR = "Ошибка записи контрольной точки:";
+    public static final String CHECKPOINT_INVALIDATED_MESSAGE =
+        "Прочитанные ранее файлы изменились, контрольная точка не используется:";
+    public static final String TIME_INDEX_READ_ERROR = "Ошибка чтения индекса времени, индекс будет построен заново:";
+    public static final String TIME_INDEX_WRITE_ERROR = "Ошибка записи индекса времени:";
+    public static final String CACHE_READ_ERROR = "Ошибка чтения кэша результатов, логи будут прочитаны заново:";
+    public static final String CACHE_WRITE_ERROR = "Ошибка записи кэша результатов:";
+    public static final String SOURCE_FAILED_MESSAGE = "Ошибка чтения источника, прочитанные записи учтены:";
 
     // URL_ошибки
     public static final String ERROR_READING_LOGS_MESSAGE = "Ошибка чтения логов из URL";
     public static final String UNEXPECTED_ERROR_MESSAGE = "Неопределенная ошибка при чтении логов из URL";
     public static final String INVALID_URL_MESSAGE = "Неверный формат URL";
+    public static final String UNEXPECTED_STATUS_CODE = "Неожиданный код ответа:";
+    public static final String UNSUPPORTED_CONTENT_ENCODING = "Неподдерживаемое сжатие ответа:";
+    public static final String DOWNLOAD_RESUMED_MESSAGE = "Соединение прервано, загрузка продолжена с байта";
 
     //Ошибки с датой
     public static final String INVALID_TIME_FORMAT = "Неверный формат времени";
 
     //ошибки с парсингом NGINX
     public static final String INVALID_FORMAT_NGINX = "Неверный формат лога";
+
+    //ошибки параметров анализа
+    public static final String INVALID_PARALLELISM = "Число одновременно читаемых источников должно быть положительным:";
+    public static final String INVALID_REFRESH_INTERVAL = "Интервал обновления отчета должен быть положительным:";
+    public static final String INVALID_PERCENTILE = "Процентиль должен быть в диапазоне от 0 до 100:";
+    public static final String INVALID_TOP_SIZE = "Размер топа должен быть положительным:";
+    public static final String INVALID_DIMENSION = "Разбивка должна состоять из одного или двух полей:";
+    public static final String UNKNOWN_DIMENSION_FIELD = "Неизвестное поле разбивки:";
+    public static final String INVALID_RESOURCE_CAPACITY = "Число отслеживаемых ресурсов не может быть отрицательным:";
+
+    //ошибки файла запросов
+    public static final String QUERIES_READ_ERROR = "Ошибка чтения файла запросов:";
+    public static final String NO_QUERIES = "Файл запросов не содержит запросов:";
+    public static final String INVALID_QUERY_NAME = "Имя запроса может содержать только латинские буквы, цифры, _ и -:";
+    public static final String UNKNOWN_QUERY_KEY = "Неизвестный параметр запроса:";
+    public static final String INVALID_QUERY_VALUE = "Неверное значение параметра запроса:";
+    public static final String UNSUPPORTED_QUERIES_MODE =
+        "Файл запросов --queries нельзя сочетать с --follow и --checkpoint";
+
+    //ошибки сервера запросов
+    public static final String UNSUPPORTED_SERVE_MODE =
+        "Сервер --serve нельзя сочетать с --follow, --checkpoint и --queries";
+    public static final String SERVER_START_ERROR = "Не удалось запустить сервер на адресе";
+    public static final String SERVER_STARTED_MESSAGE = "Сервер запросов принимает запросы на адресе";
+    public static final String SERVER_RESPONSE_ERROR = "Ошибка ответа на запрос:";
+
+    //ошибки фильтров
+    public static final String INVALID_FILTER_VALUE = "Неверное значение фильтра:";
+    public static final String UNKNOWN_FILTER_FIELD = "Неизвестное поле фильтра, фильтр пропущен:";
 }
 
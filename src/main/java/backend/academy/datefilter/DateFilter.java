@@ -2,52 +2,52 @@ package backend.academy.datefilter;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
-import java.util.Locale;
 import static backend.academy.config.ErrorMessages.INVALID_TIME_FORMAT;
 
+/**
+ * Фильтр логов по диапазону времени.
+ * <p>
+ * Границы {@code --from} и {@code --to} преобразуются в секунды эпохи один раз в
+ * {@link #setDateFromTo(String, String)}. Время каждой записи декодируется
+ * {@link TimestampDecoder} и сравнивается с точностью до секунды; обе границы включаются.
+ * </p>
+ */
 public class DateFilter {
 
-    private LocalDate startDate;
-    private LocalDate endDate;
-    private static final String ISO_FORMAT = "dd/MMM/yyyy:HH:mm:ss Z";
+    private long startEpochSecond;
+    private long endEpochSecond;
 
 
     public DateFilter() {}
 
     public void setDateFromTo(String from, String to) {
-        this.startDate = parseLogDate(from);
-        this.endDate = parseLogDate(to);
+        this.startEpochSecond = TimestampDecoder.toEpochSecond(from);
+        this.endEpochSecond = TimestampDecoder.toEpochSecond(to);
     }
 
     public boolean isWithinRange(String logTimestamp) {
-        LocalDateTime logDateTime = parseLogTimestamp(logTimestamp);
-        if (logDateTime == null) {
-            return false;
-        }
-        LocalDate logDate = logDateTime.toLocalDate();
-        return (logDate.isEqual(startDate) || logDate.isAfter(startDate))
-            && (logDate.isEqual(endDate) || logDate.isBefore(endDate));
+        return isWithinRange(TimestampDecoder.toEpochSecond(logTimestamp));
+    }
+
+    /**
+     * @param epochSecond Время записи в секундах эпохи Unix.
+     * @return true, если время попадает в диапазон включительно.
+     */
+    public boolean isWithinRange(long epochSecond) {
+        return epochSecond >= startEpochSecond && epochSecond <= endEpochSecond;
     }
 
     public LocalDateTime parseLogTimestamp(String logTimestamp) {
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern(ISO_FORMAT, Locale.ENGLISH);
         try {
-            return LocalDateTime.parse(logTimestamp, formatter);
+            return LocalDateTime.parse(logTimestamp, TimestampDecoder.FORMATTER);
         } catch (DateTimeParseException e) {
             throw new IllegalArgumentException(INVALID_TIME_FORMAT + logTimestamp, e);
         }
     }
 
     public LocalDate parseLogDate(String logDate) {
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern(ISO_FORMAT, Locale.ENGLISH);
-        try {
-            LocalDateTime dateTime = LocalDateTime.parse(logDate, formatter);
-            return dateTime.toLocalDate();
-        } catch (DateTimeParseException e) {
-            throw new IllegalArgumentException(INVALID_TIME_FORMAT + logDate, e);
-        }
+        return parseLogTimestamp(logDate).toLocalDate();
     }
 }
 
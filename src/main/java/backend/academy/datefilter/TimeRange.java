@@ -0,0 +1,43 @@
+package backend.academy.datefilter;
+
+/**
+ * Диапазон времени в секундах эпохи Unix; обе границы включаются.
+ *
+ * <p>Передается читателям логов как подсказка: читатель может пропустить данные, все записи
+ * которых заведомо вне диапазона, но не обязан отбрасывать остальные записи вне диапазона.
+ * Точная фильтрация выполняется {@link DateFilter}.</p>
+ *
+ * @param from Начало диапазона.
+ * @param to   Конец диапазона.
+ */
+public record TimeRange(long from, long to) {
+    public static final TimeRange ALL = new TimeRange(Long.MIN_VALUE, Long.MAX_VALUE);
+
+    /**
+     * @param from Начало диапазона в формате {@code dd/MMM/yyyy:HH:mm:ss Z}.
+     * @param to   Конец диапазона в том же формате.
+     * @return Диапазон времени.
+     * @throws IllegalArgumentException если строка не соответствует формату.
+     */
+    public static TimeRange of(String from, String to) {
+        return new TimeRange(TimestampDecoder.toEpochSecond(from), TimestampDecoder.toEpochSecond(to));
+    }
+
+    /**
+     * @param min Наименьшее время записей.
+     * @param max Наибольшее время записей.
+     * @return true, если отрезок {@code [min, max]} пересекается с диапазоном.
+     */
+    public boolean overlaps(long min, long max) {
+        return max >= from && min <= to;
+    }
+
+    /**
+     * @param other Второй диапазон.
+     * @return Наименьший диапазон, содержащий оба диапазона; {@link #ALL}, если он не ограничен.
+     */
+    public TimeRange union(TimeRange other) {
+        TimeRange union = new TimeRange(Math.min(from, other.from), Math.max(to, other.to));
+        return union.equals(ALL) ? ALL : union;
+    }
+}
@@ -0,0 +1,172 @@
+package backend.academy.datefilter;
+
+import java.time.Instant;
+import java.time.Month;
+import java.time.OffsetDateTime;
+import java.time.Year;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Locale;
+import static backend.academy.config.ErrorMessages.INVALID_TIME_FORMAT;
+
+/**
+ * Преобразует время из лога Nginx вида {@code dd/MMM/yyyy:HH:mm:ss Z} в секунды эпохи Unix.
+ * <p>
+ * Строки фиксированной длины вида {@code 21/Jul/2023:12:00:00 +0000} разбираются напрямую
+ * по позициям символов, без {@link DateTimeFormatter} и без создания объектов. Остальные
+ * строки, а также даты, которые быстрый путь не может проверить (например, 31 февраля),
+ * разбираются общим форматтером, созданным один раз.
+ * </p>
+ */
+public final class TimestampDecoder {
+    public static final String LOG_TIME_FORMAT = "dd/MMM/yyyy:HH:mm:ss Z";
+    public static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern(LOG_TIME_FORMAT, Locale.ENGLISH);
+
+    private static final String MONTHS = "JanFebMarAprMayJunJulAugSepOctNovDec";
+    private static final int MONTH_LENGTH = 3;
+    private static final int LAYOUT_LENGTH = "dd/MMM/yyyy:HH:mm:ss +hhmm".length();
+    public static final long NOT_FIXED_LAYOUT = Long.MIN_VALUE;
+
+    private static final int SECONDS_PER_MINUTE = 60;
+    private static final int SECONDS_PER_HOUR = 3600;
+    private static final int SECONDS_PER_DAY = 86400;
+    private static final int HOURS_PER_DAY = 24;
+    private static final int MAX_OFFSET_HOURS = 18;
+
+    private static final int DAY_POS = 0;
+    private static final int MONTH_POS = 3;
+    private static final int YEAR_POS = 7;
+    private static final int HOUR_POS = 12;
+    private static final int MINUTE_POS = 15;
+    private static final int SECOND_POS = 18;
+    private static final int SPACE_POS = 20;
+    private static final int SIGN_POS = 21;
+    private static final int OFFSET_HOUR_POS = 22;
+    private static final int OFFSET_MINUTE_POS = 24;
+
+    private TimestampDecoder() {
+    }
+
+    /**
+     * Преобразует время из лога в секунды эпохи Unix с учетом смещения часового пояса.
+     *
+     * @param timestamp Время в формате {@code dd/MMM/yyyy:HH:mm:ss Z}.
+     * @return Количество секунд с 1970-01-01T00:00:00Z.
+     * @throws IllegalArgumentException если строка не соответствует формату.
+     */
+    public static long toEpochSecond(String timestamp) {
+        long epochSecond = decodeFixedLayout(timestamp);
+        return epochSecond != NOT_FIXED_LAYOUT ? epochSecond : decodeWithFormatter(timestamp);
+    }
+
+    /**
+     * Декодирует время только по быстрому пути фиксированного формата.
+     *
+     * @param s Время из лога.
+     * @return Секунды эпохи Unix или {@link #NOT_FIXED_LAYOUT}, если строка не в фиксированном
+     *     формате {@code dd/MMM/yyyy:HH:mm:ss +hhmm} или содержит недопустимые значения.
+     */
+    public static long decodeFixedLayout(String s) {
+        if (s.length() != LAYOUT_LENGTH || s.charAt(DAY_POS + 2) != '/' || s.charAt(YEAR_POS - 1) != '/'
+            || s.charAt(HOUR_POS - 1) != ':' || s.charAt(MINUTE_POS - 1) != ':' || s.charAt(SECOND_POS - 1) != ':'
+            || s.charAt(SPACE_POS) != ' ') {
+            return NOT_FIXED_LAYOUT;
+        }
+        int day = twoDigits(s, DAY_POS);
+        int month = month(s);
+        int century = twoDigits(s, YEAR_POS);
+        int yearOfCentury = twoDigits(s, YEAR_POS + 2);
+        int year = century < 0 || yearOfCentury < 0 ? -1 : century * 100 + yearOfCentury;
+        int hour = twoDigits(s, HOUR_POS);
+        int minute = twoDigits(s, MINUTE_POS);
+        int second = twoDigits(s, SECOND_POS);
+        int offsetHours = twoDigits(s, OFFSET_HOUR_POS);
+        int offsetMinutes = twoDigits(s, OFFSET_MINUTE_POS);
+        char sign = s.charAt(SIGN_POS);
+        if (day < 1 || month == 0 || year < 0 || hour < 0 || hour >= HOURS_PER_DAY
+            || minute < 0 || minute >= SECONDS_PER_MINUTE || second < 0 || second >= SECONDS_PER_MINUTE
+            || offsetHours < 0 || offsetHours > MAX_OFFSET_HOURS
+            || offsetMinutes < 0 || offsetMinutes >= SECONDS_PER_MINUTE
+            || offsetHours == MAX_OFFSET_HOURS && offsetMinutes != 0 || sign != '+' && sign != '-'
+            || day > Month.of(month).length(Year.isLeap(year))) {
+            return NOT_FIXED_LAYOUT;
+        }
+
+        long offset = (long) offsetHours * SECONDS_PER_HOUR + (long) offsetMinutes * SECONDS_PER_MINUTE;
+        return daysFromCivil(year, month, day) * SECONDS_PER_DAY
+            + (long) hour * SECONDS_PER_HOUR + (long) minute * SECONDS_PER_MINUTE + second
+            - (sign == '-' ? -offset : offset);
+    }
+
+    /**
+     * Возвращает смещение часового пояса строки в фиксированном формате.
+     *
+     * @param timestamp Время, для которого {@link #decodeFixedLayout(String)} вернул результат.
+     * @return Смещение в секундах.
+     */
+    public static int offsetSeconds(String timestamp) {
+        int offset = twoDigits(timestamp, OFFSET_HOUR_POS) * SECONDS_PER_HOUR
+            + twoDigits(timestamp, OFFSET_MINUTE_POS) * SECONDS_PER_MINUTE;
+        return timestamp.charAt(SIGN_POS) == '-' ? -offset : offset;
+    }
+
+    /**
+     * Форматирует время в формате лога. Для строк фиксированного формата результат совпадает
+     * с исходной строкой.
+     *
+     * @param epochSecond   Секунды эпохи Unix.
+     * @param offsetSeconds Смещение часового пояса в секундах.
+     * @return Время в формате {@code dd/MMM/yyyy:HH:mm:ss Z}.
+     */
+    public static String format(long epochSecond, int offsetSeconds) {
+        return FORMATTER.format(OffsetDateTime.ofInstant(Instant.ofEpochSecond(epochSecond),
+            ZoneOffset.ofTotalSeconds(offsetSeconds)));
+    }
+
+    private static long decodeWithFormatter(String timestamp) {
+        try {
+            return OffsetDateTime.parse(timestamp, FORMATTER).toEpochSecond();
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException(INVALID_TIME_FORMAT + timestamp, e);
+        }
+    }
+
+    /**
+     * @return Число из двух цифр или -1, если на позиции не цифры.
+     */
+    private static int twoDigits(String s, int pos) {
+        int high = s.charAt(pos) - '0';
+        int low = s.charAt(pos + 1) - '0';
+        if (high < 0 || high > 9 || low < 0 || low > 9) {
+            return -1;
+        }
+        return high * 10 + low;
+    }
+
+    /**
+     * @return Номер месяца от 1 до 12 или 0, если сокращение не распознано.
+     */
+    private static int month(String s) {
+        for (int i = 0; i < MONTHS.length(); i += MONTH_LENGTH) {
+            if (MONTHS.regionMatches(i, s, MONTH_POS, MONTH_LENGTH)) {
+                return i / MONTH_LENGTH + 1;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Вычисляет номер дня от 1970-01-01 по пролептическому григорианскому календарю
+     * (алгоритм days_from_civil Говарда Хиннанта).
+     */
+    @SuppressWarnings("MagicNumber")
+    private static long daysFromCivil(int year, int month, int day) {
+        int y = month <= 2 ? year - 1 : year;
+        int era = Math.floorDiv(y, 400);
+        int yearOfEra = y - era * 400;
+        int dayOfYear = (153 * (month > 2 ? month - 3 : month + 9) + 2) / 5 + day - 1;
+        int dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return (long) era * 146097 + dayOfEra - 719468;
+    }
+}
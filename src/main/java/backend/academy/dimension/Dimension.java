@@ -0,0 +1,47 @@
+package backend.academy.dimension;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import static backend.academy.config.ErrorMessages.INVALID_DIMENSION;
+
+/**
+ * Разбивка записей по значению одного поля или по сочетанию двух полей.
+ * <p>
+ * Задается строкой {@code --dimension}: имя поля ({@code ipAddress}) или два имени через {@code +}
+ * ({@code requestMethod+statusCode}). Сочетание полей в отчете выводится значениями через пробел.
+ * </p>
+ *
+ * @param fields Поля разбивки: одно или два.
+ */
+public record Dimension(List<LogField> fields) {
+    public static final String SEPARATOR = "+";
+    public static final int MAX_FIELDS = 2;
+
+    public Dimension {
+        if (fields.isEmpty() || fields.size() > MAX_FIELDS) {
+            throw new IllegalArgumentException(INVALID_DIMENSION + " " + fields);
+        }
+        fields = List.copyOf(fields);
+    }
+
+    /**
+     * @param spec Имя поля или имена двух полей через {@code +}.
+     * @return Разбивка.
+     * @throws IllegalArgumentException если поле неизвестно или полей больше двух.
+     */
+    public static Dimension parse(String spec) {
+        String[] names = spec.split("\\" + SEPARATOR);
+        if (names.length > MAX_FIELDS) {
+            throw new IllegalArgumentException(INVALID_DIMENSION + " " + spec);
+        }
+        return new Dimension(Arrays.stream(names).map(String::trim).map(LogField::byName).toList());
+    }
+
+    /**
+     * @return Имя разбивки в том виде, в котором она задается в {@code --dimension}.
+     */
+    public String name() {
+        return fields.stream().map(LogField::fieldName).collect(Collectors.joining(SEPARATOR));
+    }
+}
@@ -0,0 +1,245 @@
+package backend.academy.dimension;
+
+import backend.academy.nginx.NginxLog;
+import backend.academy.table.StringDictionary;
+import it.unimi.dsi.fastutil.longs.AbstractLong2LongMap;
+import it.unimi.dsi.fastutil.longs.Long2LongMap;
+import it.unimi.dsi.fastutil.longs.Long2LongOpenHashMap;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Счетчики записей по нескольким разбивкам ({@link Dimension}), заполняемые за один проход.
+ * <p>
+ * Значения строковых полей кодируются словарями {@link StringDictionary}, по одному на поле,
+ * поэтому поле, входящее в несколько разбивок, кодируется один раз на запись. Числовые поля
+ * используются как код напрямую. Ключ счетчика — код значения или два кода, упакованные в {@code long},
+ * а счетчики хранятся в {@link Long2LongOpenHashMap} без упаковки ключей и значений в объекты.
+ * </p>
+ * <p>
+ * Экземпляр не потокобезопасен; экземпляры, заполненные в разных потоках, объединяются методом
+ * {@link #combine(DimensionCounts)}: ключи другого экземпляра перекодируются словарями текущего.
+ * </p>
+ */
+public final class DimensionCounts {
+    private static final int CODE_BITS = 32;
+    private static final long CODE_MASK = 0xffffffffL;
+
+    private final List<Dimension> dimensions;
+    private final Map<LogField, StringDictionary> dictionaries = new EnumMap<>(LogField.class);
+    private final LogField[] usedFields;
+    private final int[] codes = new int[LogField.values().length];
+    private final Long2LongOpenHashMap[] counts;
+
+    /**
+     * @param dimensions Разбивки.
+     */
+    public DimensionCounts(List<Dimension> dimensions) {
+        this.dimensions = List.copyOf(dimensions);
+        this.usedFields = dimensions.stream()
+            .flatMap(dimension -> dimension.fields().stream())
+            .distinct()
+            .toArray(LogField[]::new);
+        for (LogField field : usedFields) {
+            if (!field.numeric()) {
+                dictionaries.put(field, new StringDictionary());
+            }
+        }
+        this.counts = new Long2LongOpenHashMap[dimensions.size()];
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = new Long2LongOpenHashMap();
+        }
+    }
+
+    /**
+     * Учитывает запись во всех разбивках.
+     *
+     * @param log Лог Nginx.
+     */
+    public void accept(NginxLog log) {
+        for (LogField field : usedFields) {
+            codes[field.ordinal()] = field.numeric()
+                ? field.number(log)
+                : dictionaries.get(field).encode(field.text(log));
+        }
+        accept(codes);
+    }
+
+    /**
+     * Учитывает запись, поля которой уже закодированы.
+     * <p>
+     * Источник со своими словарями, например колоночная таблица, перекодирует каждое свое значение
+     * методом {@link #encode(LogField, String)} один раз и не восстанавливает записи целиком.
+     * </p>
+     *
+     * @param fieldCodes Коды полей по порядковым номерам {@link LogField}: для строковых полей — коды
+     *                   {@link #encode(LogField, String)}, для числовых — значения. Используются только
+     *                   поля из {@link #getFields()}.
+     */
+    public void accept(int[] fieldCodes) {
+        for (int i = 0; i < counts.length; i++) {
+            counts[i].addTo(key(dimensions.get(i), fieldCodes), 1);
+        }
+    }
+
+    /**
+     * @param field Строковое поле из {@link #getFields()}.
+     * @param value Значение поля.
+     * @return Код значения для {@link #accept(int[])}.
+     */
+    public int encode(LogField field, String value) {
+        return dictionaries.get(field).encode(value);
+    }
+
+    /**
+     * Добавляет к текущим счетчикам счетчики другого экземпляра с теми же разбивками.
+     *
+     * @param other Счетчики, которые добавляются к текущим.
+     * @return Текущий экземпляр с объединенными счетчиками.
+     */
+    public DimensionCounts combine(DimensionCounts other) {
+        for (int i = 0; i < counts.length; i++) {
+            Dimension dimension = dimensions.get(i);
+            for (Long2LongMap.Entry entry : other.counts[i].long2LongEntrySet()) {
+                List<LogField> fields = dimension.fields();
+                for (int j = 0; j < fields.size(); j++) {
+                    LogField field = fields.get(j);
+                    int code = code(entry.getLongKey(), j, fields.size());
+                    codes[field.ordinal()] = field.numeric() ? code
+                        : dictionaries.get(field).encode(other.dictionaries.get(field).decode(code));
+                }
+                counts[i].addTo(key(dimension, codes), entry.getLongValue());
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Находит самые частые значения каждой разбивки.
+     *
+     * @param limit Количество значений в каждой разбивке.
+     * @return Имя разбивки — значения и количество записей по убыванию количества; разбивки в порядке задания.
+     */
+    public Map<String, Map<String, Long>> top(int limit) {
+        Map<String, Map<String, Long>> result = new LinkedHashMap<>();
+        for (int i = 0; i < counts.length; i++) {
+            PriorityQueue<Long2LongMap.Entry> minHeap = new PriorityQueue<>(
+                Comparator.comparingLong(Long2LongMap.Entry::getLongValue));
+            for (Long2LongMap.Entry entry : counts[i].long2LongEntrySet()) {
+                minHeap.offer(new AbstractLong2LongMap.BasicEntry(entry.getLongKey(), entry.getLongValue()));
+                if (minHeap.size() > limit) {
+                    minHeap.poll();
+                }
+            }
+            Long2LongMap.Entry[] top = minHeap.toArray(new Long2LongMap.Entry[0]);
+            Arrays.sort(top, Comparator.comparingLong(Long2LongMap.Entry::getLongValue).reversed());
+            Map<String, Long> values = new LinkedHashMap<>(top.length);
+            for (Long2LongMap.Entry entry : top) {
+                values.put(decode(dimensions.get(i), entry.getLongKey()), entry.getLongValue());
+            }
+            result.put(dimensions.get(i).name(), values);
+        }
+        return result;
+    }
+
+    public List<Dimension> getDimensions() {
+        return dimensions;
+    }
+
+    /**
+     * @return Поля, входящие хотя бы в одну разбивку, без повторов.
+     */
+    public List<LogField> getFields() {
+        return List.of(usedFields);
+    }
+
+    /**
+     * Записывает счетчики в двоичном виде; значения полей записываются строками.
+     *
+     * @param out Поток для записи.
+     * @throws IOException если запись не удалась.
+     */
+    public void writeTo(DataOutput out) throws IOException {
+        for (int i = 0; i < counts.length; i++) {
+            out.writeInt(counts[i].size());
+            for (Long2LongMap.Entry entry : counts[i].long2LongEntrySet()) {
+                List<LogField> fields = dimensions.get(i).fields();
+                for (int j = 0; j < fields.size(); j++) {
+                    byte[] value = valueOf(fields.get(j), code(entry.getLongKey(), j, fields.size()))
+                        .getBytes(StandardCharsets.UTF_8);
+                    out.writeInt(value.length);
+                    out.write(value);
+                }
+                out.writeLong(entry.getLongValue());
+            }
+        }
+    }
+
+    /**
+     * Восстанавливает счетчики, записанные методом {@link #writeTo(DataOutput)}.
+     *
+     * @param in         Поток для чтения.
+     * @param dimensions Разбивки; должны совпадать с разбивками при записи.
+     * @return Счетчики.
+     * @throws IOException если чтение не удалось.
+     */
+    public static DimensionCounts readFrom(DataInput in, List<Dimension> dimensions) throws IOException {
+        DimensionCounts result = new DimensionCounts(dimensions);
+        for (int i = 0; i < result.counts.length; i++) {
+            Dimension dimension = result.dimensions.get(i);
+            int size = in.readInt();
+            for (int entry = 0; entry < size; entry++) {
+                for (LogField field : dimension.fields()) {
+                    byte[] value = new byte[in.readInt()];
+                    in.readFully(value);
+                    String text = new String(value, StandardCharsets.UTF_8);
+                    result.codes[field.ordinal()] = field.numeric() ? Integer.parseInt(text)
+                        : result.dictionaries.get(field).encode(text);
+                }
+                result.counts[i].addTo(key(dimension, result.codes), in.readLong());
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Собирает ключ счетчика из кодов полей разбивки.
+     */
+    private static long key(Dimension dimension, int[] fieldCodes) {
+        List<LogField> fields = dimension.fields();
+        long key = fieldCodes[fields.getFirst().ordinal()] & CODE_MASK;
+        if (fields.size() > 1) {
+            key = key << CODE_BITS | fieldCodes[fields.get(1).ordinal()] & CODE_MASK;
+        }
+        return key;
+    }
+
+    private static int code(long key, int position, int fields) {
+        return (int) (key >>> (CODE_BITS * (fields - 1 - position)) & CODE_MASK);
+    }
+
+    private String decode(Dimension dimension, long key) {
+        List<LogField> fields = dimension.fields();
+        StringBuilder value = new StringBuilder();
+        for (int j = 0; j < fields.size(); j++) {
+            if (j > 0) {
+                value.append(' ');
+            }
+            value.append(valueOf(fields.get(j), code(key, j, fields.size())));
+        }
+        return value.toString();
+    }
+
+    private String valueOf(LogField field, int code) {
+        return field.numeric() ? Integer.toString(code) : dictionaries.get(field).decode(code);
+    }
+}
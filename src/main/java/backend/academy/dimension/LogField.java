@@ -0,0 +1,75 @@
+package backend.academy.dimension;
+
+import backend.academy.nginx.NginxLog;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+import static backend.academy.config.ErrorMessages.UNKNOWN_DIMENSION_FIELD;
+
+/**
+ * Поля записи лога, по которым можно строить разбивки ({@link Dimension}).
+ * <p>
+ * Имена полей совпадают с именами в {@code --filter}. Числовые поля используются как ключ счетчика
+ * напрямую, строковые кодируются словарем.
+ * </p>
+ */
+public enum LogField {
+    IP_ADDRESS("ipAddress", NginxLog::ipAddress, null),
+    USER_IDENTIFIER("userIdentifier", NginxLog::userIdentifier, null),
+    USER_ID("userId", NginxLog::userId, null),
+    REQUEST_METHOD("requestMethod", NginxLog::requestMethod, null),
+    RESOURCE("resource", NginxLog::resource, null),
+    HTTP_VERSION("httpVersion", NginxLog::httpVersion, null),
+    STATUS_CODE("statusCode", null, NginxLog::statusCode),
+    RESPONSE_SIZE("responseSize", null, NginxLog::responseSize);
+
+    private final String fieldName;
+    private final Function<NginxLog, String> text;
+    private final ToIntFunction<NginxLog> number;
+
+    LogField(String fieldName, Function<NginxLog, String> text, ToIntFunction<NginxLog> number) {
+        this.fieldName = fieldName;
+        this.text = text;
+        this.number = number;
+    }
+
+    /**
+     * @param name Имя поля, например {@code ipAddress}.
+     * @return Поле с этим именем.
+     * @throws IllegalArgumentException если такого поля нет.
+     */
+    public static LogField byName(String name) {
+        for (LogField field : values()) {
+            if (field.fieldName.equals(name)) {
+                return field;
+            }
+        }
+        throw new IllegalArgumentException(UNKNOWN_DIMENSION_FIELD + " " + name);
+    }
+
+    /**
+     * @return true, если значение поля — неотрицательное целое число.
+     */
+    public boolean numeric() {
+        return number != null;
+    }
+
+    /**
+     * @param log Лог Nginx.
+     * @return Строковое значение поля; только для нечисловых полей.
+     */
+    public String text(NginxLog log) {
+        return text.apply(log);
+    }
+
+    /**
+     * @param log Лог Nginx.
+     * @return Числовое значение поля; только для числовых полей.
+     */
+    public int number(NginxLog log) {
+        return number.applyAsInt(log);
+    }
+
+    public String fieldName() {
+        return fieldName;
+    }
+}
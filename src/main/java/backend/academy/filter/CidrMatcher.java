@@ -0,0 +1,137 @@
+package backend.academy.filter;
+
+import com.google.common.net.InetAddresses;
+import java.util.function.Predicate;
+import static backend.academy.config.ErrorMessages.INVALID_FILTER_VALUE;
+
+/**
+ * Проверяет принадлежность IP-адреса подсети, заданной в нотации CIDR (например, {@code 10.0.0.0/8}
+ * или {@code 2001:db8::/32}).
+ * <p>
+ * Подсеть разбирается один раз. Адреса IPv4 из логов разбираются вручную в число без создания
+ * объектов, адреса IPv6 — через {@link InetAddresses}, который не обращается к DNS.
+ * </p>
+ */
+final class CidrMatcher implements Predicate<String> {
+    private static final int IPV4_BITS = 32;
+    private static final int OCTETS = 4;
+    private static final int OCTET_MAX = 255;
+    private static final int BITS_PER_BYTE = 8;
+    private static final int MAX_OCTET_DIGITS = 3;
+    private static final int RADIX = 10;
+    private static final long INVALID = -1;
+
+    private final byte[] network;
+    private final int prefixLength;
+    private final long ipv4Network;
+    private final long ipv4Mask;
+
+    private CidrMatcher(byte[] network, int prefixLength) {
+        this.network = network;
+        this.prefixLength = prefixLength;
+        if (network.length == OCTETS) {
+            this.ipv4Mask = prefixLength == 0 ? 0 : (0xFFFFFFFFL << (IPV4_BITS - prefixLength)) & 0xFFFFFFFFL;
+            this.ipv4Network = toLong(network) & ipv4Mask;
+        } else {
+            this.ipv4Mask = 0;
+            this.ipv4Network = INVALID;
+        }
+    }
+
+    /**
+     * @param cidr Подсеть в виде {@code адрес/длина_префикса}.
+     * @return Проверка принадлежности адреса подсети.
+     * @throws IllegalArgumentException если подсеть задана неверно.
+     */
+    static CidrMatcher parse(String cidr) {
+        int slash = cidr.indexOf('/');
+        String address = cidr.substring(0, slash);
+        if (!InetAddresses.isInetAddress(address)) {
+            throw new IllegalArgumentException(INVALID_FILTER_VALUE + " " + cidr);
+        }
+        byte[] network = InetAddresses.forString(address).getAddress();
+        int prefixLength;
+        try {
+            prefixLength = Integer.parseInt(cidr.substring(slash + 1));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(INVALID_FILTER_VALUE + " " + cidr, e);
+        }
+        if (prefixLength < 0 || prefixLength > network.length * BITS_PER_BYTE) {
+            throw new IllegalArgumentException(INVALID_FILTER_VALUE + " " + cidr);
+        }
+        return new CidrMatcher(network, prefixLength);
+    }
+
+    @Override
+    public boolean test(String ipAddress) {
+        if (network.length == OCTETS) {
+            long address = parseIpv4(ipAddress);
+            return address != INVALID && (address & ipv4Mask) == ipv4Network;
+        }
+        if (ipAddress.indexOf(':') < 0 || !InetAddresses.isInetAddress(ipAddress)) {
+            return false;
+        }
+        byte[] address = InetAddresses.forString(ipAddress).getAddress();
+        return address.length == network.length && prefixMatches(address);
+    }
+
+    private boolean prefixMatches(byte[] address) {
+        int fullBytes = prefixLength / BITS_PER_BYTE;
+        for (int i = 0; i < fullBytes; i++) {
+            if (address[i] != network[i]) {
+                return false;
+            }
+        }
+        int restBits = prefixLength % BITS_PER_BYTE;
+        if (restBits == 0) {
+            return true;
+        }
+        int mask = (OCTET_MAX << (BITS_PER_BYTE - restBits)) & OCTET_MAX;
+        return (address[fullBytes] & mask) == (network[fullBytes] & mask);
+    }
+
+    /**
+     * Разбирает адрес IPv4 вида {@code a.b.c.d} в беззнаковое 32-битное число.
+     *
+     * @return Адрес или -1, если строка не является адресом IPv4.
+     */
+    private static long parseIpv4(String ipAddress) {
+        long result = 0;
+        int octets = 0;
+        int index = 0;
+        int length = ipAddress.length();
+        while (octets < OCTETS) {
+            int value = 0;
+            int digits = 0;
+            while (index < length && digits < MAX_OCTET_DIGITS && isDigit(ipAddress.charAt(index))) {
+                value = value * RADIX + ipAddress.charAt(index) - '0';
+                index++;
+                digits++;
+            }
+            if (digits == 0 || value > OCTET_MAX) {
+                return INVALID;
+            }
+            result = (result << BITS_PER_BYTE) | value;
+            octets++;
+            if (octets < OCTETS) {
+                if (index >= length || ipAddress.charAt(index) != '.') {
+                    return INVALID;
+                }
+                index++;
+            }
+        }
+        return index == length ? result : INVALID;
+    }
+
+    private static boolean isDigit(char ch) {
+        return ch >= '0' && ch <= '9';
+    }
+
+    private static long toLong(byte[] address) {
+        long result = 0;
+        for (byte octet : address) {
+            result = (result << BITS_PER_BYTE) | (octet & OCTET_MAX);
+        }
+        return result;
+    }
+}
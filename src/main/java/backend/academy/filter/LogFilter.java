@@ -0,0 +1,186 @@
+package backend.academy.filter;
+
+import backend.academy.nginx.NginxLog;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.IntPredicate;
+import java.util.function.Predicate;
+import java.util.logging.Logger;
+import static backend.academy.config.ErrorMessages.INVALID_FILTER_VALUE;
+import static backend.academy.config.ErrorMessages.UNKNOWN_FILTER_FIELD;
+
+/**
+ * Фильтр логов, скомпилированный из настроек {@code --filter} один раз перед анализом.
+ * <p>
+ * Значения фильтров разбираются при компиляции: числа преобразуются заранее, шаблоны ресурсов
+ * и подсети компилируются в готовые проверки. Проверки объединяются в {@link Predicate} в порядке
+ * возрастания стоимости: сначала сравнение чисел, затем точное сравнение строк, префиксы, подсети
+ * и в конце шаблоны и регулярные выражения.
+ * </p>
+ * <p>
+ * Поддерживаемые значения:
+ * <ul>
+ *     <li>{@code statusCode} — код ответа ({@code 404}) или класс кодов ({@code 4xx});</li>
+ *     <li>{@code responseSize} — размер ответа в байтах;</li>
+ *     <li>{@code ipAddress} — адрес или подсеть в нотации CIDR ({@code 10.0.0.0/8});</li>
+ *     <li>{@code resource} — точное значение или шаблон, см. {@link ResourceMatcher};</li>
+ *     <li>остальные поля — точное значение.</li>
+ * </ul>
+ * </p>
+ *
+ * @param statusSize Часть фильтра по коду и размеру ответа, которую парсер проверяет
+ *                   до создания строковых полей.
+ * @param predicate  Полный фильтр записи.
+ * @param fields     Условия на строковые поля: имя поля — условие на его значение, в порядке
+ *                   возрастания стоимости. Позволяют проверять значения словарей, а не записи.
+ */
+public record LogFilter(
+    StatusSizePredicate statusSize, Predicate<NginxLog> predicate, Map<String, Predicate<String>> fields
+) {
+    public static final LogFilter ACCEPT_ALL = new LogFilter(StatusSizePredicate.ALWAYS, log -> true, Map.of());
+
+    private static final Logger LOGGER = Logger.getLogger(LogFilter.class.getName());
+    private static final String STATUS_CLASS_SUFFIX = "xx";
+    private static final int STATUS_CLASS_WIDTH = 100;
+
+    // Стоимость проверок; для ресурса к EQUALS_COST добавляется номер вида сопоставления
+    private static final int NUMERIC_COST = 0;
+    private static final int EQUALS_COST = 1;
+    private static final int CIDR_COST = 2;
+
+    /**
+     * Проверяет запись.
+     *
+     * @param log Лог Nginx.
+     * @return true, если запись удовлетворяет всем условиям фильтра.
+     */
+    public boolean test(NginxLog log) {
+        return predicate.test(log);
+    }
+
+    /**
+     * @return true, если фильтр не проверяет строковые поля и равносилен {@code statusSize}.
+     */
+    public boolean statusSizeOnly() {
+        return fields.isEmpty();
+    }
+
+    /**
+     * Разбирает фильтры в формате {@code field-value}, как в {@code --filter}.
+     * Значения без разделителя пропускаются; при повторе поля действует последнее значение.
+     *
+     * @param filters Фильтры в формате {@code field-value}.
+     * @return Карта фильтров: имя поля — значение.
+     */
+    public static Map<String, String> parseArguments(List<String> filters) {
+        Map<String, String> filterMap = new HashMap<>();
+        for (String filter : filters) {
+            String[] parts = filter.split("-", 2);
+            if (parts.length == 2) {
+                filterMap.put(parts[0], parts[1]);
+            }
+        }
+        return filterMap;
+    }
+
+    /**
+     * Компилирует фильтры из настроек.
+     *
+     * @param filters Карта фильтров: имя поля — значение.
+     * @return Скомпилированный фильтр.
+     * @throws IllegalArgumentException если значение фильтра некорректно.
+     */
+    public static LogFilter compile(Map<String, String> filters) {
+        if (filters.isEmpty()) {
+            return ACCEPT_ALL;
+        }
+        StatusSizePredicate statusSize = StatusSizePredicate.ALWAYS;
+        List<Clause> clauses = new ArrayList<>();
+        for (Map.Entry<String, String> filter : filters.entrySet()) {
+            String field = filter.getKey();
+            String value = filter.getValue();
+            switch (field) {
+                case "statusCode" -> {
+                    IntPredicate status = compileStatus(value);
+                    statusSize = statusSize.and((statusCode, responseSize) -> status.test(statusCode));
+                    clauses.add(new Clause(NUMERIC_COST, log -> status.test(log.statusCode()), null, null));
+                }
+                case "responseSize" -> {
+                    long size = parseNumber(field, value);
+                    statusSize = statusSize.and((statusCode, responseSize) -> responseSize == size);
+                    clauses.add(new Clause(NUMERIC_COST, log -> log.responseSize() == size, null, null));
+                }
+                case "ipAddress" -> clauses.add(value.indexOf('/') >= 0
+                    ? field(CIDR_COST, field, NginxLog::ipAddress, CidrMatcher.parse(value))
+                    : field(EQUALS_COST, field, NginxLog::ipAddress, value::equals));
+                case "resource" -> {
+                    ResourceMatcher matcher = ResourceMatcher.compile(value);
+                    clauses.add(field(EQUALS_COST + matcher.mode().ordinal(), field, NginxLog::resource,
+                        matcher.predicate()));
+                }
+                case "userIdentifier" -> clauses.add(
+                    field(EQUALS_COST, field, NginxLog::userIdentifier, value::equals));
+                case "userId" -> clauses.add(field(EQUALS_COST, field, NginxLog::userId, value::equals));
+                case "timestamp" -> clauses.add(field(EQUALS_COST, field, NginxLog::timestamp, value::equals));
+                case "requestMethod" -> clauses.add(field(EQUALS_COST, field, NginxLog::requestMethod, value::equals));
+                case "httpVersion" -> clauses.add(field(EQUALS_COST, field, NginxLog::httpVersion, value::equals));
+                default -> LOGGER.warning(UNKNOWN_FILTER_FIELD + " " + field);
+            }
+        }
+
+        clauses.sort(Comparator.comparingInt(Clause::cost));
+        Predicate<NginxLog> predicate = clauses.stream()
+            .map(Clause::predicate)
+            .reduce(Predicate::and)
+            .orElse(log -> true);
+        Map<String, Predicate<String>> fields = new LinkedHashMap<>();
+        for (Clause clause : clauses) {
+            if (clause.field() != null) {
+                fields.put(clause.field(), clause.condition());
+            }
+        }
+        return new LogFilter(statusSize, predicate, fields);
+    }
+
+    private static Clause field(
+        int cost, String field, Function<NginxLog, String> getter, Predicate<String> condition
+    ) {
+        return new Clause(cost, log -> condition.test(getter.apply(log)), field, condition);
+    }
+
+    /**
+     * Компилирует условие на код ответа: точный код или класс кодов вида {@code 4xx}.
+     */
+    private static IntPredicate compileStatus(String value) {
+        if (value.length() == STATUS_CLASS_SUFFIX.length() + 1 && value.endsWith(STATUS_CLASS_SUFFIX)) {
+            int low = (int) parseNumber("statusCode", value.substring(0, 1)) * STATUS_CLASS_WIDTH;
+            int high = low + STATUS_CLASS_WIDTH;
+            return statusCode -> statusCode >= low && statusCode < high;
+        }
+        int code = (int) parseNumber("statusCode", value);
+        return statusCode -> statusCode == code;
+    }
+
+    private static long parseNumber(String field, String value) {
+        try {
+            long number = Long.parseLong(value);
+            if (number < 0 || number > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException(INVALID_FILTER_VALUE + " " + field + "-" + value);
+            }
+            return number;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(INVALID_FILTER_VALUE + " " + field + "-" + value, e);
+        }
+    }
+
+    /**
+     * Условие фильтра вместе со стоимостью проверки; для строковых полей — также имя поля и условие на значение.
+     */
+    private record Clause(int cost, Predicate<NginxLog> predicate, String field, Predicate<String> condition) {
+    }
+}
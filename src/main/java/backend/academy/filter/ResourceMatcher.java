@@ -0,0 +1,95 @@
+package backend.academy.filter;
+
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+import static backend.academy.config.ErrorMessages.INVALID_FILTER_VALUE;
+
+/**
+ * Сопоставление ресурса запроса с шаблоном фильтра.
+ * <p>
+ * Вид сопоставления задается префиксом значения фильтра:
+ * <ul>
+ *     <li>{@code prefix:/downloads/} — ресурс начинается с заданной строки;</li>
+ *     <li>{@code glob:/downloads/*} — шаблон, где {@code *} и {@code ?} не пересекают {@code /},
+ *     а {@code **} совпадает с любой последовательностью символов;</li>
+ *     <li>{@code regex:^/downloads/product_[12]$} — регулярное выражение, которое ищется в ресурсе;</li>
+ *     <li>без префикса — точное совпадение.</li>
+ * </ul>
+ * Шаблон компилируется один раз при создании фильтра.
+ * </p>
+ *
+ * @param mode      Вид сопоставления; определяет стоимость проверки.
+ * @param predicate Проверка ресурса.
+ */
+record ResourceMatcher(Mode mode, Predicate<String> predicate) {
+    private static final String PREFIX = "prefix:";
+    private static final String GLOB = "glob:";
+    private static final String REGEX = "regex:";
+
+    /**
+     * Виды сопоставления в порядке возрастания стоимости проверки.
+     */
+    enum Mode {
+        EXACT,
+        PREFIX,
+        GLOB,
+        REGEX
+    }
+
+    /**
+     * @param spec Значение фильтра, возможно с префиксом вида сопоставления.
+     * @return Скомпилированное сопоставление.
+     * @throws IllegalArgumentException если регулярное выражение некорректно.
+     */
+    static ResourceMatcher compile(String spec) {
+        if (spec.startsWith(PREFIX)) {
+            String prefix = spec.substring(PREFIX.length());
+            return new ResourceMatcher(Mode.PREFIX, resource -> resource.startsWith(prefix));
+        }
+        if (spec.startsWith(GLOB)) {
+            Pattern pattern = Pattern.compile(globToRegex(spec.substring(GLOB.length())));
+            return new ResourceMatcher(Mode.GLOB, resource -> pattern.matcher(resource).matches());
+        }
+        if (spec.startsWith(REGEX)) {
+            try {
+                Pattern pattern = Pattern.compile(spec.substring(REGEX.length()));
+                return new ResourceMatcher(Mode.REGEX, resource -> pattern.matcher(resource).find());
+            } catch (PatternSyntaxException e) {
+                throw new IllegalArgumentException(INVALID_FILTER_VALUE + " " + spec, e);
+            }
+        }
+        return new ResourceMatcher(Mode.EXACT, spec::equals);
+    }
+
+    /**
+     * Преобразует glob-шаблон в регулярное выражение.
+     */
+    static String globToRegex(String glob) {
+        StringBuilder regex = new StringBuilder(glob.length() * 2);
+        StringBuilder literal = new StringBuilder();
+        for (int i = 0; i < glob.length(); i++) {
+            char ch = glob.charAt(i);
+            if (ch != '*' && ch != '?') {
+                literal.append(ch);
+                continue;
+            }
+            if (!literal.isEmpty()) {
+                regex.append(Pattern.quote(literal.toString()));
+                literal.setLength(0);
+            }
+            if (ch == '?') {
+                regex.append("[^/]");
+            } else if (i + 1 < glob.length() && glob.charAt(i + 1) == '*') {
+                regex.append(".*");
+                i++;
+            } else {
+                regex.append("[^/]*");
+            }
+        }
+        if (!literal.isEmpty()) {
+            regex.append(Pattern.quote(literal.toString()));
+        }
+        return regex.toString();
+    }
+}
@@ -0,0 +1,42 @@
+package backend.academy.filter;
+
+/**
+ * Условие на числовые поля лога: код ответа и размер ответа.
+ * <p>
+ * Такие условия проверяются парсером до создания строковых полей записи, поэтому строки,
+ * которые не проходят фильтр по коду или размеру, отбрасываются без выделения памяти.
+ * </p>
+ */
+@FunctionalInterface
+public interface StatusSizePredicate {
+    StatusSizePredicate ALWAYS = (statusCode, responseSize) -> true;
+
+    /**
+     * @param statusCode   Код ответа HTTP.
+     * @param responseSize Размер ответа в байтах.
+     * @return true, если запись удовлетворяет условию.
+     */
+    boolean test(int statusCode, int responseSize);
+
+    /**
+     * @param other Второе условие.
+     * @return Условие, выполняющееся, когда выполнены оба условия.
+     */
+    default StatusSizePredicate and(StatusSizePredicate other) {
+        if (this == ALWAYS) {
+            return other;
+        }
+        return (statusCode, responseSize) -> test(statusCode, responseSize) && other.test(statusCode, responseSize);
+    }
+
+    /**
+     * @param other Второе условие.
+     * @return Условие, выполняющееся, когда выполнено хотя бы одно из условий.
+     */
+    default StatusSizePredicate or(StatusSizePredicate other) {
+        if (this == ALWAYS || other == ALWAYS) {
+            return ALWAYS;
+        }
+        return (statusCode, responseSize) -> test(statusCode, responseSize) || other.test(statusCode, responseSize);
+    }
+}
@@ -0,0 +1,220 @@
+package backend.academy.nginx;
+
+import backend.academy.filter.StatusSizePredicate;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Однопроходный парсер строк лога Nginx, работающий с байтами строки в кодировке UTF-8.
+ * <p>
+ * Разделители формата combined — символы ASCII, а байты многобайтовых символов UTF-8 всегда больше
+ * {@code 0x7F}, поэтому границы полей находятся без декодирования строки. В {@link String}
+ * превращаются только поля записей, прошедших условие на код и размер ответа и входящих в
+ * {@link FieldMask}. Принимаемый формат и результат совпадают с {@link NginxLogParser} для той же
+ * строки, декодированной из UTF-8.
+ * </p>
+ */
+public final class ByteNginxLogParser {
+    private static final int NOT_FOUND = -1;
+    private static final String EMPTY_FIELD = "-";
+    private static final byte[] AFTER_IP = " - - [".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] AFTER_TIMESTAMP = "] \"".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] BETWEEN_QUOTED = "\" \"".getBytes(StandardCharsets.US_ASCII);
+    private static final int RADIX = 10;
+
+    private ByteNginxLogParser() {
+    }
+
+    /**
+     * Разбирает строку лога из диапазона байтов, не выбрасывая исключений для строк неверного формата.
+     *
+     * @param line      Байты, содержащие строку лога без перевода строки.
+     * @param from      Индекс первого байта строки.
+     * @param to        Индекс байта, следующего за последним байтом строки.
+     * @param prefilter Условие на код и размер ответа.
+     * @param fields    Строковые поля, которые копируются в запись; остальные равны {@code "-"}.
+     * @return Запись лога, {@code null}, если запись не удовлетворяет условию, или
+     *     {@link NginxLogParser#INVALID}, если строка не соответствует формату.
+     */
+    @SuppressWarnings("CyclomaticComplexity")
+    public static NginxLog tryParseLogLine(
+        byte[] line, int from, int to, StatusSizePredicate prefilter, FieldMask fields
+    ) {
+        int ipEnd = tokenEnd(line, from, to);
+        if (ipEnd == from || !startsWith(line, ipEnd, to, AFTER_IP)) {
+            return NginxLogParser.INVALID;
+        }
+
+        int timestampStart = ipEnd + AFTER_IP.length;
+        int timestampEnd = indexOf(line, timestampStart, to, (byte) ']');
+        if (timestampEnd <= timestampStart || !startsWith(line, timestampEnd, to, AFTER_TIMESTAMP)) {
+            return NginxLogParser.INVALID;
+        }
+
+        int methodStart = timestampEnd + AFTER_TIMESTAMP.length;
+        int methodEnd = tokenEndBeforeSpace(line, methodStart, to);
+        if (methodEnd == NOT_FOUND) {
+            return NginxLogParser.INVALID;
+        }
+        int resourceStart = methodEnd + 1;
+        int resourceEnd = tokenEndBeforeSpace(line, resourceStart, to);
+        if (resourceEnd == NOT_FOUND) {
+            return NginxLogParser.INVALID;
+        }
+
+        // Версия протокола заканчивается закрывающей кавычкой запроса, за которой идет пробел
+        int versionStart = resourceEnd + 1;
+        int requestEnd = tokenEndBeforeSpace(line, versionStart, to);
+        int versionEnd = requestEnd - 1;
+        if (requestEnd == NOT_FOUND || versionEnd <= versionStart || line[versionEnd] != '"') {
+            return NginxLogParser.INVALID;
+        }
+
+        int statusStart = requestEnd + 1;
+        int statusEnd = digitsEndBeforeSpace(line, statusStart, to);
+        if (statusEnd == NOT_FOUND) {
+            return NginxLogParser.INVALID;
+        }
+        int sizeStart = statusEnd + 1;
+        int sizeEnd = digitsEndBeforeSpace(line, sizeStart, to);
+        if (sizeEnd == NOT_FOUND) {
+            return NginxLogParser.INVALID;
+        }
+
+        // Остаток строки должен иметь вид "referer" "userAgent"
+        int quotedStart = sizeEnd + 1;
+        int last = to - 1;
+        if (quotedStart >= last || line[quotedStart] != '"' || line[last] != '"') {
+            return NginxLogParser.INVALID;
+        }
+        int separator = indexOf(line, quotedStart + 1, to, BETWEEN_QUOTED);
+        if (separator < 0 || separator + BETWEEN_QUOTED.length > last) {
+            return NginxLogParser.INVALID;
+        }
+
+        int statusCode = parseDigits(line, statusStart, statusEnd);
+        int responseSize = parseDigits(line, sizeStart, sizeEnd);
+        if (statusCode == NOT_FOUND || responseSize == NOT_FOUND) {
+            return NginxLogParser.INVALID;
+        }
+        if (!prefilter.test(statusCode, responseSize)) {
+            return null;
+        }
+
+        return new NginxLog(
+            field(line, fields, FieldMask.IP_ADDRESS, from, ipEnd),
+            EMPTY_FIELD,
+            EMPTY_FIELD,
+            field(line, fields, FieldMask.TIMESTAMP, timestampStart, timestampEnd),
+            field(line, fields, FieldMask.REQUEST_METHOD, methodStart, methodEnd),
+            field(line, fields, FieldMask.RESOURCE, resourceStart, resourceEnd),
+            field(line, fields, FieldMask.HTTP_VERSION, versionStart, versionEnd),
+            statusCode,
+            responseSize
+        );
+    }
+
+    /**
+     * Декодирует поле из UTF-8, если оно входит в набор, иначе возвращает общую константу {@code "-"}.
+     */
+    private static String field(byte[] line, FieldMask fields, int field, int from, int to) {
+        return fields.contains(field) ? new String(line, from, to - from, StandardCharsets.UTF_8) : EMPTY_FIELD;
+    }
+
+    /**
+     * Возвращает индекс первого пробельного байта, начиная с позиции {@code from}, или {@code to}.
+     */
+    private static int tokenEnd(byte[] line, int from, int to) {
+        int index = from;
+        while (index < to && !isWhitespace(line[index])) {
+            index++;
+        }
+        return index;
+    }
+
+    /**
+     * Находит конец непустого токена, за которым обязательно следует одиночный пробел.
+     *
+     * @return Индекс пробела или {@link #NOT_FOUND}.
+     */
+    private static int tokenEndBeforeSpace(byte[] line, int from, int to) {
+        int end = tokenEnd(line, from, to);
+        if (end == from || end >= to || line[end] != ' ') {
+            return NOT_FOUND;
+        }
+        return end;
+    }
+
+    /**
+     * Находит конец непустой последовательности цифр, за которой обязательно следует пробел.
+     *
+     * @return Индекс пробела или {@link #NOT_FOUND}.
+     */
+    private static int digitsEndBeforeSpace(byte[] line, int from, int to) {
+        int index = from;
+        while (index < to && isDigit(line[index])) {
+            index++;
+        }
+        if (index == from || index >= to || line[index] != ' ') {
+            return NOT_FOUND;
+        }
+        return index;
+    }
+
+    /**
+     * Вычисляет значение десятичного числа из диапазона байтов.
+     *
+     * @return Значение или {@link #NOT_FOUND}, если оно не помещается в {@code int}.
+     */
+    private static int parseDigits(byte[] line, int from, int to) {
+        int value = 0;
+        for (int index = from; index < to; index++) {
+            int digit = line[index] - '0';
+            if (value > (Integer.MAX_VALUE - digit) / RADIX) {
+                return NOT_FOUND;
+            }
+            value = value * RADIX + digit;
+        }
+        return value;
+    }
+
+    private static boolean startsWith(byte[] line, int at, int to, byte[] prefix) {
+        if (to - at < prefix.length) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length; i++) {
+            if (line[at + i] != prefix[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int indexOf(byte[] line, int from, int to, byte value) {
+        for (int index = from; index < to; index++) {
+            if (line[index] == value) {
+                return index;
+            }
+        }
+        return NOT_FOUND;
+    }
+
+    private static int indexOf(byte[] line, int from, int to, byte[] value) {
+        for (int index = from; index <= to - value.length; index++) {
+            if (startsWith(line, index, to, value)) {
+                return index;
+            }
+        }
+        return NOT_FOUND;
+    }
+
+    /**
+     * Соответствует классу символов {@code \s} регулярных выражений Java.
+     */
+    private static boolean isWhitespace(byte ch) {
+        return ch == ' ' || ch == '\t' || ch == '\n' || ch == '\u000B' || ch == '\f' || ch == '\r';
+    }
+
+    private static boolean isDigit(byte ch) {
+        return ch >= '0' && ch <= '9';
+    }
+}
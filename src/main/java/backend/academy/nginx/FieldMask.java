@@ -0,0 +1,56 @@
+package backend.academy.nginx;
+
+/**
+ * Набор строковых полей записи, которые парсер копирует из строки лога.
+ * <p>
+ * Поля вне набора не выделяются в отдельные строки: в записи вместо них стоит общая константа
+ * {@code "-"}, как у полей userIdentifier и userId. Границы всех полей по-прежнему проверяются,
+ * поэтому набор не влияет на то, какие строки считаются строками неверного формата. Код и размер
+ * ответа вычисляются всегда: они не требуют выделения памяти.
+ * </p>
+ *
+ * @param bits Битовая маска полей {@link #IP_ADDRESS}, {@link #TIMESTAMP}, {@link #REQUEST_METHOD},
+ *             {@link #RESOURCE} и {@link #HTTP_VERSION}.
+ */
+public record FieldMask(int bits) {
+    public static final int IP_ADDRESS = 1;
+    public static final int TIMESTAMP = 1 << 1;
+    public static final int REQUEST_METHOD = 1 << 2;
+    public static final int RESOURCE = 1 << 3;
+    public static final int HTTP_VERSION = 1 << 4;
+
+    public static final FieldMask ALL =
+        new FieldMask(IP_ADDRESS | TIMESTAMP | REQUEST_METHOD | RESOURCE | HTTP_VERSION);
+    public static final FieldMask NONE = new FieldMask(0);
+
+    /**
+     * @param field Поле, например {@link #TIMESTAMP}.
+     * @return Набор, дополненный полем.
+     */
+    public FieldMask with(int field) {
+        return new FieldMask(bits | field);
+    }
+
+    /**
+     * @param fieldName Имя поля в том виде, в котором оно задается в {@code --filter} и {@code --dimension}.
+     * @return Набор, дополненный полем; для числовых, всегда пустых и неизвестных полей — текущий набор.
+     */
+    public FieldMask with(String fieldName) {
+        return with(switch (fieldName) {
+            case "ipAddress" -> IP_ADDRESS;
+            case "timestamp" -> TIMESTAMP;
+            case "requestMethod" -> REQUEST_METHOD;
+            case "resource" -> RESOURCE;
+            case "httpVersion" -> HTTP_VERSION;
+            default -> 0;
+        });
+    }
+
+    /**
+     * @param field Поле, например {@link #TIMESTAMP}.
+     * @return true, если поле входит в набор.
+     */
+    public boolean contains(int field) {
+        return (bits & field) != 0;
+    }
+}
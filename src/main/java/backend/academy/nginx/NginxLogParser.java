@@ -1,42 +1,238 @@
 package backend.academy.nginx;
 
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import backend.academy.filter.StatusSizePredicate;
 import static backend.academy.config.ErrorMessages.INVALID_FORMAT_NGINX;
 
+/**
+ * Однопроходный парсер строк лога Nginx в формате combined.
+ * <p>
+ * Парсер просматривает строку слева направо и находит границы полей без регулярных
+ * выражений. Числовые поля {@code statusCode} и {@code responseSize} вычисляются
+ * непосредственно из символов строки, а поля referer и user agent только проверяются
+ * на корректность и не копируются. Принимаемый формат и поведение при ошибках совпадают
+ * с {@link RegexNginxLogParser}: для некорректной строки выбрасывается
+ * {@link IllegalArgumentException}.
+ * </p>
+ * <p>
+ * Для логов с большим числом поврежденных строк предназначен {@link #tryParseLogLine(String, StatusSizePredicate)}:
+ * он сообщает об ошибке значением {@link #INVALID} без создания исключения и трассировки стека.
+ * </p>
+ * <p>
+ * Если анализу нужны не все поля, набор {@link FieldMask} ограничивает копируемые строковые поля:
+ * для типичного отчета достаточно IP-адреса и ресурса, и на строку создаются две подстроки вместо пяти.
+ * </p>
+ */
 public class NginxLogParser {
-    private static final String IP_ADDRESS_GROUP = "ipAddress";
-    private static final String TIMESTAMP_GROUP = "timestamp";
-    private static final String REQUEST_METHOD_GROUP = "requestMethod";
-    private static final String RESOURCE_GROUP = "resource";
-    private static final String HTTP_VERSION_GROUP = "httpVersion";
-    private static final String STATUS_CODE_GROUP = "statusCode";
-    private static final String RESPONSE_SIZE_GROUP = "responseSize";
-    private static final String NGINX_LOG_PATTERN =
-        "^(?<ipAddress>\\S+) - - \\[(?<timestamp>[^]]+)] \"(?<requestMethod>\\S+) (?<resource>\\S+) "
-            + "(?<httpVersion>\\S+)\" (?<statusCode>\\d+) (?<responseSize>\\d+) \"(?<referer>.*)\" "
-            + "\"(?<userAgent>.*)\"";
+    /**
+     * Результат разбора строки, не соответствующей формату. Сравнивается по ссылке.
+     */
+    public static final NginxLog INVALID = new NginxLog("", "", "", "", "", "", "", 0, 0);
+
+    private static final int NOT_FOUND = -1;
+    private static final String EMPTY_FIELD = "-";
+    private static final String AFTER_IP = " - - [";
+    private static final String AFTER_TIMESTAMP = "] \"";
+    private static final String BETWEEN_QUOTED = "\" \"";
+    private static final int RADIX = 10;
 
     private NginxLogParser() {
     }
 
     public static NginxLog parseLogLine(String line) {
-        Pattern pattern = Pattern.compile(NGINX_LOG_PATTERN);
-        Matcher matcher = pattern.matcher(line);
-
-        if (matcher.matches()) {
-            String ipAddress = matcher.group(IP_ADDRESS_GROUP);
-            String timestamp = matcher.group(TIMESTAMP_GROUP);
-            String requestMethod = matcher.group(REQUEST_METHOD_GROUP);
-            String resource = matcher.group(RESOURCE_GROUP);
-            String httpVersion = matcher.group(HTTP_VERSION_GROUP);
-            int statusCode = Integer.parseInt(matcher.group(STATUS_CODE_GROUP));
-            int responseSize = Integer.parseInt(matcher.group(RESPONSE_SIZE_GROUP));
-
-            return new NginxLog(ipAddress, "-", "-", timestamp, requestMethod, resource, httpVersion, statusCode,
-                responseSize);
-        } else {
+        return parseLogLine(line, StatusSizePredicate.ALWAYS);
+    }
+
+    /**
+     * Разбирает строку лога, проверяя код и размер ответа до создания строковых полей.
+     *
+     * @param line      Строка лога.
+     * @param prefilter Условие на код и размер ответа.
+     * @return Запись лога или {@code null}, если запись не удовлетворяет условию.
+     * @throws IllegalArgumentException если строка не соответствует формату.
+     */
+    public static NginxLog parseLogLine(String line, StatusSizePredicate prefilter) {
+        NginxLog log = tryParseLogLine(line, prefilter);
+        if (log == INVALID) {
             throw new IllegalArgumentException(INVALID_FORMAT_NGINX);
         }
+        return log;
+    }
+
+    /**
+     * Разбирает строку лога, не выбрасывая исключений для строк неверного формата.
+     *
+     * @param line      Строка лога.
+     * @param prefilter Условие на код и размер ответа.
+     * @return Запись лога, {@code null}, если запись не удовлетворяет условию, или {@link #INVALID},
+     *     если строка не соответствует формату.
+     */
+    public static NginxLog tryParseLogLine(String line, StatusSizePredicate prefilter) {
+        return tryParseLogLine(line, prefilter, FieldMask.ALL);
+    }
+
+    /**
+     * Разбирает строку лога, копируя только указанные строковые поля и не выбрасывая исключений
+     * для строк неверного формата.
+     *
+     * @param line      Строка лога.
+     * @param prefilter Условие на код и размер ответа.
+     * @param fields    Строковые поля, которые копируются в запись; остальные равны {@code "-"}.
+     * @return Запись лога, {@code null}, если запись не удовлетворяет условию, или {@link #INVALID},
+     *     если строка не соответствует формату.
+     */
+    @SuppressWarnings("CyclomaticComplexity")
+    public static NginxLog tryParseLogLine(String line, StatusSizePredicate prefilter, FieldMask fields) {
+        int length = line.length();
+
+        int ipEnd = tokenEnd(line, 0);
+        if (ipEnd == 0 || !line.startsWith(AFTER_IP, ipEnd)) {
+            return INVALID;
+        }
+
+        int timestampStart = ipEnd + AFTER_IP.length();
+        int timestampEnd = line.indexOf(']', timestampStart);
+        if (timestampEnd <= timestampStart || !line.startsWith(AFTER_TIMESTAMP, timestampEnd)) {
+            return INVALID;
+        }
+
+        int methodStart = timestampEnd + AFTER_TIMESTAMP.length();
+        int methodEnd = tokenEndBeforeSpace(line, methodStart);
+        if (methodEnd == NOT_FOUND) {
+            return INVALID;
+        }
+        int resourceStart = methodEnd + 1;
+        int resourceEnd = tokenEndBeforeSpace(line, resourceStart);
+        if (resourceEnd == NOT_FOUND) {
+            return INVALID;
+        }
+
+        // Версия протокола заканчивается закрывающей кавычкой запроса, за которой идет пробел
+        int versionStart = resourceEnd + 1;
+        int requestEnd = tokenEndBeforeSpace(line, versionStart);
+        int versionEnd = requestEnd - 1;
+        if (requestEnd == NOT_FOUND || versionEnd <= versionStart || line.charAt(versionEnd) != '"') {
+            return INVALID;
+        }
+
+        int statusStart = requestEnd + 1;
+        int statusEnd = digitsEndBeforeSpace(line, statusStart);
+        if (statusEnd == NOT_FOUND) {
+            return INVALID;
+        }
+        int sizeStart = statusEnd + 1;
+        int sizeEnd = digitsEndBeforeSpace(line, sizeStart);
+        if (sizeEnd == NOT_FOUND) {
+            return INVALID;
+        }
+
+        // Остаток строки должен иметь вид "referer" "userAgent"
+        int quotedStart = sizeEnd + 1;
+        int last = length - 1;
+        if (quotedStart >= last || line.charAt(quotedStart) != '"' || line.charAt(last) != '"') {
+            return INVALID;
+        }
+        int separator = line.indexOf(BETWEEN_QUOTED, quotedStart + 1);
+        if (separator < 0 || separator + BETWEEN_QUOTED.length() > last) {
+            return INVALID;
+        }
+
+        int statusCode = parseDigits(line, statusStart, statusEnd);
+        int responseSize = parseDigits(line, sizeStart, sizeEnd);
+        if (statusCode == NOT_FOUND || responseSize == NOT_FOUND) {
+            return INVALID;
+        }
+        if (!prefilter.test(statusCode, responseSize)) {
+            return null;
+        }
+
+        return new NginxLog(
+            field(line, fields, FieldMask.IP_ADDRESS, 0, ipEnd),
+            EMPTY_FIELD,
+            EMPTY_FIELD,
+            field(line, fields, FieldMask.TIMESTAMP, timestampStart, timestampEnd),
+            field(line, fields, FieldMask.REQUEST_METHOD, methodStart, methodEnd),
+            field(line, fields, FieldMask.RESOURCE, resourceStart, resourceEnd),
+            field(line, fields, FieldMask.HTTP_VERSION, versionStart, versionEnd),
+            statusCode,
+            responseSize
+        );
+    }
+
+    /**
+     * Копирует поле из строки, если оно входит в набор, иначе возвращает общую константу {@code "-"}.
+     */
+    private static String field(String line, FieldMask fields, int field, int from, int to) {
+        return fields.contains(field) ? line.substring(from, to) : EMPTY_FIELD;
+    }
+
+    /**
+     * Возвращает индекс первого пробельного символа, начиная с позиции {@code from},
+     * или длину строки, если пробельных символов нет.
+     */
+    private static int tokenEnd(String line, int from) {
+        int length = line.length();
+        int index = from;
+        while (index < length && !isWhitespace(line.charAt(index))) {
+            index++;
+        }
+        return index;
+    }
+
+    /**
+     * Находит конец непустого токена, за которым обязательно следует одиночный пробел.
+     *
+     * @return Индекс пробела или {@link #NOT_FOUND}.
+     */
+    private static int tokenEndBeforeSpace(String line, int from) {
+        int end = tokenEnd(line, from);
+        if (end == from || end >= line.length() || line.charAt(end) != ' ') {
+            return NOT_FOUND;
+        }
+        return end;
+    }
+
+    /**
+     * Находит конец непустой последовательности цифр, за которой обязательно следует пробел.
+     *
+     * @return Индекс пробела или {@link #NOT_FOUND}.
+     */
+    private static int digitsEndBeforeSpace(String line, int from) {
+        int length = line.length();
+        int index = from;
+        while (index < length && isDigit(line.charAt(index))) {
+            index++;
+        }
+        if (index == from || index >= length || line.charAt(index) != ' ') {
+            return NOT_FOUND;
+        }
+        return index;
+    }
+
+    /**
+     * Вычисляет значение десятичного числа из диапазона символов без создания подстроки.
+     *
+     * @return Значение или {@link #NOT_FOUND}, если оно не помещается в {@code int}.
+     */
+    private static int parseDigits(String line, int from, int to) {
+        int value = 0;
+        for (int index = from; index < to; index++) {
+            int digit = line.charAt(index) - '0';
+            if (value > (Integer.MAX_VALUE - digit) / RADIX) {
+                return NOT_FOUND;
+            }
+            value = value * RADIX + digit;
+        }
+        return value;
+    }
+
+    /**
+     * Соответствует классу символов {@code \s} регулярных выражений Java.
+     */
+    private static boolean isWhitespace(char ch) {
+        return ch == ' ' || ch == '\t' || ch == '\n' || ch == '\u000B' || ch == '\f' || ch == '\r';
+    }
+
+    private static boolean isDigit(char ch) {
+        return ch >= '0' && ch <= '9';
     }
 }
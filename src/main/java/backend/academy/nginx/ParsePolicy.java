@@ -0,0 +1,15 @@
+package backend.academy.nginx;
+
+/**
+ * Поведение при строке, не соответствующей формату лога.
+ */
+public enum ParsePolicy {
+    /**
+     * Строка пропускается и учитывается в счетчике отброшенных строк источника.
+     */
+    SKIP,
+    /**
+     * Чтение прерывается исключением {@link IllegalArgumentException} с источником и текстом строки.
+     */
+    STRICT
+}
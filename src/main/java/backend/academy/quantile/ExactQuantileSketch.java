@@ -0,0 +1,89 @@
+package backend.academy.quantile;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Точное вычисление процентилей по всем добавленным значениям.
+ * <p>
+ * Значения хранятся в растущем массиве {@code long[]} и сортируются один раз при первом
+ * запросе процентиля после изменения. Память пропорциональна количеству значений
+ * (8 байт на значение), поэтому движок подходит для небольших объемов данных или для
+ * проверки приближенных движков.
+ * </p>
+ */
+public final class ExactQuantileSketch implements QuantileSketch {
+    private static final int INITIAL_CAPACITY = 16;
+
+    private long[] values = new long[INITIAL_CAPACITY];
+    private int size;
+    private boolean sorted = true;
+
+    @Override
+    public void add(long value) {
+        if (size == values.length) {
+            values = Arrays.copyOf(values, size * 2);
+        }
+        values[size++] = value;
+        sorted = false;
+    }
+
+    @Override
+    public long quantile(double fraction) {
+        if (size == 0) {
+            return 0;
+        }
+        sort();
+        return values[(int) QuantileSketch.rank(size, fraction) - 1];
+    }
+
+    @Override
+    public long count() {
+        return size;
+    }
+
+    @Override
+    public QuantileSketch merge(QuantileSketch other) {
+        ExactQuantileSketch exact = (ExactQuantileSketch) other;
+        for (int i = 0; i < exact.size; i++) {
+            add(exact.values[i]);
+        }
+        return this;
+    }
+
+    @Override
+    public void writeTo(DataOutput out) throws IOException {
+        out.writeInt(size);
+        for (int i = 0; i < size; i++) {
+            out.writeLong(values[i]);
+        }
+    }
+
+    /**
+     * Восстанавливает структуру, записанную методом {@link #writeTo(DataOutput)}.
+     *
+     * @param in Поток для чтения.
+     * @return Восстановленная структура.
+     * @throws IOException если чтение не удалось.
+     */
+    public static ExactQuantileSketch readFrom(DataInput in) throws IOException {
+        ExactQuantileSketch sketch = new ExactQuantileSketch();
+        int size = in.readInt();
+        sketch.values = new long[Math.max(size, INITIAL_CAPACITY)];
+        for (int i = 0; i < size; i++) {
+            sketch.values[i] = in.readLong();
+        }
+        sketch.size = size;
+        sketch.sorted = size == 0;
+        return sketch;
+    }
+
+    private void sort() {
+        if (!sorted) {
+            Arrays.sort(values, 0, size);
+            sorted = true;
+        }
+    }
+}
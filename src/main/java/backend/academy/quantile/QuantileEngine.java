@@ -0,0 +1,54 @@
+package backend.academy.quantile;
+
+import java.io.DataInput;
+import java.io.IOException;
+import java.util.function.Supplier;
+
+/**
+ * Движки вычисления процентилей.
+ */
+public enum QuantileEngine {
+    /**
+     * Точные процентили; память пропорциональна количеству значений.
+     */
+    EXACT(ExactQuantileSketch::new, ExactQuantileSketch::readFrom),
+    /**
+     * Логарифмическая гистограмма с относительной погрешностью около 0.4% и фиксированной памятью.
+     */
+    HDR(HdrQuantileSketch::new, HdrQuantileSketch::readFrom),
+    /**
+     * t-digest с погрешностью по рангу, наименьшей на хвостах распределения, и фиксированной памятью.
+     */
+    TDIGEST(TDigestQuantileSketch::new, TDigestQuantileSketch::readFrom);
+
+    private final Supplier<QuantileSketch> factory;
+    private final Reader reader;
+
+    QuantileEngine(Supplier<QuantileSketch> factory, Reader reader) {
+        this.factory = factory;
+        this.reader = reader;
+    }
+
+    /**
+     * @return Новая пустая структура для вычисления процентилей.
+     */
+    public QuantileSketch create() {
+        return factory.get();
+    }
+
+    /**
+     * Восстанавливает структуру, записанную методом {@link QuantileSketch#writeTo(java.io.DataOutput)}.
+     *
+     * @param in Поток для чтения.
+     * @return Структура этого движка.
+     * @throws IOException если чтение не удалось или данные повреждены.
+     */
+    public QuantileSketch read(DataInput in) throws IOException {
+        return reader.read(in);
+    }
+
+    @FunctionalInterface
+    private interface Reader {
+        QuantileSketch read(DataInput in) throws IOException;
+    }
+}
@@ -0,0 +1,79 @@
+package backend.academy.quantile;
+
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Структура для вычисления процентилей по потоку неотрицательных значений.
+ * <p>
+ * Реализации хранят значения в примитивных массивах без упаковки, поддерживают объединение
+ * частичных результатов, полученных в разных потоках, и вычисляют любой процентиль после
+ * обработки данных. Реализации не потокобезопасны: каждый поток заполняет свой экземпляр,
+ * после чего экземпляры объединяются методом {@link #merge(QuantileSketch)}.
+ * </p>
+ * <p>
+ * Процентиль определяется по методу ближайшего ранга: для доли {@code q} и {@code n} значений
+ * возвращается значение с рангом {@code ceil(q * n)}. Для пустой структуры возвращается 0.
+ * </p>
+ */
+public interface QuantileSketch {
+    double RANK_TOLERANCE = 1e-12;
+
+    /**
+     * Добавляет значение.
+     *
+     * @param value Неотрицательное значение.
+     */
+    void add(long value);
+
+    /**
+     * Вычисляет процентиль.
+     *
+     * @param fraction Доля от 0 до 1 (например, 0.999 для 99.9-го перцентиля).
+     * @return Значение процентиля или 0, если значений нет.
+     */
+    long quantile(double fraction);
+
+    /**
+     * @return Количество добавленных значений.
+     */
+    long count();
+
+    /**
+     * Объединяет текущую структуру с другой структурой того же движка.
+     * <p>
+     * Переданная структура после вызова не должна использоваться.
+     * </p>
+     *
+     * @param other Структура, значения которой добавляются к текущей.
+     * @return Структура с объединенными значениями: текущая или заменившая ее.
+     */
+    QuantileSketch merge(QuantileSketch other);
+
+    /**
+     * Записывает состояние структуры в двоичном виде.
+     * <p>
+     * Прочитать состояние можно методом {@link QuantileEngine#read(java.io.DataInput)} того же движка.
+     * </p>
+     *
+     * @param out Поток для записи.
+     * @throws IOException если запись не удалась.
+     */
+    void writeTo(DataOutput out) throws IOException;
+
+    /**
+     * Вычисляет ранг значения для процентиля по методу ближайшего ранга.
+     * <p>
+     * Произведение уменьшается на относительный допуск, чтобы ошибка округления доли
+     * (например, {@code 99.9 / 100}) не сдвигала ранг на единицу.
+     * </p>
+     *
+     * @param count    Количество значений.
+     * @param fraction Доля от 0 до 1.
+     * @return Ранг от 1 до {@code count}.
+     */
+    static long rank(long count, double fraction) {
+        long rank = (long) Math.ceil(count * fraction * (1 - RANK_TOLERANCE));
+        return Math.clamp(rank, 1, Math.max(count, 1));
+    }
+}
@@ -0,0 +1,130 @@
+package backend.academy.query;
+
+import backend.academy.analyzer.AnalyzerLogic;
+import backend.academy.analyzer.IncrementalAnalysis;
+import backend.academy.analyzer.LogAccumulator;
+import backend.academy.datefilter.TimeRange;
+import backend.academy.filter.LogFilter;
+import backend.academy.filter.StatusSizePredicate;
+import backend.academy.nginx.FieldMask;
+import backend.academy.nginx.NginxLog;
+import backend.academy.statistic.Metrics;
+import java.util.List;
+import java.util.stream.Collector;
+import java.util.stream.Stream;
+
+/**
+ * Выполнение нескольких запросов ({@link Query}) за один проход по логам.
+ * <p>
+ * Строки читаются и разбираются один раз, а каждая запись передается накопителям всех запросов,
+ * фильтры которых она проходит. Поэтому читатель должен копировать объединение полей всех запросов
+ * ({@link #requiredFields()}), а отбрасывать при разборе только записи, не нужные ни одному запросу
+ * ({@link #prefilter()}, {@link #timeRange()}). Фильтры и параметры анализа у каждого запроса свои.
+ * </p>
+ * <p>
+ * Поток записей может быть параллельным: каждая часть данных собирается в собственный набор накопителей,
+ * и наборы объединяются поэлементно. Экземпляр не потокобезопасен.
+ * </p>
+ */
+public final class MultiQueryAnalysis {
+    private final List<Query> queries;
+    private final List<IncrementalAnalysis> analyses;
+
+    /**
+     * @param queries Запросы.
+     */
+    public MultiQueryAnalysis(List<Query> queries) {
+        this.queries = List.copyOf(queries);
+        this.analyses = this.queries.stream()
+            .map(query -> new IncrementalAnalysis(new AnalyzerLogic(query.options()), query.options(),
+                query.filters(), query.startDate(), query.endDate()))
+            .toList();
+    }
+
+    /**
+     * Учитывает записи во всех запросах за один проход по потоку.
+     *
+     * @param logs Поток записей; может быть параллельным.
+     */
+    public void accept(Stream<NginxLog> logs) {
+        LogAccumulator[] accumulators = logs.collect(collector());
+        for (int i = 0; i < accumulators.length; i++) {
+            analyses.get(i).accumulator().combine(accumulators[i]);
+        }
+    }
+
+    /**
+     * @return Метрики запросов в порядке {@link #queries()}.
+     */
+    public List<Metrics> metrics() {
+        return analyses.stream().map(IncrementalAnalysis::metrics).toList();
+    }
+
+    public List<Query> queries() {
+        return queries;
+    }
+
+    /**
+     * @return Строковые поля, которые нужны хотя бы одному запросу.
+     */
+    public FieldMask requiredFields() {
+        FieldMask fields = FieldMask.NONE;
+        for (Query query : queries) {
+            fields = fields.with(query.requiredFields().bits());
+        }
+        return fields;
+    }
+
+    /**
+     * @return Условие на код и размер ответа, которому удовлетворяют записи хотя бы одного запроса.
+     */
+    public StatusSizePredicate prefilter() {
+        return queries.stream()
+            .map(query -> LogFilter.compile(query.filters()).statusSize())
+            .reduce(StatusSizePredicate::or)
+            .orElse(StatusSizePredicate.ALWAYS);
+    }
+
+    /**
+     * @return Наименьший диапазон времени, содержащий диапазоны всех запросов.
+     */
+    public TimeRange timeRange() {
+        return queries.stream().map(Query::timeRange).reduce(TimeRange::union).orElse(TimeRange.ALL);
+    }
+
+    private Collector<NginxLog, LogAccumulator[], LogAccumulator[]> collector() {
+        return Collector.of(
+            this::newAccumulators,
+            this::dispatch,
+            MultiQueryAnalysis::combine,
+            Collector.Characteristics.UNORDERED,
+            Collector.Characteristics.IDENTITY_FINISH
+        );
+    }
+
+    private LogAccumulator[] newAccumulators() {
+        LogAccumulator[] accumulators = new LogAccumulator[queries.size()];
+        for (int i = 0; i < accumulators.length; i++) {
+            accumulators[i] = new LogAccumulator(queries.get(i).options());
+        }
+        return accumulators;
+    }
+
+    /**
+     * Передает запись накопителям запросов, фильтры которых она проходит.
+     */
+    private void dispatch(LogAccumulator[] accumulators, NginxLog log) {
+        for (int i = 0; i < accumulators.length; i++) {
+            if (analyses.get(i).test(log)) {
+                accumulators[i].accept(log);
+            }
+        }
+    }
+
+    private static LogAccumulator[] combine(LogAccumulator[] left, LogAccumulator[] right) {
+        for (int i = 0; i < left.length; i++) {
+            left[i].combine(right[i]);
+        }
+        return left;
+    }
+}
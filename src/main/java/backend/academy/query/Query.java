@@ -0,0 +1,47 @@
+package backend.academy.query;
+
+import backend.academy.analyzer.AnalysisOptions;
+import backend.academy.analyzer.ProcessingMode;
+import backend.academy.datefilter.TimeRange;
+import backend.academy.nginx.FieldMask;
+import java.util.Map;
+
+/**
+ * Именованный запрос из файла {@code --queries}: собственные фильтры, диапазон дат,
+ * параметры анализа и формат отчета.
+ *
+ * @param name      Имя запроса; используется в имени файла отчета.
+ * @param filters   Фильтры по полям записи, как в {@code --filter}.
+ * @param startDate Начало диапазона дат или null.
+ * @param endDate   Конец диапазона дат или null. Диапазон применяется, только если заданы обе границы.
+ * @param options   Параметры анализа.
+ * @param format    Формат отчета (adoc, markdown).
+ */
+public record Query(
+    String name, Map<String, String> filters, String startDate, String endDate, AnalysisOptions options, String format
+) {
+    public Query {
+        filters = Map.copyOf(filters);
+    }
+
+    /**
+     * @return Режим обработки запроса.
+     */
+    public ProcessingMode mode() {
+        return ProcessingMode.of(filters, startDate, endDate);
+    }
+
+    /**
+     * @return Строковые поля записи, которые нужны запросу.
+     */
+    public FieldMask requiredFields() {
+        return mode().requiredFields(filters, options);
+    }
+
+    /**
+     * @return Диапазон времени запроса или {@link TimeRange#ALL}, если диапазон не задан.
+     */
+    public TimeRange timeRange() {
+        return startDate != null && endDate != null ? TimeRange.of(startDate, endDate) : TimeRange.ALL;
+    }
+}
@@ -0,0 +1,156 @@
+package backend.academy.query;
+
+import backend.academy.analyzer.AnalysisOptions;
+import backend.academy.dimension.Dimension;
+import backend.academy.series.SeriesInterval;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+import java.util.regex.Pattern;
+import static backend.academy.config.ErrorMessages.INVALID_QUERY_NAME;
+import static backend.academy.config.ErrorMessages.INVALID_QUERY_VALUE;
+import static backend.academy.config.ErrorMessages.NO_QUERIES;
+import static backend.academy.config.ErrorMessages.QUERIES_READ_ERROR;
+import static backend.academy.config.ErrorMessages.UNKNOWN_QUERY_KEY;
+
+/**
+ * Чтение именованных запросов из файла {@code --queries}.
+ * <p>
+ * Файл имеет формат {@link Properties}; ключ состоит из имени запроса и параметра через точку:
+ * <pre>
+ * errors.filter.statusCode=5xx
+ * errors.dimension=ipAddress
+ * day.from=21/Jul/2023:00:00:00 +0000
+ * day.to=21/Jul/2023:23:59:59 +0000
+ * day.series=hour
+ * day.format=markdown
+ * </pre>
+ * Параметры: {@code filter.<поле>} — фильтр, как в {@code --filter}; {@code from} и {@code to} — диапазон дат;
+ * {@code dimension}, {@code series} и {@code top} — как одноименные параметры командной строки;
+ * {@code format} — формат отчета. Не заданные параметры анализа и формат берутся из командной строки,
+ * а фильтры и диапазон дат у каждого запроса свои. Запросы упорядочиваются по имени.
+ * </p>
+ */
+public final class QueryFile {
+    private static final Pattern NAME = Pattern.compile("[A-Za-z0-9_-]+");
+    private static final String FILTER_PREFIX = "filter.";
+    private static final String LIST_SEPARATOR = ",";
+
+    private QueryFile() {
+    }
+
+    /**
+     * Читает запросы из файла.
+     *
+     * @param file          Файл запросов в кодировке UTF-8.
+     * @param defaults      Параметры анализа из командной строки.
+     * @param defaultFormat Формат отчета из командной строки.
+     * @return Запросы в порядке имен.
+     * @throws UncheckedIOException     если файл не удалось прочитать.
+     * @throws IllegalArgumentException если файл содержит неверный параметр или не содержит запросов.
+     */
+    public static List<Query> load(Path file, AnalysisOptions defaults, String defaultFormat) {
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            properties.load(reader);
+        } catch (IOException e) {
+            throw new UncheckedIOException(QUERIES_READ_ERROR + " " + file, e);
+        }
+        List<Query> queries = parse(properties, defaults, defaultFormat);
+        if (queries.isEmpty()) {
+            throw new IllegalArgumentException(NO_QUERIES + " " + file);
+        }
+        return queries;
+    }
+
+    /**
+     * Составляет запросы из параметров.
+     *
+     * @param properties    Параметры вида {@code <имя запроса>.<параметр>=<значение>}.
+     * @param defaults      Параметры анализа из командной строки.
+     * @param defaultFormat Формат отчета из командной строки.
+     * @return Запросы в порядке имен.
+     * @throws IllegalArgumentException если параметр неизвестен или его значение неверно.
+     */
+    public static List<Query> parse(Properties properties, AnalysisOptions defaults, String defaultFormat) {
+        Map<String, Draft> drafts = new TreeMap<>();
+        for (String key : properties.stringPropertyNames()) {
+            int dot = key.indexOf('.');
+            String name = dot < 0 ? key : key.substring(0, dot);
+            if (!NAME.matcher(name).matches()) {
+                throw new IllegalArgumentException(INVALID_QUERY_NAME + " " + key);
+            }
+            if (dot < 0) {
+                throw new IllegalArgumentException(UNKNOWN_QUERY_KEY + " " + key);
+            }
+            String value = properties.getProperty(key).trim();
+            drafts.computeIfAbsent(name, Draft::new).set(key, key.substring(dot + 1), value);
+        }
+        return drafts.values().stream().map(draft -> draft.toQuery(defaults, defaultFormat)).toList();
+    }
+
+    /**
+     * Параметры одного запроса по мере чтения файла.
+     */
+    private static final class Draft {
+        private final String name;
+        private final Map<String, String> filters = new HashMap<>();
+        private String startDate;
+        private String endDate;
+        private String format;
+        private List<Dimension> dimensions;
+        private SeriesInterval seriesInterval;
+        private Integer topSize;
+
+        Draft(String name) {
+            this.name = name;
+        }
+
+        void set(String key, String parameter, String value) {
+            if (parameter.startsWith(FILTER_PREFIX) && parameter.length() > FILTER_PREFIX.length()) {
+                filters.put(parameter.substring(FILTER_PREFIX.length()), value);
+                return;
+            }
+            try {
+                switch (parameter) {
+                    case "from" -> startDate = value;
+                    case "to" -> endDate = value;
+                    case "format" -> format = value;
+                    case "dimension" -> dimensions = Arrays.stream(value.split(LIST_SEPARATOR))
+                        .map(String::trim).map(Dimension::parse).toList();
+                    case "series" -> seriesInterval = parseInterval(key, value);
+                    case "top" -> topSize = Integer.parseInt(value);
+                    default -> throw new IllegalArgumentException(UNKNOWN_QUERY_KEY + " " + key);
+                }
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException(INVALID_QUERY_VALUE + " " + key + "=" + value, e);
+            }
+        }
+
+        private static SeriesInterval parseInterval(String key, String value) {
+            try {
+                return SeriesInterval.valueOf(value.toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException(INVALID_QUERY_VALUE + " " + key + "=" + value, e);
+            }
+        }
+
+        Query toQuery(AnalysisOptions defaults, String defaultFormat) {
+            AnalysisOptions options = new AnalysisOptions(defaults.quantileEngine(), defaults.percentiles(),
+                defaults.resourceCapacity(), topSize == null ? defaults.topSize() : topSize,
+                dimensions == null ? defaults.dimensions() : dimensions,
+                seriesInterval == null ? defaults.seriesInterval() : seriesInterval, defaults.uniqueCounts());
+            return new Query(name, filters, startDate, endDate, options, format == null ? defaultFormat : format);
+        }
+    }
+}
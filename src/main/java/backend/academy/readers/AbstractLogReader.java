@@ -1,43 +1,223 @@
 package backend.academy.readers;
 
+import backend.academy.datefilter.TimeRange;
+import backend.academy.filter.StatusSizePredicate;
+import backend.academy.nginx.ByteNginxLogParser;
+import backend.academy.nginx.FieldMask;
 import backend.academy.nginx.NginxLog;
 import backend.academy.nginx.NginxLogParser;
-import java.io.IOException;
+import backend.academy.nginx.ParsePolicy;
+import backend.academy.table.LogTable;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import static backend.academy.config.ErrorMessages.INVALID_FORMAT_NGINX;
 
 /**
  * Абстрактный класс для чтения логов Nginx.
  *
- * <p>Этот класс предоставляет абстрактный метод для чтения логов из указанных путей.
+ * <p>Этот класс предоставляет абстрактный метод для потокового чтения логов из указанных путей.
  * Он также включает защищенный метод для преобразования строки лога в объект {@link NginxLog}
  * с использованием парсера логов.</p>
  */
 public abstract class AbstractLogReader {
+    private StatusSizePredicate prefilter = StatusSizePredicate.ALWAYS;
+    private FieldMask fields = FieldMask.ALL;
+    private TimeRange timeRange = TimeRange.ALL;
+    private ParsePolicy parsePolicy = ParsePolicy.SKIP;
+    private RejectedLineCounter rejectedLines = new RejectedLineCounter();
 
     /**
-     * Читает логи из заданных путей.
+     * Открывает ленивый поток логов из заданных путей.
      *
-     * <p>Метод должен быть реализован в подклассах для чтения логов из конкретных источников,
-     * таких как файлы или удаленные серверы. Метод может выбрасывать исключение {@link IOException},
-     * если возникнут проблемы с доступом к файлам или чтением данных.</p>
+     * <p>Строки читаются и разбираются по мере потребления потока, поэтому объем памяти
+     * не зависит от размера входных данных. Поток удерживает открытые файлы или соединения,
+     * поэтому его необходимо закрывать, например, с помощью try-with-resources.</p>
+     *
+     * @param paths Список строк, представляющих пути к логам, которые необходимо прочитать.
+     * @return Ленивый поток объектов {@link NginxLog}, который необходимо закрыть после использования.
+     */
+    public abstract Stream<NginxLog> streamLogs(List<String> paths);
+
+    /**
+     * Читает логи из заданных путей целиком в память.
+     *
+     * <p>Метод подходит только для небольших объемов данных. Для больших логов следует
+     * использовать {@link #streamLogs(List)}.</p>
      *
      * @param paths Список строк, представляющих пути к логам, которые необходимо прочитать.
      * @return Список объектов {@link NginxLog}, представляющих прочитанные логи.
-     * @throws IOException Если произошла ошибка ввода-вывода при чтении логов.
      */
-    public abstract List<NginxLog> readLogs(List<String> paths) throws IOException;
+    public List<NginxLog> readLogs(List<String> paths) {
+        try (Stream<NginxLog> logs = streamLogs(paths)) {
+            return logs.collect(Collectors.toList());
+        }
+    }
+
+    /**
+     * Читает логи из заданных путей в колоночную таблицу.
+     *
+     * <p>Таблица занимает в несколько раз меньше памяти, чем {@link #readLogs(List)}, и подходит
+     * для многократного анализа одних и тех же данных.</p>
+     *
+     * @param paths Список строк, представляющих пути к логам, которые необходимо прочитать.
+     * @return Таблица прочитанных логов.
+     */
+    public LogTable readTable(List<String> paths) {
+        try (Stream<NginxLog> logs = streamLogs(paths)) {
+            return logs.collect(LogTable.collector());
+        }
+    }
+
+    /**
+     * Задает условие на код и размер ответа, которое проверяется при разборе строки.
+     *
+     * <p>Строки, не удовлетворяющие условию, пропускаются до создания строковых полей записи.</p>
+     *
+     * @param prefilter Условие на код и размер ответа.
+     */
+    public void setPrefilter(StatusSizePredicate prefilter) {
+        this.prefilter = prefilter;
+    }
+
+    protected StatusSizePredicate getPrefilter() {
+        return prefilter;
+    }
+
+    /**
+     * Задает строковые поля, которые нужны анализу.
+     *
+     * <p>Остальные строковые поля не копируются из строки и в записях равны {@code "-"}. По умолчанию
+     * копируются все поля.</p>
+     *
+     * @param fields Строковые поля, которые копируются в записи.
+     */
+    public void setFields(FieldMask fields) {
+        this.fields = fields;
+    }
+
+    protected FieldMask getFields() {
+        return fields;
+    }
+
+    /**
+     * Задает диапазон времени, вне которого данные можно не читать.
+     *
+     * <p>Диапазон — подсказка: читатель может пропустить части источника, все записи которых
+     * заведомо вне диапазона, но остальные записи возвращает без проверки времени.</p>
+     *
+     * @param timeRange Диапазон времени.
+     */
+    public void setTimeRange(TimeRange timeRange) {
+        this.timeRange = timeRange;
+    }
+
+    protected TimeRange getTimeRange() {
+        return timeRange;
+    }
+
+    /**
+     * Задает поведение при строках неверного формата.
+     *
+     * <p>По умолчанию ({@link ParsePolicy#SKIP}) такие строки пропускаются и учитываются
+     * в {@link #getRejectedLines()}; при {@link ParsePolicy#STRICT} чтение прерывается.</p>
+     *
+     * @param parsePolicy Поведение при строках неверного формата.
+     */
+    public void setParsePolicy(ParsePolicy parsePolicy) {
+        this.parsePolicy = parsePolicy;
+    }
+
+    protected ParsePolicy getParsePolicy() {
+        return parsePolicy;
+    }
+
+    /**
+     * @return Счетчики строк, отброшенных из-за неверного формата, по источникам.
+     */
+    public RejectedLineCounter getRejectedLines() {
+        return rejectedLines;
+    }
+
+    /**
+     * Задает общие счетчики отброшенных строк, например, для читателей, которым делегируется чтение.
+     *
+     * @param rejectedLines Счетчики отброшенных строк.
+     */
+    protected void setRejectedLines(RejectedLineCounter rejectedLines) {
+        this.rejectedLines = rejectedLines;
+    }
 
     /**
      * Преобразует строку лога в объект {@link NginxLog}.
      *
      * <p>Этот метод использует {@link NginxLogParser} для парсинга строки лога и создания
-     * соответствующего объекта {@link NginxLog}.</p>
+     * соответствующего объекта {@link NginxLog}. Копируются только поля {@link #setFields(FieldMask)}.
+     * Ошибка формата определяется без исключений, поэтому пропуск поврежденных строк стоит
+     * не дороже их разбора.</p>
+     *
+     * @param source Путь к файлу или URL-адрес, из которого прочитана строка.
+     * @param line   Строка, представляющая одну запись лога.
+     * @return Объект {@link NginxLog}, созданный на основе переданной строки, или {@code null},
+     *     если запись отброшена условием {@link #setPrefilter(StatusSizePredicate)} или строка
+     *     неверного формата пропущена.
+     * @throws IllegalArgumentException если строка неверного формата, а задано {@link ParsePolicy#STRICT}.
+     */
+    protected NginxLog convertLineToNginx(String source, String line) {
+        NginxLog log = NginxLogParser.tryParseLogLine(line, prefilter, fields);
+        if (log != NginxLogParser.INVALID) {
+            return log;
+        }
+        return reject(source, line);
+    }
+
+    /**
+     * Преобразует байты строки лога в кодировке UTF-8 в объект {@link NginxLog} без декодирования
+     * всей строки ({@link ByteNginxLogParser}).
+     *
+     * <p>В {@link String} превращаются только поля {@link #setFields(FieldMask)} записей, прошедших
+     * условие {@link #setPrefilter(StatusSizePredicate)}; строка целиком декодируется только
+     * при неверном формате, чтобы учесть ее в отброшенных.</p>
+     *
+     * @param source Путь к файлу или URL-адрес, из которого прочитана строка.
+     * @param line   Буфер, первые {@code length} байтов которого содержат строку лога.
+     * @param length Длина строки в байтах.
+     * @return Объект {@link NginxLog} или {@code null}, как в {@link #convertLineToNginx(String, String)}.
+     * @throws IllegalArgumentException если строка неверного формата, а задано {@link ParsePolicy#STRICT}.
+     */
+    protected NginxLog convertBytesToNginx(String source, byte[] line, int length) {
+        NginxLog log = ByteNginxLogParser.tryParseLogLine(line, 0, length, prefilter, fields);
+        if (log != NginxLogParser.INVALID) {
+            return log;
+        }
+        return reject(source, new String(line, 0, length, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Учитывает строку неверного формата согласно {@link #setParsePolicy(ParsePolicy)}.
+     *
+     * @return {@code null}, если строка пропущена.
+     * @throws IllegalArgumentException если задано {@link ParsePolicy#STRICT}.
+     */
+    private NginxLog reject(String source, String line) {
+        if (parsePolicy == ParsePolicy.STRICT) {
+            throw new IllegalArgumentException(INVALID_FORMAT_NGINX + " " + source + ": " + line);
+        }
+        rejectedLines.reject(source, line);
+        return null;
+    }
+
+    /**
+     * Преобразует поток строк в поток записей, пропуская отброшенные условием и неверные строки.
      *
-     * @param line Строка, представляющая одну запись лога.
-     * @return Объект {@link NginxLog}, созданный на основе переданной строки.
+     * @param source Путь к файлу или URL-адрес, из которого прочитаны строки.
+     * @param lines  Поток строк лога.
+     * @return Поток объектов {@link NginxLog}.
      */
-    protected NginxLog convertLineToNginx(String line) {
-        return NginxLogParser.parseLogLine(line);
+    protected Stream<NginxLog> parseLines(String source, Stream<String> lines) {
+        return lines.map(line -> convertLineToNginx(source, line)).filter(Objects::nonNull);
     }
 }
 
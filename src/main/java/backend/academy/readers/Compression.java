@@ -0,0 +1,102 @@
+package backend.academy.readers;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.zip.GZIPInputStream;
+import org.apache.commons.compress.compressors.bzip2.BZip2CompressorInputStream;
+import org.apache.commons.compress.compressors.zstandard.ZstdCompressorInputStream;
+
+/**
+ * Формат сжатия файла лога.
+ * <p>
+ * Формат определяется по первым байтам файла (сигнатуре), а не по имени, поэтому
+ * переименованные файлы читаются правильно. Расширение используется только при выборе
+ * файлов из директории. Склеенные архивы ({@code cat a.gz b.gz}) читаются целиком.
+ * </p>
+ */
+public enum Compression {
+    NONE(new byte[0], ""),
+    GZIP(new byte[] {0x1f, (byte) 0x8b}, ".gz"),
+    BZIP2(new byte[] {'B', 'Z', 'h'}, ".bz2"),
+    ZSTD(new byte[] {0x28, (byte) 0xb5, 0x2f, (byte) 0xfd}, ".zst");
+
+    private static final int MAX_MAGIC_LENGTH = 4;
+    private static final int GZIP_BUFFER_SIZE = 64 * 1024;
+
+    private final byte[] magic;
+    private final String extension;
+
+    Compression(byte[] magic, String extension) {
+        this.magic = magic;
+        this.extension = extension;
+    }
+
+    /**
+     * Определяет формат сжатия по сигнатуре файла.
+     *
+     * @param file Путь к файлу.
+     * @return Формат сжатия или {@link #NONE}, если сигнатура не распознана.
+     * @throws IOException если файл не удалось прочитать.
+     */
+    public static Compression detect(Path file) throws IOException {
+        try (InputStream in = Files.newInputStream(file)) {
+            return detect(in.readNBytes(MAX_MAGIC_LENGTH));
+        }
+    }
+
+    /**
+     * Определяет формат сжатия по первым байтам потока, не извлекая их из потока.
+     *
+     * @param in Поток с поддержкой {@link InputStream#mark(int)}.
+     * @return Формат сжатия или {@link #NONE}, если сигнатура не распознана.
+     * @throws IOException если поток не удалось прочитать.
+     */
+    public static Compression detect(InputStream in) throws IOException {
+        in.mark(MAX_MAGIC_LENGTH);
+        byte[] header = in.readNBytes(MAX_MAGIC_LENGTH);
+        in.reset();
+        return detect(header);
+    }
+
+    private static Compression detect(byte[] header) {
+        for (Compression compression : values()) {
+            if (compression != NONE && compression.magic.length <= header.length
+                && Arrays.equals(header, 0, compression.magic.length, compression.magic, 0, compression.magic.length)) {
+                return compression;
+            }
+        }
+        return NONE;
+    }
+
+    /**
+     * @param fileName Имя файла.
+     * @return true, если имя оканчивается расширением одного из форматов сжатия.
+     */
+    public static boolean hasCompressedExtension(String fileName) {
+        for (Compression compression : values()) {
+            if (compression != NONE && fileName.endsWith(compression.extension)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Оборачивает поток байтов распаковщиком.
+     *
+     * @param in Поток сжатых байтов.
+     * @return Поток распакованных байтов.
+     * @throws IOException если заголовок сжатых данных некорректен.
+     */
+    public InputStream decode(InputStream in) throws IOException {
+        return switch (this) {
+            case NONE -> in;
+            case GZIP -> new GZIPInputStream(in, GZIP_BUFFER_SIZE);
+            case BZIP2 -> new BZip2CompressorInputStream(in, true);
+            case ZSTD -> new ZstdCompressorInputStream(in);
+        };
+    }
+}
@@ -0,0 +1,393 @@
+package backend.academy.readers;
+
+import backend.academy.nginx.NginxLog;
+import backend.academy.nginx.ParsePolicy;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Spliterator;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import static backend.academy.config.ErrorMessages.INVALID_PARALLELISM;
+import static backend.academy.config.ErrorMessages.SOURCE_FAILED_MESSAGE;
+
+/**
+ * Одновременное чтение нескольких источников логов на виртуальных потоках.
+ *
+ * <p>Каждый источник (файл или URL-адрес) делится на задачи: фрагменты файла ({@link FileChunk})
+ * или весь ответ URL-адреса. Каждая задача выполняется в собственном виртуальном потоке, а семафор
+ * ограничивает число одновременно выполняемых задач, поэтому медленный источник не задерживает
+ * остальные, а число открытых файлов и соединений не превышает заданного предела.</p>
+ *
+ * <p>Задачи передают разобранные записи пакетами в общую ограниченную очередь, из которой их
+ * забирает общий этап агрегации — поток, возвращаемый {@link #streamLogs(List)}. Параллельный
+ * поток делится не более чем на {@link #AGGREGATION_WORKERS} частей, и каждая часть забирает пакеты
+ * из той же очереди до конца чтения. Поэтому коллектор создает не больше промежуточных результатов,
+ * чем частей, и объединяет их один раз в конце, а в памяти одновременно находятся только пакеты
+ * очереди и по одному пакету на часть: медленная агрегация притормаживает чтение, а не накапливает
+ * записи. Порядок записей разных источников не определен.</p>
+ *
+ * <p>Ход чтения сообщается по каждому источнику через {@link #setProgressListener(Consumer)}:
+ * при постановке в очередь, начале чтения, каждые {@link #PROGRESS_INTERVAL} записей и по
+ * завершении. Ошибка чтения источника записывается в журнал и не прерывает чтение остальных.
+ * Исключение составляет строка неверного формата при {@link ParsePolicy#STRICT}: чтение всех
+ * источников прерывается, а исключение передается потребителю потока.</p>
+ */
+public final class ConcurrentLogReader extends AbstractLogReader {
+    public static final int DEFAULT_PARALLELISM = Runtime.getRuntime().availableProcessors();
+    public static final long PROGRESS_INTERVAL = 100_000;
+
+    public static final int AGGREGATION_WORKERS = Runtime.getRuntime().availableProcessors();
+
+    static final int BATCH_SIZE = 1024;
+    static final int QUEUED_BATCHES_PER_TASK = 4;
+
+    private static final Logger LOGGER = Logger.getLogger(ConcurrentLogReader.class.getName());
+    // Пустой пакет означает, что все задачи завершены
+    private static final List<NginxLog> END = List.of();
+    // Пакет-признак прерывания чтения из-за строки неверного формата в строгом режиме
+    private static final List<NginxLog> ABORT = new ArrayList<>(0);
+
+    private final int parallelism;
+    private Consumer<SourceProgress> progressListener = progress -> {
+    };
+
+    public ConcurrentLogReader() {
+        this(DEFAULT_PARALLELISM);
+    }
+
+    /**
+     * @param parallelism Наибольшее число одновременно выполняемых задач чтения.
+     * @throws IllegalArgumentException если значение не положительно.
+     */
+    public ConcurrentLogReader(int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException(INVALID_PARALLELISM + " " + parallelism);
+        }
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Задает получателя сведений о ходе чтения.
+     *
+     * <p>Получатель вызывается из потоков чтения одновременно и должен быть потокобезопасным.</p>
+     *
+     * @param progressListener Получатель сведений о ходе чтения источников.
+     */
+    public void setProgressListener(Consumer<SourceProgress> progressListener) {
+        this.progressListener = progressListener;
+    }
+
+    /**
+     * Открывает поток логов из всех источников.
+     *
+     * <p>Задачи запускаются при первом обращении к потоку и прерываются при его закрытии.</p>
+     *
+     * @param paths Список путей к файлам, директориям и URL-адресов.
+     * @return Ленивый поток объектов {@link NginxLog}, который необходимо закрыть после использования.
+     */
+    @Override
+    public Stream<NginxLog> streamLogs(List<String> paths) {
+        Ingestion ingestion = new Ingestion(sources(paths));
+        return StreamSupport.stream(new Drainer(ingestion, AGGREGATION_WORKERS), false).onClose(ingestion::close);
+    }
+
+    /**
+     * Делит пути на источники и задачи. Файлы директорий становятся отдельными источниками.
+     */
+    private List<Source> sources(List<String> paths) {
+        LogFileReader fileReader = new LogFileReader();
+        fileReader.setPrefilter(getPrefilter());
+        fileReader.setFields(getFields());
+        fileReader.setTimeRange(getTimeRange());
+        fileReader.setParsePolicy(getParsePolicy());
+        fileReader.setRejectedLines(getRejectedLines());
+        LogUrlReader urlReader = new LogUrlReader();
+        urlReader.setPrefilter(getPrefilter());
+        urlReader.setFields(getFields());
+        urlReader.setParsePolicy(getParsePolicy());
+        urlReader.setRejectedLines(getRejectedLines());
+
+        List<Source> sources = new ArrayList<>();
+        for (String path : paths) {
+            if (LogReader.isUrl(path)) {
+                sources.add(new Source(path, List.of(() -> urlReader.streamLogs(List.of(path)))));
+                continue;
+            }
+            Map<String, List<Supplier<Stream<NginxLog>>>> chunksByFile = new LinkedHashMap<>();
+            for (FileChunk chunk : fileReader.listChunks(List.of(path))) {
+                chunksByFile.computeIfAbsent(chunk.file().toString(), file -> new ArrayList<>())
+                    .add(() -> fileReader.readChunk(chunk));
+            }
+            chunksByFile.forEach((file, tasks) -> sources.add(new Source(file, tasks)));
+        }
+        return sources;
+    }
+
+    /**
+     * Часть потока записей: забирает пакеты из общей очереди до конца чтения.
+     *
+     * <p>Часть делится, пока у нее есть доля рабочих потоков больше одной; доля делится пополам,
+     * поэтому разделение сбалансировано, а частей не больше {@link #AGGREGATION_WORKERS}.</p>
+     */
+    private static final class Drainer implements Spliterator<NginxLog> {
+        private final Ingestion ingestion;
+        private int workers;
+        private Iterator<NginxLog> current = END.iterator();
+
+        Drainer(Ingestion ingestion, int workers) {
+            this.ingestion = ingestion;
+            this.workers = workers;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super NginxLog> action) {
+            while (!current.hasNext()) {
+                List<NginxLog> batch = ingestion.nextBatch();
+                if (batch == null) {
+                    return false;
+                }
+                current = batch.iterator();
+            }
+            action.accept(current.next());
+            return true;
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super NginxLog> action) {
+            current.forEachRemaining(action);
+            List<NginxLog> batch;
+            while ((batch = ingestion.nextBatch()) != null) {
+                batch.forEach(action);
+            }
+        }
+
+        @Override
+        public Spliterator<NginxLog> trySplit() {
+            if (workers < 2 || ingestion.isFinished()) {
+                return null;
+            }
+            int half = workers / 2;
+            workers -= half;
+            return new Drainer(ingestion, half);
+        }
+
+        /**
+         * Размер неизвестен; оценкой служит доля рабочих потоков, чтобы поток делил часть до одного потока.
+         */
+        @Override
+        public long estimateSize() {
+            return ingestion.isFinished() && !current.hasNext() ? 0 : workers;
+        }
+
+        @Override
+        public int characteristics() {
+            return Spliterator.NONNULL;
+        }
+    }
+
+    /**
+     * Источник логов и его задачи вместе со счетчиками хода чтения.
+     */
+    private static final class Source {
+        private final String name;
+        private final List<Supplier<Stream<NginxLog>>> tasks;
+        private final AtomicInteger started = new AtomicInteger();
+        private final AtomicInteger done = new AtomicInteger();
+        private final AtomicLong records = new AtomicLong();
+        private volatile boolean failed;
+
+        Source(String name, List<Supplier<Stream<NginxLog>>> tasks) {
+            this.name = name;
+            this.tasks = tasks;
+        }
+
+        SourceProgress progress(SourceProgress.State state) {
+            return new SourceProgress(name, state, done.get(), tasks.size(), records.get());
+        }
+    }
+
+    /**
+     * Запуск задач и общая очередь пакетов, из которой забирают записи части потока ({@link Drainer}).
+     */
+    private final class Ingestion {
+        private final List<Source> sources;
+        private final BlockingQueue<List<NginxLog>> batches;
+        private final Semaphore permits = new Semaphore(parallelism);
+        private final AtomicInteger remainingTasks = new AtomicInteger();
+        private final Queue<Thread> threads = new ConcurrentLinkedQueue<>();
+        private boolean started;
+        private volatile boolean finished;
+        private volatile boolean closed;
+        private volatile RuntimeException failure;
+
+        Ingestion(List<Source> sources) {
+            this.sources = sources;
+            this.batches = new ArrayBlockingQueue<>(parallelism * QUEUED_BATCHES_PER_TASK);
+        }
+
+        boolean isFinished() {
+            return finished;
+        }
+
+        /**
+         * Забирает следующий пакет. Признак конца возвращается в очередь, чтобы его получили и остальные
+         * части потока. При прерывании задачи сначала останавливаются, а признак возвращается в очередь
+         * без ожидания: иначе единственный потребитель мог бы ждать место, занятое остановленной задачей.
+         * Остальные части видят исключение в {@link #failure}.
+         *
+         * @return Следующий пакет записей или null, если все задачи завершены.
+         */
+        List<NginxLog> nextBatch() {
+            if (finished) {
+                if (failure != null) {
+                    throw failure;
+                }
+                return null;
+            }
+            start();
+            try {
+                List<NginxLog> batch = batches.take();
+                if (batch == ABORT) {
+                    close();
+                    batches.offer(ABORT);
+                    throw failure;
+                }
+                if (batch == END) {
+                    finished = true;
+                    batches.put(END);
+                    return null;
+                }
+                return batch;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                finished = true;
+                return null;
+            }
+        }
+
+        private synchronized void start() {
+            if (started) {
+                return;
+            }
+            started = true;
+            int tasks = sources.stream().mapToInt(source -> source.tasks.size()).sum();
+            remainingTasks.set(tasks);
+            if (tasks == 0) {
+                batches.add(END);
+                return;
+            }
+            for (Source source : sources) {
+                progressListener.accept(source.progress(SourceProgress.State.QUEUED));
+            }
+            for (Source source : sources) {
+                for (Supplier<Stream<NginxLog>> task : source.tasks) {
+                    threads.add(Thread.ofVirtual().name("ingest-" + source.name).start(() -> run(source, task)));
+                }
+            }
+        }
+
+        /**
+         * Выполняет задачу чтения, передавая записи в очередь пакетами.
+         */
+        private void run(Source source, Supplier<Stream<NginxLog>> task) {
+            try {
+                permits.acquire();
+            } catch (InterruptedException e) {
+                return;
+            }
+            try {
+                if (source.started.getAndIncrement() == 0) {
+                    progressListener.accept(source.progress(SourceProgress.State.RUNNING));
+                }
+                read(source, task);
+            } catch (InterruptedException e) {
+                return;
+            } catch (RuntimeException e) {
+                if (closed) {
+                    return;
+                }
+                if (getParsePolicy() == ParsePolicy.STRICT) {
+                    abort(e);
+                    return;
+                }
+                source.failed = true;
+                LOGGER.log(Level.WARNING, SOURCE_FAILED_MESSAGE + " " + source.name, e);
+            } finally {
+                permits.release();
+            }
+            if (source.done.incrementAndGet() == source.tasks.size()) {
+                progressListener.accept(source.progress(
+                    source.failed ? SourceProgress.State.FAILED : SourceProgress.State.DONE));
+            }
+            if (remainingTasks.decrementAndGet() == 0) {
+                try {
+                    batches.put(END);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+
+        private void read(Source source, Supplier<Stream<NginxLog>> task) throws InterruptedException {
+            try (Stream<NginxLog> logs = task.get()) {
+                Iterator<NginxLog> iterator = logs.iterator();
+                List<NginxLog> batch = new ArrayList<>(BATCH_SIZE);
+                while (iterator.hasNext()) {
+                    batch.add(iterator.next());
+                    if (batch.size() == BATCH_SIZE) {
+                        publish(source, batch);
+                        batch = new ArrayList<>(BATCH_SIZE);
+                    }
+                }
+                if (!batch.isEmpty()) {
+                    publish(source, batch);
+                }
+            }
+        }
+
+        private void publish(Source source, List<NginxLog> batch) throws InterruptedException {
+            batches.put(batch);
+            long records = source.records.addAndGet(batch.size());
+            if (records / PROGRESS_INTERVAL != (records - batch.size()) / PROGRESS_INTERVAL) {
+                progressListener.accept(source.progress(SourceProgress.State.RUNNING));
+            }
+        }
+
+        /**
+         * Передает потребителю первое исключение задачи и признак прерывания чтения.
+         */
+        private void abort(RuntimeException e) {
+            synchronized (this) {
+                if (failure != null) {
+                    return;
+                }
+                failure = e;
+            }
+            try {
+                batches.put(ABORT);
+            } catch (InterruptedException interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        private void close() {
+            closed = true;
+            finished = true;
+            threads.forEach(Thread::interrupt);
+        }
+    }
+}
@@ -0,0 +1,185 @@
+package backend.academy.readers;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import static backend.academy.config.ErrorMessages.INVALID_FILE_READING_MESSAGE;
+
+/**
+ * Строки источника, который читается и распаковывается в отдельном потоке.
+ *
+ * <p>Сжатый файл или тело HTTP-ответа нельзя разбить на независимые фрагменты, поэтому чтение
+ * отделено от разбора: виртуальный поток читает источник и передает строки пакетами по
+ * {@link #BATCH_LINES} через ограниченную очередь, а поток-потребитель в это время разбирает
+ * и агрегирует предыдущие пакеты. Очередь вмещает {@link #QUEUE_CAPACITY} пакетов, поэтому чтение
+ * не уходит далеко вперед и память ограничена. Источник открывается при первом обращении
+ * к потоку строк, а чтение останавливается при его закрытии.</p>
+ */
+final class DecodedLines implements Spliterator<String> {
+    static final int BATCH_LINES = 4096;
+    static final int QUEUE_CAPACITY = 4;
+
+    // Пустой пакет означает конец источника
+    private static final List<String> END = List.of();
+
+    private final String name;
+    private final Source source;
+    private final BlockingQueue<List<String>> batches = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+    private Thread decoder;
+    private volatile Throwable failure;
+    private Iterator<String> current = END.iterator();
+    private boolean finished;
+
+    private DecodedLines(String name, Source source) {
+        this.name = name;
+        this.source = source;
+    }
+
+    /**
+     * Открывает ленивый поток строк сжатого файла.
+     *
+     * @param file        Путь к файлу.
+     * @param compression Формат сжатия файла.
+     * @return Поток строк, который необходимо закрыть после использования.
+     */
+    static Stream<String> stream(Path file, Compression compression) {
+        return stream(file.toString(), () -> compression.decode(new BufferedInputStream(Files.newInputStream(file))));
+    }
+
+    /**
+     * Открывает ленивый поток строк произвольного источника.
+     *
+     * @param name   Имя источника для сообщений об ошибках.
+     * @param source Открывает поток байтов источника в кодировке UTF-8.
+     * @return Поток строк, который необходимо закрыть после использования.
+     */
+    static Stream<String> stream(String name, Source source) {
+        DecodedLines lines = new DecodedLines(name, source);
+        return StreamSupport.stream(lines, false).onClose(lines::close);
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super String> action) {
+        while (!current.hasNext()) {
+            if (finished) {
+                return false;
+            }
+            List<String> batch = nextBatch();
+            if (batch == END) {
+                finished = true;
+                if (failure instanceof IOException e) {
+                    throw new UncheckedIOException(INVALID_FILE_READING_MESSAGE + " " + name, e);
+                }
+                if (failure instanceof RuntimeException e) {
+                    throw e;
+                }
+                if (failure instanceof Error e) {
+                    throw e;
+                }
+                return false;
+            }
+            current = batch.iterator();
+        }
+        action.accept(current.next());
+        return true;
+    }
+
+    @Override
+    public Spliterator<String> trySplit() {
+        return null;
+    }
+
+    @Override
+    public long estimateSize() {
+        return Long.MAX_VALUE;
+    }
+
+    @Override
+    public int characteristics() {
+        return Spliterator.ORDERED | Spliterator.NONNULL;
+    }
+
+    private List<String> nextBatch() {
+        if (decoder == null) {
+            decoder = Thread.ofVirtual().name("decode-" + name).start(this::decode);
+        }
+        try {
+            return batches.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new UncheckedIOException(INVALID_FILE_READING_MESSAGE + " " + name,
+                new InterruptedIOException(e.getMessage()));
+        }
+    }
+
+    /**
+     * Читает источник и передает строки в очередь пакетами.
+     * Конец источника передается и при любой ошибке, включая {@link Error} распаковщика,
+     * чтобы потребитель не ждал следующего пакета бесконечно.
+     */
+    @SuppressWarnings("IllegalCatch")
+    private void decode() {
+        boolean closed = false;
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(source.open(), StandardCharsets.UTF_8))) {
+            List<String> batch = new ArrayList<>(BATCH_LINES);
+            String line;
+            while ((line = reader.readLine()) != null) {
+                batch.add(line);
+                if (batch.size() == BATCH_LINES) {
+                    batches.put(batch);
+                    batch = new ArrayList<>(BATCH_LINES);
+                }
+            }
+            if (!batch.isEmpty()) {
+                batches.put(batch);
+            }
+        } catch (InterruptedException e) {
+            // Поток строк закрыт до конца источника, ждать конца некому
+            closed = true;
+        } catch (Throwable e) {
+            failure = e;
+        } finally {
+            if (!closed) {
+                putEnd();
+            }
+        }
+    }
+
+    private void putEnd() {
+        try {
+            batches.put(END);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void close() {
+        if (decoder != null) {
+            decoder.interrupt();
+        }
+    }
+
+    /**
+     * Источник байтов, открываемый в потоке чтения.
+     */
+    @FunctionalInterface
+    interface Source {
+        InputStream open() throws IOException;
+    }
+}
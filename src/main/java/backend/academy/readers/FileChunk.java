@@ -0,0 +1,303 @@
+package backend.academy.readers;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import static backend.academy.config.ErrorMessages.INVALID_FILE_READING_MESSAGE;
+
+/**
+ * Фрагмент файла лога, границы которого выровнены по концам строк.
+ *
+ * <p>Фрагмент охватывает байты {@code [start, end)}: первая строка фрагмента начинается
+ * ровно в {@code start}, а последний байт перед {@code end} является символом перевода строки
+ * (кроме последнего фрагмента файла). Благодаря этому фрагменты одного файла можно читать
+ * независимо друг от друга, в том числе в разных потоках.</p>
+ *
+ * <p>Содержимое читается через отображение файла в память ({@link FileChannel#map} с {@link Arena}),
+ * поэтому размер файла не ограничен 2 ГБ, а данные не копируются в кучу целиком.</p>
+ *
+ * @param file  Путь к файлу.
+ * @param start Смещение первого байта фрагмента.
+ * @param end   Смещение байта, следующего за последним байтом фрагмента.
+ */
+public record FileChunk(Path file, long start, long end) {
+    private static final byte NEW_LINE = '\n';
+    private static final byte CARRIAGE_RETURN = '\r';
+    private static final int ALIGN_BUFFER_SIZE = 8192;
+    private static final int INITIAL_LINE_CAPACITY = 512;
+    private static final ValueLayout.OfLong WORD_LAYOUT =
+        ValueLayout.JAVA_LONG_UNALIGNED.withOrder(ByteOrder.LITTLE_ENDIAN);
+    private static final long LOW_BITS = 0x0101010101010101L;
+    private static final long HIGH_BITS = 0x8080808080808080L;
+    private static final long NEW_LINES = LOW_BITS * NEW_LINE;
+    private static final int BYTE_SHIFT = 3;
+
+    /**
+     * Разбивает файл на фрагменты примерно одинакового размера, выровненные по концам строк.
+     *
+     * @param file      Путь к файлу.
+     * @param chunkSize Желаемый размер фрагмента в байтах.
+     * @return Список фрагментов в порядке следования в файле; пустой список для пустого файла.
+     * @throws IOException Если произошла ошибка ввода-вывода при чтении файла.
+     */
+    public static List<FileChunk> split(Path file, long chunkSize) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return split(channel, file, 0, channel.size(), chunkSize);
+        }
+    }
+
+    /**
+     * Разбивает диапазон байтов файла на фрагменты, выровненные по концам строк.
+     *
+     * @param file      Путь к файлу.
+     * @param from      Начало диапазона; должно совпадать с началом строки.
+     * @param to        Конец диапазона; обычно конец строки или размер файла.
+     * @param chunkSize Желаемый размер фрагмента в байтах.
+     * @return Список фрагментов в порядке следования в файле; пустой список для пустого диапазона.
+     * @throws IOException Если произошла ошибка ввода-вывода при чтении файла.
+     */
+    public static List<FileChunk> split(Path file, long from, long to, long chunkSize) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return split(channel, file, from, to, chunkSize);
+        }
+    }
+
+    private static List<FileChunk> split(FileChannel channel, Path file, long from, long to, long chunkSize)
+        throws IOException {
+        List<FileChunk> chunks = new ArrayList<>();
+        long start = from;
+        while (start < to) {
+            long end = start + chunkSize >= to ? to : Math.min(nextLineStart(channel, start + chunkSize, to), to);
+            chunks.add(new FileChunk(file, start, end));
+            start = end;
+        }
+        return chunks;
+    }
+
+    /**
+     * Находит конец последней завершенной строки файла: позицию после последнего перевода строки.
+     *
+     * <p>Используется при чтении дописываемых файлов, чтобы не разбирать строку,
+     * запись которой еще не закончена.</p>
+     *
+     * @param file Путь к файлу.
+     * @param from Позиция, с которой начинается поиск.
+     * @return Позиция после последнего перевода строки или {@code from}, если после нее переводов строки нет.
+     * @throws IOException Если произошла ошибка ввода-вывода при чтении файла.
+     */
+    public static long completeLinesEnd(Path file, long from) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return completeLinesEnd(channel, from);
+        }
+    }
+
+    /**
+     * Находит конец последней завершенной строки файла, открытого каналом {@code channel}.
+     *
+     * @param channel Открытый канал файла; не закрывается.
+     * @param from    Позиция, с которой начинается поиск.
+     * @return Позиция после последнего перевода строки или {@code from}, если после нее переводов строки нет.
+     * @throws IOException Если произошла ошибка ввода-вывода при чтении файла.
+     */
+    public static long completeLinesEnd(FileChannel channel, long from) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(ALIGN_BUFFER_SIZE);
+        long end = channel.size();
+        while (end > from) {
+            long start = Math.max(from, end - ALIGN_BUFFER_SIZE);
+            buffer.clear().limit((int) (end - start));
+            int read = channel.read(buffer, start);
+            if (read <= 0) {
+                break;
+            }
+            for (int i = read - 1; i >= 0; i--) {
+                if (buffer.get(i) == NEW_LINE) {
+                    return start + i + 1;
+                }
+            }
+            end = start;
+        }
+        return from;
+    }
+
+    /**
+     * Возвращает позицию, следующую за первым переводом строки начиная с {@code from},
+     * или размер файла, если перевода строки нет.
+     */
+    private static long nextLineStart(FileChannel channel, long from, long size) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(ALIGN_BUFFER_SIZE);
+        long position = from;
+        while (position < size) {
+            buffer.clear();
+            int read = channel.read(buffer, position);
+            if (read <= 0) {
+                break;
+            }
+            for (int i = 0; i < read; i++) {
+                if (buffer.get(i) == NEW_LINE) {
+                    return position + i + 1;
+                }
+            }
+            position += read;
+        }
+        return size;
+    }
+
+    public long length() {
+        return end - start;
+    }
+
+    /**
+     * Открывает ленивый поток строк фрагмента.
+     *
+     * <p>Фрагмент отображается в память при открытии потока и освобождается при его закрытии.
+     * Завершающий {@code \r} перед переводом строки отбрасывается, как в
+     * {@link java.io.BufferedReader#readLine()}.</p>
+     *
+     * @return Поток строк фрагмента, который необходимо закрыть после использования.
+     */
+    public Stream<String> lines() {
+        return records((line, length) -> new String(line, 0, length, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Открывает ленивый поток значений, полученных из байтов строк фрагмента без их декодирования.
+     *
+     * <p>Байты каждой строки без перевода строки и завершающего {@code \r} копируются в один и тот же
+     * буфер и передаются парсеру; буфер перезаписывается следующей строкой. Строки, для которых парсер
+     * вернул {@code null}, пропускаются. Фрагмент отображается в память при открытии потока
+     * и освобождается при его закрытии.</p>
+     *
+     * @param parser Парсер байтов строки.
+     * @param <T>    Тип значений.
+     * @return Поток значений, который необходимо закрыть после использования.
+     */
+    public <T> Stream<T> records(LineParser<T> parser) {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return records(channel, parser);
+        } catch (IOException e) {
+            throw new UncheckedIOException(INVALID_FILE_READING_MESSAGE + file, e);
+        }
+    }
+
+    /**
+     * Открывает ленивый поток значений фрагмента, отображая его в память через уже открытый канал.
+     *
+     * <p>Используется, когда файл под путем {@link #file()} мог быть заменен, например после ротации:
+     * фрагмент читается из того файла, который открыт каналом. Отображение остается действительным
+     * и после закрытия канала, до закрытия потока.</p>
+     *
+     * @param channel Открытый канал файла фрагмента; не закрывается.
+     * @param parser  Парсер байтов строки.
+     * @param <T>     Тип значений.
+     * @return Поток значений, который необходимо закрыть после использования.
+     * @throws IOException Если фрагмент не удалось отобразить в память.
+     */
+    public <T> Stream<T> records(FileChannel channel, LineParser<T> parser) throws IOException {
+        Arena arena = Arena.ofShared();
+        MemorySegment segment;
+        try {
+            segment = channel.map(FileChannel.MapMode.READ_ONLY, start, length(), arena);
+        } catch (IOException e) {
+            arena.close();
+            throw e;
+        }
+        return StreamSupport.stream(new LineSpliterator<>(segment, parser), false)
+            .onClose(arena::close);
+    }
+
+    /**
+     * Находит перевод строки, проверяя по восемь байтов за раз (SWAR): байт, равный {@code \n},
+     * после {@code XOR} с маской переводов строки становится нулевым, а нулевой байт слова
+     * выделяется выражением {@code (x - 0x01..01) & ~x & 0x80..80}. Младший установленный бит
+     * результата указывает на первый нулевой байт слова в порядке little-endian.
+     *
+     * @return Позиция перевода строки или размер сегмента, если перевода строки нет.
+     */
+    static long indexOfNewLine(MemorySegment segment, long from) {
+        long size = segment.byteSize();
+        long position = from;
+        while (position + Long.BYTES <= size) {
+            long word = segment.get(WORD_LAYOUT, position) ^ NEW_LINES;
+            long found = (word - LOW_BITS) & ~word & HIGH_BITS;
+            if (found != 0) {
+                return position + (Long.numberOfTrailingZeros(found) >>> BYTE_SHIFT);
+            }
+            position += Long.BYTES;
+        }
+        while (position < size && segment.get(ValueLayout.JAVA_BYTE, position) != NEW_LINE) {
+            position++;
+        }
+        return position;
+    }
+
+    /**
+     * Парсер строки, получающий ее байты без декодирования.
+     *
+     * @param <T> Тип результата.
+     */
+    @FunctionalInterface
+    public interface LineParser<T> {
+        /**
+         * @param line   Буфер, первые {@code length} байтов которого содержат строку; переиспользуется.
+         * @param length Длина строки в байтах.
+         * @return Значение или {@code null}, если строку нужно пропустить.
+         */
+        T parse(byte[] line, int length);
+    }
+
+    /**
+     * Последовательно выделяет строки из отображенного в память фрагмента.
+     */
+    private static final class LineSpliterator<T> extends Spliterators.AbstractSpliterator<T> {
+        private final MemorySegment segment;
+        private final LineParser<T> parser;
+        private final long size;
+        private long position;
+        private byte[] lineBuffer = new byte[INITIAL_LINE_CAPACITY];
+
+        LineSpliterator(MemorySegment segment, LineParser<T> parser) {
+            super(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL);
+            this.segment = segment;
+            this.parser = parser;
+            this.size = segment.byteSize();
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super T> action) {
+            while (position < size) {
+                long lineEnd = indexOfNewLine(segment, position);
+                long next = lineEnd + 1;
+                if (lineEnd > position && segment.get(ValueLayout.JAVA_BYTE, lineEnd - 1) == CARRIAGE_RETURN) {
+                    lineEnd--;
+                }
+                int length = Math.toIntExact(lineEnd - position);
+                if (length > lineBuffer.length) {
+                    lineBuffer = new byte[Math.max(length, lineBuffer.length * 2)];
+                }
+                MemorySegment.copy(segment, ValueLayout.JAVA_BYTE, position, lineBuffer, 0, length);
+                position = next;
+                T value = parser.parse(lineBuffer, length);
+                if (value != null) {
+                    action.accept(value);
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
@@ -1,21 +1,18 @@
 package backend.academy.readers;
 
+import backend.academy.datefilter.TimeRange;
 import backend.academy.nginx.NginxLog;
-import java.io.BufferedReader;
 import java.io.File;
-import java.io.FileReader;
 import java.io.IOException;
-import java.nio.charset.StandardCharsets;
+import java.io.UncheckedIOException;
 import java.nio.file.InvalidPathException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Objects;
 import java.util.logging.Level;
 import java.util.logging.Logger;
-import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import static backend.academy.config.ErrorMessages.INVALID_FILEPATH_MESSAGE;
 import static backend.academy.config.ErrorMessages.INVALID_FILE_READING_MESSAGE;
@@ -23,29 +20,101 @@ import static backend.academy.config.ErrorMessages.INVALID_FILE_READING_MESSAGE;
 /**
  * Класс для чтения логов Nginx из файлов и директорий.
  *
- * <p>Этот класс наследует {@link AbstractLogReader} и реализует метод {@link #readLogs(List)}
- * для чтения логов из указанных файлов или директорий.
- * Поддерживает чтение только текстовых файлов с расширением .txt.</p>
+ * <p>Этот класс наследует {@link AbstractLogReader} и реализует метод {@link #streamLogs(List)}
+ * для ленивого чтения логов из указанных файлов или директорий.
+ * Из директорий читаются текстовые файлы с расширением .txt и сжатые файлы
+ * с расширениями .gz, .bz2 и .zst.</p>
+ *
+ * <p>Файлы больше {@link #CHUNK_SIZE} разбиваются на выровненные по строкам фрагменты
+ * ({@link FileChunk}), которые читаются через отображение в память. Каждый фрагмент является
+ * отдельным элементом источника потока, поэтому параллельный поток
+ * ({@link Stream#parallel()}) разбирает и агрегирует фрагменты одного файла на разных ядрах,
+ * а частичные результаты объединяются комбинатором коллектора.</p>
+ *
+ * <p>Несжатые файлы и фрагменты отображаются в память и разбираются по байтам: перевод строки ищется
+ * по восемь байтов за раз, а строка не декодируется из UTF-8 целиком — в {@link String} превращаются
+ * только поля, нужные анализу ({@link #setFields(backend.academy.nginx.FieldMask)}).</p>
+ *
+ * <p>Сжатые файлы ({@link Compression}) распознаются по сигнатуре и распаковываются потоком
+ * без записи на диск ({@link DecodedLines}). Такой файл не делится на фрагменты, но распаковывается
+ * в отдельном виртуальном потоке параллельно с разбором, а в параллельном потоке несколько
+ * сжатых файлов распаковываются одновременно.</p>
  */
 public final class LogFileReader extends AbstractLogReader {
     private static final Logger LOGGER = Logger.getLogger(LogFileReader.class.getName());
+    public static final long CHUNK_SIZE = 32L * 1024 * 1024;
+
+    private final long chunkSize;
+
+    public LogFileReader() {
+        this(CHUNK_SIZE);
+    }
+
+    /**
+     * @param chunkSize Размер фрагмента в байтах, начиная с которого файл читается по частям.
+     */
+    public LogFileReader(long chunkSize) {
+        this.chunkSize = chunkSize;
+    }
 
     /**
-     * Читает логи из указанных путей к файлам или директориям.
+     * Открывает ленивый поток логов из указанных путей к файлам или директориям.
      *
-     * <p>Метод обрабатывает каждый путь, проверяет его на валидность,
-     * а затем читает логи из файлов или директорий, возвращая список объектов {@link NginxLog}.</p>
+     * <p>Метод обрабатывает каждый путь, проверяет его на валидность и сразу составляет
+     * список фрагментов всех файлов. Сами фрагменты открываются лениво и закрываются,
+     * как только их строки будут полностью прочитаны.</p>
      *
      * @param paths Список строк, представляющих пути к логам, которые необходимо прочитать.
-     * @return Список объектов {@link NginxLog}, представляющих прочитанные логи.
+     * @return Ленивый поток объектов {@link NginxLog}, который необходимо закрыть после использования.
      */
     @Override
-    public List<NginxLog> readLogs(List<String> paths) {
+    public Stream<NginxLog> streamLogs(List<String> paths) {
+        return listChunks(paths).stream().flatMap(this::readChunk);
+    }
+
+    /**
+     * Составляет список фрагментов всех файлов по указанным путям.
+     *
+     * <p>Недействительные пути и нечитаемые файлы пропускаются с предупреждением в журнале.</p>
+     *
+     * @param paths Список строк, представляющих пути к файлам или директориям.
+     * @return Фрагменты файлов в порядке путей.
+     */
+    List<FileChunk> listChunks(List<String> paths) {
+        return listFiles(paths).stream()
+            .map(Path::toFile)
+            .flatMap(this::splitFile)
+            .toList();
+    }
+
+    /**
+     * Составляет список файлов логов по указанным путям: сами файлы и файлы логов из директорий.
+     *
+     * <p>Недействительные и несуществующие пути пропускаются с предупреждением в журнале.</p>
+     *
+     * @param paths Список строк, представляющих пути к файлам или директориям.
+     * @return Нормализованные абсолютные пути файлов в порядке путей.
+     */
+    public List<Path> listFiles(List<String> paths) {
         return paths.stream()
             .map(this::resolveAndValidatePath)
             .filter(Objects::nonNull)
             .flatMap(this::processFileOrDirectory)
-            .collect(Collectors.toList());
+            .map(File::toPath)
+            .toList();
+    }
+
+    /**
+     * Открывает ленивый поток записей указанных фрагментов файлов.
+     *
+     * <p>Фрагмент, начинающийся с нулевого байта, может указывать на сжатый файл: такой файл
+     * распаковывается целиком. Фрагменты несжатых файлов читаются строго в своих границах.</p>
+     *
+     * @param chunks Фрагменты файлов.
+     * @return Ленивый поток объектов {@link NginxLog}, который необходимо закрыть после использования.
+     */
+    public Stream<NginxLog> readChunks(List<FileChunk> chunks) {
+        return chunks.stream().flatMap(this::readChunk);
     }
 
     /**
@@ -66,15 +135,15 @@ public final class LogFileReader extends AbstractLogReader {
     }
 
     /**
-     * Обрабатывает файл или директорию, возвращая поток объектов {@link NginxLog}.
+     * Обрабатывает файл или директорию, возвращая поток файлов логов.
      *
-     * <p>Если указанный путь является директорией, метод ищет текстовые файлы и читает их.
-     * Если путь указывает на файл, он будет прочитан непосредственно.</p>
+     * <p>Если указанный путь является директорией, метод ищет в ней текстовые файлы.
+     * Если путь указывает на файл, он будет возвращен непосредственно.</p>
      *
      * @param path Нормализованный путь к файлу или директории.
-     * @return Поток объектов {@link NginxLog}, полученных из файлов.
+     * @return Поток файлов, которые необходимо прочитать.
      */
-    private Stream<NginxLog> processFileOrDirectory(Path path) {
+    private Stream<File> processFileOrDirectory(Path path) {
         File fileOrDir = path.toFile();
         if (!fileOrDir.exists()) {
             LOGGER.log(Level.SEVERE, INVALID_FILEPATH_MESSAGE + path);
@@ -82,36 +151,106 @@ public final class LogFileReader extends AbstractLogReader {
         }
 
         if (fileOrDir.isDirectory()) {
-            File[] logFiles = fileOrDir.listFiles(file -> file.isFile() && file.getName().endsWith(".txt"));
-            return (logFiles != null) ? Arrays.stream(logFiles).flatMap(this::readFile) : Stream.empty();
+            File[] logFiles = fileOrDir.listFiles(file -> file.isFile() && isLogFileName(file.getName()));
+            return (logFiles != null) ? Arrays.stream(logFiles) : Stream.empty();
         } else {
-            return readFile(fileOrDir);
+            return Stream.of(fileOrDir);
         }
     }
 
+    private static boolean isLogFileName(String name) {
+        return name.endsWith(".txt") || Compression.hasCompressedExtension(name);
+    }
+
     /**
-     * Читает содержимое указанного файла и преобразует его строки в объекты {@link NginxLog}.
+     * Разбивает файл на фрагменты. Файлы не больше размера фрагмента и сжатые файлы не разбиваются.
      *
-     * <p>Если возникает ошибка при чтении файла, будет записано предупреждение в журнал.</p>
+     * <p>Если задан диапазон времени ({@link #setTimeRange(TimeRange)}), несжатые файлы больше
+     * блока индекса делятся по {@link TimeIndex}: блоки вне диапазона и файлы, все записи которых
+     * вне диапазона, не читаются. Если файл не удается прочитать, будет записано предупреждение в журнал.</p>
      *
-     * @param file Файл, который необходимо прочитать.
-     * @return Поток объектов {@link NginxLog}, полученных из файла.
+     * @param file Файл, который необходимо разбить.
+     * @return Поток фрагментов файла.
      */
-    private Stream<NginxLog> readFile(File file) {
-        List<NginxLog> nginxLogs = new ArrayList<>();
-        try (BufferedReader reader = new BufferedReader(new FileReader(file, StandardCharsets.UTF_8))) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                nginxLogs.add(convertLineToNginx(line));
+    private Stream<FileChunk> splitFile(File file) {
+        long size = file.length();
+        boolean indexed = getTimeRange() != TimeRange.ALL && size > blockSize();
+        if (!indexed && size <= chunkSize || detectCompression(file) != Compression.NONE) {
+            return Stream.of(new FileChunk(file.toPath(), 0, size));
+        }
+        try {
+            if (indexed) {
+                return TimeIndex.forFile(file.toPath(), blockSize()).select(file.toPath(), getTimeRange(), chunkSize)
+                    .stream();
             }
+            return FileChunk.split(file.toPath(), chunkSize).stream();
         } catch (IOException e) {
             LOGGER.log(Level.WARNING, INVALID_FILE_READING_MESSAGE + file.getAbsolutePath(), e);
+            return Stream.empty();
         }
-        return nginxLogs.stream();
     }
-}
-
 
+    private long blockSize() {
+        return Math.min(TimeIndex.BLOCK_SIZE, chunkSize);
+    }
 
+    /**
+     * Открывает поток записей фрагмента.
+     *
+     * <p>Сжатые файлы распаковываются потоком. Несжатые файлы и их фрагменты отображаются в память
+     * и разбираются по байтам ({@link #convertBytesToNginx(String, byte[], int)}): строки не декодируются
+     * из UTF-8 целиком, а в {@link String} превращаются только нужные поля записей.</p>
+     *
+     * @param chunk Фрагмент файла.
+     * @return Поток объектов {@link NginxLog}, полученных из фрагмента.
+     */
+    Stream<NginxLog> readChunk(FileChunk chunk) {
+        String source = chunk.file().toString();
+        if (chunk.start() == 0) {
+            Compression compression = detectCompression(chunk.file().toFile());
+            if (compression != Compression.NONE) {
+                return parseLines(source, DecodedLines.stream(chunk.file(), compression));
+            }
+            if (chunk.end() == chunk.file().toFile().length()) {
+                return readFile(chunk, source);
+            }
+        }
+        return chunk.records((line, length) -> convertBytesToNginx(source, line, length));
+    }
 
+    /**
+     * Открывает поток записей фрагмента, охватывающего файл целиком.
+     *
+     * <p>Если файл не удается открыть, будет записано предупреждение в журнал.</p>
+     *
+     * @param chunk  Фрагмент, охватывающий файл целиком.
+     * @param source Путь к файлу.
+     * @return Поток объектов {@link NginxLog}, полученных из файла.
+     */
+    private Stream<NginxLog> readFile(FileChunk chunk, String source) {
+        try {
+            return chunk.records((line, length) -> convertBytesToNginx(source, line, length));
+        } catch (UncheckedIOException e) {
+            LOGGER.log(Level.WARNING, INVALID_FILE_READING_MESSAGE + source, e);
+            return Stream.empty();
+        }
+    }
 
+    /**
+     * Определяет формат сжатия файла.
+     *
+     * <p>Если файл не удается прочитать, будет записано предупреждение в журнал,
+     * а файл будет считаться несжатым.</p>
+     *
+     * @param file Файл.
+     * @return Формат сжатия файла.
+     */
+    private Compression detectCompression(File file) {
+        try {
+            return Compression.detect(file.toPath());
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, INVALID_FILE_READING_MESSAGE + file.getAbsolutePath(), e);
+            return Compression.NONE;
+        }
+    }
+}
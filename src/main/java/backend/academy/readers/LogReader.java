@@ -1,54 +1,65 @@
 package backend.academy.readers;
 
 import backend.academy.nginx.NginxLog;
-import java.io.IOException;
-import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 /**
  * Класс LogReader предназначен для чтения логов из различных источников.
  * Он наследует функциональность абстрактного класса AbstractLogReader и
- * определяет метод для чтения логов из списка указанных путей.
+ * определяет метод для потокового чтения логов из списка указанных путей.
  */
 public final class LogReader extends AbstractLogReader {
+    private int parallelism = ConcurrentLogReader.DEFAULT_PARALLELISM;
+    private Consumer<SourceProgress> progressListener = progress -> {
+    };
 
     /**
-     * Читает логи из заданных путей. В зависимости от формата пути (URL или файл),
-     * создаётся соответствующий лог-ридер (LogUrlReader или LogFileReader).
+     * Открывает ленивый поток логов из заданных путей. В зависимости от формата пути (URL или файл),
+     * путь передается соответствующему лог-ридеру (LogUrlReader или LogFileReader).
+     *
+     * <p>Источники читаются одновременно на виртуальных потоках ({@link ConcurrentLogReader}),
+     * не более {@link #setParallelism(int)} задач сразу: медленный URL-адрес не задерживает чтение
+     * файлов, а фрагменты больших файлов разбираются параллельно. Записи всех источников поступают
+     * в один поток, который необходимо закрыть после использования.</p>
      *
      * @param paths Список строк, представляющих пути к логам (файлы или URL-адреса).
-     * @return Список объектов NginxLog, содержащих прочитанные записи логов.
-     * @throws IOException Если произошла ошибка ввода-вывода при чтении данных.
+     * @return Ленивый поток объектов NginxLog, который необходимо закрыть после использования.
      */
     @Override
-    public List<NginxLog> readLogs(List<String> paths) throws IOException {
-        List<NginxLog> allLogs = new ArrayList<>();
+    public Stream<NginxLog> streamLogs(List<String> paths) {
+        ConcurrentLogReader reader = new ConcurrentLogReader(parallelism);
+        reader.setPrefilter(getPrefilter());
+        reader.setFields(getFields());
+        reader.setTimeRange(getTimeRange());
+        reader.setParsePolicy(getParsePolicy());
+        reader.setRejectedLines(getRejectedLines());
+        reader.setProgressListener(progressListener);
+        return reader.streamLogs(paths);
+    }
 
-        for (String path : paths) {
-            AbstractLogReader logReader = createLogReader(path);
-            // Передаем только текущий путь в readLogs
-            List<NginxLog> logs = logReader.readLogs(List.of(path));
-            allLogs.addAll(logs);
-        }
+    /**
+     * @param parallelism Наибольшее число одновременно читаемых фрагментов файлов и URL-адресов.
+     */
+    public void setParallelism(int parallelism) {
+        this.parallelism = parallelism;
+    }
 
-        return allLogs;
+    /**
+     * @param progressListener Потокобезопасный получатель сведений о ходе чтения источников.
+     */
+    public void setProgressListener(Consumer<SourceProgress> progressListener) {
+        this.progressListener = progressListener;
     }
 
     /**
-     * Создаёт экземпляр лог-ридера в зависимости от формата указанного пути.
-     * Если путь начинается с "http://" или "https://", возвращает экземпляр LogUrlReader.
-     * В противном случае возвращает экземпляр LogFileReader.
+     * Проверяет, указывает ли путь на URL-адрес ("http://" или "https://").
      *
      * @param path Путь к логам, который необходимо проверить.
-     * @return Экземпляр AbstractLogReader, соответствующий указанному пути.
+     * @return true, если путь является URL-адресом.
      */
-    private AbstractLogReader createLogReader(String path) {
-        if (path.startsWith("http://") || path.startsWith("https://")) {
-            return new LogUrlReader();
-        } else {
-            return new LogFileReader();
-        }
+    public static boolean isUrl(String path) {
+        return path.startsWith("http://") || path.startsWith("https://");
     }
 }
-
-
@@ -0,0 +1,153 @@
+package backend.academy.readers;
+
+import backend.academy.nginx.NginxLog;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+import static backend.academy.config.ErrorMessages.FILE_CLOSE_ERROR;
+import static backend.academy.config.ErrorMessages.INVALID_FILE_READING_MESSAGE;
+import static backend.academy.config.ErrorMessages.UNSUPPORTED_FOLLOW_SOURCE;
+
+/**
+ * Чтение дописываемых файлов логов в режиме {@code tail -f}.
+ *
+ * <p>Каждый вызов {@link #streamLogs(List)} возвращает только записи, добавленные в файлы
+ * после предыдущего вызова: для каждого файла запоминается позиция чтения, поэтому затраты
+ * на обновление пропорциональны объему новых данных. Первый вызов читает файлы с начала.
+ * Новые байты до конца последней завершенной строки ({@link FileChunk#completeLinesEnd(FileChannel, long)})
+ * отображаются в память и разбираются лениво по байтам, как фрагменты {@link LogFileReader}, поэтому
+ * даже первый вызов не загружает файл в кучу. Незавершенная последняя строка не разбирается,
+ * пока запись не будет дописана до перевода строки.</p>
+ *
+ * <p>Ротация определяется по смене файла под тем же путем ({@link BasicFileAttributes#fileKey()},
+ * в POSIX-системах — номер inode): остаток старого файла дочитывается через открытый канал,
+ * после чего новый файл читается с начала. Если файл стал короче позиции чтения
+ * (ротация {@code copytruncate}), он читается заново с начала. Отсутствующий файл пропускается
+ * до его появления.</p>
+ *
+ * <p>Поддерживаются только несжатые файлы; директории и URL-адреса не поддерживаются.
+ * Экземпляр не потокобезопасен и должен быть закрыт после использования.</p>
+ */
+public final class LogTailer extends AbstractLogReader implements AutoCloseable {
+    private static final Logger LOGGER = Logger.getLogger(LogTailer.class.getName());
+
+    private final Map<Path, TailedFile> files = new HashMap<>();
+
+    /**
+     * Читает записи, добавленные в файлы после предыдущего вызова.
+     *
+     * <p>Позиции чтения переносятся сразу, а записи разбираются при обходе потока.</p>
+     *
+     * @param paths Пути к файлам логов.
+     * @return Поток новых записей, который необходимо закрыть после использования.
+     * @throws IllegalArgumentException если путь указывает на директорию или URL-адрес.
+     */
+    @Override
+    public Stream<NginxLog> streamLogs(List<String> paths) {
+        List<Stream<NginxLog>> logs = new ArrayList<>();
+        for (String path : paths) {
+            if (LogReader.isUrl(path) || Files.isDirectory(Path.of(path))) {
+                throw new IllegalArgumentException(UNSUPPORTED_FOLLOW_SOURCE + " " + path);
+            }
+            TailedFile file = files.computeIfAbsent(Path.of(path), TailedFile::new);
+            try {
+                file.poll((line, length) -> convertBytesToNginx(path, line, length), logs);
+            } catch (IOException e) {
+                // Позиция сохраняется: следующий вызов продолжит чтение с того же места
+                LOGGER.log(Level.WARNING, INVALID_FILE_READING_MESSAGE + path, e);
+            }
+        }
+        return logs.stream().flatMap(Function.identity()).onClose(() -> logs.forEach(Stream::close));
+    }
+
+    /**
+     * Закрывает все открытые файлы.
+     */
+    @Override
+    public void close() {
+        files.values().forEach(TailedFile::close);
+        files.clear();
+    }
+
+    /**
+     * Состояние чтения одного файла: открытый канал и позиция после последней прочитанной строки.
+     */
+    private static final class TailedFile {
+        private final Path path;
+        private FileChannel channel;
+        private Object fileKey;
+        private long position;
+
+        TailedFile(Path path) {
+            this.path = path;
+        }
+
+        /**
+         * Дочитывает открытый файл и переходит на новый файл после ротации.
+         *
+         * @param parser Парсер байтов строки.
+         * @param logs   Список, в который добавляются потоки записей новых участков файла.
+         */
+        void poll(FileChunk.LineParser<NginxLog> parser, List<Stream<NginxLog>> logs) throws IOException {
+            if (channel != null && channel.size() < position) {
+                position = 0;
+            }
+            Object currentKey;
+            try {
+                currentKey = Files.readAttributes(path, BasicFileAttributes.class).fileKey();
+            } catch (NoSuchFileException e) {
+                currentKey = null;
+                if (channel == null) {
+                    return;
+                }
+            }
+            boolean rotated = channel != null && currentKey != null && !Objects.equals(currentKey, fileKey);
+            if (channel != null) {
+                // Старый файл больше не дописывается, поэтому его последняя строка читается и без перевода строки
+                drain(rotated ? channel.size() : FileChunk.completeLinesEnd(channel, position), parser, logs);
+                if (!rotated) {
+                    return;
+                }
+                close();
+            }
+            channel = FileChannel.open(path, StandardOpenOption.READ);
+            fileKey = currentKey;
+            position = 0;
+            drain(FileChunk.completeLinesEnd(channel, position), parser, logs);
+        }
+
+        private void drain(long end, FileChunk.LineParser<NginxLog> parser, List<Stream<NginxLog>> logs)
+            throws IOException {
+            if (end <= position) {
+                return;
+            }
+            logs.add(new FileChunk(path, position, end).records(channel, parser));
+            position = end;
+        }
+
+        void close() {
+            if (channel == null) {
+                return;
+            }
+            try {
+                channel.close();
+            } catch (IOException e) {
+                LOGGER.log(Level.WARNING, FILE_CLOSE_ERROR + " " + path, e);
+            }
+            channel = null;
+        }
+    }
+}
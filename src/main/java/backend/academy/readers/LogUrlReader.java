@@ -1,103 +1,119 @@
 package backend.academy.readers;
 
 import backend.academy.nginx.NginxLog;
-import java.io.BufferedReader;
+import java.io.BufferedInputStream;
 import java.io.IOException;
-import java.io.InputStreamReader;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.net.URI;
 import java.net.URISyntaxException;
-import java.nio.charset.StandardCharsets;
-import java.util.ArrayList;
 import java.util.List;
 import java.util.logging.Level;
 import java.util.logging.Logger;
-import org.apache.http.client.methods.HttpGet;
+import java.util.stream.Stream;
 import org.apache.http.impl.client.CloseableHttpClient;
 import org.apache.http.impl.client.HttpClients;
 import static backend.academy.config.ErrorMessages.ERROR_READING_LOGS_MESSAGE;
+import static backend.academy.config.ErrorMessages.FILE_CLOSE_ERROR;
 import static backend.academy.config.ErrorMessages.INVALID_URL_MESSAGE;
 
 /**
  * Класс LogUrlReader предназначен для чтения логов Nginx из заданных URL-адресов.
  * Он наследует функциональность абстрактного класса AbstractLogReader.
+ *
+ * <p>Каждый URL-адрес загружается одним запросом потоково, с постоянным объемом памяти.</p>
  */
 public final class LogUrlReader extends AbstractLogReader {
     private static final String URL_PATTERN = "^(http|https)://.*";
     private static final Logger LOGGER = Logger.getLogger(LogUrlReader.class.getName());
-    private static final int OK = 200;
+    private static final int BUFFER_SIZE = 64 * 1024;
 
     /**
-     * Читает логи Nginx из списка указанных URL-адресов.
+     * Открывает ленивый поток логов Nginx из списка указанных URL-адресов.
+     *
+     * <p>Соединение с очередным URL-адресом устанавливается только тогда, когда до него
+     * дойдет потребление потока, и закрывается после чтения последней строки ответа.</p>
      *
      * @param paths Список строк, представляющих URL-адреса для чтения логов.
-     * @return Список объектов NginxLog, содержащих прочитанные записи логов.
+     * @return Ленивый поток объектов NginxLog, который необходимо закрыть после использования.
      */
     @Override
-    public List<NginxLog> readLogs(List<String> paths) {
-        List<NginxLog> nginxLogs = new ArrayList<>();
+    public Stream<NginxLog> streamLogs(List<String> paths) {
+        return paths.stream().flatMap(this::openUrl);
+    }
 
-        for (String path : paths) {
-            try {
-                List<NginxLog> logsFromLines = readLinesFromUrl(path);
-                nginxLogs.addAll(logsFromLines);
-            } catch (IOException | URISyntaxException e) {
-                LOGGER.log(Level.WARNING, ERROR_READING_LOGS_MESSAGE + path, e);
-            }
+    /**
+     * Открывает поток логов из одного URL-адреса, записывая ошибки в журнал.
+     *
+     * @param path URL-адрес, из которого будут читаться логи.
+     * @return Поток объектов NginxLog или пустой поток, если URL-адрес недоступен.
+     */
+    private Stream<NginxLog> openUrl(String path) {
+        try {
+            return readLinesFromUrl(path);
+        } catch (IOException | URISyntaxException e) {
+            LOGGER.log(Level.WARNING, ERROR_READING_LOGS_MESSAGE + path, e);
+            return Stream.empty();
         }
-
-        return nginxLogs;
     }
 
     /**
-     * Читает строки логов из указанного URL-адреса.
+     * Открывает ленивый поток строк логов из указанного URL-адреса.
+     *
+     * <p>Выполняется один запрос, код ответа и сжатие проверяются до чтения тела. Тело читается
+     * в отдельном потоке и передается на разбор через ограниченный буфер ({@link DecodedLines}),
+     * поэтому объем памяти не зависит от размера лога. Ответ со сжатием {@code gzip} и сжатые
+     * файлы ({@link Compression}) распаковываются на лету, а при обрыве соединения загрузка
+     * продолжается с места обрыва ({@link ResumableHttpStream}).</p>
      *
      * @param urlString URL-адрес, из которого будут читаться логи.
-     * @return Список объектов NginxLog, содержащих прочитанные записи логов.
-     * @throws IOException              Если произошла ошибка ввода-вывода при чтении данных.
+     * @return Поток объектов NginxLog, закрывающий соединение при своем закрытии.
+     * @throws IOException              Если запрос не удался или ответ не подходит для чтения.
      * @throws URISyntaxException       Если указанный URL-адрес имеет неверный синтаксис.
      * @throws IllegalArgumentException Если указанный URL-адрес не соответствует ожидаемому формату.
      */
-    private List<NginxLog> readLinesFromUrl(String urlString) throws IOException, URISyntaxException {
+    private Stream<NginxLog> readLinesFromUrl(String urlString) throws IOException, URISyntaxException {
         URI uri = new URI(urlString);
 
         if (!uri.toString().matches(URL_PATTERN)) {
             throw new IllegalArgumentException(INVALID_URL_MESSAGE + urlString);
         }
 
-        try (CloseableHttpClient httpClient = HttpClients.createDefault();
-             BufferedReader reader = new BufferedReader(
-                 new InputStreamReader(
-                     httpClient.execute(new HttpGet(uri))
-                         .getEntity()
-                         .getContent(),
-                     StandardCharsets.UTF_8))) {
+        CloseableHttpClient httpClient = HttpClients.custom().disableContentCompression().build();
+        ResumableHttpStream body;
+        try {
+            body = ResumableHttpStream.open(httpClient, uri);
+        } catch (IOException e) {
+            httpClient.close();
+            throw e;
+        }
+        return parseLines(urlString, DecodedLines.stream(urlString, () -> decode(body)))
+            .onClose(() -> closeConnection(body, urlString));
+    }
 
-            int statusCode = httpClient.execute(new HttpGet(uri)).getStatusLine().getStatusCode();
-            if (statusCode != OK) {
-                throw new IOException(ERROR_READING_LOGS_MESSAGE + urlString + " Код ответа: " + statusCode);
-            }
+    /**
+     * Снимает сжатие ответа и, если тело является сжатым файлом, распаковывает его.
+     *
+     * @param body Тело ответа.
+     * @return Поток распакованных байтов.
+     * @throws IOException Если заголовок сжатых данных некорректен.
+     */
+    private static InputStream decode(ResumableHttpStream body) throws IOException {
+        InputStream content = new BufferedInputStream(body.compression().decode(body), BUFFER_SIZE);
+        return Compression.detect(content).decode(content);
+    }
 
-            List<NginxLog> nginxLogList = new ArrayList<>();
-            String line;
-            while ((line = reader.readLine()) != null) {
-                NginxLog nginxLine = convertLineToNginx(line);
-                nginxLogList.add(nginxLine);
-            }
-            return nginxLogList;
+    /**
+     * Закрывает тело ответа вместе с HTTP-клиентом.
+     *
+     * @param body      Тело ответа.
+     * @param urlString URL-адрес, из которого читались логи.
+     */
+    private void closeConnection(ResumableHttpStream body, String urlString) {
+        try {
+            body.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(FILE_CLOSE_ERROR + urlString, e);
         }
-
     }
 }
-
-
-
-
-
-
-
-
-
-
-
-
-
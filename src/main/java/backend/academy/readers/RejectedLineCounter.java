@@ -0,0 +1,142 @@
+package backend.academy.readers;
+
+import backend.academy.statistic.RejectedLines;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Потокобезопасный подсчет строк, отброшенных при разборе, по источникам.
+ * <p>
+ * Для каждого источника хранится счетчик {@link LongAdder}, который фрагменты одного файла
+ * увеличивают из разных потоков без блокировок, и первые {@link #SAMPLE_SIZE} отброшенных строк,
+ * сокращенные до {@link #SAMPLE_LENGTH} символов. Память не зависит от количества отброшенных строк.
+ * </p>
+ */
+public final class RejectedLineCounter {
+    public static final int SAMPLE_SIZE = 3;
+    public static final int SAMPLE_LENGTH = 200;
+
+    private final Map<String, Source> sources = new ConcurrentHashMap<>();
+
+    /**
+     * Учитывает отброшенную строку.
+     *
+     * @param source Путь к файлу или URL-адрес.
+     * @param line   Отброшенная строка.
+     */
+    public void reject(String source, String line) {
+        sources.computeIfAbsent(source, key -> new Source()).reject(line);
+    }
+
+    /**
+     * @return Источники с отброшенными строками в порядке путей.
+     */
+    public Map<String, RejectedLines> summary() {
+        Map<String, RejectedLines> summary = new TreeMap<>();
+        sources.forEach((source, counter) -> summary.put(source, counter.summary()));
+        return summary;
+    }
+
+    /**
+     * @return Общее количество отброшенных строк.
+     */
+    public long total() {
+        return sources.values().stream().mapToLong(source -> source.count.sum()).sum();
+    }
+
+    /**
+     * Добавляет строки, подсчитанные другим счетчиком, например восстановленным из контрольной точки.
+     *
+     * @param other Счетчик, строки которого добавляются; не изменяется.
+     */
+    public void addAll(RejectedLineCounter other) {
+        other.summary().forEach((source, lines) -> sources.computeIfAbsent(source, key -> new Source()).add(lines));
+    }
+
+    /**
+     * Удаляет все подсчитанные строки.
+     */
+    public void clear() {
+        sources.clear();
+    }
+
+    /**
+     * Записывает счетчики и примеры строк в двоичном виде.
+     *
+     * @param out Поток для записи.
+     * @throws IOException если запись не удалась.
+     */
+    public void writeTo(DataOutput out) throws IOException {
+        Map<String, RejectedLines> summary = summary();
+        out.writeInt(summary.size());
+        for (Map.Entry<String, RejectedLines> entry : summary.entrySet()) {
+            out.writeUTF(entry.getKey());
+            out.writeLong(entry.getValue().count());
+            out.writeInt(entry.getValue().samples().size());
+            for (String sample : entry.getValue().samples()) {
+                out.writeUTF(sample);
+            }
+        }
+    }
+
+    /**
+     * Восстанавливает счетчик, записанный методом {@link #writeTo(DataOutput)}.
+     *
+     * @param in Поток для чтения.
+     * @return Счетчик отброшенных строк.
+     * @throws IOException если чтение не удалось.
+     */
+    public static RejectedLineCounter readFrom(DataInput in) throws IOException {
+        RejectedLineCounter counter = new RejectedLineCounter();
+        int sources = in.readInt();
+        for (int i = 0; i < sources; i++) {
+            String source = in.readUTF();
+            long count = in.readLong();
+            int sampleCount = in.readInt();
+            List<String> samples = new ArrayList<>(sampleCount);
+            for (int j = 0; j < sampleCount; j++) {
+                samples.add(in.readUTF());
+            }
+            counter.sources.computeIfAbsent(source, key -> new Source()).add(new RejectedLines(count, samples));
+        }
+        return counter;
+    }
+
+    private static final class Source {
+        private final LongAdder count = new LongAdder();
+        private final List<String> samples = new ArrayList<>(SAMPLE_SIZE);
+
+        void reject(String line) {
+            count.increment();
+            synchronized (samples) {
+                if (samples.size() < SAMPLE_SIZE) {
+                    samples.add(line.length() > SAMPLE_LENGTH ? line.substring(0, SAMPLE_LENGTH) : line);
+                }
+            }
+        }
+
+        void add(RejectedLines lines) {
+            count.add(lines.count());
+            synchronized (samples) {
+                for (String sample : lines.samples()) {
+                    if (samples.size() < SAMPLE_SIZE) {
+                        samples.add(sample);
+                    }
+                }
+            }
+        }
+
+        RejectedLines summary() {
+            synchronized (samples) {
+                return new RejectedLines(count.sum(), List.copyOf(samples));
+            }
+        }
+    }
+}
@@ -0,0 +1,200 @@
+package backend.academy.readers;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.util.Locale;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.apache.http.Header;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpHeaders;
+import org.apache.http.HttpStatus;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.impl.client.CloseableHttpClient;
+import static backend.academy.config.ErrorMessages.DOWNLOAD_RESUMED_MESSAGE;
+import static backend.academy.config.ErrorMessages.UNEXPECTED_STATUS_CODE;
+import static backend.academy.config.ErrorMessages.UNSUPPORTED_CONTENT_ENCODING;
+
+/**
+ * Тело HTTP-ответа, загрузка которого продолжается с места обрыва соединения.
+ *
+ * <p>Поток выполняет один запрос {@code GET} и до чтения тела проверяет код ответа и заголовок
+ * {@code Content-Encoding}. Тело читается как есть, без распаковки: сжатие {@code gzip}
+ * снимается уровнем выше ({@link #compression()}), поэтому смещение в байтах совпадает
+ * со смещением в передаваемом представлении. Если сервер объявил {@code Accept-Ranges: bytes},
+ * то при ошибке чтения выполняется повторный запрос с заголовками {@code Range} и {@code If-Range},
+ * и чтение продолжается с первого непрочитанного байта. Ответ, отличный от {@code 206}
+ * с ожидаемым {@code Content-Range}, означает, что ресурс изменился, и исходная ошибка
+ * пробрасывается дальше.</p>
+ *
+ * <p>Закрытие потока закрывает ответ и HTTP-клиент.</p>
+ */
+final class ResumableHttpStream extends InputStream {
+    static final int MAX_RESUMES = 3;
+
+    private static final Logger LOGGER = Logger.getLogger(ResumableHttpStream.class.getName());
+    private static final String GZIP = "gzip";
+    private static final String X_GZIP = "x-gzip";
+    private static final String IDENTITY = "identity";
+    private static final String BYTES = "bytes";
+    private static final String WEAK_ETAG_PREFIX = "W/";
+
+    private final CloseableHttpClient httpClient;
+    private final URI uri;
+    private final Compression compression;
+    private final String validator;
+    private CloseableHttpResponse response;
+    private InputStream content;
+    private long position;
+    private int resumes;
+    private volatile boolean closed;
+
+    private ResumableHttpStream(
+        CloseableHttpClient httpClient, URI uri, CloseableHttpResponse response, Compression compression,
+        String validator
+    ) throws IOException {
+        this.httpClient = httpClient;
+        this.uri = uri;
+        this.response = response;
+        this.compression = compression;
+        this.validator = validator;
+        this.content = contentOf(response);
+    }
+
+    /**
+     * Выполняет запрос и проверяет ответ до чтения тела.
+     *
+     * @param httpClient HTTP-клиент без автоматической распаковки ответов; закрывается вместе с потоком.
+     * @param uri        Адрес ресурса.
+     * @return Поток тела ответа.
+     * @throws IOException если запрос не удался, код ответа не 200 или сжатие не поддерживается.
+     *                     HTTP-клиент при этом не закрывается.
+     */
+    static ResumableHttpStream open(CloseableHttpClient httpClient, URI uri) throws IOException {
+        CloseableHttpResponse response = httpClient.execute(request(uri));
+        try {
+            int statusCode = response.getStatusLine().getStatusCode();
+            if (statusCode != HttpStatus.SC_OK) {
+                throw new IOException(UNEXPECTED_STATUS_CODE + " " + statusCode + " " + uri);
+            }
+            Compression compression = contentEncoding(response);
+            return new ResumableHttpStream(httpClient, uri, response, compression, rangeValidator(response));
+        } catch (IOException e) {
+            response.close();
+            throw e;
+        }
+    }
+
+    /**
+     * @return {@link Compression#GZIP}, если тело передается со сжатием {@code gzip}, иначе {@link Compression#NONE}.
+     */
+    Compression compression() {
+        return compression;
+    }
+
+    @Override
+    public int read() throws IOException {
+        byte[] single = new byte[1];
+        int read = read(single, 0, 1);
+        return read < 0 ? -1 : single[0] & 0xff;
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int length) throws IOException {
+        while (true) {
+            try {
+                int read = content.read(buffer, offset, length);
+                if (read > 0) {
+                    position += read;
+                }
+                return read;
+            } catch (IOException e) {
+                if (closed || !resume()) {
+                    throw e;
+                }
+            }
+        }
+    }
+
+    @Override
+    public int available() throws IOException {
+        return content.available();
+    }
+
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        try (httpClient) {
+            response.close();
+        }
+    }
+
+    /**
+     * Запрашивает продолжение тела с текущей позиции.
+     *
+     * @return true, если сервер вернул продолжение того же ресурса.
+     */
+    private boolean resume() throws IOException {
+        if (validator == null || resumes >= MAX_RESUMES) {
+            return false;
+        }
+        resumes++;
+        response.close();
+        HttpGet request = request(uri);
+        request.setHeader(HttpHeaders.RANGE, BYTES + "=" + position + "-");
+        request.setHeader(HttpHeaders.IF_RANGE, validator);
+        response = httpClient.execute(request);
+        Header contentRange = response.getFirstHeader(HttpHeaders.CONTENT_RANGE);
+        if (response.getStatusLine().getStatusCode() != HttpStatus.SC_PARTIAL_CONTENT || contentRange == null
+            || !contentRange.getValue().startsWith(BYTES + " " + position + "-")) {
+            return false;
+        }
+        content = contentOf(response);
+        LOGGER.log(Level.INFO, DOWNLOAD_RESUMED_MESSAGE + " " + position + " " + uri);
+        return true;
+    }
+
+    private static HttpGet request(URI uri) {
+        HttpGet request = new HttpGet(uri);
+        request.setHeader(HttpHeaders.ACCEPT_ENCODING, GZIP);
+        return request;
+    }
+
+    private static InputStream contentOf(CloseableHttpResponse response) throws IOException {
+        HttpEntity entity = response.getEntity();
+        return entity == null ? InputStream.nullInputStream() : entity.getContent();
+    }
+
+    private static Compression contentEncoding(CloseableHttpResponse response) throws IOException {
+        Header header = response.getFirstHeader(HttpHeaders.CONTENT_ENCODING);
+        if (header == null) {
+            return Compression.NONE;
+        }
+        String encoding = header.getValue().trim().toLowerCase(Locale.ROOT);
+        return switch (encoding) {
+            case GZIP, X_GZIP -> Compression.GZIP;
+            case IDENTITY, "" -> Compression.NONE;
+            default -> throw new IOException(UNSUPPORTED_CONTENT_ENCODING + " " + encoding);
+        };
+    }
+
+    /**
+     * Выбирает значение {@code If-Range}: сильный {@code ETag} или {@code Last-Modified}.
+     *
+     * @return Значение {@code If-Range} или null, если сервер не поддерживает запросы диапазонов.
+     */
+    private static String rangeValidator(CloseableHttpResponse response) {
+        Header acceptRanges = response.getFirstHeader(HttpHeaders.ACCEPT_RANGES);
+        if (acceptRanges == null || !BYTES.equalsIgnoreCase(acceptRanges.getValue().trim())) {
+            return null;
+        }
+        Header etag = response.getFirstHeader(HttpHeaders.ETAG);
+        if (etag != null && !etag.getValue().startsWith(WEAK_ETAG_PREFIX)) {
+            return etag.getValue();
+        }
+        Header lastModified = response.getFirstHeader(HttpHeaders.LAST_MODIFIED);
+        return lastModified == null ? null : lastModified.getValue();
+    }
+}
@@ -0,0 +1,23 @@
+package backend.academy.readers;
+
+/**
+ * Состояние чтения одного источника логов: файла или URL-адреса.
+ *
+ * @param source    Путь к файлу или URL-адрес.
+ * @param state     Этап чтения источника.
+ * @param tasksDone Количество прочитанных частей источника (фрагментов файла).
+ * @param tasks     Общее количество частей источника.
+ * @param records   Количество записей, прочитанных из источника к этому моменту.
+ */
+public record SourceProgress(String source, State state, int tasksDone, int tasks, long records) {
+
+    /**
+     * Этапы чтения источника.
+     */
+    public enum State {
+        QUEUED,
+        RUNNING,
+        DONE,
+        FAILED
+    }
+}
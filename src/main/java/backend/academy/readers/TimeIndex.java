@@ -0,0 +1,319 @@
+package backend.academy.readers;
+
+import backend.academy.checkpoint.FileCheckpoint;
+import backend.academy.datefilter.TimeRange;
+import backend.academy.datefilter.TimestampDecoder;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import static backend.academy.config.ErrorMessages.TIME_INDEX_READ_ERROR;
+import static backend.academy.config.ErrorMessages.TIME_INDEX_WRITE_ERROR;
+
+/**
+ * Индекс времени несжатого файла лога, хранящийся рядом с файлом ({@code access.log.tidx}).
+ *
+ * <p>Файл делится на блоки примерно по {@link #BLOCK_SIZE} байт, выровненные по строкам, и для каждого
+ * блока запоминаются смещение, наименьшее и наибольшее время записей. Для выбора блоков по диапазону
+ * {@code --from/--to} хранятся также нарастающий максимум и убывающий с конца минимум времени блоков:
+ * оба массива монотонны, поэтому первый и последний подходящие блоки находятся двоичным поиском,
+ * а время всего файла — по крайним элементам. Проверка каждого блока по его минимуму и максимуму
+ * делает выбор точным и для записей, немного нарушающих порядок времени.</p>
+ *
+ * <p>Индекс строится при первом чтении файла с диапазоном времени. Если файл дописан, индекс
+ * дополняется только новыми блоками; если файл перезаписан, индекс строится заново.
+ * Незавершенная последняя строка в индекс не входит и читается всегда. Блок со строкой,
+ * время которой не удалось разобрать, читается при любом диапазоне.</p>
+ */
+public final class TimeIndex {
+    public static final long BLOCK_SIZE = 1L << 20;
+    public static final String SUFFIX = ".tidx";
+
+    private static final Logger LOGGER = Logger.getLogger(TimeIndex.class.getName());
+    private static final int MAGIC = 0x54494458;
+    private static final int VERSION = 1;
+    private static final String TEMPORARY_SUFFIX = ".tmp";
+
+    private final FileCheckpoint indexed;
+    private final long[] offsets;
+    private final long[] minEpochSeconds;
+    private final long[] maxEpochSeconds;
+    private final long[] prefixMax;
+    private final long[] suffixMin;
+
+    private TimeIndex(FileCheckpoint indexed, long[] offsets, long[] minEpochSeconds, long[] maxEpochSeconds) {
+        this.indexed = indexed;
+        this.offsets = offsets;
+        this.minEpochSeconds = minEpochSeconds;
+        this.maxEpochSeconds = maxEpochSeconds;
+        int blocks = offsets.length;
+        this.prefixMax = new long[blocks];
+        this.suffixMin = new long[blocks];
+        for (int i = 0; i < blocks; i++) {
+            prefixMax[i] = Math.max(i == 0 ? Long.MIN_VALUE : prefixMax[i - 1], maxEpochSeconds[i]);
+        }
+        for (int i = blocks - 1; i >= 0; i--) {
+            suffixMin[i] = Math.min(i == blocks - 1 ? Long.MAX_VALUE : suffixMin[i + 1], minEpochSeconds[i]);
+        }
+    }
+
+    /**
+     * Загружает индекс файла, дополняя или перестраивая его при изменении файла.
+     *
+     * <p>Обновленный индекс сохраняется рядом с файлом. Если сохранить его не удалось,
+     * индекс используется только в текущем запуске.</p>
+     *
+     * @param file Путь к несжатому файлу лога.
+     * @return Актуальный индекс файла.
+     * @throws IOException если файл лога не удалось прочитать.
+     */
+    public static TimeIndex forFile(Path file) throws IOException {
+        return forFile(file, BLOCK_SIZE);
+    }
+
+    /**
+     * Загружает индекс файла, дополняя или перестраивая его новыми блоками указанного размера.
+     *
+     * @param file      Путь к несжатому файлу лога.
+     * @param blockSize Размер новых блоков в байтах.
+     * @return Актуальный индекс файла.
+     * @throws IOException если файл лога не удалось прочитать.
+     */
+    public static TimeIndex forFile(Path file, long blockSize) throws IOException {
+        Path sidecar = sidecarOf(file);
+        TimeIndex previous = load(sidecar);
+        if (previous != null && !previous.indexed.continuedBy(file)) {
+            previous = null;
+        }
+        long start = previous == null ? 0 : previous.indexed.offset();
+        long end = FileChunk.completeLinesEnd(file, start);
+        if (previous != null && end == start) {
+            return previous;
+        }
+        TimeIndex index = extend(previous, file, start, end, blockSize);
+        try {
+            index.save(sidecar);
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, TIME_INDEX_WRITE_ERROR + " " + sidecar, e);
+        }
+        return index;
+    }
+
+    /**
+     * @param file Путь к файлу лога.
+     * @return Путь к файлу индекса рядом с файлом лога.
+     */
+    public static Path sidecarOf(Path file) {
+        Path absolute = file.toAbsolutePath();
+        return absolute.resolveSibling(absolute.getFileName() + SUFFIX);
+    }
+
+    /**
+     * Выбирает фрагменты файла, которые могут содержать записи из диапазона времени.
+     *
+     * <p>Соседние подходящие блоки объединяются и затем делятся на фрагменты размером
+     * не больше {@code chunkSize}. Часть файла после проиндексированной (незавершенная строка
+     * или данные, дописанные после построения индекса) выбирается всегда.</p>
+     *
+     * @param file      Путь к файлу лога.
+     * @param range     Диапазон времени.
+     * @param chunkSize Желаемый размер фрагмента в байтах.
+     * @return Фрагменты файла в порядке следования.
+     * @throws IOException если файл не удалось прочитать.
+     */
+    public List<FileChunk> select(Path file, TimeRange range, long chunkSize) throws IOException {
+        List<FileChunk> chunks = new ArrayList<>();
+        int first = firstBlockEndingAfter(range.from());
+        int last = lastBlockStartingBefore(range.to());
+        long rangeStart = -1;
+        for (int block = first; block <= last; block++) {
+            boolean selected = range.overlaps(minEpochSeconds[block], maxEpochSeconds[block]);
+            if (selected && rangeStart < 0) {
+                rangeStart = offsets[block];
+            } else if (!selected && rangeStart >= 0) {
+                chunks.addAll(FileChunk.split(file, rangeStart, offsets[block], chunkSize));
+                rangeStart = -1;
+            }
+        }
+        if (rangeStart >= 0) {
+            chunks.addAll(FileChunk.split(file, rangeStart, blockEnd(last), chunkSize));
+        }
+        long size = Files.size(file);
+        if (size > indexed.offset()) {
+            chunks.addAll(FileChunk.split(file, indexed.offset(), size, chunkSize));
+        }
+        return chunks;
+    }
+
+    /**
+     * @return Наименьшее время записей файла или {@link Long#MAX_VALUE} для файла без записей.
+     */
+    public long minEpochSecond() {
+        return offsets.length == 0 ? Long.MAX_VALUE : suffixMin[0];
+    }
+
+    /**
+     * @return Наибольшее время записей файла или {@link Long#MIN_VALUE} для файла без записей.
+     */
+    public long maxEpochSecond() {
+        return offsets.length == 0 ? Long.MIN_VALUE : prefixMax[offsets.length - 1];
+    }
+
+    /**
+     * @return Количество блоков индекса.
+     */
+    public int blocks() {
+        return offsets.length;
+    }
+
+    /**
+     * Первый блок, нарастающий максимум которого не меньше {@code from}: все блоки до него
+     * заканчиваются раньше диапазона.
+     */
+    private int firstBlockEndingAfter(long from) {
+        int low = 0;
+        int high = offsets.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (prefixMax[middle] >= from) {
+                high = middle;
+            } else {
+                low = middle + 1;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Последний блок, минимум с конца которого не больше {@code to}: все блоки после него
+     * начинаются позже диапазона.
+     */
+    private int lastBlockStartingBefore(long to) {
+        int low = -1;
+        int high = offsets.length - 1;
+        while (low < high) {
+            int middle = (low + high + 1) >> 1;
+            if (suffixMin[middle] <= to) {
+                low = middle;
+            } else {
+                high = middle - 1;
+            }
+        }
+        return low;
+    }
+
+    private long blockEnd(int block) {
+        return block + 1 < offsets.length ? offsets[block + 1] : indexed.offset();
+    }
+
+    /**
+     * Индексирует байты {@code [start, end)} файла и добавляет блоки к предыдущему индексу.
+     * Блоки разбираются параллельно.
+     */
+    private static TimeIndex extend(TimeIndex previous, Path file, long start, long end, long blockSize)
+        throws IOException {
+        List<FileChunk> blocks = FileChunk.split(file, start, end, blockSize);
+        int existing = previous == null ? 0 : previous.offsets.length;
+        int total = existing + blocks.size();
+        long[] offsets = previous == null ? new long[total] : Arrays.copyOf(previous.offsets, total);
+        long[] minEpochSeconds = previous == null ? new long[total] : Arrays.copyOf(previous.minEpochSeconds, total);
+        long[] maxEpochSeconds = previous == null ? new long[total] : Arrays.copyOf(previous.maxEpochSeconds, total);
+        IntStream.range(0, blocks.size()).parallel().forEach(i -> {
+            FileChunk block = blocks.get(i);
+            long min = Long.MAX_VALUE;
+            long max = Long.MIN_VALUE;
+            try (Stream<String> lines = block.lines()) {
+                Iterator<String> iterator = lines.iterator();
+                while (iterator.hasNext()) {
+                    String line = iterator.next();
+                    if (line.isBlank()) {
+                        continue;
+                    }
+                    long epochSecond = epochSecondOf(line);
+                    if (epochSecond == TimestampDecoder.NOT_FIXED_LAYOUT) {
+                        min = Long.MIN_VALUE;
+                        max = Long.MAX_VALUE;
+                        break;
+                    }
+                    min = Math.min(min, epochSecond);
+                    max = Math.max(max, epochSecond);
+                }
+            }
+            offsets[existing + i] = block.start();
+            minEpochSeconds[existing + i] = min;
+            maxEpochSeconds[existing + i] = max;
+        });
+        return new TimeIndex(FileCheckpoint.of(file, end), offsets, minEpochSeconds, maxEpochSeconds);
+    }
+
+    /**
+     * Извлекает время записи из строки лога без полного разбора строки.
+     *
+     * @return Секунды эпохи Unix или {@link TimestampDecoder#NOT_FIXED_LAYOUT}, если время не удалось разобрать.
+     */
+    private static long epochSecondOf(String line) {
+        int start = line.indexOf('[');
+        int end = start < 0 ? -1 : line.indexOf(']', start + 1);
+        if (end < 0) {
+            return TimestampDecoder.NOT_FIXED_LAYOUT;
+        }
+        try {
+            return TimestampDecoder.toEpochSecond(line.substring(start + 1, end));
+        } catch (IllegalArgumentException e) {
+            return TimestampDecoder.NOT_FIXED_LAYOUT;
+        }
+    }
+
+    private static TimeIndex load(Path sidecar) {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(sidecar)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                return null;
+            }
+            FileCheckpoint indexed = FileCheckpoint.readFrom(in);
+            int blocks = in.readInt();
+            long[] offsets = new long[blocks];
+            long[] minEpochSeconds = new long[blocks];
+            long[] maxEpochSeconds = new long[blocks];
+            for (int i = 0; i < blocks; i++) {
+                offsets[i] = in.readLong();
+                minEpochSeconds[i] = in.readLong();
+                maxEpochSeconds[i] = in.readLong();
+            }
+            return new TimeIndex(indexed, offsets, minEpochSeconds, maxEpochSeconds);
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException | RuntimeException e) {
+            LOGGER.log(Level.WARNING, TIME_INDEX_READ_ERROR + " " + sidecar, e);
+            return null;
+        }
+    }
+
+    private void save(Path sidecar) throws IOException {
+        Path temporary = sidecar.resolveSibling(sidecar.getFileName() + TEMPORARY_SUFFIX);
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            indexed.writeTo(out);
+            out.writeInt(offsets.length);
+            for (int i = 0; i < offsets.length; i++) {
+                out.writeLong(offsets[i]);
+                out.writeLong(minEpochSeconds[i]);
+                out.writeLong(maxEpochSeconds[i]);
+            }
+        }
+        Files.move(temporary, sidecar, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+}
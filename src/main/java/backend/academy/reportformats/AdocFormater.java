@@ -11,6 +11,10 @@ public class AdocFormater {
         appendGeneralInformation(sb, metrics);
         appendPopularResources(sb, metrics.topResources());
         appendPopularAnswerCodes(sb, metrics.topResponseCodes());
+        appendUniqueIpAddresses(sb, metrics);
+        appendDimensions(sb, metrics.dimensions());
+        appendSeries(sb, metrics);
+        appendRejectedLines(sb, metrics);
         return sb.toString();
     }
 
@@ -35,4 +39,44 @@ public class AdocFormater {
         FormatingLogic.appendPopularAnswerCodes(sb, answerCodes);
         sb.append("|===\n");
     }
+
+    private static void appendDimensions(StringBuilder sb, Map<String, Map<String, Long>> dimensions) {
+        for (Map.Entry<String, Map<String, Long>> dimension : dimensions.entrySet()) {
+            sb.append("\n== Самые частые значения: ").append(dimension.getKey()).append('\n');
+            sb.append("|===\n");
+            FormatingLogic.appendTopValues(sb, dimension.getKey(), dimension.getValue());
+            sb.append("|===\n");
+        }
+    }
+
+    private static void appendSeries(StringBuilder sb, Metrics metrics) {
+        if (metrics.seriesInterval() == null) {
+            return;
+        }
+        sb.append("\n== Динамика по ").append(metrics.seriesInterval().title()).append('\n');
+        sb.append("|===\n");
+        FormatingLogic.appendSeries(sb, metrics.series());
+        sb.append("|===\n");
+    }
+
+    private static void appendUniqueIpAddresses(StringBuilder sb, Metrics metrics) {
+        if (metrics.uniqueCounts() == null) {
+            return;
+        }
+        sb.append("\n== Уникальные IP-адреса популярных ресурсов\n");
+        sb.append("|===\n");
+        FormatingLogic.appendTopValues(sb, "Ресурс", metrics.uniqueCounts().ipAddressesByResource());
+        sb.append("|===\n");
+    }
+
+    private static void appendRejectedLines(StringBuilder sb, Metrics metrics) {
+        if (metrics.rejectedLines().isEmpty()) {
+            return;
+        }
+        sb.append("\n== Отброшенные строки неверного формата\n");
+        sb.append("|===\n");
+        FormatingLogic.appendRejectedLineCounts(sb, metrics.rejectedLines());
+        sb.append("|===\n\n");
+        FormatingLogic.appendRejectedLineSamples(sb, metrics.rejectedLines(), "*", "....");
+    }
 }
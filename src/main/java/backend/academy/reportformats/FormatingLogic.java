@@ -1,6 +1,13 @@
 package backend.academy.reportformats;
 
+import backend.academy.series.SeriesPoint;
 import backend.academy.statistic.Metrics;
+import backend.academy.statistic.RejectedLines;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 
 @SuppressWarnings("MultipleStringLiterals")
@@ -35,15 +42,25 @@ public class FormatingLogic {
         int maxMetricLength = "Метрика".length();
         int maxValueLength = "Значение(байт)".length();
 
-        String[][] generalInfoData = {
-            {"Количество запросов", String.valueOf(metrics.logsQuantity())},
-            {"Средний размер ответа", String.valueOf(metrics.averageResponseSize())},
-            {"95% персентиль", String.valueOf(metrics.percentile95())},
-            {"50% персентиль", String.valueOf(metrics.median())},
-            {"25% персентиль", String.valueOf(metrics.percentile25())},
-            {"Время от", metrics.startTime()},
-            {"Время до", metrics.finalTime()}
-        };
+        List<String[]> generalInfoData = new ArrayList<>(List.of(
+            new String[] {"Количество запросов", String.valueOf(metrics.logsQuantity())},
+            new String[] {"Средний размер ответа", String.valueOf(metrics.averageResponseSize())},
+            new String[] {"95% персентиль", String.valueOf(metrics.percentile95())},
+            new String[] {"50% персентиль", String.valueOf(metrics.median())},
+            new String[] {"25% персентиль", String.valueOf(metrics.percentile25())}
+        ));
+        for (Map.Entry<Double, Long> entry : metrics.percentiles().entrySet()) {
+            generalInfoData.add(new String[] {formatPercent(entry.getKey()) + "% персентиль",
+                String.valueOf(entry.getValue())});
+        }
+        if (metrics.uniqueCounts() != null) {
+            generalInfoData.add(new String[] {"Уникальных IP-адресов",
+                String.valueOf(metrics.uniqueCounts().ipAddresses())});
+            generalInfoData.add(new String[] {"Уникальных ресурсов",
+                String.valueOf(metrics.uniqueCounts().resources())});
+        }
+        generalInfoData.add(new String[] {"Время от", metrics.startTime()});
+        generalInfoData.add(new String[] {"Время до", metrics.finalTime()});
         int nameOfDataIndex = 0;
         int valueOfDataIndex = 1;
 
@@ -64,25 +81,130 @@ public class FormatingLogic {
         }
     }
 
+    private static String formatPercent(double percent) {
+        return BigDecimal.valueOf(percent).stripTrailingZeros().toPlainString();
+    }
+
     public static void appendPopularResources(StringBuilder sb, Map<String, Long> resources) {
-        int maxResourceLength = "Ресурс".length();
+        appendTopValues(sb, "Ресурс", resources);
+    }
+
+    /**
+     * Добавляет таблицу значений и их количества.
+     *
+     * @param sb     Построитель отчета.
+     * @param header Заголовок столбца значений.
+     * @param values Значения и количество по убыванию количества.
+     */
+    public static void appendTopValues(StringBuilder sb, String header, Map<String, Long> values) {
+        int maxValueLength = header.length();
         int maxCountLength = "Количество".length();
 
-        for (Map.Entry<String, Long> entry : resources.entrySet()) {
-            maxResourceLength = Math.max(maxResourceLength, entry.getKey().length());
+        for (Map.Entry<String, Long> entry : values.entrySet()) {
+            maxValueLength = Math.max(maxValueLength, entry.getKey().length());
             maxCountLength = Math.max(maxCountLength, String.valueOf(entry.getValue()).length());
         }
 
-        sb.append("| ").append(String.format("%-" + maxResourceLength + "s", "Ресурс"))
+        sb.append("| ").append(String.format("%-" + maxValueLength + "s", header))
             .append(" | ").append(String.format("%-" + maxCountLength + "s", "Количество")).append(" |\n");
-        sb.append('|').append("-".repeat(maxResourceLength + 2))
+        sb.append('|').append("-".repeat(maxValueLength + 2))
             .append('|').append("-".repeat(maxCountLength + 2)).append("|\n");
 
-        for (Map.Entry<String, Long> entry : resources.entrySet()) {
-            sb.append("| ").append(String.format("%-" + maxResourceLength + "s", entry.getKey()))
+        for (Map.Entry<String, Long> entry : values.entrySet()) {
+            sb.append("| ").append(String.format("%-" + maxValueLength + "s", entry.getKey()))
                 .append(" | ").append(String.format("%-" + maxCountLength + "d", entry.getValue())).append(" |\n");
         }
 
     }
-}
 
+    /**
+     * Добавляет таблицу временного ряда: по строке на интервал в порядке времени.
+     *
+     * @param sb     Построитель отчета.
+     * @param series Значения временного ряда.
+     */
+    public static void appendSeries(StringBuilder sb, List<SeriesPoint> series) {
+        String[] headers = {"Время", "Запросы", "Байт", "Ошибки 5xx, %", "50% персентиль", "95% персентиль"};
+        List<String[]> rows = new ArrayList<>(series.size());
+        for (SeriesPoint point : series) {
+            rows.add(new String[] {point.startTime(), String.valueOf(point.requests()), String.valueOf(point.bytes()),
+                String.format(Locale.ROOT, "%.2f", point.errorRate()), String.valueOf(point.median()),
+                String.valueOf(point.percentile95())});
+        }
+
+        int[] widths = new int[headers.length];
+        for (int column = 0; column < headers.length; column++) {
+            widths[column] = headers[column].length();
+            for (String[] row : rows) {
+                widths[column] = Math.max(widths[column], row[column].length());
+            }
+        }
+
+        appendRow(sb, headers, widths);
+        for (int width : widths) {
+            sb.append('|').append("-".repeat(width + 2));
+        }
+        sb.append("|\n");
+        for (String[] row : rows) {
+            appendRow(sb, row, widths);
+        }
+    }
+
+    private static void appendRow(StringBuilder sb, String[] values, int[] widths) {
+        for (int column = 0; column < values.length; column++) {
+            sb.append("| ").append(String.format("%-" + widths[column] + "s", values[column])).append(' ');
+        }
+        sb.append("|\n");
+    }
+
+    /**
+     * Добавляет таблицу количества отброшенных строк по источникам.
+     *
+     * @param sb            Построитель отчета.
+     * @param rejectedLines Отброшенные строки по источникам.
+     */
+    public static void appendRejectedLineCounts(StringBuilder sb, Map<String, RejectedLines> rejectedLines) {
+        Map<String, Long> counts = new LinkedHashMap<>();
+        rejectedLines.forEach((source, rejected) -> counts.put(source, rejected.count()));
+        appendTopValues(sb, "Источник", counts);
+    }
+
+    /**
+     * Добавляет примеры отброшенных строк: по каждому источнику — элемент списка с его именем и блок
+     * строк без разметки. Строки могут содержать любые символы, поэтому выводятся в блоке как есть;
+     * ограничитель блока удлиняется, если среди строк есть строка, которая могла бы его закрыть.
+     *
+     * @param sb            Построитель отчета.
+     * @param rejectedLines Отброшенные строки по источникам.
+     * @param itemMarker    Маркер элемента списка в формате отчета.
+     * @param fence         Ограничитель блока без разметки наименьшей длины, например {@code ```}.
+     */
+    public static void appendRejectedLineSamples(StringBuilder sb, Map<String, RejectedLines> rejectedLines,
+        String itemMarker, String fence) {
+        sb.append("Примеры:\n\n");
+        rejectedLines.forEach((source, rejected) -> {
+            if (rejected.samples().isEmpty()) {
+                return;
+            }
+            String delimiter = blockDelimiter(rejected.samples(), fence);
+            sb.append(itemMarker).append(' ').append(source).append(":\n\n").append(delimiter).append('\n');
+            rejected.samples().forEach(line -> sb.append(line).append('\n'));
+            sb.append(delimiter).append("\n\n");
+        });
+    }
+
+    /**
+     * Подбирает ограничитель блока длиннее любой строки, состоящей только из его символа.
+     */
+    private static String blockDelimiter(List<String> lines, String fence) {
+        char symbol = fence.charAt(0);
+        int length = fence.length();
+        for (String line : lines) {
+            String trimmed = line.strip();
+            if (!trimmed.isEmpty() && trimmed.chars().allMatch(c -> c == symbol)) {
+                length = Math.max(length, trimmed.length() + 1);
+            }
+        }
+        return String.valueOf(symbol).repeat(length);
+    }
+}
@@ -10,6 +10,10 @@ public class MarkdownFormater {
         appendGeneralInformation(sb, metrics);
         appendPopularResources(sb, metrics.topResources());
         appendPopularAnswerCodes(sb, metrics.topResponseCodes());
+        appendUniqueIpAddresses(sb, metrics);
+        appendDimensions(sb, metrics.dimensions());
+        appendSeries(sb, metrics);
+        appendRejectedLines(sb, metrics);
         return sb.toString();
     }
 
@@ -30,5 +34,40 @@ public class MarkdownFormater {
         FormatingLogic.appendPopularAnswerCodes(sb, answerCodes);
         sb.append('\n');
     }
-}
 
+    private static void appendDimensions(StringBuilder sb, Map<String, Map<String, Long>> dimensions) {
+        for (Map.Entry<String, Map<String, Long>> dimension : dimensions.entrySet()) {
+            sb.append("## Самые частые значения: ").append(dimension.getKey()).append('\n');
+            FormatingLogic.appendTopValues(sb, dimension.getKey(), dimension.getValue());
+            sb.append('\n');
+        }
+    }
+
+    private static void appendSeries(StringBuilder sb, Metrics metrics) {
+        if (metrics.seriesInterval() == null) {
+            return;
+        }
+        sb.append("## Динамика по ").append(metrics.seriesInterval().title()).append('\n');
+        FormatingLogic.appendSeries(sb, metrics.series());
+        sb.append('\n');
+    }
+
+    private static void appendUniqueIpAddresses(StringBuilder sb, Metrics metrics) {
+        if (metrics.uniqueCounts() == null) {
+            return;
+        }
+        sb.append("## Уникальные IP-адреса популярных ресурсов\n");
+        FormatingLogic.appendTopValues(sb, "Ресурс", metrics.uniqueCounts().ipAddressesByResource());
+        sb.append('\n');
+    }
+
+    private static void appendRejectedLines(StringBuilder sb, Metrics metrics) {
+        if (metrics.rejectedLines().isEmpty()) {
+            return;
+        }
+        sb.append("## Отброшенные строки неверного формата\n");
+        FormatingLogic.appendRejectedLineCounts(sb, metrics.rejectedLines());
+        sb.append('\n');
+        FormatingLogic.appendRejectedLineSamples(sb, metrics.rejectedLines(), "-", "```");
+    }
+}
@@ -0,0 +1,32 @@
+package backend.academy.series;
+
+/**
+ * Длительность интервала временного ряда.
+ */
+public enum SeriesInterval {
+    MINUTE(60, "минутам"),
+    HOUR(3600, "часам"),
+    DAY(86400, "дням");
+
+    private final long seconds;
+    private final String title;
+
+    SeriesInterval(long seconds, String title) {
+        this.seconds = seconds;
+        this.title = title;
+    }
+
+    /**
+     * @return Длительность интервала в секундах.
+     */
+    public long seconds() {
+        return seconds;
+    }
+
+    /**
+     * @return Название интервала для заголовка отчета («по минутам»).
+     */
+    public String title() {
+        return title;
+    }
+}
@@ -0,0 +1,15 @@
+package backend.academy.series;
+
+/**
+ * Значения временного ряда за один интервал.
+ *
+ * @param startTime    Начало интервала в формате лога, UTC.
+ * @param requests     Количество запросов.
+ * @param bytes        Суммарный размер ответов в байтах.
+ * @param errorRate    Доля ответов с кодом 5xx в процентах.
+ * @param median       Медиана размера ответа.
+ * @param percentile95 95-й процентиль размера ответа.
+ */
+public record SeriesPoint(String startTime, long requests, long bytes, double errorRate, long median,
+                          long percentile95) {
+}
@@ -0,0 +1,263 @@
+package backend.academy.series;
+
+import backend.academy.datefilter.TimestampDecoder;
+import backend.academy.nginx.NginxLog;
+import backend.academy.quantile.HdrQuantileSketch;
+import backend.academy.quantile.QuantileSketch;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Временной ряд запросов с интервалом {@link SeriesInterval}: количество запросов, байты,
+ * доля ошибок 5xx и процентили размера ответа за каждый интервал.
+ * <p>
+ * Значения хранятся в примитивных массивах, индекс которых — номер интервала от первого
+ * встреченного интервала ({@code epochSecond / interval - origin}). Массивы растут в обе стороны,
+ * поэтому записи не обязаны идти по порядку. Процентили каждого интервала считает
+ * {@link HdrQuantileSketch} пониженной точности, массив которого растет только до наибольшего значения.
+ * </p>
+ * <p>
+ * Ряд охватывает не больше {@link #MAX_BUCKETS} интервалов: записи, которые расширили бы его
+ * сверх этого, не учитываются в ряду и подсчитываются в {@link #skipped()}. Записи без разбираемого
+ * времени тоже пропускаются. Экземпляр не потокобезопасен; ряды, заполненные в разных потоках,
+ * объединяются методом {@link #combine(TimeSeries)}.
+ * </p>
+ */
+public final class TimeSeries {
+    public static final int MAX_BUCKETS = 1 << 20;
+
+    private static final int PRECISION_BITS = 5;
+    private static final int INITIAL_BUCKETS = 16;
+    private static final int SERVER_ERROR = 500;
+    private static final double PERCENT = 100.0;
+    private static final double MEDIAN = 0.5;
+    private static final double PERCENTILE_95 = 0.95;
+
+    private final SeriesInterval interval;
+    private long origin;
+    private int length;
+    private long[] requests = new long[INITIAL_BUCKETS];
+    private long[] bytes = new long[INITIAL_BUCKETS];
+    private long[] errors = new long[INITIAL_BUCKETS];
+    private QuantileSketch[] sizes = new QuantileSketch[INITIAL_BUCKETS];
+    private long skipped;
+
+    /**
+     * @param interval Длительность интервала.
+     */
+    public TimeSeries(SeriesInterval interval) {
+        this.interval = interval;
+    }
+
+    /**
+     * Учитывает запись в интервале ее времени.
+     *
+     * @param log Лог Nginx.
+     */
+    public void accept(NginxLog log) {
+        String timestamp = log.timestamp();
+        long epochSecond = TimestampDecoder.decodeFixedLayout(timestamp);
+        if (epochSecond == TimestampDecoder.NOT_FIXED_LAYOUT) {
+            try {
+                epochSecond = TimestampDecoder.toEpochSecond(timestamp);
+            } catch (IllegalArgumentException e) {
+                skipped++;
+                return;
+            }
+        }
+        add(epochSecond, log.statusCode(), log.responseSize());
+    }
+
+    /**
+     * Учитывает запрос в интервале указанного времени.
+     *
+     * @param epochSecond  Время запроса в секундах эпохи Unix; {@link Long#MIN_VALUE} — время неизвестно.
+     * @param statusCode   Код ответа.
+     * @param responseSize Размер ответа.
+     */
+    public void add(long epochSecond, int statusCode, long responseSize) {
+        if (epochSecond == Long.MIN_VALUE) {
+            skipped++;
+            return;
+        }
+        int index = indexOf(Math.floorDiv(epochSecond, interval.seconds()));
+        if (index < 0) {
+            skipped++;
+            return;
+        }
+        requests[index]++;
+        bytes[index] += responseSize;
+        if (statusCode >= SERVER_ERROR) {
+            errors[index]++;
+        }
+        if (sizes[index] == null) {
+            sizes[index] = new HdrQuantileSketch(PRECISION_BITS);
+        }
+        sizes[index].add(responseSize);
+    }
+
+    /**
+     * Добавляет к текущему ряду значения другого ряда с тем же интервалом.
+     *
+     * @param other Ряд, значения которого добавляются к текущему.
+     * @return Текущий ряд с объединенными значениями.
+     */
+    public TimeSeries combine(TimeSeries other) {
+        skipped += other.skipped;
+        for (int i = 0; i < other.length; i++) {
+            if (other.requests[i] == 0) {
+                continue;
+            }
+            int index = indexOf(other.origin + i);
+            if (index < 0) {
+                skipped += other.requests[i];
+                continue;
+            }
+            requests[index] += other.requests[i];
+            bytes[index] += other.bytes[i];
+            errors[index] += other.errors[i];
+            // Структура другого ряда не сохраняется по ссылке: ряды остаются независимыми после объединения
+            if (sizes[index] == null) {
+                sizes[index] = new HdrQuantileSketch(PRECISION_BITS);
+            }
+            sizes[index].merge(other.sizes[i]);
+        }
+        return this;
+    }
+
+    /**
+     * Возвращает значения ряда по интервалам от первого до последнего.
+     * <p>
+     * Подряд идущие интервалы без запросов сжимаются в одну нулевую точку на начало промежутка,
+     * поэтому число точек не превышает удвоенного числа интервалов с запросами, а не {@link #MAX_BUCKETS}:
+     * промежуток длится до начала следующей точки.
+     * </p>
+     *
+     * @return Точки интервалов с запросами и по одной нулевой точке на каждый промежуток без запросов.
+     */
+    public List<SeriesPoint> points() {
+        List<SeriesPoint> points = new ArrayList<>();
+        for (int i = 0; i < length; i++) {
+            String start = TimestampDecoder.format((origin + i) * interval.seconds(), 0);
+            if (requests[i] > 0) {
+                points.add(new SeriesPoint(start, requests[i], bytes[i], errors[i] * PERCENT / requests[i],
+                    sizes[i].quantile(MEDIAN), sizes[i].quantile(PERCENTILE_95)));
+            } else if (i == 0 || requests[i - 1] > 0) {
+                points.add(new SeriesPoint(start, 0, 0, 0, 0, 0));
+            }
+        }
+        return points;
+    }
+
+    public SeriesInterval interval() {
+        return interval;
+    }
+
+    /**
+     * @return Количество записей, не вошедших в ряд: без разбираемого времени или вне допустимого охвата.
+     */
+    public long skipped() {
+        return skipped;
+    }
+
+    /**
+     * Записывает ряд в двоичном виде.
+     *
+     * @param out Поток для записи.
+     * @throws IOException если запись не удалась.
+     */
+    public void writeTo(DataOutput out) throws IOException {
+        out.writeLong(origin);
+        out.writeInt(length);
+        out.writeLong(skipped);
+        for (int i = 0; i < length; i++) {
+            out.writeLong(requests[i]);
+            if (requests[i] > 0) {
+                out.writeLong(bytes[i]);
+                out.writeLong(errors[i]);
+                sizes[i].writeTo(out);
+            }
+        }
+    }
+
+    /**
+     * Восстанавливает ряд, записанный методом {@link #writeTo(DataOutput)}.
+     *
+     * @param in       Поток для чтения.
+     * @param interval Интервал; должен совпадать с интервалом при записи.
+     * @return Восстановленный ряд.
+     * @throws IOException если чтение не удалось.
+     */
+    public static TimeSeries readFrom(DataInput in, SeriesInterval interval) throws IOException {
+        TimeSeries series = new TimeSeries(interval);
+        series.origin = in.readLong();
+        int length = in.readInt();
+        series.skipped = in.readLong();
+        series.grow(0, length);
+        series.length = length;
+        for (int i = 0; i < length; i++) {
+            series.requests[i] = in.readLong();
+            if (series.requests[i] > 0) {
+                series.bytes[i] = in.readLong();
+                series.errors[i] = in.readLong();
+                series.sizes[i] = HdrQuantileSketch.readFrom(in);
+            }
+        }
+        return series;
+    }
+
+    /**
+     * Возвращает индекс интервала, расширяя массивы при необходимости.
+     *
+     * @return Индекс или -1, если ряд превысил бы {@link #MAX_BUCKETS} интервалов.
+     */
+    private int indexOf(long bucket) {
+        if (length == 0) {
+            origin = bucket;
+            length = 1;
+            return 0;
+        }
+        long first = Math.min(origin, bucket);
+        long last = Math.max(origin + length - 1, bucket);
+        if (last - first >= MAX_BUCKETS) {
+            return -1;
+        }
+        if (bucket < origin) {
+            int shift = (int) (origin - bucket);
+            grow(shift, length + shift);
+            origin = bucket;
+            length += shift;
+        } else if (bucket >= origin + length) {
+            int newLength = (int) (bucket - origin + 1);
+            grow(0, newLength);
+            length = newLength;
+        }
+        return (int) (bucket - origin);
+    }
+
+    /**
+     * Обеспечивает емкость массивов не меньше {@code required}, сдвигая значения на {@code shift} вправо.
+     */
+    private void grow(int shift, int required) {
+        int capacity = requests.length;
+        if (shift == 0 && required <= capacity) {
+            return;
+        }
+        int newCapacity = Math.max(required, Math.min(capacity * 2, MAX_BUCKETS));
+        requests = shifted(requests, shift, newCapacity);
+        bytes = shifted(bytes, shift, newCapacity);
+        errors = shifted(errors, shift, newCapacity);
+        QuantileSketch[] newSizes = new QuantileSketch[newCapacity];
+        System.arraycopy(sizes, 0, newSizes, shift, length);
+        sizes = newSizes;
+    }
+
+    private long[] shifted(long[] values, int shift, int capacity) {
+        long[] result = new long[capacity];
+        System.arraycopy(values, 0, result, shift, length);
+        return result;
+    }
+}
@@ -0,0 +1,233 @@
+package backend.academy.server;
+
+import backend.academy.analyzer.Analyzer;
+import backend.academy.analyzer.ProcessingMode;
+import backend.academy.cache.ResultCache;
+import backend.academy.filter.LogFilter;
+import backend.academy.statistic.Metrics;
+import backend.academy.statistic.RejectedLines;
+import backend.academy.table.LogTable;
+import backend.academy.writers.ReportWriter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import static backend.academy.config.ErrorMessages.SERVER_RESPONSE_ERROR;
+
+/**
+ * HTTP-сервер запросов к логам, загруженным в память один раз.
+ *
+ * <p>Логи хранятся в колоночной таблице {@link LogTable}, поэтому запрос не читает и не разбирает
+ * файлы, а только просматривает столбцы таблицы. Запрос {@code GET /metrics} принимает те же параметры,
+ * что и командная строка:</p>
+ * <ul>
+ *     <li>{@code filter} — фильтр вида {@code field-value}, может повторяться;</li>
+ *     <li>{@code from} и {@code to} — диапазон дат в формате {@code dd/MMM/yyyy:HH:mm:ss Z};
+ *     знак {@code +} смещения пояса передается как {@code %2B};</li>
+ *     <li>{@code format} — {@code json} (по умолчанию) для метрик {@link Metrics} в JSON,
+ *     {@code markdown} или {@code adoc} для текста отчета.</li>
+ * </ul>
+ *
+ * <p>По умолчанию сервер принимает подключения только с локальной машины ({@link InetAddress#getLoopbackAddress()}):
+ * отчеты раскрывают IP-адреса и ресурсы из логов, поэтому адрес для внешних подключений задается явно
+ * методом {@link #start(InetAddress, int)}.</p>
+ *
+ * <p>Параметры анализа (процентили, разбивки, ряд, размер топов) задаются при запуске сервера.
+ * Неверный параметр запроса дает ответ 400 с описанием ошибки в JSON. Метрики последних запросов
+ * хранятся в памяти ({@link Caffeine}): данные не меняются, поэтому повторный запрос отвечает
+ * без просмотра таблицы.</p>
+ */
+public final class QueryServer implements AutoCloseable {
+    public static final String METRICS_PATH = "/metrics";
+
+    private static final Logger LOGGER = Logger.getLogger(QueryServer.class.getName());
+    private static final int OK = 200;
+    private static final int BAD_REQUEST = 400;
+    private static final int METHOD_NOT_ALLOWED = 405;
+    private static final int NO_BODY = -1;
+    private static final String JSON_FORMAT = "json";
+    private static final String MARKDOWN_FORMAT = "markdown";
+
+    private final LogTable table;
+    private final Analyzer analyzer;
+    private final Map<String, RejectedLines> rejectedLines;
+    private final Cache<QueryKey, Metrics> results =
+        Caffeine.newBuilder().maximumSize(ResultCache.DEFAULT_MEMORY_ENTRIES).build();
+    private final ReportWriter reportWriter = new ReportWriter();
+    private final ObjectMapper mapper = new ObjectMapper();
+    private HttpServer server;
+    private ExecutorService executor;
+
+    /**
+     * @param table         Логи, по которым выполняются запросы; после запуска сервера не изменяется.
+     * @param analyzer      Анализатор с параметрами анализа.
+     * @param rejectedLines Строки неверного формата, отброшенные при загрузке логов, по источникам.
+     */
+    public QueryServer(LogTable table, Analyzer analyzer, Map<String, RejectedLines> rejectedLines) {
+        this.table = table;
+        this.analyzer = analyzer;
+        this.rejectedLines = rejectedLines;
+    }
+
+    /**
+     * Запускает сервер на адресе обратной петли.
+     *
+     * @param port Порт; 0 — любой свободный порт.
+     * @throws IOException если порт не удалось занять.
+     */
+    public void start(int port) throws IOException {
+        start(InetAddress.getLoopbackAddress(), port);
+    }
+
+    /**
+     * Запускает сервер. Запросы обрабатываются параллельно в пуле потоков по числу ядер.
+     *
+     * @param address Адрес, на котором принимаются подключения; адрес {@code 0.0.0.0} — все интерфейсы.
+     * @param port    Порт; 0 — любой свободный порт.
+     * @throws IOException если порт не удалось занять.
+     */
+    public void start(InetAddress address, int port) throws IOException {
+        server = HttpServer.create(new InetSocketAddress(address, port), 0);
+        executor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+        server.setExecutor(executor);
+        server.createContext(METRICS_PATH, this::handle);
+        server.start();
+    }
+
+    /**
+     * @return Адрес, на котором сервер принимает запросы.
+     */
+    public InetAddress address() {
+        return server.getAddress().getAddress();
+    }
+
+    /**
+     * @return Порт, на котором сервер принимает запросы.
+     */
+    public int port() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * Выполняет запрос к таблице.
+     *
+     * @param filters   Фильтры по полям записи.
+     * @param startDate Начало диапазона дат или null.
+     * @param endDate   Конец диапазона дат или null. Диапазон применяется, только если заданы обе границы.
+     * @return Метрики, включая строки неверного формата, отброшенные при загрузке.
+     * @throws IllegalArgumentException если значение фильтра или дата неверны.
+     */
+    public Metrics query(Map<String, String> filters, String startDate, String endDate) {
+        ProcessingMode mode = ProcessingMode.of(filters, startDate, endDate);
+        boolean timed = mode == ProcessingMode.TIME || mode == ProcessingMode.TIME_AND_FILTER;
+        QueryKey key = new QueryKey(Map.copyOf(filters), timed ? startDate : null, timed ? endDate : null);
+        Metrics cached = results.getIfPresent(key);
+        if (cached != null) {
+            return cached;
+        }
+        Metrics metrics = timed ? analyzer.analyze(table, filters, startDate, endDate)
+            : analyzer.analyze(table, filters);
+        metrics = metrics.withRejectedLines(rejectedLines);
+        results.put(key, metrics);
+        return metrics;
+    }
+
+    /**
+     * Останавливает сервер: новые соединения не принимаются, начатые запросы дорабатывают в пуле потоков.
+     */
+    @Override
+    public void close() {
+        if (server != null) {
+            server.stop(0);
+            executor.shutdown();
+        }
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            if (!"GET".equals(exchange.getRequestMethod())) {
+                exchange.sendResponseHeaders(METHOD_NOT_ALLOWED, NO_BODY);
+                return;
+            }
+            byte[] body;
+            String contentType;
+            try {
+                Map<String, List<String>> parameters = parseQuery(exchange.getRequestURI().getRawQuery());
+                Metrics metrics = query(LogFilter.parseArguments(parameters.getOrDefault("filter", List.of())),
+                    first(parameters, "from"), first(parameters, "to"));
+                String format = first(parameters, "format");
+                if (format == null || JSON_FORMAT.equalsIgnoreCase(format)) {
+                    body = mapper.writeValueAsBytes(metrics);
+                    contentType = "application/json";
+                } else {
+                    body = reportWriter.render(metrics, format).getBytes(StandardCharsets.UTF_8);
+                    contentType = MARKDOWN_FORMAT.equalsIgnoreCase(format) ? "text/markdown" : "text/asciidoc";
+                }
+            } catch (IllegalArgumentException e) {
+                send(exchange, BAD_REQUEST, "application/json", mapper.writeValueAsBytes(Map.of("error",
+                    String.valueOf(e.getMessage()))));
+                return;
+            }
+            send(exchange, OK, contentType, body);
+        } catch (IOException | RuntimeException e) {
+            LOGGER.log(Level.WARNING, SERVER_RESPONSE_ERROR + " " + exchange.getRequestURI(), e);
+            throw e;
+        }
+    }
+
+    private static void send(HttpExchange exchange, int status, String contentType, byte[] body)
+        throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", contentType + "; charset=utf-8");
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    /**
+     * Разбирает строку запроса; параметр может повторяться.
+     */
+    private static Map<String, List<String>> parseQuery(String rawQuery) {
+        Map<String, List<String>> parameters = new HashMap<>();
+        if (rawQuery == null || rawQuery.isEmpty()) {
+            return parameters;
+        }
+        for (String pair : rawQuery.split("&")) {
+            int separator = pair.indexOf('=');
+            String name = decode(separator < 0 ? pair : pair.substring(0, separator));
+            String value = separator < 0 ? "" : decode(pair.substring(separator + 1));
+            parameters.computeIfAbsent(name, ignored -> new ArrayList<>()).add(value);
+        }
+        return parameters;
+    }
+
+    private static String decode(String value) {
+        return URLDecoder.decode(value, StandardCharsets.UTF_8);
+    }
+
+    private static String first(Map<String, List<String>> parameters, String name) {
+        List<String> values = parameters.get(name);
+        return values == null ? null : values.getFirst();
+    }
+
+    /**
+     * Ключ метрик запроса: диапазон дат указывается, только если он применяется.
+     */
+    private record QueryKey(Map<String, String> filters, String startDate, String endDate) {
+    }
+}
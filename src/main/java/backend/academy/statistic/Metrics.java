@@ -1,7 +1,20 @@
 package backend.academy.statistic;
 
+import backend.academy.series.SeriesInterval;
+import backend.academy.series.SeriesPoint;
+import java.util.List;
 import java.util.Map;
 
+/**
+ * @param percentiles Дополнительные процентили размера ответа: ключ — процент (например, 99.9),
+ *                    значение — размер ответа в байтах.
+ * @param dimensions  Топы дополнительных разбивок: имя разбивки (например, {@code ipAddress}) —
+ *                    значения и количество записей по убыванию количества.
+ * @param seriesInterval Интервал временного ряда или null, если ряд не строился.
+ * @param series      Значения временного ряда по интервалам в порядке времени.
+ * @param uniqueCounts Оценки количества уникальных IP-адресов и ресурсов или null, если они не вычислялись.
+ * @param rejectedLines Строки неверного формата, отброшенные при чтении, по источникам.
+ */
 @SuppressWarnings("RecordComponentNumber")
 public record Metrics(
     long logsQuantity,
@@ -12,6 +25,144 @@ public record Metrics(
     Map<String, Long> topResources,
     Map<Integer, Integer> topResponseCodes,
     String startTime,
-    String finalTime) {
-}
+    String finalTime,
+    Map<Double, Long> percentiles,
+    Map<String, Map<String, Long>> dimensions,
+    SeriesInterval seriesInterval,
+    List<SeriesPoint> series,
+    UniqueCounts uniqueCounts,
+    Map<String, RejectedLines> rejectedLines) {
+
+    @SuppressWarnings("ParameterNumber")
+    public Metrics(
+        long logsQuantity,
+        long averageResponseSize,
+        long percentile95,
+        long median,
+        long percentile25,
+        Map<String, Long> topResources,
+        Map<Integer, Integer> topResponseCodes,
+        String startTime,
+        String finalTime
+    ) {
+        this(logsQuantity, averageResponseSize, percentile95, median, percentile25, topResources, topResponseCodes,
+            startTime, finalTime, Map.of());
+    }
+
+    @SuppressWarnings("ParameterNumber")
+    public Metrics(
+        long logsQuantity,
+        long averageResponseSize,
+        long percentile95,
+        long median,
+        long percentile25,
+        Map<String, Long> topResources,
+        Map<Integer, Integer> topResponseCodes,
+        String startTime,
+        String finalTime,
+        Map<Double, Long> percentiles
+    ) {
+        this(logsQuantity, averageResponseSize, percentile95, median, percentile25, topResources, topResponseCodes,
+            startTime, finalTime, percentiles, Map.of());
+    }
+
+    @SuppressWarnings("ParameterNumber")
+    public Metrics(
+        long logsQuantity,
+        long averageResponseSize,
+        long percentile95,
+        long median,
+        long percentile25,
+        Map<String, Long> topResources,
+        Map<Integer, Integer> topResponseCodes,
+        String startTime,
+        String finalTime,
+        Map<Double, Long> percentiles,
+        Map<String, Map<String, Long>> dimensions
+    ) {
+        this(logsQuantity, averageResponseSize, percentile95, median, percentile25, topResources, topResponseCodes,
+            startTime, finalTime, percentiles, dimensions, null, List.of());
+    }
+
+    @SuppressWarnings("ParameterNumber")
+    public Metrics(
+        long logsQuantity,
+        long averageResponseSize,
+        long percentile95,
+        long median,
+        long percentile25,
+        Map<String, Long> topResources,
+        Map<Integer, Integer> topResponseCodes,
+        String startTime,
+        String finalTime,
+        Map<Double, Long> percentiles,
+        Map<String, Map<String, Long>> dimensions,
+        SeriesInterval seriesInterval,
+        List<SeriesPoint> series
+    ) {
+        this(logsQuantity, averageResponseSize, percentile95, median, percentile25, topResources, topResponseCodes,
+            startTime, finalTime, percentiles, dimensions, seriesInterval, series, null);
+    }
 
+    @SuppressWarnings("ParameterNumber")
+    public Metrics(
+        long logsQuantity,
+        long averageResponseSize,
+        long percentile95,
+        long median,
+        long percentile25,
+        Map<String, Long> topResources,
+        Map<Integer, Integer> topResponseCodes,
+        String startTime,
+        String finalTime,
+        Map<Double, Long> percentiles,
+        Map<String, Map<String, Long>> dimensions,
+        SeriesInterval seriesInterval,
+        List<SeriesPoint> series,
+        UniqueCounts uniqueCounts
+    ) {
+        this(logsQuantity, averageResponseSize, percentile95, median, percentile25, topResources, topResponseCodes,
+            startTime, finalTime, percentiles, dimensions, seriesInterval, series, uniqueCounts, Map.of());
+    }
+
+    /**
+     * @param dimensions Топы дополнительных разбивок.
+     * @return Метрики с теми же значениями и указанными топами разбивок.
+     */
+    public Metrics withDimensions(Map<String, Map<String, Long>> dimensions) {
+        return new Metrics(logsQuantity, averageResponseSize, percentile95, median, percentile25, topResources,
+            topResponseCodes, startTime, finalTime, percentiles, dimensions, seriesInterval, series,
+            uniqueCounts, rejectedLines);
+    }
+
+    /**
+     * @param seriesInterval Интервал временного ряда.
+     * @param series         Значения временного ряда.
+     * @return Метрики с теми же значениями и указанным временным рядом.
+     */
+    public Metrics withSeries(SeriesInterval seriesInterval, List<SeriesPoint> series) {
+        return new Metrics(logsQuantity, averageResponseSize, percentile95, median, percentile25, topResources,
+            topResponseCodes, startTime, finalTime, percentiles, dimensions, seriesInterval, series,
+            uniqueCounts, rejectedLines);
+    }
+
+    /**
+     * @param uniqueCounts Оценки количества уникальных значений.
+     * @return Метрики с теми же значениями и указанными оценками уникальных значений.
+     */
+    public Metrics withUniqueCounts(UniqueCounts uniqueCounts) {
+        return new Metrics(logsQuantity, averageResponseSize, percentile95, median, percentile25, topResources,
+            topResponseCodes, startTime, finalTime, percentiles, dimensions, seriesInterval, series, uniqueCounts,
+            rejectedLines);
+    }
+
+    /**
+     * @param rejectedLines Строки неверного формата, отброшенные при чтении, по источникам.
+     * @return Метрики с теми же значениями и указанными отброшенными строками.
+     */
+    public Metrics withRejectedLines(Map<String, RejectedLines> rejectedLines) {
+        return new Metrics(logsQuantity, averageResponseSize, percentile95, median, percentile25, topResources,
+            topResponseCodes, startTime, finalTime, percentiles, dimensions, seriesInterval, series, uniqueCounts,
+            rejectedLines);
+    }
+}
@@ -0,0 +1,12 @@
+package backend.academy.statistic;
+
+import java.util.List;
+
+/**
+ * Строки источника, отброшенные из-за неверного формата.
+ *
+ * @param count   Количество отброшенных строк.
+ * @param samples Несколько первых отброшенных строк, сокращенных до разумной длины.
+ */
+public record RejectedLines(long count, List<String> samples) {
+}
@@ -0,0 +1,14 @@
+package backend.academy.statistic;
+
+import java.util.Map;
+
+/**
+ * Оценки количества уникальных значений.
+ *
+ * @param ipAddresses           Оценка количества уникальных IP-адресов.
+ * @param resources             Оценка количества уникальных ресурсов.
+ * @param ipAddressesByResource Самые популярные ресурсы — оценка количества уникальных IP-адресов,
+ *                              запрашивавших ресурс, в порядке популярности ресурсов.
+ */
+public record UniqueCounts(long ipAddresses, long resources, Map<String, Long> ipAddressesByResource) {
+}
@@ -0,0 +1,27 @@
+package backend.academy.table;
+
+import it.unimi.dsi.fastutil.objects.ObjectArrayList;
+
+/**
+ * Столбец значений {@code int}, растущий фрагментами фиксированного размера.
+ * <p>
+ * При росте выделяется новый фрагмент, а уже записанные значения не копируются.
+ * </p>
+ */
+final class IntColumn {
+    private final ObjectArrayList<int[]> chunks = new ObjectArrayList<>();
+    private int size;
+
+    void add(int value) {
+        int offset = size & LogTable.CHUNK_MASK;
+        if (offset == 0) {
+            chunks.add(new int[LogTable.CHUNK_SIZE]);
+        }
+        chunks.get(size >>> LogTable.CHUNK_SHIFT)[offset] = value;
+        size++;
+    }
+
+    int get(int row) {
+        return chunks.get(row >>> LogTable.CHUNK_SHIFT)[row & LogTable.CHUNK_MASK];
+    }
+}
@@ -0,0 +1,428 @@
+package backend.academy.table;
+
+import backend.academy.analyzer.AnalysisOptions;
+import backend.academy.analyzer.LogAccumulator;
+import backend.academy.cardinality.DistinctCounts;
+import backend.academy.cardinality.HyperLogLog;
+import backend.academy.datefilter.TimestampDecoder;
+import backend.academy.dimension.DimensionCounts;
+import backend.academy.dimension.LogField;
+import backend.academy.nginx.NginxLog;
+import backend.academy.series.TimeSeries;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.LongSummaryStatistics;
+import java.util.Map;
+import java.util.function.IntPredicate;
+import java.util.function.Predicate;
+import java.util.stream.Collector;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import static backend.academy.config.ErrorMessages.UNKNOWN_FILTER_FIELD;
+
+/**
+ * Колоночное хранилище логов Nginx в памяти.
+ * <p>
+ * Вместо списка объектов {@link NginxLog} с семью ссылками на строки каждая запись хранится
+ * как строка таблицы из примитивных столбцов: строковые поля заменены идентификаторами
+ * {@link StringDictionary}, а код ответа, размер ответа и время (секунды эпохи и смещение пояса)
+ * лежат в столбцах {@code int[]} и {@code long[]}. Столбцы растут фрагментами по
+ * {@link #CHUNK_SIZE} строк без копирования. Одна запись занимает около 44 байт против
+ * нескольких сотен байт у {@link NginxLog} со строками.
+ * </p>
+ * <p>
+ * Для повторных запросов к одним и тем же данным {@link #accumulate(AnalysisOptions, IntPredicate)}
+ * последовательно просматривает столбцы и считает ресурсы в массиве по их идентификаторам.
+ * Объекты {@link NginxLog} создаются только по запросу через {@link #get(int)} и {@link #stream()}.
+ * Таблица не потокобезопасна; для параллельного заполнения используется {@link #collector()}.
+ * </p>
+ */
+public final class LogTable {
+    static final int CHUNK_SHIFT = 13;
+    public static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+    static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+    private static final int STATUS_CODE_LIMIT = 1000;
+    private static final long NO_TIME = Long.MIN_VALUE;
+
+    private final StringDictionary ipAddresses = new StringDictionary();
+    private final StringDictionary resources = new StringDictionary();
+    private final StringDictionary tokens = new StringDictionary();
+
+    private final IntColumn ipAddressIds = new IntColumn();
+    private final IntColumn userIdentifierIds = new IntColumn();
+    private final IntColumn userIdIds = new IntColumn();
+    private final IntColumn requestMethodIds = new IntColumn();
+    private final IntColumn resourceIds = new IntColumn();
+    private final IntColumn httpVersionIds = new IntColumn();
+    private final IntColumn statusCodes = new IntColumn();
+    private final IntColumn responseSizes = new IntColumn();
+    private final LongColumn epochSeconds = new LongColumn();
+    private final IntColumn offsetSeconds = new IntColumn();
+    // Время в нестандартном виде хранится как есть, чтобы восстановить запись без искажений
+    private final Map<Integer, String> irregularTimestamps = new HashMap<>();
+    private int size;
+
+    /**
+     * Создает коллектор, собирающий поток логов в таблицу.
+     * <p>
+     * Коллектор можно использовать с параллельными потоками: части собираются в отдельные
+     * таблицы и затем объединяются методом {@link #addAll(LogTable)}.
+     * </p>
+     *
+     * @return Коллектор логов Nginx.
+     */
+    public static Collector<NginxLog, LogTable, LogTable> collector() {
+        return Collector.of(LogTable::new, LogTable::add, LogTable::addAll, Collector.Characteristics.IDENTITY_FINISH);
+    }
+
+    /**
+     * Добавляет запись в конец таблицы.
+     *
+     * @param log Лог Nginx.
+     */
+    public void add(NginxLog log) {
+        String timestamp = log.timestamp();
+        long epochSecond = TimestampDecoder.decodeFixedLayout(timestamp);
+        int offset = 0;
+        if (epochSecond == TimestampDecoder.NOT_FIXED_LAYOUT) {
+            irregularTimestamps.put(size, timestamp);
+            epochSecond = decodeOrNoTime(timestamp);
+        } else {
+            offset = TimestampDecoder.offsetSeconds(timestamp);
+        }
+        addRow(ipAddresses.encode(log.ipAddress()), tokens.encode(log.userIdentifier()), tokens.encode(log.userId()),
+            tokens.encode(log.requestMethod()), resources.encode(log.resource()), tokens.encode(log.httpVersion()),
+            log.statusCode(), log.responseSize(), epochSecond, offset);
+    }
+
+    /**
+     * Добавляет в конец таблицы все записи другой таблицы.
+     *
+     * @param other Таблица, записи которой добавляются.
+     * @return Текущая таблица.
+     */
+    public LogTable addAll(LogTable other) {
+        int[] ipMapping = remap(other.ipAddresses, ipAddresses);
+        int[] resourceMapping = remap(other.resources, resources);
+        int[] tokenMapping = remap(other.tokens, tokens);
+        other.irregularTimestamps.forEach((row, timestamp) -> irregularTimestamps.put(size + row, timestamp));
+        for (int row = 0; row < other.size; row++) {
+            addRow(ipMapping[other.ipAddressIds.get(row)], tokenMapping[other.userIdentifierIds.get(row)],
+                tokenMapping[other.userIdIds.get(row)], tokenMapping[other.requestMethodIds.get(row)],
+                resourceMapping[other.resourceIds.get(row)], tokenMapping[other.httpVersionIds.get(row)],
+                other.statusCodes.get(row), other.responseSizes.get(row), other.epochSeconds.get(row),
+                other.offsetSeconds.get(row));
+        }
+        return this;
+    }
+
+    /**
+     * Восстанавливает запись лога.
+     *
+     * @param row Номер строки таблицы.
+     * @return Лог Nginx, равный добавленному.
+     */
+    public NginxLog get(int row) {
+        return new NginxLog(ipAddresses.decode(ipAddressIds.get(row)), tokens.decode(userIdentifierIds.get(row)),
+            tokens.decode(userIdIds.get(row)), timestamp(row), tokens.decode(requestMethodIds.get(row)),
+            resources.decode(resourceIds.get(row)), tokens.decode(httpVersionIds.get(row)),
+            statusCodes.get(row), responseSizes.get(row));
+    }
+
+    /**
+     * Создает условие на строки таблицы по значению строкового поля, не восстанавливая записи.
+     * <p>
+     * Условие на значение проверяется один раз для каждой строки словаря поля, а строка таблицы
+     * проверяется по идентификатору в столбце. Для времени словаря нет, поэтому строка времени
+     * восстанавливается для каждой проверяемой строки таблицы.
+     * </p>
+     *
+     * @param field     Имя поля в том виде, в котором оно задается в {@code --filter}.
+     * @param condition Условие на значение поля.
+     * @return Условие на номер строки таблицы.
+     * @throws IllegalArgumentException если поле не строковое или неизвестно.
+     */
+    public IntPredicate fieldCondition(String field, Predicate<String> condition) {
+        return switch (field) {
+            case "ipAddress" -> matching(ipAddresses, ipAddressIds, condition);
+            case "resource" -> matching(resources, resourceIds, condition);
+            case "userIdentifier" -> matching(tokens, userIdentifierIds, condition);
+            case "userId" -> matching(tokens, userIdIds, condition);
+            case "requestMethod" -> matching(tokens, requestMethodIds, condition);
+            case "httpVersion" -> matching(tokens, httpVersionIds, condition);
+            case "timestamp" -> row -> condition.test(timestamp(row));
+            default -> throw new IllegalArgumentException(UNKNOWN_FILTER_FIELD + " " + field);
+        };
+    }
+
+    /**
+     * @return Поток записей таблицы, восстанавливаемых по мере потребления.
+     */
+    public Stream<NginxLog> stream() {
+        return IntStream.range(0, size).mapToObj(this::get);
+    }
+
+    /**
+     * Собирает статистику по строкам таблицы, удовлетворяющим условию, просматривая только
+     * нужные столбцы. Значения дополнительных разбивок берутся из столбцов: каждое значение словаря
+     * таблицы перекодируется в словарь разбивок один раз.
+     * Если уникальные значения оцениваются ({@link AnalysisOptions#uniqueCounts()}), хеш IP-адреса
+     * вычисляется один раз на идентификатор IP-адреса, а оценки уникальных IP-адресов по ресурсам строятся
+     * вторым проходом по выбранным строкам и только для {@link LogAccumulator#distinctResourceCapacity()}
+     * ресурсов с наибольшим числом запросов.
+     *
+     * @param options Параметры анализа.
+     * @param rows    Условие на номер строки; может обращаться к столбцам таблицы.
+     * @return Накопитель со статистикой выбранных строк.
+     */
+    public LogAccumulator accumulate(AnalysisOptions options, IntPredicate rows) {
+        LogAccumulator accumulator = new LogAccumulator(options);
+        LongSummaryStatistics stats = accumulator.getResponseSizeStats();
+        long[] resourceCounts = new long[resources.size()];
+        int[] statusCounts = new int[STATUS_CODE_LIMIT];
+        Map<Integer, Integer> otherStatusCounts = accumulator.getResponseCodeCountMap();
+        DimensionCodes dimensionCodes = accumulator.getDimensionCounts() == null ? null
+            : new DimensionCodes(accumulator.getDimensionCounts());
+        TimeSeries series = accumulator.getSeries();
+        DistinctCounts distinctCounts = accumulator.getDistinctCounts();
+        long[] ipHashes = distinctCounts == null ? null : new long[ipAddresses.size()];
+        BitSet selected = distinctCounts == null ? null : new BitSet(size);
+
+        for (int row = 0; row < size; row++) {
+            if (!rows.test(row)) {
+                continue;
+            }
+            if (dimensionCodes != null) {
+                dimensionCodes.accept(row);
+            }
+            int responseSize = responseSizes.get(row);
+            stats.accept(responseSize);
+            accumulator.getResponseSizeQuantiles().add(responseSize);
+            if (distinctCounts != null) {
+                selected.set(row);
+                int ipAddressId = ipAddressIds.get(row);
+                long ipHash = ipHashes[ipAddressId];
+                if (ipHash == 0) {
+                    ipHash = HyperLogLog.hash(ipAddresses.decode(ipAddressId));
+                    ipHashes[ipAddressId] = ipHash;
+                }
+                distinctCounts.addIpAddressHash(ipHash);
+            }
+            int resourceId = resourceIds.get(row);
+            resourceCounts[resourceId]++;
+            int statusCode = statusCodes.get(row);
+            if (series != null) {
+                series.add(epochSeconds.get(row), statusCode, responseSize);
+            }
+            if (statusCode < STATUS_CODE_LIMIT) {
+                statusCounts[statusCode]++;
+            } else {
+                otherStatusCounts.merge(statusCode, 1, Integer::sum);
+            }
+        }
+
+        HyperLogLog[] resourceIpAddresses = new HyperLogLog[resourceCounts.length];
+        if (distinctCounts != null) {
+            resourceIpAddresses = topResourceSketches(resourceCounts, accumulator.distinctResourceCapacity());
+            for (int row = selected.nextSetBit(0); row >= 0; row = selected.nextSetBit(row + 1)) {
+                HyperLogLog sketch = resourceIpAddresses[resourceIds.get(row)];
+                if (sketch != null) {
+                    sketch.addHash(ipHashes[ipAddressIds.get(row)]);
+                }
+            }
+        }
+        for (int id = 0; id < resourceCounts.length; id++) {
+            if (resourceCounts[id] > 0) {
+                accumulator.addResource(resources.decode(id), resourceCounts[id], resourceIpAddresses[id]);
+            }
+        }
+        for (int statusCode = 0; statusCode < STATUS_CODE_LIMIT; statusCode++) {
+            if (statusCounts[statusCode] > 0) {
+                otherStatusCounts.put(statusCode, statusCounts[statusCode]);
+            }
+        }
+        return accumulator;
+    }
+
+    /**
+     * Создает пустые оценки уникальных IP-адресов для {@code limit} ресурсов с наибольшим числом запросов.
+     *
+     * @return Оценки по идентификаторам ресурсов; null для остальных ресурсов.
+     */
+    private static HyperLogLog[] topResourceSketches(long[] resourceCounts, int limit) {
+        HyperLogLog[] sketches = new HyperLogLog[resourceCounts.length];
+        long[] counts = Arrays.stream(resourceCounts).filter(count -> count > 0).sorted().toArray();
+        if (counts.length == 0) {
+            return sketches;
+        }
+        long threshold = counts[Math.max(0, counts.length - limit)];
+        int created = 0;
+        for (int id = 0; id < resourceCounts.length; id++) {
+            if (resourceCounts[id] > threshold) {
+                sketches[id] = new HyperLogLog();
+                created++;
+            }
+        }
+        // Из ресурсов с пороговым числом запросов оценки получают первые, пока не исчерпан лимит
+        for (int id = 0; id < resourceCounts.length && created < limit; id++) {
+            if (resourceCounts[id] == threshold) {
+                sketches[id] = new HyperLogLog();
+                created++;
+            }
+        }
+        return sketches;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int statusCode(int row) {
+        return statusCodes.get(row);
+    }
+
+    public int responseSize(int row) {
+        return responseSizes.get(row);
+    }
+
+    /**
+     * @param row Номер строки таблицы.
+     * @return Время записи в секундах эпохи Unix или {@link Long#MIN_VALUE}, если время не распознано.
+     */
+    public long epochSecond(int row) {
+        return epochSeconds.get(row);
+    }
+
+    public int resourceId(int row) {
+        return resourceIds.get(row);
+    }
+
+    public int ipAddressId(int row) {
+        return ipAddressIds.get(row);
+    }
+
+    public StringDictionary resources() {
+        return resources;
+    }
+
+    public StringDictionary ipAddresses() {
+        return ipAddresses;
+    }
+
+    @SuppressWarnings("ParameterNumber")
+    private void addRow(
+        int ipAddressId, int userIdentifierId, int userIdId, int requestMethodId, int resourceId,
+        int httpVersionId, int statusCode, int responseSize, long epochSecond, int offset
+    ) {
+        ipAddressIds.add(ipAddressId);
+        userIdentifierIds.add(userIdentifierId);
+        userIdIds.add(userIdId);
+        requestMethodIds.add(requestMethodId);
+        resourceIds.add(resourceId);
+        httpVersionIds.add(httpVersionId);
+        statusCodes.add(statusCode);
+        responseSizes.add(responseSize);
+        epochSeconds.add(epochSecond);
+        offsetSeconds.add(offset);
+        size++;
+    }
+
+    private String timestamp(int row) {
+        String timestamp = irregularTimestamps.get(row);
+        if (timestamp == null) {
+            timestamp = TimestampDecoder.format(epochSeconds.get(row), offsetSeconds.get(row));
+        }
+        return timestamp;
+    }
+
+    private static IntPredicate matching(StringDictionary dictionary, IntColumn ids, Predicate<String> condition) {
+        BitSet matches = new BitSet(dictionary.size());
+        for (int id = 0; id < dictionary.size(); id++) {
+            if (condition.test(dictionary.decode(id))) {
+                matches.set(id);
+            }
+        }
+        return row -> matches.get(ids.get(row));
+    }
+
+    /**
+     * Перекодирует поля строк таблицы в коды {@link DimensionCounts} без восстановления записей.
+     * Код значения словаря таблицы вычисляется при первой встрече и запоминается по идентификатору.
+     */
+    private final class DimensionCodes {
+        private final DimensionCounts counts;
+        private final LogField[] fields;
+        private final IntColumn[] columns = new IntColumn[LogField.values().length];
+        private final int[][] mappings = new int[LogField.values().length][];
+        private final int[] codes = new int[LogField.values().length];
+
+        DimensionCodes(DimensionCounts counts) {
+            this.counts = counts;
+            this.fields = counts.getFields().toArray(LogField[]::new);
+            for (LogField field : fields) {
+                int ordinal = field.ordinal();
+                columns[ordinal] = column(field);
+                if (!field.numeric()) {
+                    mappings[ordinal] = new int[dictionary(field).size()];
+                    Arrays.fill(mappings[ordinal], -1);
+                }
+            }
+        }
+
+        void accept(int row) {
+            for (LogField field : fields) {
+                int ordinal = field.ordinal();
+                int value = columns[ordinal].get(row);
+                int[] mapping = mappings[ordinal];
+                if (mapping == null) {
+                    codes[ordinal] = value;
+                    continue;
+                }
+                if (mapping[value] < 0) {
+                    mapping[value] = counts.encode(field, dictionary(field).decode(value));
+                }
+                codes[ordinal] = mapping[value];
+            }
+            counts.accept(codes);
+        }
+
+        private IntColumn column(LogField field) {
+            return switch (field) {
+                case IP_ADDRESS -> ipAddressIds;
+                case USER_IDENTIFIER -> userIdentifierIds;
+                case USER_ID -> userIdIds;
+                case REQUEST_METHOD -> requestMethodIds;
+                case RESOURCE -> resourceIds;
+                case HTTP_VERSION -> httpVersionIds;
+                case STATUS_CODE -> statusCodes;
+                case RESPONSE_SIZE -> responseSizes;
+            };
+        }
+
+        private StringDictionary dictionary(LogField field) {
+            return switch (field) {
+                case IP_ADDRESS -> ipAddresses;
+                case RESOURCE -> resources;
+                default -> tokens;
+            };
+        }
+    }
+
+    private static int[] remap(StringDictionary from, StringDictionary to) {
+        int[] mapping = new int[from.size()];
+        for (int id = 0; id < mapping.length; id++) {
+            mapping[id] = to.encode(from.decode(id));
+        }
+        return mapping;
+    }
+
+    private static long decodeOrNoTime(String timestamp) {
+        try {
+            return TimestampDecoder.toEpochSecond(timestamp);
+        } catch (IllegalArgumentException e) {
+            return NO_TIME;
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package backend.academy.table;
+
+import it.unimi.dsi.fastutil.objects.ObjectArrayList;
+
+/**
+ * Столбец значений {@code long}, растущий фрагментами фиксированного размера.
+ * <p>
+ * При росте выделяется новый фрагмент, а уже записанные значения не копируются.
+ * </p>
+ */
+final class LongColumn {
+    private final ObjectArrayList<long[]> chunks = new ObjectArrayList<>();
+    private int size;
+
+    void add(long value) {
+        int offset = size & LogTable.CHUNK_MASK;
+        if (offset == 0) {
+            chunks.add(new long[LogTable.CHUNK_SIZE]);
+        }
+        chunks.get(size >>> LogTable.CHUNK_SHIFT)[offset] = value;
+        size++;
+    }
+
+    long get(int row) {
+        return chunks.get(row >>> LogTable.CHUNK_SHIFT)[row & LogTable.CHUNK_MASK];
+    }
+}
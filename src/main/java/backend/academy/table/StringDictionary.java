@@ -0,0 +1,62 @@
+package backend.academy.table;
+
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
+import it.unimi.dsi.fastutil.objects.ObjectArrayList;
+
+/**
+ * Словарь строк: каждой различной строке присваивается целочисленный идентификатор.
+ * <p>
+ * Идентификаторы выдаются подряд начиная с 0, поэтому их можно использовать как индексы
+ * массивов счетчиков. Каждая строка хранится в словаре один раз, сколько бы раз она
+ * ни встречалась в логах. Словарь не потокобезопасен.
+ * </p>
+ */
+public final class StringDictionary {
+    private static final int MISSING = -1;
+
+    private final Object2IntOpenHashMap<String> ids = new Object2IntOpenHashMap<>();
+    private final ObjectArrayList<String> values = new ObjectArrayList<>();
+
+    public StringDictionary() {
+        ids.defaultReturnValue(MISSING);
+    }
+
+    /**
+     * Возвращает идентификатор строки, добавляя ее в словарь при первом появлении.
+     *
+     * @param value Строка.
+     * @return Идентификатор строки.
+     */
+    public int encode(String value) {
+        int id = ids.getInt(value);
+        if (id == MISSING) {
+            id = values.size();
+            ids.put(value, id);
+            values.add(value);
+        }
+        return id;
+    }
+
+    /**
+     * @param value Строка.
+     * @return Идентификатор строки или -1, если строки нет в словаре.
+     */
+    public int find(String value) {
+        return ids.getInt(value);
+    }
+
+    /**
+     * @param id Идентификатор строки.
+     * @return Строка с данным идентификатором.
+     */
+    public String decode(int id) {
+        return values.get(id);
+    }
+
+    /**
+     * @return Количество различных строк.
+     */
+    public int size() {
+        return values.size();
+    }
+}
@@ -0,0 +1,266 @@
+package backend.academy.topk;
+
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+/**
+ * Приближенный подсчет самых частых строк алгоритмом Space-Saving с ограниченной памятью.
+ * <p>
+ * Хранится не больше {@code capacity} счетчиков. Новая строка при заполненной структуре вытесняет
+ * строку с наименьшим счетчиком и наследует его значение как погрешность. Поэтому оценка частоты
+ * никогда не меньше настоящей и превышает ее не больше чем на наименьший счетчик {@link #maxError()},
+ * который не превосходит {@code N / capacity}, где {@code N} — количество добавленных строк.
+ * Любая строка, встретившаяся больше {@code N / capacity} раз, гарантированно отслеживается.
+ * </p>
+ * <p>
+ * Счетчики лежат в примитивных массивах, упорядоченных как двоичная куча по возрастанию, а позиции
+ * строк в куче — в {@link Object2IntOpenHashMap}: добавление стоит {@code O(log capacity)}.
+ * Структура не потокобезопасна; экземпляры, заполненные в разных потоках, объединяются методом
+ * {@link #merge(SpaceSaving)} с сохранением той же оценки погрешности для суммарного {@code N}.
+ * </p>
+ */
+public final class SpaceSaving {
+    private static final int MISSING = -1;
+
+    private final int capacity;
+    private final Object2IntOpenHashMap<String> positions = new Object2IntOpenHashMap<>();
+    private final String[] items;
+    private final long[] counts;
+    private final long[] errors;
+    private int size;
+    private long total;
+
+    /**
+     * @param capacity Наибольшее количество отслеживаемых строк.
+     */
+    public SpaceSaving(int capacity) {
+        this.capacity = capacity;
+        this.items = new String[capacity];
+        this.counts = new long[capacity];
+        this.errors = new long[capacity];
+        positions.defaultReturnValue(MISSING);
+    }
+
+    /**
+     * Учитывает {@code count} появлений строки.
+     *
+     * @param item  Строка.
+     * @param count Количество появлений.
+     */
+    public void add(String item, long count) {
+        total += count;
+        int position = positions.getInt(item);
+        if (position != MISSING) {
+            counts[position] += count;
+            siftDown(position);
+        } else if (size < capacity) {
+            set(size, item, count, 0);
+            siftUp(size++);
+        } else {
+            long min = counts[0];
+            positions.removeInt(items[0]);
+            set(0, item, min + count, min);
+            siftDown(0);
+        }
+    }
+
+    /**
+     * Объединяет текущую структуру с другой.
+     * <p>
+     * Строка, которой нет в заполненной структуре, могла встретиться в ней не больше наименьшего
+     * счетчика этой структуры, поэтому он прибавляется к оценке и к погрешности. Из объединения
+     * остаются {@code capacity} строк с наибольшими оценками. Переданная структура не изменяется.
+     * </p>
+     *
+     * @param other Структура, строки которой добавляются к текущей.
+     * @return Текущая структура с объединенными счетчиками.
+     */
+    public SpaceSaving merge(SpaceSaving other) {
+        long thisMin = maxError();
+        long otherMin = other.maxError();
+        Map<String, long[]> merged = new HashMap<>(size + other.size);
+        for (int i = 0; i < size; i++) {
+            merged.put(items[i], new long[] {counts[i] + otherMin, errors[i] + otherMin});
+        }
+        for (int i = 0; i < other.size; i++) {
+            long[] entry = merged.get(other.items[i]);
+            if (entry == null) {
+                merged.put(other.items[i], new long[] {other.counts[i] + thisMin, other.errors[i] + thisMin});
+            } else {
+                entry[0] += other.counts[i] - otherMin;
+                entry[1] += other.errors[i] - otherMin;
+            }
+        }
+        long mergedTotal = total + other.total;
+        clear();
+        merged.entrySet().stream()
+            .sorted(Comparator.comparingLong((Map.Entry<String, long[]> entry) -> entry.getValue()[0]).reversed())
+            .limit(capacity)
+            .forEach(entry -> set(size++, entry.getKey(), entry.getValue()[0], entry.getValue()[1]));
+        total = mergedTotal;
+        heapify();
+        return this;
+    }
+
+    /**
+     * Возвращает строки с наибольшими оценками частоты.
+     *
+     * @param k Количество строк.
+     * @return Строки и оценки их частоты по убыванию оценки.
+     */
+    public Map<String, Long> top(int k) {
+        Map<String, Long> result = new LinkedHashMap<>();
+        IntStream.range(0, size).boxed()
+            .sorted(Comparator.comparingLong((Integer i) -> counts[i]).reversed())
+            .limit(k)
+            .forEach(i -> result.put(items[i], counts[i]));
+        return result;
+    }
+
+    /**
+     * @return Все отслеживаемые строки и оценки их частоты.
+     */
+    public Map<String, Long> counts() {
+        Map<String, Long> result = new HashMap<>(size);
+        for (int i = 0; i < size; i++) {
+            result.put(items[i], counts[i]);
+        }
+        return result;
+    }
+
+    /**
+     * @param item Строка.
+     * @return Наибольшее завышение оценки частоты строки или -1, если строка не отслеживается.
+     */
+    public long error(String item) {
+        int position = positions.getInt(item);
+        return position == MISSING ? MISSING : errors[position];
+    }
+
+    /**
+     * @return Наибольшее завышение оценки частоты любой строки: наименьший счетчик заполненной
+     *     структуры или 0, пока все строки помещаются и подсчитаны точно.
+     */
+    public long maxError() {
+        return size < capacity ? 0 : counts[0];
+    }
+
+    /**
+     * @return Количество добавленных строк с учетом повторов.
+     */
+    public long total() {
+        return total;
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    /**
+     * Записывает состояние структуры в двоичном виде.
+     *
+     * @param out Поток для записи.
+     * @throws IOException если запись не удалась.
+     */
+    public void writeTo(DataOutput out) throws IOException {
+        out.writeInt(capacity);
+        out.writeLong(total);
+        out.writeInt(size);
+        for (int i = 0; i < size; i++) {
+            byte[] item = items[i].getBytes(StandardCharsets.UTF_8);
+            out.writeInt(item.length);
+            out.write(item);
+            out.writeLong(counts[i]);
+            out.writeLong(errors[i]);
+        }
+    }
+
+    /**
+     * Восстанавливает структуру, записанную методом {@link #writeTo(DataOutput)}.
+     *
+     * @param in Поток для чтения.
+     * @return Структура с восстановленными счетчиками.
+     * @throws IOException если чтение не удалось или данные повреждены.
+     */
+    public static SpaceSaving readFrom(DataInput in) throws IOException {
+        SpaceSaving sketch = new SpaceSaving(in.readInt());
+        sketch.total = in.readLong();
+        int size = in.readInt();
+        for (int i = 0; i < size; i++) {
+            byte[] item = new byte[in.readInt()];
+            in.readFully(item);
+            sketch.set(sketch.size++, new String(item, StandardCharsets.UTF_8), in.readLong(), in.readLong());
+        }
+        sketch.heapify();
+        return sketch;
+    }
+
+    private void clear() {
+        positions.clear();
+        Arrays.fill(items, null);
+        size = 0;
+        total = 0;
+    }
+
+    private void set(int position, String item, long count, long error) {
+        items[position] = item;
+        counts[position] = count;
+        errors[position] = error;
+        positions.put(item, position);
+    }
+
+    private void heapify() {
+        for (int i = size / 2 - 1; i >= 0; i--) {
+            siftDown(i);
+        }
+    }
+
+    private void siftUp(int position) {
+        int child = position;
+        while (child > 0) {
+            int parent = (child - 1) >>> 1;
+            if (counts[parent] <= counts[child]) {
+                return;
+            }
+            swap(parent, child);
+            child = parent;
+        }
+    }
+
+    private void siftDown(int position) {
+        int parent = position;
+        while (true) {
+            int smallest = parent;
+            int left = 2 * parent + 1;
+            int right = left + 1;
+            if (left < size && counts[left] < counts[smallest]) {
+                smallest = left;
+            }
+            if (right < size && counts[right] < counts[smallest]) {
+                smallest = right;
+            }
+            if (smallest == parent) {
+                return;
+            }
+            swap(parent, smallest);
+            parent = smallest;
+        }
+    }
+
+    private void swap(int first, int second) {
+        String item = items[first];
+        long count = counts[first];
+        long error = errors[first];
+        set(first, items[second], counts[second], errors[second]);
+        set(second, item, count, error);
+    }
+}
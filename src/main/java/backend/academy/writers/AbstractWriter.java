@@ -40,8 +40,16 @@ public abstract class AbstractWriter {
      * @param filePath Путь к файлу, в который будет записан отчет.
      */
     public void writeReportToFile(Metrics metrics, String filePath) {
-        String reportContent = format(metrics);
+        writeToFile(format(metrics), filePath);
+    }
 
+    /**
+     * Записывает уже отформатированный отчет в указанный файл.
+     *
+     * @param reportContent Текст отчета.
+     * @param filePath      Путь к файлу, в который будет записан отчет.
+     */
+    public void writeToFile(String reportContent, String filePath) {
         try (BufferedWriter writer = new BufferedWriter(new FileWriter(filePath, StandardCharsets.UTF_8))) {
             writer.write(reportContent);
             PRINT.println(SUCCESS_WRITE_MESSAGE + filePath);
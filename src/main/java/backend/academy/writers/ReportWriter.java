@@ -26,17 +26,51 @@ public class ReportWriter {
      *                (по умолчанию используется AsciiDoc)
      */
     public void writeReport(Metrics metrics, String format) {
-        if ("markdown".equalsIgnoreCase(format)) {
-            MarkdownReportWriter markdownReportWriter = new MarkdownReportWriter();
-            markdownReportWriter.writeReportToFile(metrics, "src/report.md");
-            String formattedStats = markdownReportWriter.format(metrics);
-            PRINT.println(formattedStats);
-        } else {
-            AdocReportWriter adocReportWriter = new AdocReportWriter();
-            adocReportWriter.writeReportToFile(metrics, "src/report.adoc");
-            String formattedStats = adocReportWriter.format(metrics);
-            PRINT.println(formattedStats);
-        }
+        writeReport(metrics, format, "report");
+    }
+
+    /**
+     * Записывает отчет с указанным именем файла, например, отчет одного из запросов {@code --queries}.
+     *
+     * @param metrics    метрики, которые будут включены в отчет
+     * @param format     формат отчета, который может быть "markdown" или любой другой строкой
+     *                   (по умолчанию используется AsciiDoc)
+     * @param reportName имя файла отчета без расширения
+     */
+    public void writeReport(Metrics metrics, String format, String reportName) {
+        writeRenderedReport(render(metrics, format), format, reportName);
     }
-}
 
+    /**
+     * Форматирует метрики в текст отчета, не записывая его.
+     *
+     * @param metrics метрики, которые будут включены в отчет
+     * @param format  формат отчета, который может быть "markdown" или любой другой строкой
+     *                (по умолчанию используется AsciiDoc)
+     * @return текст отчета
+     */
+    public String render(Metrics metrics, String format) {
+        return writer(format).format(metrics);
+    }
+
+    /**
+     * Записывает уже отформатированный отчет, например, взятый из кэша результатов, и выводит его в консоль.
+     *
+     * @param report     текст отчета
+     * @param format     формат отчета, по которому выбирается расширение файла
+     * @param reportName имя файла отчета без расширения
+     */
+    public void writeRenderedReport(String report, String format, String reportName) {
+        String extension = isMarkdown(format) ? ".md" : ".adoc";
+        writer(format).writeToFile(report, "src/" + reportName + extension);
+        PRINT.println(report);
+    }
+
+    private static AbstractWriter writer(String format) {
+        return isMarkdown(format) ? new MarkdownReportWriter() : new AdocReportWriter();
+    }
+
+    private static boolean isMarkdown(String format) {
+        return "markdown".equalsIgnoreCase(format);
+    }
+}
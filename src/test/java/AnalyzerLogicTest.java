@@ -1,9 +1,9 @@
 import backend.academy.analyzer.AnalyzerLogic;
 import backend.academy.nginx.NginxLog;
+import backend.academy.quantile.HdrQuantileSketch;
+import backend.academy.quantile.QuantileSketch;
 import backend.academy.statistic.Metrics;
-import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
 import java.util.stream.Stream;
 import org.junit.jupiter.api.Test;
@@ -23,38 +23,30 @@ class AnalyzerLogicTest {
             "HTTP/1.1", 200, 1234);
 
         analyzerLogic.processLog(log, analyzerLogic.getResponseSizeStats(), analyzerLogic.getResourceCountMap(),
-            analyzerLogic.getResponseCodeCountMap(), analyzerLogic.getSampledResponseSizes());
+            analyzerLogic.getResponseCodeCountMap(), analyzerLogic.getResponseSizeQuantiles());
 
         assertEquals(1, analyzerLogic.getResponseSizeStats().getCount());
         assertEquals(1234, analyzerLogic.getResponseSizeStats().getSum());
         assertEquals(1, analyzerLogic.getResourceCountMap().get("/index.html"));
         assertEquals(1, analyzerLogic.getResponseCodeCountMap().get(200));
-        assertEquals(1, analyzerLogic.getSampledResponseSizes().size());
-    }
-
-    @Test
-    void updateSampledResponseSizes_addsResponseSizeIfSampleSizeNotReached() {
-        List<Long> sampledResponseSizes = new ArrayList<>();
-        analyzerLogic.updateSampledResponseSizes(sampledResponseSizes, 1234);
-
-        assertEquals(1, sampledResponseSizes.size());
-        assertEquals(1234, sampledResponseSizes.getFirst().longValue());
+        assertEquals(1, analyzerLogic.getResponseSizeQuantiles().count());
     }
 
     @Test
     void calcPercentile_emptySample_returnsZero() {
-        List<Long> sampledResponseSizes = new ArrayList<>();
+        QuantileSketch responseSizeQuantiles = new HdrQuantileSketch();
 
-        long percentile = analyzerLogic.calcPercentile(sampledResponseSizes, 0.5);
+        long percentile = analyzerLogic.calcPercentile(responseSizeQuantiles, 0.5);
 
         assertEquals(0, percentile);
     }
 
     @Test
     void calcPercentile_singleElementSample_returnsTheElement() {
-        List<Long> sampledResponseSizes = List.of(1234L);
+        QuantileSketch responseSizeQuantiles = new HdrQuantileSketch();
+        responseSizeQuantiles.add(1234L);
 
-        long percentile = analyzerLogic.calcPercentile(sampledResponseSizes, 0.5);
+        long percentile = analyzerLogic.calcPercentile(responseSizeQuantiles, 0.5);
 
         assertEquals(1234, percentile);
     }
@@ -81,16 +73,16 @@ class AnalyzerLogicTest {
         analyzerLogic.getResponseSizeStats().accept(100L);
         analyzerLogic.getResponseSizeStats().accept(200L);
         analyzerLogic.getResponseSizeStats().accept(300L);
-        analyzerLogic.getSampledResponseSizes().add(100L);
-        analyzerLogic.getSampledResponseSizes().add(200L);
-        analyzerLogic.getSampledResponseSizes().add(300L);
+        analyzerLogic.getResponseSizeQuantiles().add(100L);
+        analyzerLogic.getResponseSizeQuantiles().add(200L);
+        analyzerLogic.getResponseSizeQuantiles().add(300L);
         analyzerLogic.getResourceCountMap().put("/index.html", 1L);
         analyzerLogic.getResourceCountMap().put("/about.html", 2L);
         analyzerLogic.getResponseCodeCountMap().put(200, 1);
         analyzerLogic.getResponseCodeCountMap().put(404, 2);
 
         Metrics metrics = analyzerLogic.generateMetrics(analyzerLogic.getResponseSizeStats(),
-            analyzerLogic.getSampledResponseSizes(), analyzerLogic.getResourceCountMap(),
+            analyzerLogic.getResponseSizeQuantiles(), analyzerLogic.getResourceCountMap(),
             analyzerLogic.getResponseCodeCountMap(), START_DATE, END_DATE);
 
         assertEquals(3, metrics.logsQuantity());
@@ -123,6 +115,19 @@ class AnalyzerLogicTest {
         assertEquals(8901, metrics.percentile95());
         assertEquals(1234, metrics.percentile25());
     }
+
+    @Test
+    void analyzeLogs_calledTwice_doesNotAccumulateResults() {
+        NginxLog log = new NginxLog("192.168.1.1", "-", "-", "21/Jul/2023:12:00:00 +0000", "GET", "/index.html",
+            "HTTP/1.1", 200, 1234);
+
+        analyzerLogic.analyzeLogs(Stream.of(log, log));
+        Metrics metrics = analyzerLogic.analyzeLogs(Stream.of(log, log));
+
+        assertEquals(2, metrics.logsQuantity());
+        assertEquals(2, metrics.topResources().get("/index.html").longValue());
+        assertEquals(2, analyzerLogic.getResponseSizeStats().getCount());
+    }
 }
 
 
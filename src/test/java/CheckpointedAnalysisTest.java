@@ -0,0 +1,141 @@
+import backend.academy.analyzer.AnalysisOptions;
+import backend.academy.analyzer.Analyzer;
+import backend.academy.checkpoint.Checkpoint;
+import backend.academy.checkpoint.CheckpointedAnalysis;
+import backend.academy.quantile.QuantileEngine;
+import backend.academy.readers.LogFileReader;
+import backend.academy.statistic.Metrics;
+import backend.academy.statistic.RejectedLines;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class CheckpointedAnalysisTest {
+
+    private static final String SAMPLE_LOG = "src/main/java/backend/academy/Files/logs.txt";
+    private static final AnalysisOptions OPTIONS = new AnalysisOptions(QuantileEngine.HDR, List.of(99.0));
+    private static final Map<String, String> FILTERS = Map.of("statusCode", "4xx");
+
+    @TempDir
+    Path directory;
+    @TempDir
+    Path expectedDirectory;
+
+    @Test
+    void analyze_appendedLines_areMergedWithStoredState() throws IOException {
+        List<String> lines = sampleLines();
+        Path file = directory.resolve("access.txt");
+        Path checkpoint = directory.resolve("analysis.checkpoint");
+        write(file, lines.subList(0, 300));
+
+        assertEquals(fullAnalysis(directory), checkpointed(directory, checkpoint));
+
+        append(file, lines.subList(300, 700));
+        // Незавершенная строка учитывается только после перевода строки
+        Files.writeString(file, lines.get(700), StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+        Metrics second = checkpointed(directory, checkpoint);
+
+        assertEquals(fullAnalysis(lines.subList(0, 700)), second);
+        assertEquals(Files.size(file) - lines.get(700).length(), load(checkpoint).files().getFirst().offset());
+        Files.writeString(file, "\n", StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+        assertEquals(fullAnalysis(directory), checkpointed(directory, checkpoint));
+    }
+
+    @Test
+    void analyze_renamedAndNewFiles_readsOnlyNewData() throws IOException {
+        List<String> lines = sampleLines();
+        Path file = directory.resolve("access.txt");
+        Path checkpoint = directory.resolve("analysis.checkpoint");
+        write(file, lines.subList(0, 400));
+        checkpointed(directory, checkpoint);
+
+        append(file, lines.subList(400, 500));
+        Files.move(file, directory.resolve("access.1.txt"));
+        write(file, lines.subList(500, 900));
+
+        assertEquals(fullAnalysis(directory), checkpointed(directory, checkpoint));
+        assertNotNull(load(checkpoint));
+        assertEquals(2, load(checkpoint).files().size());
+    }
+
+    @Test
+    void analyze_rewrittenFile_discardsCheckpoint() throws IOException {
+        List<String> lines = sampleLines();
+        Path file = directory.resolve("access.txt");
+        Path checkpoint = directory.resolve("analysis.checkpoint");
+        write(file, lines.subList(0, 400));
+        checkpointed(directory, checkpoint);
+
+        write(file, lines.subList(400, 600));
+
+        assertEquals(fullAnalysis(directory), checkpointed(directory, checkpoint));
+    }
+
+    @Test
+    void analyze_rejectedLines_includeLinesFromPreviousRuns() throws IOException {
+        List<String> lines = sampleLines();
+        Path file = directory.resolve("access.txt");
+        Path checkpoint = directory.resolve("analysis.checkpoint");
+        write(file, List.of(lines.get(0), "first bad line", lines.get(1)));
+        rejectedLines(checkpoint);
+
+        append(file, List.of("second bad line", lines.get(2)));
+
+        assertEquals(Map.of(file.toString(), new RejectedLines(2, List.of("first bad line", "second bad line"))),
+            rejectedLines(checkpoint));
+    }
+
+    @Test
+    void load_otherConfiguration_isIgnored() throws IOException {
+        Path checkpoint = directory.resolve("analysis.checkpoint");
+        write(directory.resolve("access.txt"), sampleLines().subList(0, 100));
+        checkpointed(directory, checkpoint);
+
+        assertNull(Checkpoint.load(checkpoint, "engine=EXACT;filters={};from=null;to=null", OPTIONS));
+    }
+
+    private static Metrics checkpointed(Path directory, Path checkpoint) {
+        return new CheckpointedAnalysis(new Analyzer(OPTIONS), OPTIONS, FILTERS, null, null)
+            .analyze(List.of(directory.toString()), checkpoint);
+    }
+
+    private Map<String, RejectedLines> rejectedLines(Path checkpoint) {
+        CheckpointedAnalysis analysis = new CheckpointedAnalysis(new Analyzer(OPTIONS), OPTIONS, FILTERS, null, null);
+        analysis.analyze(List.of(directory.toString()), checkpoint);
+        return analysis.getRejectedLines().summary();
+    }
+
+    private static Metrics fullAnalysis(Path directory) {
+        return new Analyzer(OPTIONS).analyze(new LogFileReader().readLogs(List.of(directory.toString())), FILTERS);
+    }
+
+    private Metrics fullAnalysis(List<String> lines) throws IOException {
+        write(expectedDirectory.resolve("expected.txt"), lines);
+        return fullAnalysis(expectedDirectory);
+    }
+
+    private static Checkpoint load(Path checkpoint) {
+        return Checkpoint.load(checkpoint, "engine=HDR;filters={statusCode=4xx};from=null;to=null", OPTIONS);
+    }
+
+    private static List<String> sampleLines() throws IOException {
+        return Files.readAllLines(Path.of(SAMPLE_LOG), StandardCharsets.UTF_8);
+    }
+
+    private static void write(Path file, List<String> lines) throws IOException {
+        Files.write(file, lines, StandardCharsets.UTF_8);
+    }
+
+    private static void append(Path file, List<String> lines) throws IOException {
+        Files.write(file, lines, StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+    }
+}
@@ -0,0 +1,197 @@
+import backend.academy.nginx.NginxLog;
+import backend.academy.nginx.ParsePolicy;
+import backend.academy.readers.ConcurrentLogReader;
+import backend.academy.readers.LogFileReader;
+import backend.academy.readers.SourceProgress;
+import backend.academy.table.LogTable;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Collector;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ConcurrentLogReaderTest {
+
+    private static final String LOGS = "src/main/java/backend/academy/Files/logs.txt";
+    private static final String LOGS_2 = "src/main/java/backend/academy/Files/logs_2.txt";
+    private static final String DIRECTORY = "src/main/java/backend/academy/Files";
+
+    @Test
+    void streamLogs_severalSources_readsSameRecordsAsFileReader() {
+        List<String> paths = List.of(LOGS, LOGS_2, DIRECTORY);
+
+        Map<NginxLog, Long> expected = counts(new LogFileReader().readLogs(paths));
+
+        assertEquals(expected, counts(read(new ConcurrentLogReader(1), paths)));
+        assertEquals(expected, counts(read(new ConcurrentLogReader(8), paths)));
+    }
+
+    @Test
+    void streamLogs_parallelStream_aggregatesAllRecords() {
+        List<String> paths = List.of(LOGS, LOGS_2);
+        long expected = new LogFileReader().readLogs(paths).size();
+
+        try (Stream<NginxLog> logs = new ConcurrentLogReader(2).streamLogs(paths)) {
+            assertEquals(expected, logs.parallel().count());
+        }
+    }
+
+    @Test
+    void streamLogs_parallelCollectOverManyBatches_keepsPartialResultsBounded() {
+        List<String> paths = Collections.nCopies(100, LOGS);
+        long expected = new LogFileReader().readLogs(paths).size();
+        AtomicInteger containers = new AtomicInteger();
+        Collector<NginxLog, long[], Long> counting = Collector.of(
+            () -> {
+                containers.incrementAndGet();
+                return new long[1];
+            },
+            (count, log) -> count[0]++,
+            (left, right) -> {
+                left[0] += right[0];
+                return left;
+            },
+            count -> count[0]);
+
+        try (Stream<NginxLog> logs = new ConcurrentLogReader(4).streamLogs(paths)) {
+            assertEquals(expected, logs.parallel().collect(counting));
+        }
+        assertTrue(expected / 1024 > ConcurrentLogReader.AGGREGATION_WORKERS);
+        assertTrue(containers.get() <= ConcurrentLogReader.AGGREGATION_WORKERS);
+    }
+
+    @Test
+    void streamLogs_reportsProgressForEachSource() {
+        List<SourceProgress> events = new CopyOnWriteArrayList<>();
+        ConcurrentLogReader reader = new ConcurrentLogReader(2);
+        reader.setProgressListener(events::add);
+
+        read(reader, List.of(LOGS, LOGS_2));
+
+        for (String source : List.of(LOGS, LOGS_2)) {
+            List<SourceProgress> sourceEvents = events.stream()
+                .filter(event -> event.source().endsWith(source.substring(source.lastIndexOf('/'))))
+                .toList();
+            assertEquals(SourceProgress.State.QUEUED, sourceEvents.getFirst().state());
+            assertTrue(sourceEvents.stream().anyMatch(event -> event.state() == SourceProgress.State.RUNNING));
+            SourceProgress last = sourceEvents.getLast();
+            assertEquals(SourceProgress.State.DONE, last.state());
+            assertEquals(last.tasks(), last.tasksDone());
+            assertEquals(new LogFileReader().readLogs(List.of(source)).size(), last.records());
+        }
+    }
+
+    @Test
+    void streamLogs_failingSource_doesNotStopOthers() throws IOException {
+        HttpServer server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/", exchange -> {
+            exchange.sendResponseHeaders(404, -1);
+            exchange.close();
+        });
+        server.start();
+        String url = "http://127.0.0.1:" + server.getAddress().getPort() + "/access.log";
+        List<SourceProgress> events = new CopyOnWriteArrayList<>();
+        ConcurrentLogReader reader = new ConcurrentLogReader(1);
+        reader.setProgressListener(events::add);
+
+        try {
+            List<NginxLog> logs = read(reader, List.of(url, LOGS));
+
+            assertEquals(counts(new LogFileReader().readLogs(List.of(LOGS))), counts(logs));
+            assertTrue(events.stream().anyMatch(event ->
+                event.source().equals(url) && event.state() == SourceProgress.State.DONE && event.records() == 0));
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    @Test
+    void streamLogs_malformedLines_countedPerSourceOrAbortInStrictMode() throws IOException {
+        Path dirty = Files.createTempFile("dirty", ".log");
+        dirty.toFile().deleteOnExit();
+        Files.writeString(dirty, Files.readString(Path.of(LOGS)) + "not a log line\n");
+        ConcurrentLogReader reader = new ConcurrentLogReader(2);
+
+        List<NginxLog> logs = read(reader, List.of(LOGS, dirty.toString()));
+
+        assertEquals(2 * new LogFileReader().readLogs(List.of(LOGS)).size(), logs.size());
+        assertEquals(Map.of(dirty.toString(), 1L), reader.getRejectedLines().summary().entrySet().stream()
+            .collect(Collectors.toMap(Map.Entry::getKey, entry -> entry.getValue().count())));
+
+        ConcurrentLogReader strict = new ConcurrentLogReader(2);
+        strict.setParsePolicy(ParsePolicy.STRICT);
+        assertThrows(IllegalArgumentException.class, () -> read(strict, List.of(LOGS, dirty.toString())));
+    }
+
+    @Test
+    void streamLogs_strictModeWithBlockedProducers_sequentialConsumerDoesNotHang() throws Exception {
+        Path dirty = Files.createTempFile("dirty", ".log");
+        dirty.toFile().deleteOnExit();
+        Files.writeString(dirty, "not a log line\n" + Files.readString(Path.of(LOGS)));
+        List<String> paths = new ArrayList<>(Collections.nCopies(20, LOGS));
+        paths.add(1, dirty.toString());
+        ConcurrentLogReader strict = new ConcurrentLogReader(2);
+        strict.setParsePolicy(ParsePolicy.STRICT);
+        AtomicBoolean first = new AtomicBoolean(true);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+
+        try {
+            // Медленный первый элемент дает задачам заполнить очередь и остановиться на ее границе
+            Future<?> reading = executor.submit(() -> {
+                try (Stream<NginxLog> logs = strict.streamLogs(paths)) {
+                    logs.peek(log -> pause(first)).collect(LogTable.collector());
+                }
+            });
+            ExecutionException thrown = assertThrows(ExecutionException.class, () -> reading.get(30, TimeUnit.SECONDS));
+            assertTrue(thrown.getCause() instanceof IllegalArgumentException);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void constructor_nonPositiveParallelism_throws() {
+        assertThrows(IllegalArgumentException.class, () -> new ConcurrentLogReader(0));
+    }
+
+    private static List<NginxLog> read(ConcurrentLogReader reader, List<String> paths) {
+        try (Stream<NginxLog> logs = reader.streamLogs(paths)) {
+            return logs.collect(Collectors.toCollection(ArrayList::new));
+        }
+    }
+
+    private static void pause(AtomicBoolean first) {
+        if (first.getAndSet(false)) {
+            try {
+                Thread.sleep(200);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private static Map<NginxLog, Long> counts(List<NginxLog> logs) {
+        return logs.stream().collect(Collectors.groupingBy(Function.identity(), Collectors.counting()));
+    }
+}
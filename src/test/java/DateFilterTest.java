@@ -1,5 +1,11 @@
 import backend.academy.datefilter.DateFilter;
+import backend.academy.datefilter.TimestampDecoder;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.Random;
 import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
@@ -57,4 +63,60 @@ class DateFilterTest {
 
         assertThrows(IllegalArgumentException.class, () -> dateFilter.parseLogDate(INVALID_LOG_TIMESTAMP));
     }
+
+    @Test
+    void isWithinRange_comparesWithSecondPrecision() {
+        DateFilter dateFilter = new DateFilter();
+        dateFilter.setDateFromTo(VALID_DATE_FROM, VALID_DATE_TO);
+
+        assertFalse(dateFilter.isWithinRange("20/Jul/2023:11:59:59 +0000"));
+        assertTrue(dateFilter.isWithinRange("20/Jul/2023:12:00:00 +0000"));
+        assertTrue(dateFilter.isWithinRange("22/Jul/2023:12:00:00 +0000"));
+        assertFalse(dateFilter.isWithinRange("22/Jul/2023:12:00:01 +0000"));
+    }
+
+    @Test
+    void isWithinRange_takesTimeZoneOffsetIntoAccount() {
+        DateFilter dateFilter = new DateFilter();
+        dateFilter.setDateFromTo(VALID_DATE_FROM, VALID_DATE_TO);
+
+        assertTrue(dateFilter.isWithinRange("20/Jul/2023:14:00:00 +0200"));
+        assertFalse(dateFilter.isWithinRange("20/Jul/2023:13:59:59 +0200"));
+        assertFalse(dateFilter.isWithinRange("22/Jul/2023:08:00:00 -0430"));
+    }
+
+    @Test
+    void toEpochSecond_matchesDateTimeFormatter() {
+        Random random = new Random(42);
+        for (int i = 0; i < 100_000; i++) {
+            long epochSecond = random.nextLong(-2_000_000_000L, 4_000_000_000L);
+            ZoneOffset offset = ZoneOffset.ofTotalSeconds(random.nextInt(-18 * 60, 18 * 60 + 1) * 60);
+            String timestamp = TimestampDecoder.FORMATTER.format(
+                OffsetDateTime.ofInstant(Instant.ofEpochSecond(epochSecond), offset));
+
+            assertEquals(epochSecond, TimestampDecoder.toEpochSecond(timestamp));
+        }
+    }
+
+    @Test
+    void toEpochSecond_invalidTimestamp_throwsIllegalArgumentException() {
+        assertThrows(IllegalArgumentException.class, () -> TimestampDecoder.toEpochSecond(INVALID_LOG_TIMESTAMP));
+        assertThrows(IllegalArgumentException.class,
+            () -> TimestampDecoder.toEpochSecond("21/Jux/2023:12:00:00 +0000"));
+        assertThrows(IllegalArgumentException.class,
+            () -> TimestampDecoder.toEpochSecond("21/Jul/2023:25:00:00 +0000"));
+    }
+
+    @Test
+    void toEpochSecond_offsetBeyondEighteenHours_isRejectedLikeZoneOffset() {
+        for (String offset : new String[] {"+1830", "-1859", "+1901"}) {
+            String timestamp = "21/Jul/2023:12:00:00 " + offset;
+
+            assertEquals(TimestampDecoder.NOT_FIXED_LAYOUT, TimestampDecoder.decodeFixedLayout(timestamp));
+            assertThrows(IllegalArgumentException.class, () -> TimestampDecoder.toEpochSecond(timestamp));
+            assertThrows(IllegalArgumentException.class, () -> new DateFilter().parseLogTimestamp(timestamp));
+        }
+        assertEquals(TimestampDecoder.toEpochSecond("21/Jul/2023:12:00:00 +0000") - 18 * 3600,
+            TimestampDecoder.toEpochSecond("21/Jul/2023:12:00:00 +1800"));
+    }
 }
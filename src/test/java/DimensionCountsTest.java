@@ -0,0 +1,105 @@
+import backend.academy.analyzer.AnalysisOptions;
+import backend.academy.analyzer.Analyzer;
+import backend.academy.analyzer.LogAccumulator;
+import backend.academy.dimension.Dimension;
+import backend.academy.dimension.DimensionCounts;
+import backend.academy.nginx.NginxLog;
+import backend.academy.quantile.QuantileEngine;
+import backend.academy.readers.LogFileReader;
+import backend.academy.reportformats.MarkdownFormater;
+import backend.academy.statistic.Metrics;
+import backend.academy.table.LogTable;
+import java.io.IOException;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class DimensionCountsTest {
+
+    private static final List<Dimension> DIMENSIONS =
+        List.of(Dimension.parse("ipAddress"), Dimension.parse("requestMethod+statusCode"));
+
+    @Test
+    void top_countsFieldsAndCombinations() {
+        DimensionCounts counts = new DimensionCounts(DIMENSIONS);
+        counts.accept(TestLogs.log("10.0.0.1", TestLogs.TIMESTAMP, "GET", "/index.html", 200, 100));
+        counts.accept(TestLogs.log("10.0.0.1", TestLogs.TIMESTAMP, "GET", "/index.html", 404, 100));
+        counts.accept(TestLogs.log("10.0.0.2", TestLogs.TIMESTAMP, "GET", "/index.html", 200, 100));
+        counts.accept(TestLogs.log("10.0.0.1", TestLogs.TIMESTAMP, "HEAD", "/index.html", 200, 100));
+
+        Map<String, Map<String, Long>> top = counts.top(2);
+
+        assertEquals(List.of("ipAddress", "requestMethod+statusCode"), List.copyOf(top.keySet()));
+        assertEquals(Map.of("10.0.0.1", 3L, "10.0.0.2", 1L), top.get("ipAddress"));
+        assertEquals("GET 200", top.get("requestMethod+statusCode").keySet().iterator().next());
+        assertEquals(2L, top.get("requestMethod+statusCode").get("GET 200"));
+    }
+
+    @Test
+    void combine_parallelStream_matchesGroupingBy() {
+        List<NginxLog> logs = TestLogs.sampleLogs();
+        AnalysisOptions options = new AnalysisOptions(QuantileEngine.HDR, List.of(), 0, 1000, DIMENSIONS);
+
+        LogAccumulator accumulator = logs.parallelStream().collect(LogAccumulator.collector(options));
+        Map<String, Map<String, Long>> top = accumulator.getDimensionCounts().top(1000);
+
+        assertEquals(logs.stream().collect(Collectors.groupingBy(NginxLog::ipAddress, Collectors.counting())),
+            top.get("ipAddress"));
+        assertEquals(logs.stream().collect(Collectors.groupingBy(log -> log.requestMethod() + " " + log.statusCode(),
+            Collectors.counting())), top.get("requestMethod+statusCode"));
+    }
+
+    @Test
+    void accumulate_table_matchesRecordCounts() {
+        List<Dimension> dimensions = List.of(Dimension.parse("resource+httpVersion"),
+            Dimension.parse("userId+responseSize"), Dimension.parse("ipAddress+requestMethod"));
+        AnalysisOptions options = new AnalysisOptions(QuantileEngine.HDR, List.of(), 0, 1000, dimensions);
+        LogTable table = new LogFileReader().readTable(List.of(TestLogs.SAMPLE_LOG));
+        DimensionCounts expected = new DimensionCounts(dimensions);
+        table.stream().filter(log -> log.statusCode() != 404).forEach(expected::accept);
+
+        LogAccumulator accumulator = table.accumulate(options, row -> table.statusCode(row) != 404);
+
+        assertEquals(expected.top(1000), accumulator.getDimensionCounts().top(1000));
+    }
+
+    @Test
+    void analyze_topSizeAndDimensions_reportMostFrequentValues() {
+        List<NginxLog> logs = TestLogs.sampleLogs();
+        AnalysisOptions options = new AnalysisOptions(QuantileEngine.HDR, List.of(), 0, 5, DIMENSIONS);
+        Map<String, Long> ipCounts = logs.stream()
+            .collect(Collectors.groupingBy(NginxLog::ipAddress, Collectors.counting()));
+        List<Long> topCounts = ipCounts.values().stream().sorted(Comparator.reverseOrder()).limit(5).toList();
+
+        Metrics metrics = new Analyzer(options).analyze(logs);
+        List<List<String>> rows = TestLogs.markdownTable(new MarkdownFormater().format(metrics),
+            "## Самые частые значения: ipAddress");
+
+        assertEquals(3, metrics.topResources().size());
+        Map<String, Long> top = metrics.dimensions().get("ipAddress");
+        assertEquals(topCounts, List.copyOf(top.values()));
+        top.forEach((ipAddress, count) -> assertEquals(ipCounts.get(ipAddress), count));
+        assertEquals(top.entrySet().stream().map(entry -> List.of(entry.getKey(), entry.getValue().toString()))
+            .toList(), rows);
+    }
+
+    @Test
+    void writeTo_readFrom_restoresCounts() throws IOException {
+        DimensionCounts counts = new DimensionCounts(DIMENSIONS);
+        TestLogs.sampleLogs().forEach(counts::accept);
+
+        DimensionCounts restored = TestLogs.roundTrip(counts::writeTo, in -> DimensionCounts.readFrom(in, DIMENSIONS));
+
+        assertEquals(counts.top(1000), restored.top(1000));
+    }
+
+    @Test
+    void parse_invalidDimension_throws() {
+        assertThrows(IllegalArgumentException.class, () -> Dimension.parse("country"));
+        assertThrows(IllegalArgumentException.class, () -> Dimension.parse("ipAddress+userId+resource"));
+    }
+}
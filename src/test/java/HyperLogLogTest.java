@@ -0,0 +1,199 @@
+import backend.academy.analyzer.AnalysisOptions;
+import backend.academy.analyzer.Analyzer;
+import backend.academy.analyzer.LogAccumulator;
+import backend.academy.analyzer.ProcessingMode;
+import backend.academy.cardinality.DistinctCounts;
+import backend.academy.cardinality.HyperLogLog;
+import backend.academy.nginx.FieldMask;
+import backend.academy.nginx.NginxLog;
+import backend.academy.quantile.QuantileEngine;
+import backend.academy.readers.LogFileReader;
+import backend.academy.reportformats.MarkdownFormater;
+import backend.academy.statistic.Metrics;
+import backend.academy.table.LogTable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HyperLogLogTest {
+
+    // Три стандартные погрешности при точности 12
+    private static final double TOLERANCE = 0.05;
+    private static final AnalysisOptions UNIQUE = new AnalysisOptions(QuantileEngine.HDR, List.of(), 0,
+        AnalysisOptions.DEFAULT_TOP_SIZE, List.of(), null, true);
+
+    @Test
+    void estimate_sparseAndDense_withinTolerance() {
+        for (int distinct : new int[] {10, 300, 5_000, 200_000}) {
+            HyperLogLog sketch = new HyperLogLog();
+            for (int i = 0; i < distinct; i++) {
+                sketch.add("10.0." + i / 256 + "." + i % 256);
+                sketch.add("10.0." + i / 256 + "." + i % 256);
+            }
+
+            assertWithinTolerance(distinct, sketch.estimate());
+        }
+    }
+
+    @Test
+    void merge_partialSketches_equalsSingleSketch() {
+        HyperLogLog single = new HyperLogLog();
+        HyperLogLog merged = new HyperLogLog();
+        for (int part = 0; part < 4; part++) {
+            HyperLogLog partial = new HyperLogLog();
+            for (int i = part * 100; i < part * 100 + 2_000; i++) {
+                single.add("user" + i);
+                partial.add("user" + i);
+            }
+            merged.merge(partial);
+        }
+
+        assertEquals(single.estimate(), merged.estimate());
+    }
+
+    @Test
+    void writeTo_readFrom_restoresEstimate() throws IOException {
+        for (int distinct : new int[] {50, 50_000}) {
+            HyperLogLog sketch = new HyperLogLog();
+            for (int i = 0; i < distinct; i++) {
+                sketch.add("/resource_" + i);
+            }
+
+            HyperLogLog restored = TestLogs.roundTrip(sketch::writeTo, HyperLogLog::readFrom);
+
+            assertEquals(sketch.estimate(), restored.estimate());
+        }
+    }
+
+    @Test
+    void accumulator_sampleLogs_estimatesDistinctIpAddresses() {
+        List<NginxLog> logs = TestLogs.sampleLogs();
+        Set<String> ipAddresses = logs.stream().map(NginxLog::ipAddress).collect(Collectors.toSet());
+        Set<String> resources = logs.stream().map(NginxLog::resource).collect(Collectors.toSet());
+
+        DistinctCounts sequential = logs.stream().collect(LogAccumulator.collector(UNIQUE)).getDistinctCounts();
+        DistinctCounts parallel = logs.parallelStream().collect(LogAccumulator.collector(UNIQUE)).getDistinctCounts();
+
+        assertWithinTolerance(ipAddresses.size(), parallel.ipAddresses());
+        assertEquals(sequential.ipAddresses(), parallel.ipAddresses());
+        assertEquals(resources.size(), parallel.resources());
+        for (String resource : resources) {
+            long exact = logs.stream().filter(log -> log.resource().equals(resource))
+                .map(NginxLog::ipAddress).distinct().count();
+            assertWithinTolerance(exact, parallel.ipAddresses(resource));
+        }
+    }
+
+    @Test
+    void analyze_tableAndList_reportUniqueIpAddressesOfTopResources() {
+        List<NginxLog> logs = TestLogs.sampleLogs();
+        LogTable table = new LogFileReader().readTable(List.of(TestLogs.SAMPLE_LOG));
+        Analyzer analyzer = new Analyzer(UNIQUE);
+
+        Metrics fromList = analyzer.analyze(logs);
+        Metrics fromTable = analyzer.analyze(table);
+        List<List<String>> rows = TestLogs.markdownTable(new MarkdownFormater().format(fromList),
+            "## Уникальные IP-адреса популярных ресурсов");
+
+        assertEquals(fromList.uniqueCounts(), fromTable.uniqueCounts());
+        assertEquals(List.copyOf(fromList.topResources().keySet()), rows.stream().map(List::getFirst).toList());
+        for (List<String> row : rows) {
+            long exact = logs.stream().filter(log -> log.resource().equals(row.getFirst()))
+                .map(NginxLog::ipAddress).distinct().count();
+            assertWithinTolerance(exact, Long.parseLong(row.get(1)));
+        }
+        assertWithinTolerance(logs.stream().map(NginxLog::ipAddress).distinct().count(),
+            fromList.uniqueCounts().ipAddresses());
+    }
+
+    @Test
+    void accumulator_manyResources_keepsSketchesOnlyForTopResources() {
+        List<NginxLog> logs = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            logs.add(log("10.0." + i / 256 + "." + i % 256, "/popular"));
+        }
+        for (int i = 0; i < 10 * LogAccumulator.DISTINCT_RESOURCE_CAPACITY; i++) {
+            logs.add(log("10.1.0.1", "/rare_" + i));
+        }
+        LogAccumulator accumulator = logs.parallelStream().collect(LogAccumulator.collector(UNIQUE));
+        LogAccumulator fromTable = logs.stream().collect(LogTable.collector()).accumulate(UNIQUE, row -> true);
+
+        accumulator.trimDistinctResources();
+        DistinctCounts counts = accumulator.getDistinctCounts();
+        assertEquals(accumulator.distinctResourceCapacity(), counts.trackedResources());
+        assertEquals(accumulator.distinctResourceCapacity(), fromTable.getDistinctCounts().trackedResources());
+        assertWithinTolerance(500, counts.ipAddresses("/popular"));
+        assertWithinTolerance(500, fromTable.getDistinctCounts().ipAddresses("/popular"));
+        assertWithinTolerance(10 * LogAccumulator.DISTINCT_RESOURCE_CAPACITY + 1, counts.resources());
+    }
+
+    @Test
+    void accumulator_parallelChunks_keepIpAddressesOfResourcesRareInEachChunk() {
+        // В каждой части "/spread" реже ресурсов этой части, но в сумме популярнее любого из них
+        List<NginxLog> logs = new ArrayList<>();
+        int blocks = 8;
+        for (int block = 0; block < blocks; block++) {
+            for (int i = 0; i < 4; i++) {
+                logs.add(log("10.2." + block + "." + i, "/spread"));
+            }
+            for (int i = 0; i < 2 * LogAccumulator.DISTINCT_RESOURCE_CAPACITY + 100; i++) {
+                for (int copy = 0; copy < 10; copy++) {
+                    logs.add(log("10.1.0.1", "/block_" + block + "_" + i));
+                }
+            }
+        }
+
+        LogAccumulator accumulator = logs.parallelStream().collect(LogAccumulator.collector(UNIQUE));
+        accumulator.trimDistinctResources();
+
+        assertEquals(4L * blocks, accumulator.getDistinctCounts().ipAddresses("/spread"));
+    }
+
+    @Test
+    void analyze_uniqueCountsNotRequested_skipsSketchesAndIpAddressField() {
+        List<NginxLog> logs = TestLogs.sampleLogs();
+
+        Metrics metrics = new Analyzer().analyze(logs);
+
+        assertNull(logs.stream().collect(LogAccumulator.collector()).getDistinctCounts());
+        assertNull(metrics.uniqueCounts());
+        assertFalse(ProcessingMode.NO_FILTERS.requiredFields(Map.of(), AnalysisOptions.DEFAULT)
+            .contains(FieldMask.IP_ADDRESS));
+        assertTrue(ProcessingMode.NO_FILTERS.requiredFields(Map.of(), UNIQUE).contains(FieldMask.IP_ADDRESS));
+    }
+
+    @Test
+    void distinctCounts_addResourceAndCombine_copyOtherSketches() {
+        HyperLogLog sketch = new HyperLogLog();
+        sketch.add("10.0.0.1");
+        DistinctCounts added = new DistinctCounts();
+        added.addResource("/a", sketch);
+        DistinctCounts other = new DistinctCounts();
+        other.accept("10.0.0.1", "/b");
+        DistinctCounts combined = new DistinctCounts().combine(other);
+
+        sketch.add("10.0.0.2");
+        other.accept("10.0.0.2", "/b");
+
+        assertEquals(1, added.ipAddresses("/a"));
+        assertEquals(1, combined.ipAddresses("/b"));
+        assertEquals(2, other.ipAddresses("/b"));
+    }
+
+    private static NginxLog log(String ipAddress, String resource) {
+        return TestLogs.log(ipAddress, TestLogs.TIMESTAMP, "GET", resource, 200, 100);
+    }
+
+    private static void assertWithinTolerance(long expected, long estimate) {
+        assertTrue(Math.abs(estimate - expected) <= Math.max(1, expected * TOLERANCE),
+            "expected " + expected + " got " + estimate);
+    }
+}
@@ -0,0 +1,51 @@
+import backend.academy.analyzer.LogAccumulator;
+import backend.academy.nginx.NginxLog;
+import backend.academy.readers.LogFileReader;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class LogAccumulatorTest {
+
+    private static final String SAMPLE_LOG = "src/main/java/backend/academy/Files/logs.txt";
+
+    @Test
+    void combine_addsCountsOfBothAccumulators() {
+        LogAccumulator first = new LogAccumulator();
+        first.accept(log("/index.html", 200, 100));
+        first.accept(log("/about.html", 404, 300));
+        LogAccumulator second = new LogAccumulator();
+        second.accept(log("/index.html", 200, 200));
+
+        LogAccumulator combined = first.combine(second);
+
+        assertEquals(3, combined.getResponseSizeStats().getCount());
+        assertEquals(600, combined.getResponseSizeStats().getSum());
+        assertEquals(2L, combined.getResourceCountMap().get("/index.html"));
+        assertEquals(1L, combined.getResourceCountMap().get("/about.html"));
+        assertEquals(2, combined.getResponseCodeCountMap().get(200));
+        assertEquals(3, combined.getResponseSizeQuantiles().count());
+        assertEquals(300, combined.getResponseSizeQuantiles().quantile(1.0));
+    }
+
+    @Test
+    void collector_parallelStream_matchesSequential() {
+        List<NginxLog> logs = new LogFileReader().readLogs(List.of(SAMPLE_LOG));
+
+        LogAccumulator sequential = logs.stream().collect(LogAccumulator.collector());
+        LogAccumulator parallel = logs.parallelStream().collect(LogAccumulator.collector());
+
+        assertEquals(sequential.getResponseSizeStats().getCount(), parallel.getResponseSizeStats().getCount());
+        assertEquals(sequential.getResponseSizeStats().getSum(), parallel.getResponseSizeStats().getSum());
+        assertEquals(sequential.getResponseSizeStats().getMax(), parallel.getResponseSizeStats().getMax());
+        assertEquals(sequential.getResourceCountMap(), parallel.getResourceCountMap());
+        assertEquals(sequential.getResponseCodeCountMap(), parallel.getResponseCodeCountMap());
+        assertEquals(sequential.getResponseSizeQuantiles().quantile(0.95),
+            parallel.getResponseSizeQuantiles().quantile(0.95));
+    }
+
+    private static NginxLog log(String resource, int statusCode, int responseSize) {
+        return new NginxLog("192.168.1.1", "-", "-", "21/Jul/2023:12:00:00 +0000", "GET", resource,
+            "HTTP/1.1", statusCode, responseSize);
+    }
+}
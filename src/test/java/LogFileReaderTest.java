@@ -0,0 +1,258 @@
+import backend.academy.analyzer.AnalysisOptions;
+import backend.academy.analyzer.Analyzer;
+import backend.academy.analyzer.ProcessingMode;
+import backend.academy.dimension.Dimension;
+import backend.academy.nginx.FieldMask;
+import backend.academy.nginx.NginxLog;
+import backend.academy.nginx.ParsePolicy;
+import backend.academy.quantile.QuantileEngine;
+import backend.academy.readers.Compression;
+import backend.academy.readers.FileChunk;
+import backend.academy.readers.LogFileReader;
+import backend.academy.readers.RejectedLineCounter;
+import backend.academy.reportformats.AdocFormater;
+import backend.academy.reportformats.MarkdownFormater;
+import backend.academy.statistic.Metrics;
+import backend.academy.statistic.RejectedLines;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+import org.apache.commons.compress.compressors.bzip2.BZip2CompressorOutputStream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LogFileReaderTest {
+
+    private static final String SAMPLE_LOG = "src/main/java/backend/academy/Files/logs.txt";
+    private static final long SMALL_CHUNK = 4096;
+
+    @Test
+    void split_chunksAreAlignedToLinesAndCoverWholeFile() throws IOException {
+        Path file = Path.of(SAMPLE_LOG);
+        byte[] content = Files.readAllBytes(file);
+
+        List<FileChunk> chunks = FileChunk.split(file, SMALL_CHUNK);
+
+        assertTrue(chunks.size() > 1);
+        assertEquals(0, chunks.getFirst().start());
+        assertEquals(content.length, chunks.getLast().end());
+        for (int i = 1; i < chunks.size(); i++) {
+            assertEquals(chunks.get(i - 1).end(), chunks.get(i).start());
+            assertEquals('\n', content[(int) chunks.get(i).start() - 1]);
+        }
+    }
+
+    @Test
+    void streamLogs_chunkedFile_matchesSingleChunkReading() {
+        List<NginxLog> expected = new LogFileReader().readLogs(List.of(SAMPLE_LOG));
+
+        List<NginxLog> chunked = new LogFileReader(SMALL_CHUNK).readLogs(List.of(SAMPLE_LOG));
+
+        assertEquals(expected, chunked);
+    }
+
+    @Test
+    void streamLogs_parallelChunks_aggregateLikeSequential() {
+        LogFileReader reader = new LogFileReader(SMALL_CHUNK);
+        Map<Integer, Long> sequential;
+        Map<Integer, Long> parallel;
+
+        try (Stream<NginxLog> logs = reader.streamLogs(List.of(SAMPLE_LOG))) {
+            sequential = logs.collect(Collectors.groupingBy(NginxLog::statusCode, Collectors.counting()));
+        }
+        try (Stream<NginxLog> logs = reader.streamLogs(List.of(SAMPLE_LOG))) {
+            parallel = logs.parallel().collect(Collectors.groupingBy(NginxLog::statusCode, Collectors.counting()));
+        }
+
+        assertEquals(sequential, parallel);
+    }
+
+    @Test
+    void streamLogs_requiredFields_analysisMatchesFullRecords() {
+        Map<String, String> filters = Map.of("requestMethod", "GET");
+        AnalysisOptions options = new AnalysisOptions(QuantileEngine.HDR, List.of(), 0, 3,
+            List.of(Dimension.parse("ipAddress")));
+        FieldMask fields = ProcessingMode.FILTER.requiredFields(filters, options);
+        LogFileReader projected = new LogFileReader();
+        projected.setFields(fields);
+        Analyzer analyzer = new Analyzer(options);
+
+        List<NginxLog> logs = projected.readLogs(List.of(SAMPLE_LOG));
+
+        assertEquals(FieldMask.NONE.with(FieldMask.IP_ADDRESS).with(FieldMask.RESOURCE)
+            .with(FieldMask.REQUEST_METHOD), fields);
+        assertTrue(logs.stream().allMatch(log -> "-".equals(log.timestamp()) && "-".equals(log.httpVersion())));
+        assertEquals(analyzer.analyze(new LogFileReader().readLogs(List.of(SAMPLE_LOG)), filters),
+            analyzer.analyze(logs, filters));
+    }
+
+    @Test
+    void streamLogs_crlfLineEndings_areStripped() throws IOException {
+        List<String> lines = Files.readAllLines(Path.of(SAMPLE_LOG), StandardCharsets.UTF_8);
+        Path crlf = Files.createTempFile("crlf", ".txt");
+        crlf.toFile().deleteOnExit();
+        Files.writeString(crlf, String.join("\r\n", lines) + "\r\n", StandardCharsets.UTF_8);
+
+        List<NginxLog> logs = new LogFileReader(SMALL_CHUNK).readLogs(List.of(crlf.toString()));
+
+        assertEquals(lines.size(), logs.size());
+        assertEquals(new LogFileReader().readLogs(List.of(SAMPLE_LOG)), logs);
+    }
+
+    @Test
+    void lines_newLinesAtEveryWordOffset_matchBufferedReader() throws IOException {
+        StringBuilder content = new StringBuilder();
+        for (int length = 0; length < 20; length++) {
+            content.append("x".repeat(length)).append(length % 3 == 0 ? "\r\n" : "\n");
+        }
+        content.append("ресурс без перевода строки");
+        Path file = Files.createTempFile("lines", ".txt");
+        file.toFile().deleteOnExit();
+        Files.writeString(file, content, StandardCharsets.UTF_8);
+
+        try (Stream<String> lines = new FileChunk(file, 0, Files.size(file)).lines()) {
+            assertEquals(Files.readAllLines(file, StandardCharsets.UTF_8), lines.toList());
+        }
+    }
+
+    @Test
+    void streamLogs_compressedFiles_matchPlainText() throws IOException {
+        byte[] content = Files.readAllBytes(Path.of(SAMPLE_LOG));
+        Path gzip = Files.createTempFile("access", ".log.1.gz");
+        gzip.toFile().deleteOnExit();
+        try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(gzip))) {
+            out.write(content);
+        }
+        Path bzip2 = Files.createTempFile("access", ".log.2.bz2");
+        bzip2.toFile().deleteOnExit();
+        try (OutputStream out = new BZip2CompressorOutputStream(Files.newOutputStream(bzip2))) {
+            out.write(content);
+        }
+        List<NginxLog> expected = new LogFileReader().readLogs(List.of(SAMPLE_LOG));
+
+        assertEquals(Compression.GZIP, Compression.detect(gzip));
+        assertEquals(Compression.BZIP2, Compression.detect(bzip2));
+        assertEquals(Compression.NONE, Compression.detect(Path.of(SAMPLE_LOG)));
+        assertEquals(expected, new LogFileReader(SMALL_CHUNK).readLogs(List.of(gzip.toString())));
+        assertEquals(expected, new LogFileReader(SMALL_CHUNK).readLogs(List.of(bzip2.toString())));
+    }
+
+    @Test
+    void streamLogs_directoryOfConcatenatedGzip_decodesFilesInParallel(@TempDir Path directory) throws IOException {
+        List<String> lines = Files.readAllLines(Path.of(SAMPLE_LOG), StandardCharsets.UTF_8);
+        int half = lines.size() / 2;
+        for (int i = 1; i <= 3; i++) {
+            Path gzip = directory.resolve("access.log." + i + ".gz");
+            try (OutputStream out = Files.newOutputStream(gzip)) {
+                writeGzipMember(out, lines.subList(0, half));
+                writeGzipMember(out, lines.subList(half, lines.size()));
+            }
+        }
+        LogFileReader reader = new LogFileReader();
+        Map<String, Long> sequential;
+        Map<String, Long> parallel;
+
+        try (Stream<NginxLog> logs = reader.streamLogs(List.of(directory.toString()))) {
+            sequential = logs.collect(Collectors.groupingBy(NginxLog::resource, Collectors.counting()));
+        }
+        try (Stream<NginxLog> logs = reader.streamLogs(List.of(directory.toString()))) {
+            parallel = logs.parallel().collect(Collectors.groupingBy(NginxLog::resource, Collectors.counting()));
+        }
+
+        assertEquals(3L * lines.size(), sequential.values().stream().mapToLong(Long::longValue).sum());
+        assertEquals(sequential, parallel);
+    }
+
+    @Test
+    void streamLogs_compressedFileClosedEarly_stopsReading() throws IOException {
+        Path gzip = Files.createTempFile("access", ".log.gz");
+        gzip.toFile().deleteOnExit();
+        try (OutputStream out = Files.newOutputStream(gzip)) {
+            for (int i = 0; i < 20; i++) {
+                writeGzipMember(out, Files.readAllLines(Path.of(SAMPLE_LOG), StandardCharsets.UTF_8));
+            }
+        }
+
+        try (Stream<NginxLog> logs = new LogFileReader().streamLogs(List.of(gzip.toString()))) {
+            assertEquals(10, logs.limit(10).count());
+        }
+    }
+
+    private static void writeGzipMember(OutputStream out, List<String> lines) throws IOException {
+        GZIPOutputStream gzip = new GZIPOutputStream(out);
+        gzip.write((String.join("\n", lines) + "\n").getBytes(StandardCharsets.UTF_8));
+        gzip.finish();
+    }
+
+    @Test
+    void streamLogs_malformedLines_areSkippedAndCounted() throws IOException {
+        List<String> lines = Files.readAllLines(Path.of(SAMPLE_LOG), StandardCharsets.UTF_8);
+        Path dirty = writeDirtyLog(lines);
+        LogFileReader reader = new LogFileReader(SMALL_CHUNK);
+
+        List<NginxLog> logs;
+        try (Stream<NginxLog> stream = reader.streamLogs(List.of(dirty.toString()))) {
+            logs = stream.parallel().toList();
+        }
+
+        assertEquals(new LogFileReader().readLogs(List.of(SAMPLE_LOG)), logs);
+        RejectedLines rejected = reader.getRejectedLines().summary().get(dirty.toString());
+        assertEquals(lines.size() / 100 + 1, rejected.count());
+        assertEquals(RejectedLineCounter.SAMPLE_SIZE, rejected.samples().size());
+        assertTrue(rejected.samples().stream().allMatch(line -> line.length() <= RejectedLineCounter.SAMPLE_LENGTH));
+        Metrics metrics = new Metrics(0, 0, 0, 0, 0, Map.of(), Map.of(), "-", "-")
+            .withRejectedLines(reader.getRejectedLines().summary());
+        assertTrue(new MarkdownFormater().format(metrics).contains("| " + dirty + " | 15"));
+    }
+
+    @Test
+    void format_rejectedLineSamples_areShownVerbatimInBlocks() {
+        List<String> samples = List.of("`code` | *bold* <b>", "```", "....");
+        Metrics metrics = new Metrics(0, 0, 0, 0, 0, Map.of(), Map.of(), "-", "-")
+            .withRejectedLines(Map.of("access.log", new RejectedLines(3, samples)));
+
+        String markdown = new MarkdownFormater().format(metrics);
+        String adoc = new AdocFormater().format(metrics);
+
+        assertTrue(markdown.contains("- access.log:\n\n````\n" + String.join("\n", samples) + "\n````\n"));
+        assertTrue(adoc.contains("* access.log:\n\n.....\n" + String.join("\n", samples) + "\n.....\n"));
+    }
+
+    @Test
+    void streamLogs_strictPolicy_throwsOnMalformedLine() throws IOException {
+        Path dirty = writeDirtyLog(Files.readAllLines(Path.of(SAMPLE_LOG), StandardCharsets.UTF_8));
+        LogFileReader reader = new LogFileReader(SMALL_CHUNK);
+        reader.setParsePolicy(ParsePolicy.STRICT);
+
+        assertThrows(IllegalArgumentException.class, () -> reader.readLogs(List.of(dirty.toString())));
+    }
+
+    /**
+     * Записывает строки лога, вставляя строку неверного формата перед каждой сотой строкой и длинную в конце.
+     */
+    private static Path writeDirtyLog(List<String> lines) throws IOException {
+        List<String> dirty = new ArrayList<>();
+        for (int i = 0; i < lines.size(); i++) {
+            if (i % 100 == 0) {
+                dirty.add("garbage line " + i);
+            }
+            dirty.add(lines.get(i));
+        }
+        dirty.add("x".repeat(1000));
+        Path file = Files.createTempFile("dirty", ".log");
+        file.toFile().deleteOnExit();
+        Files.writeString(file, String.join("\n", dirty) + "\n", StandardCharsets.UTF_8);
+        return file;
+    }
+}
@@ -0,0 +1,113 @@
+import backend.academy.filter.LogFilter;
+import backend.academy.nginx.NginxLog;
+import backend.academy.nginx.NginxLogParser;
+import backend.academy.readers.LogFileReader;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LogFilterTest {
+
+    private static final String SAMPLE_LOG = "src/main/java/backend/academy/Files/logs.txt";
+
+    @Test
+    void compile_exactValues_matchLikeFieldEquality() {
+        LogFilter filter = LogFilter.compile(Map.of("resource", "/index.html", "statusCode", "200"));
+
+        assertTrue(filter.test(log("192.168.1.1", "/index.html", 200, 100)));
+        assertFalse(filter.test(log("192.168.1.1", "/index.html", 404, 100)));
+        assertFalse(filter.test(log("192.168.1.1", "/about.html", 200, 100)));
+    }
+
+    @Test
+    void compile_statusClass_matchesWholeRange() {
+        LogFilter filter = LogFilter.compile(Map.of("statusCode", "4xx"));
+
+        assertTrue(filter.test(log("192.168.1.1", "/", 400, 0)));
+        assertTrue(filter.test(log("192.168.1.1", "/", 499, 0)));
+        assertFalse(filter.test(log("192.168.1.1", "/", 500, 0)));
+        assertTrue(filter.statusSize().test(404, 0));
+        assertFalse(filter.statusSize().test(304, 0));
+        assertTrue(filter.statusSizeOnly());
+        assertFalse(LogFilter.compile(Map.of("statusCode", "4xx", "requestMethod", "GET")).statusSizeOnly());
+    }
+
+    @Test
+    void compile_resourcePatterns_matchGlobRegexAndPrefix() {
+        LogFilter glob = LogFilter.compile(Map.of("resource", "glob:/downloads/product_?"));
+        LogFilter deepGlob = LogFilter.compile(Map.of("resource", "glob:/downloads/**"));
+        LogFilter regex = LogFilter.compile(Map.of("resource", "regex:^/downloads/product_[12]$"));
+        LogFilter prefix = LogFilter.compile(Map.of("resource", "prefix:/downloads/"));
+
+        assertTrue(glob.test(log("1.1.1.1", "/downloads/product_1", 200, 0)));
+        assertFalse(glob.test(log("1.1.1.1", "/downloads/product_10", 200, 0)));
+        assertTrue(deepGlob.test(log("1.1.1.1", "/downloads/a/b.zip", 200, 0)));
+        assertTrue(regex.test(log("1.1.1.1", "/downloads/product_2", 200, 0)));
+        assertFalse(regex.test(log("1.1.1.1", "/downloads/product_3", 200, 0)));
+        assertTrue(prefix.test(log("1.1.1.1", "/downloads/product_3", 200, 0)));
+        assertFalse(prefix.test(log("1.1.1.1", "/index.html", 200, 0)));
+    }
+
+    @Test
+    void compile_cidr_matchesIpv4AndIpv6Subnets() {
+        LogFilter ipv4 = LogFilter.compile(Map.of("ipAddress", "10.20.0.0/14"));
+        LogFilter ipv6 = LogFilter.compile(Map.of("ipAddress", "2001:db8::/33"));
+
+        assertTrue(ipv4.test(log("10.23.255.1", "/", 200, 0)));
+        assertFalse(ipv4.test(log("10.24.0.1", "/", 200, 0)));
+        assertFalse(ipv4.test(log("2001:db8::1", "/", 200, 0)));
+        assertTrue(ipv6.test(log("2001:db8:7fff::1", "/", 200, 0)));
+        assertFalse(ipv6.test(log("2001:db8:8000::1", "/", 200, 0)));
+        assertFalse(ipv6.test(log("10.23.255.1", "/", 200, 0)));
+    }
+
+    @Test
+    void compile_invalidValues_throwIllegalArgumentException() {
+        assertThrows(IllegalArgumentException.class, () -> LogFilter.compile(Map.of("statusCode", "ok")));
+        assertThrows(IllegalArgumentException.class, () -> LogFilter.compile(Map.of("responseSize", "-1")));
+        assertThrows(IllegalArgumentException.class, () -> LogFilter.compile(Map.of("ipAddress", "10.0.0.0/33")));
+        assertThrows(IllegalArgumentException.class, () -> LogFilter.compile(Map.of("resource", "regex:[")));
+    }
+
+    @Test
+    void compile_unknownField_isIgnored() {
+        LogFilter filter = LogFilter.compile(Map.of("unknown", "value"));
+
+        assertTrue(filter.test(log("192.168.1.1", "/index.html", 200, 100)));
+    }
+
+    @Test
+    void parseLogLine_prefilterRejectsLineBeforeBuildingRecord() {
+        String line = "93.180.71.3 - - [17/May/2015:08:05:32 +0000] \"GET /downloads/product_1 HTTP/1.1\" 304 0 "
+            + "\"-\" \"Debian APT-HTTP/1.3 (0.8.16~exp12ubuntu10.21)\"";
+        LogFilter filter = LogFilter.compile(Map.of("statusCode", "404"));
+
+        assertNull(NginxLogParser.parseLogLine(line, filter.statusSize()));
+        assertEquals(304, NginxLogParser.parseLogLine(line).statusCode());
+    }
+
+    @Test
+    void streamLogs_withPrefilter_matchesFilteringAfterParsing() {
+        LogFilter filter = LogFilter.compile(Map.of("statusCode", "4xx", "responseSize", "0"));
+        List<NginxLog> expected = new LogFileReader().readLogs(List.of(SAMPLE_LOG)).stream()
+            .filter(filter.predicate())
+            .toList();
+        LogFileReader reader = new LogFileReader(4096);
+        reader.setPrefilter(filter.statusSize());
+
+        List<NginxLog> prefiltered = reader.readLogs(List.of(SAMPLE_LOG));
+
+        assertEquals(expected, prefiltered);
+        assertFalse(prefiltered.isEmpty());
+    }
+
+    private static NginxLog log(String ipAddress, String resource, int statusCode, int responseSize) {
+        return new NginxLog(ipAddress, "-", "-", "21/Jul/2023:12:00:00 +0000", "GET", resource,
+            "HTTP/1.1", statusCode, responseSize);
+    }
+}
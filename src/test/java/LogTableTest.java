@@ -0,0 +1,97 @@
+import backend.academy.analyzer.Analyzer;
+import backend.academy.nginx.NginxLog;
+import backend.academy.readers.LogFileReader;
+import backend.academy.statistic.Metrics;
+import backend.academy.table.LogTable;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.IntPredicate;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LogTableTest {
+
+    private static final String SAMPLE_LOG = "src/main/java/backend/academy/Files/logs.txt";
+
+    @Test
+    void readTable_restoresEveryRecord() {
+        List<NginxLog> logs = new LogFileReader().readLogs(List.of(SAMPLE_LOG));
+
+        LogTable table = new LogFileReader().readTable(List.of(SAMPLE_LOG));
+
+        assertEquals(logs.size(), table.size());
+        assertEquals(logs, table.stream().toList());
+        assertTrue(table.resources().size() < logs.size());
+        assertTrue(table.ipAddresses().size() < logs.size());
+    }
+
+    @Test
+    void collector_parallelStream_keepsOrderAndDictionaries() {
+        List<NginxLog> logs = new LogFileReader().readLogs(List.of(SAMPLE_LOG));
+
+        LogTable table = logs.parallelStream().collect(LogTable.collector());
+
+        assertEquals(logs, table.stream().toList());
+        assertEquals(logs.stream().map(NginxLog::resource).distinct().count(), table.resources().size());
+    }
+
+    @Test
+    void add_irregularTimestamp_isKeptAsIs() {
+        LogTable table = new LogTable();
+        NginxLog regular = log("17/May/2015:08:05:32 +0130");
+        NginxLog irregular = log("7/May/2015:08:05:32 +0000");
+
+        table.add(regular);
+        table.add(irregular);
+
+        assertEquals(List.of(regular, irregular), table.stream().toList());
+        assertEquals(1431849932L - 5400, table.epochSecond(0));
+        assertEquals(Long.MIN_VALUE, table.epochSecond(1));
+    }
+
+    @Test
+    void analyze_table_matchesStreamAnalysis() {
+        List<NginxLog> logs = new LogFileReader().readLogs(List.of(SAMPLE_LOG));
+        LogTable table = new LogFileReader().readTable(List.of(SAMPLE_LOG));
+        Analyzer analyzer = new Analyzer();
+        Map<String, String> filters = Map.of("statusCode", "4xx", "resource", "glob:/downloads/*");
+        String start = "17/May/2015:08:00:00 +0000";
+        String end = "18/May/2015:00:00:00 +0000";
+
+        assertEquals(analyzer.analyze(logs), analyzer.analyze(table));
+        assertEquals(analyzer.analyze(logs, filters), analyzer.analyze(table, filters));
+        assertEquals(analyzer.analyze(logs, start, end), analyzer.analyze(table, start, end));
+        Map<String, String> numeric = Map.of("statusCode", "2xx", "responseSize", "0");
+        assertEquals(analyzer.analyze(logs, numeric), analyzer.analyze(table, numeric));
+        Metrics filtered = analyzer.analyze(table, filters, start, end);
+        assertEquals(analyzer.analyze(logs, filters, start, end), filtered);
+        assertFalse(filtered.topResources().isEmpty());
+    }
+
+    @Test
+    void fieldCondition_everyStringField_matchesSameRowsAsRecordFilter() {
+        LogTable table = new LogFileReader().readTable(List.of(SAMPLE_LOG));
+        NginxLog sample = table.get(7);
+        Map<String, Function<NginxLog, String>> fields = Map.of(
+            "ipAddress", NginxLog::ipAddress, "userIdentifier", NginxLog::userIdentifier, "userId", NginxLog::userId,
+            "timestamp", NginxLog::timestamp, "requestMethod", NginxLog::requestMethod,
+            "resource", NginxLog::resource, "httpVersion", NginxLog::httpVersion);
+
+        fields.forEach((field, getter) -> {
+            String value = getter.apply(sample);
+            IntPredicate rows = table.fieldCondition(field, value::equals);
+            for (int row = 0; row < table.size(); row++) {
+                assertEquals(value.equals(getter.apply(table.get(row))), rows.test(row), field);
+            }
+        });
+        assertThrows(IllegalArgumentException.class, () -> table.fieldCondition("statusCode", "200"::equals));
+    }
+
+    private static NginxLog log(String timestamp) {
+        return new NginxLog("192.168.1.1", "-", "-", timestamp, "GET", "/index.html", "HTTP/1.1", 200, 100);
+    }
+}
@@ -0,0 +1,158 @@
+import backend.academy.analyzer.AnalysisOptions;
+import backend.academy.analyzer.Analyzer;
+import backend.academy.analyzer.IncrementalAnalysis;
+import backend.academy.filter.StatusSizePredicate;
+import backend.academy.nginx.FieldMask;
+import backend.academy.nginx.NginxLog;
+import backend.academy.readers.LogFileReader;
+import backend.academy.readers.LogTailer;
+import backend.academy.statistic.Metrics;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class LogTailerTest {
+
+    private static final String SAMPLE_LOG = "src/main/java/backend/academy/Files/logs.txt";
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void streamLogs_returnsOnlyAppendedRecords() throws IOException {
+        List<String> lines = sampleLines(3);
+        Path file = directory.resolve("access.log");
+        write(file, lines.get(0) + "\n");
+
+        try (LogTailer tailer = new LogTailer()) {
+            assertEquals(parse(lines.get(0)), poll(tailer, file));
+            assertEquals(List.of(), poll(tailer, file));
+
+            // Незавершенная строка разбирается только после перевода строки
+            append(file, lines.get(1).substring(0, 10));
+            assertEquals(List.of(), poll(tailer, file));
+            append(file, lines.get(1).substring(10) + "\n" + lines.get(2) + "\n");
+            assertEquals(parse(lines.get(1), lines.get(2)), poll(tailer, file));
+        }
+    }
+
+    @Test
+    void streamLogs_renamedFile_drainsOldAndReadsNewFromStart() throws IOException {
+        List<String> lines = sampleLines(4);
+        Path file = directory.resolve("access.log");
+        write(file, lines.get(0) + "\n");
+
+        try (LogTailer tailer = new LogTailer()) {
+            assertEquals(parse(lines.get(0)), poll(tailer, file));
+
+            append(file, lines.get(1) + "\n");
+            Files.move(file, directory.resolve("access.log.1"));
+            write(file, lines.get(2) + "\n" + lines.get(3) + "\n");
+
+            assertEquals(parse(lines.get(1), lines.get(2), lines.get(3)), poll(tailer, file));
+        }
+    }
+
+    @Test
+    void streamLogs_truncatedFile_isReadFromStart() throws IOException {
+        List<String> lines = sampleLines(3);
+        Path file = directory.resolve("access.log");
+        write(file, lines.get(0) + "\n" + lines.get(1) + "\n");
+
+        try (LogTailer tailer = new LogTailer()) {
+            assertEquals(parse(lines.get(0), lines.get(1)), poll(tailer, file));
+
+            write(file, lines.get(2) + "\n");
+
+            assertEquals(parse(lines.get(2)), poll(tailer, file));
+        }
+    }
+
+    @Test
+    void streamLogs_prefilterAndFields_matchFileReader() throws IOException {
+        List<String> lines = sampleLines(200);
+        Path file = directory.resolve("access.log");
+        write(file, String.join("\n", lines.subList(0, 120)) + "\nnot a log line\n");
+        StatusSizePredicate notFound = (statusCode, responseSize) -> statusCode == 404;
+        FieldMask fields = FieldMask.NONE.with(FieldMask.RESOURCE);
+        LogFileReader reader = new LogFileReader();
+        reader.setPrefilter(notFound);
+        reader.setFields(fields);
+
+        try (LogTailer tailer = new LogTailer()) {
+            tailer.setPrefilter(notFound);
+            tailer.setFields(fields);
+            List<NginxLog> logs = poll(tailer, file);
+            append(file, String.join("\n", lines.subList(120, 200)) + "\n");
+            logs = Stream.concat(logs.stream(), poll(tailer, file).stream()).toList();
+
+            assertEquals(reader.readLogs(List.of(file.toString())), logs);
+            assertEquals(50, logs.size());
+            assertEquals(1, tailer.getRejectedLines().summary().get(file.toString()).count());
+        }
+    }
+
+    @Test
+    void streamLogs_directory_throws() throws IOException {
+        try (LogTailer tailer = new LogTailer()) {
+            assertThrows(IllegalArgumentException.class, () -> tailer.streamLogs(List.of(directory.toString())));
+        }
+    }
+
+    @Test
+    void incrementalAnalysis_matchesSingleRun() throws IOException {
+        List<String> lines = sampleLines(200);
+        Path file = directory.resolve("access.log");
+        write(file, String.join("\n", lines.subList(0, 120)) + "\n");
+        IncrementalAnalysis analysis = new IncrementalAnalysis(new Analyzer(), AnalysisOptions.DEFAULT,
+            Map.of("statusCode", "404"), null, null);
+
+        try (LogTailer tailer = new LogTailer()) {
+            try (Stream<NginxLog> logs = tailer.streamLogs(List.of(file.toString()))) {
+                analysis.accept(logs);
+            }
+            analysis.metrics();
+            append(file, String.join("\n", lines.subList(120, 200)) + "\n");
+            try (Stream<NginxLog> logs = tailer.streamLogs(List.of(file.toString()))) {
+                analysis.accept(logs);
+            }
+        }
+
+        Metrics expected = new Analyzer().analyze(new LogFileReader().readLogs(List.of(file.toString())),
+            Map.of("statusCode", "404"));
+        assertEquals(expected, analysis.metrics());
+    }
+
+    private static List<String> sampleLines(int count) throws IOException {
+        try (Stream<String> lines = Files.lines(Path.of(SAMPLE_LOG))) {
+            return lines.limit(count).toList();
+        }
+    }
+
+    private static List<NginxLog> poll(LogTailer tailer, Path file) {
+        return tailer.readLogs(List.of(file.toString()));
+    }
+
+    private List<NginxLog> parse(String... lines) throws IOException {
+        Path file = directory.resolve("expected.txt");
+        Files.writeString(file, String.join("\n", lines), StandardCharsets.UTF_8);
+        return new LogFileReader().readLogs(List.of(file.toString()));
+    }
+
+    private static void write(Path file, String content) throws IOException {
+        Files.writeString(file, content, StandardCharsets.UTF_8);
+    }
+
+    private static void append(Path file, String content) throws IOException {
+        Files.writeString(file, content, StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+    }
+}
@@ -0,0 +1,158 @@
+import backend.academy.nginx.NginxLog;
+import backend.academy.readers.LogFileReader;
+import backend.academy.readers.LogUrlReader;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LogUrlReaderTest {
+
+    private static final String SAMPLE_LOG = "src/main/java/backend/academy/Files/logs.txt";
+    private static final String ETAG = "\"logs-v1\"";
+
+    @Test
+    void streamLogs_plainResponse_readsBodyWithSingleRequest() throws IOException {
+        byte[] body = Files.readAllBytes(Path.of(SAMPLE_LOG));
+        List<String> ranges = new CopyOnWriteArrayList<>();
+        HttpServer server = start(exchange -> {
+            ranges.add(String.valueOf(exchange.getRequestHeaders().getFirst("Range")));
+            send(exchange, 200, body);
+        });
+
+        try {
+            List<NginxLog> logs = new LogUrlReader().readLogs(List.of(url(server)));
+
+            assertEquals(new LogFileReader().readLogs(List.of(SAMPLE_LOG)), logs);
+            assertEquals(List.of("null"), ranges);
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    @Test
+    void streamLogs_gzipContentEncoding_isDecoded() throws IOException {
+        byte[] body = gzip(Files.readAllBytes(Path.of(SAMPLE_LOG)));
+        List<String> acceptEncodings = new CopyOnWriteArrayList<>();
+        HttpServer server = start(exchange -> {
+            acceptEncodings.add(exchange.getRequestHeaders().getFirst("Accept-Encoding"));
+            exchange.getResponseHeaders().set("Content-Encoding", "gzip");
+            send(exchange, 200, body);
+        });
+
+        try {
+            List<NginxLog> logs = new LogUrlReader().readLogs(List.of(url(server)));
+
+            assertEquals(new LogFileReader().readLogs(List.of(SAMPLE_LOG)), logs);
+            assertTrue(acceptEncodings.getFirst().contains("gzip"));
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    @Test
+    void streamLogs_connectionDropped_resumesWithRange() throws IOException {
+        byte[] body = Files.readAllBytes(Path.of(SAMPLE_LOG));
+        int cut = body.length / 3;
+        List<String> ranges = new CopyOnWriteArrayList<>();
+        HttpServer server = start(exchange -> {
+            String range = exchange.getRequestHeaders().getFirst("Range");
+            ranges.add(String.valueOf(range));
+            exchange.getResponseHeaders().set("Accept-Ranges", "bytes");
+            exchange.getResponseHeaders().set("ETag", ETAG);
+            if (range == null) {
+                // Объявляем полную длину, но закрываем соединение после трети тела
+                exchange.sendResponseHeaders(200, body.length);
+                OutputStream out = exchange.getResponseBody();
+                out.write(body, 0, cut);
+                out.flush();
+                exchange.close();
+                return;
+            }
+            int from = Integer.parseInt(range.substring("bytes=".length(), range.length() - 1));
+            exchange.getResponseHeaders().set("Content-Range",
+                "bytes " + from + "-" + (body.length - 1) + "/" + body.length);
+            send(exchange, 206, Arrays.copyOfRange(body, from, body.length));
+        });
+
+        try {
+            List<NginxLog> logs = new LogUrlReader().readLogs(List.of(url(server)));
+
+            assertEquals(new LogFileReader().readLogs(List.of(SAMPLE_LOG)), logs);
+            assertEquals(List.of("null", "bytes=" + cut + "-"), ranges);
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    @Test
+    void streamLogs_errorStatus_skipsSourceAfterOneRequest() throws IOException {
+        List<String> ranges = new CopyOnWriteArrayList<>();
+        HttpServer server = start(exchange -> {
+            ranges.add(String.valueOf(exchange.getRequestHeaders().getFirst("Range")));
+            send(exchange, 404, new byte[0]);
+        });
+
+        try (Stream<NginxLog> logs = new LogUrlReader().streamLogs(List.of(url(server)))) {
+            assertEquals(0, logs.count());
+            assertEquals(1, ranges.size());
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    @Test
+    void streamLogs_unsupportedContentEncoding_skipsSource() throws IOException {
+        HttpServer server = start(exchange -> {
+            exchange.getResponseHeaders().set("Content-Encoding", "br");
+            send(exchange, 200, new byte[] {1, 2, 3});
+        });
+
+        try (Stream<NginxLog> logs = new LogUrlReader().streamLogs(List.of(url(server)))) {
+            assertNull(logs.findFirst().orElse(null));
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    private static HttpServer start(HttpHandler handler) throws IOException {
+        HttpServer server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/", handler);
+        server.start();
+        return server;
+    }
+
+    private static String url(HttpServer server) {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + "/access.log";
+    }
+
+    private static void send(HttpExchange exchange, int status, byte[] body) throws IOException {
+        exchange.sendResponseHeaders(status, body.length == 0 ? -1 : body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private static byte[] gzip(byte[] content) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (GZIPOutputStream out = new GZIPOutputStream(bytes)) {
+            out.write(content);
+        }
+        return bytes.toByteArray();
+    }
+}
@@ -0,0 +1,98 @@
+import backend.academy.analyzer.AnalysisOptions;
+import backend.academy.analyzer.Analyzer;
+import backend.academy.datefilter.TimeRange;
+import backend.academy.filter.StatusSizePredicate;
+import backend.academy.nginx.FieldMask;
+import backend.academy.nginx.NginxLog;
+import backend.academy.query.MultiQueryAnalysis;
+import backend.academy.query.Query;
+import backend.academy.query.QueryFile;
+import backend.academy.readers.LogFileReader;
+import backend.academy.series.SeriesInterval;
+import backend.academy.statistic.Metrics;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MultiQueryAnalysisTest {
+
+    private static final String SAMPLE_LOG = "src/main/java/backend/academy/Files/logs.txt";
+    private static final String MORNING_FROM = "17/May/2015:08:00:00 +0000";
+    private static final String MORNING_TO = "17/May/2015:12:00:00 +0000";
+
+    @Test
+    void accept_singlePass_matchesSeparateAnalyses() throws IOException {
+        Path file = Files.createTempFile("queries", ".properties");
+        file.toFile().deleteOnExit();
+        Files.writeString(file, String.join("\n",
+            "all.top=5",
+            "notFound.filter.statusCode=404",
+            "notFound.dimension=ipAddress",
+            "morning.from=" + MORNING_FROM,
+            "morning.to=" + MORNING_TO,
+            "morning.series=hour"), StandardCharsets.UTF_8);
+        List<Query> queries = QueryFile.load(file, AnalysisOptions.DEFAULT, "markdown");
+        MultiQueryAnalysis analysis = new MultiQueryAnalysis(queries);
+        LogFileReader reader = new LogFileReader(4096);
+        reader.setPrefilter(analysis.prefilter());
+        reader.setFields(analysis.requiredFields());
+        reader.setTimeRange(analysis.timeRange());
+
+        try (Stream<NginxLog> logs = reader.streamLogs(List.of(SAMPLE_LOG)).parallel()) {
+            analysis.accept(logs);
+        }
+        List<Metrics> metrics = analysis.metrics();
+
+        List<NginxLog> logs = new LogFileReader().readLogs(List.of(SAMPLE_LOG));
+        assertEquals(List.of("all", "morning", "notFound"), queries.stream().map(Query::name).toList());
+        assertEquals(new Analyzer(queries.get(0).options()).analyze(logs), metrics.get(0));
+        assertEquals(new Analyzer(queries.get(1).options()).analyze(logs, MORNING_FROM, MORNING_TO), metrics.get(1));
+        assertEquals(new Analyzer(queries.get(2).options()).analyze(logs, Map.of("statusCode", "404")),
+            metrics.get(2));
+        assertEquals(FieldMask.NONE.with(FieldMask.IP_ADDRESS).with(FieldMask.RESOURCE).with(FieldMask.TIMESTAMP),
+            analysis.requiredFields());
+        assertSame(StatusSizePredicate.ALWAYS, analysis.prefilter());
+        assertSame(TimeRange.ALL, analysis.timeRange());
+    }
+
+    @Test
+    void parse_missingParameters_areTakenFromDefaults() {
+        Properties properties = new Properties();
+        properties.setProperty("errors.filter.statusCode", "5xx");
+        properties.setProperty("errors.format", "adoc");
+        properties.setProperty("daily.series", "day");
+        AnalysisOptions defaults = new AnalysisOptions(AnalysisOptions.DEFAULT.quantileEngine(), List.of(99.0));
+
+        List<Query> queries = QueryFile.parse(properties, defaults, "markdown");
+        StatusSizePredicate errorsOnly = new MultiQueryAnalysis(List.of(queries.get(1))).prefilter();
+
+        assertEquals(new Query("daily", Map.of(), null, null, new AnalysisOptions(defaults.quantileEngine(),
+            List.of(99.0), 0, AnalysisOptions.DEFAULT_TOP_SIZE, List.of(), SeriesInterval.DAY), "markdown"),
+            queries.get(0));
+        assertEquals(new Query("errors", Map.of("statusCode", "5xx"), null, null, defaults, "adoc"), queries.get(1));
+        assertTrue(errorsOnly.test(503, 0));
+        assertFalse(errorsOnly.test(404, 0));
+    }
+
+    @Test
+    void parse_invalidParameters_throwIllegalArgumentException() {
+        for (String key : List.of("errors.unknown", "errors", "bad/name.top", "errors.top", "errors.series")) {
+            Properties properties = new Properties();
+            properties.setProperty(key, "x");
+
+            assertThrows(IllegalArgumentException.class,
+                () -> QueryFile.parse(properties, AnalysisOptions.DEFAULT, "markdown"));
+        }
+    }
+}
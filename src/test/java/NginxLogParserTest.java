@@ -1,13 +1,25 @@
+import backend.academy.filter.StatusSizePredicate;
+import backend.academy.nginx.ByteNginxLogParser;
+import backend.academy.nginx.FieldMask;
 import backend.academy.nginx.NginxLog;
 import backend.academy.nginx.NginxLogParser;
+import backend.academy.nginx.RegexNginxLogParser;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
 import org.junit.jupiter.api.Test;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
 class NginxLogParserTest {
 
     private static final String VALID_LOG_LINE =
         "192.168.1.1 - - [21/Jul/2023:12:00:00 +0000] \"GET /index.html HTTP/1.1\" 200 1234 \"-\" \"Mozilla/5.0\"";
+    private static final Path SAMPLE_LOG = Path.of("src/main/java/backend/academy/Files/logs.txt");
 
     @Test
     void parseLogLine_validLogLine_returnsNginxLogObject() {
@@ -28,4 +40,91 @@ class NginxLogParserTest {
 
         assertThrows(IllegalArgumentException.class, () -> NginxLogParser.parseLogLine(invalidLogLine));
     }
+
+    @Test
+    void parseLogLine_sampleLog_matchesRegexParser() throws IOException {
+        List<String> lines = Files.readAllLines(SAMPLE_LOG, StandardCharsets.UTF_8);
+
+        for (String line : lines) {
+            assertEquals(RegexNginxLogParser.parseLogLine(line), NginxLogParser.parseLogLine(line));
+        }
+    }
+
+    @Test
+    void parseLogLine_quotesInsideQuotedFields_matchesRegexParser() {
+        String line = "10.0.0.1 - - [21/Jul/2023:12:00:00 +0000] \"GET /a\"b HTTP/1.1\" 304 0 "
+            + "\"http://x/\"y\" \"Agent \"quoted\" (1.0)\"";
+
+        assertEquals(RegexNginxLogParser.parseLogLine(line), NginxLogParser.parseLogLine(line));
+    }
+
+    @Test
+    void parseLogLine_malformedLines_throwIllegalArgumentException() {
+        List<String> malformed = List.of(
+            "",
+            "192.168.1.1 - - [21/Jul/2023:12:00:00 +0000] \"GET /index.html HTTP/1.1\" 200 1234 \"-\"",
+            "192.168.1.1 - - [21/Jul/2023:12:00:00 +0000] \"GET  /index.html HTTP/1.1\" 200 1234 \"-\" \"-\"",
+            "192.168.1.1 - - [21/Jul/2023:12:00:00 +0000] \"GET /index.html HTTP/1.1\" 2x0 1234 \"-\" \"-\"",
+            "192.168.1.1 - - [21/Jul/2023:12:00:00 +0000] \"GET /index.html HTTP/1.1\" 200 99999999999 \"-\" \"-\"",
+            "192.168.1.1 - - [] \"GET /index.html HTTP/1.1\" 200 1234 \"-\" \"-\"",
+            "192.168.1.1 user - [21/Jul/2023:12:00:00 +0000] \"GET /index.html HTTP/1.1\" 200 1234 \"-\" \"-\""
+        );
+
+        for (String line : malformed) {
+            assertThrows(IllegalArgumentException.class, () -> RegexNginxLogParser.parseLogLine(line));
+            assertThrows(IllegalArgumentException.class, () -> NginxLogParser.parseLogLine(line));
+        }
+    }
+
+    @Test
+    void tryParseLogLine_malformedLines_returnInvalidWithoutException() {
+        List<String> malformed = List.of(
+            "",
+            "Invalid log line",
+            "192.168.1.1 - - [21/Jul/2023:12:00:00 +0000] \"GET /index.html HTTP/1.1\" 2x0 1234 \"-\" \"-\"",
+            "192.168.1.1 - - [21/Jul/2023:12:00:00 +0000] \"GET /index.html HTTP/1.1\" 200 99999999999 \"-\" \"-\"",
+            "192.168.1.1 - - [21/Jul/2023:12:00:00 +0000] \"GET /index.html\" 200 1234 \"-\" \"-\""
+        );
+
+        for (String line : malformed) {
+            assertSame(NginxLogParser.INVALID, NginxLogParser.tryParseLogLine(line, StatusSizePredicate.ALWAYS));
+        }
+        assertEquals(NginxLogParser.parseLogLine(VALID_LOG_LINE),
+            NginxLogParser.tryParseLogLine(VALID_LOG_LINE, StatusSizePredicate.ALWAYS));
+    }
+
+    @Test
+    void tryParseLogLine_fieldMask_copiesOnlyRequestedFields() {
+        FieldMask fields = FieldMask.NONE.with(FieldMask.RESOURCE).with("timestamp");
+
+        NginxLog log = NginxLogParser.tryParseLogLine(VALID_LOG_LINE, StatusSizePredicate.ALWAYS, fields);
+
+        assertEquals(new NginxLog("-", "-", "-", "21/Jul/2023:12:00:00 +0000", "-", "/index.html", "-", 200, 1234),
+            log);
+        assertSame(NginxLogParser.INVALID,
+            NginxLogParser.tryParseLogLine("Invalid log line", StatusSizePredicate.ALWAYS, FieldMask.NONE));
+    }
+
+    @Test
+    void byteParser_sampleAndMalformedLines_matchStringParser() throws IOException {
+        List<String> lines = new ArrayList<>(Files.readAllLines(SAMPLE_LOG, StandardCharsets.UTF_8));
+        lines.add("10.0.0.1 - - [21/Jul/2023:12:00:00 +0000] \"GET /файл.html HTTP/1.1\" 200 5 \"-\" \"Агент\"");
+        lines.add("10.0.0.1 - - [21/Jul/2023:12:00:00 +0000] \"GET /a\"b HTTP/1.1\" 304 0 \"x\"y\" \"z\"");
+        lines.add("192.168.1.1 - - [21/Jul/2023:12:00:00 +0000] \"GET /index.html HTTP/1.1\" 2x0 1234 \"-\" \"-\"");
+        lines.add("192.168.1.1 - - [] \"GET /index.html HTTP/1.1\" 200 1234 \"-\" \"-\"");
+        lines.add("Invalid log line");
+        lines.add("");
+
+        for (String line : lines) {
+            byte[] bytes = ("#" + line).getBytes(StandardCharsets.UTF_8);
+            NginxLog expected = NginxLogParser.tryParseLogLine(line, StatusSizePredicate.ALWAYS);
+            NginxLog actual = ByteNginxLogParser.tryParseLogLine(bytes, 1, bytes.length,
+                StatusSizePredicate.ALWAYS, FieldMask.ALL);
+            if (expected == NginxLogParser.INVALID) {
+                assertSame(NginxLogParser.INVALID, actual);
+            } else {
+                assertEquals(expected, actual);
+            }
+        }
+    }
 }
@@ -0,0 +1,188 @@
+import backend.academy.analyzer.AnalysisOptions;
+import backend.academy.analyzer.AnalyzerLogic;
+import backend.academy.nginx.NginxLog;
+import backend.academy.quantile.ExactQuantileSketch;
+import backend.academy.quantile.HdrQuantileSketch;
+import backend.academy.quantile.QuantileEngine;
+import backend.academy.quantile.QuantileSketch;
+import backend.academy.quantile.TDigestQuantileSketch;
+import backend.academy.statistic.Metrics;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class QuantileSketchTest {
+
+    private static final int VALUES = 200_000;
+    private static final double[] FRACTIONS = {0.25, 0.5, 0.95, 0.99, 0.999};
+
+    @Test
+    void exact_returnsNearestRank() {
+        QuantileSketch sketch = new ExactQuantileSketch();
+        for (long value = 10; value >= 1; value--) {
+            sketch.add(value * 100);
+        }
+
+        assertEquals(300, sketch.quantile(0.25));
+        assertEquals(500, sketch.quantile(0.5));
+        assertEquals(1000, sketch.quantile(0.95));
+        assertEquals(100, sketch.quantile(0.0));
+    }
+
+    @Test
+    void hdr_smallValuesAreExact() {
+        QuantileSketch sketch = new HdrQuantileSketch();
+        QuantileSketch exact = new ExactQuantileSketch();
+        for (long value = 0; value < 256; value++) {
+            sketch.add(value);
+            exact.add(value);
+        }
+
+        for (double fraction : FRACTIONS) {
+            assertEquals(exact.quantile(fraction), sketch.quantile(fraction));
+        }
+    }
+
+    @Test
+    void hdr_relativeErrorIsWithinBound() {
+        long[] values = randomSizes();
+        QuantileSketch sketch = fill(new HdrQuantileSketch(), values);
+        Arrays.sort(values);
+
+        for (double fraction : FRACTIONS) {
+            long expected = nearestRank(values, fraction);
+            double error = Math.abs(sketch.quantile(fraction) - expected) / (double) expected;
+            assertTrue(error <= 1.0 / (1 << (HdrQuantileSketch.DEFAULT_PRECISION_BITS + 1)));
+        }
+    }
+
+    @Test
+    void tdigest_rankErrorIsWithinBound() {
+        long[] values = randomSizes();
+        QuantileSketch sketch = fill(new TDigestQuantileSketch(), values);
+        QuantileSketch first = new TDigestQuantileSketch();
+        QuantileSketch second = new TDigestQuantileSketch();
+        for (int i = 0; i < values.length; i++) {
+            (i % 3 == 0 ? first : second).add(values[i]);
+        }
+        QuantileSketch merged = first.merge(second);
+        Arrays.sort(values);
+
+        for (double fraction : FRACTIONS) {
+            double bound = 2 * Math.PI * Math.sqrt(fraction * (1 - fraction))
+                / TDigestQuantileSketch.DEFAULT_COMPRESSION;
+            assertTrue(Math.abs(rankOf(values, sketch.quantile(fraction)) - fraction) <= bound);
+            assertTrue(Math.abs(rankOf(values, merged.quantile(fraction)) - fraction) <= bound);
+        }
+        assertEquals(values.length, merged.count());
+    }
+
+    @Test
+    void tdigest_mergeIntoEmpty_keepsCentroidsOfOther() {
+        long[] values = randomSizes();
+        QuantileSketch sketch = fill(new TDigestQuantileSketch(), values);
+
+        QuantileSketch merged = new TDigestQuantileSketch().merge(sketch);
+
+        for (double fraction : FRACTIONS) {
+            assertEquals(sketch.quantile(fraction), merged.quantile(fraction));
+        }
+    }
+
+    @Test
+    void merge_exactAndHdr_matchSingleSketch() {
+        long[] values = randomSizes();
+        for (QuantileEngine engine : List.of(QuantileEngine.EXACT, QuantileEngine.HDR)) {
+            QuantileSketch whole = fill(engine.create(), values);
+            QuantileSketch first = engine.create();
+            QuantileSketch second = engine.create();
+            for (int i = 0; i < values.length; i++) {
+                (i % 3 == 0 ? first : second).add(values[i]);
+            }
+
+            QuantileSketch merged = first.merge(second);
+
+            assertEquals(whole.count(), merged.count());
+            for (double fraction : FRACTIONS) {
+                assertEquals(whole.quantile(fraction), merged.quantile(fraction));
+            }
+        }
+    }
+
+    @Test
+    void writeTo_restoredSketchAnswersAndMergesLikeOriginal() throws IOException {
+        long[] values = randomSizes();
+        for (QuantileEngine engine : QuantileEngine.values()) {
+            QuantileSketch original = fill(engine.create(), values);
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            original.writeTo(new DataOutputStream(bytes));
+
+            QuantileSketch restored = engine.read(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+
+            assertEquals(original.count(), restored.count());
+            for (double fraction : FRACTIONS) {
+                assertEquals(original.quantile(fraction), restored.quantile(fraction));
+            }
+            restored.add(values[0]);
+            assertEquals(original.count() + 1, restored.merge(engine.create()).count());
+        }
+    }
+
+    @Test
+    void generateMetrics_includesRequestedPercentiles() {
+        AnalyzerLogic logic = new AnalyzerLogic(new AnalysisOptions(QuantileEngine.EXACT, List.of(99.0, 99.9)));
+        Stream<NginxLog> logs = Stream.iterate(1, i -> i <= 1000, i -> i + 1)
+            .map(i -> new NginxLog("192.168.1.1", "-", "-", "21/Jul/2023:12:00:00 +0000", "GET", "/index.html",
+                "HTTP/1.1", 200, i));
+
+        Metrics metrics = logic.analyzeLogs(logs);
+
+        assertEquals(990L, metrics.percentiles().get(99.0));
+        assertEquals(999L, metrics.percentiles().get(99.9));
+        assertEquals(950, metrics.percentile95());
+    }
+
+    private static long[] randomSizes() {
+        Random random = new Random(42);
+        long[] values = new long[VALUES];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = (long) Math.exp(random.nextGaussian() * 2 + 8);
+        }
+        return values;
+    }
+
+    private static QuantileSketch fill(QuantileSketch sketch, long[] values) {
+        for (long value : values) {
+            sketch.add(value);
+        }
+        return sketch;
+    }
+
+    private static long nearestRank(long[] sorted, double fraction) {
+        int index = (int) Math.ceil(sorted.length * fraction) - 1;
+        return sorted[Math.max(index, 0)];
+    }
+
+    private static double rankOf(long[] sorted, long value) {
+        int low = 0;
+        int high = sorted.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (sorted[middle] <= value) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return (double) low / sorted.length;
+    }
+}
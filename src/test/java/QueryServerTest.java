@@ -0,0 +1,90 @@
+import backend.academy.analyzer.AnalysisOptions;
+import backend.academy.analyzer.Analyzer;
+import backend.academy.quantile.QuantileEngine;
+import backend.academy.readers.LogFileReader;
+import backend.academy.reportformats.MarkdownFormater;
+import backend.academy.server.QueryServer;
+import backend.academy.statistic.Metrics;
+import backend.academy.table.LogTable;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class QueryServerTest {
+
+    private static final String SAMPLE_LOG = "src/main/java/backend/academy/Files/logs.txt";
+    private static final String FROM = "17/May/2015:08:00:00 +0000";
+    private static final String TO = "17/May/2015:12:00:00 +0000";
+    private static final AnalysisOptions OPTIONS = new AnalysisOptions(QuantileEngine.EXACT, List.of(99.0));
+
+    @Test
+    void metrics_filterAndTimeParameters_matchCommandLineAnalysis() throws IOException, InterruptedException {
+        LogTable table = new LogFileReader().readTable(List.of(SAMPLE_LOG));
+        Analyzer analyzer = new Analyzer(OPTIONS);
+
+        try (QueryServer server = new QueryServer(table, analyzer, Map.of())) {
+            server.start(0);
+            HttpResponse<String> json = get(server, "filter=statusCode-404&from=" + encode(FROM) + "&to=" + encode(TO));
+            HttpResponse<String> markdown = get(server, "filter=statusCode-404&format=markdown");
+
+            Metrics expected = new Analyzer(OPTIONS).analyze(table, Map.of("statusCode", "404"), FROM, TO);
+            assertEquals(200, json.statusCode());
+            assertEquals(expected, new ObjectMapper().readValue(json.body(), Metrics.class));
+            assertEquals(200, markdown.statusCode());
+            assertEquals(new MarkdownFormater().format(new Analyzer(OPTIONS).analyze(table,
+                Map.of("statusCode", "404"))), markdown.body());
+        }
+    }
+
+    @Test
+    void metrics_invalidParameter_returnsBadRequest() throws IOException, InterruptedException {
+        LogTable table = new LogFileReader().readTable(List.of(SAMPLE_LOG));
+
+        try (QueryServer server = new QueryServer(table, new Analyzer(OPTIONS), Map.of())) {
+            server.start(0);
+            HttpResponse<String> badFilter = get(server, "filter=statusCode-abc");
+            HttpResponse<String> badDate = get(server, "from=yesterday&to=today");
+
+            assertEquals(400, badFilter.statusCode());
+            assertTrue(badFilter.body().contains("error"));
+            assertEquals(400, badDate.statusCode());
+        }
+    }
+
+    @Test
+    void start_withoutAddress_bindsToLoopbackOnly() throws IOException {
+        LogTable table = new LogFileReader().readTable(List.of(SAMPLE_LOG));
+
+        try (QueryServer local = new QueryServer(table, new Analyzer(OPTIONS), Map.of());
+             QueryServer all = new QueryServer(table, new Analyzer(OPTIONS), Map.of())) {
+            local.start(0);
+            all.start(InetAddress.getByName("0.0.0.0"), 0);
+
+            assertTrue(local.address().isLoopbackAddress());
+            assertTrue(all.address().isAnyLocalAddress());
+        }
+    }
+
+    private static HttpResponse<String> get(QueryServer server, String query) throws IOException, InterruptedException {
+        URI uri = URI.create("http://127.0.0.1:" + server.port() + QueryServer.METRICS_PATH + "?" + query);
+        try (HttpClient client = HttpClient.newHttpClient()) {
+            return client.send(HttpRequest.newBuilder(uri).GET().build(),
+                HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8));
+        }
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+}
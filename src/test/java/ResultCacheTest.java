@@ -0,0 +1,65 @@
+import backend.academy.analyzer.AnalysisOptions;
+import backend.academy.analyzer.Analyzer;
+import backend.academy.cache.CachedResult;
+import backend.academy.cache.ResultCache;
+import backend.academy.dimension.Dimension;
+import backend.academy.quantile.QuantileEngine;
+import backend.academy.readers.LogFileReader;
+import backend.academy.series.SeriesInterval;
+import backend.academy.statistic.Metrics;
+import backend.academy.statistic.RejectedLines;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class ResultCacheTest {
+
+    private static final String SAMPLE_LOG = "src/main/java/backend/academy/Files/logs.txt";
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void get_afterPutInAnotherInstance_returnsStoredMetricsAndReport() throws IOException {
+        AnalysisOptions options = new AnalysisOptions(QuantileEngine.HDR, List.of(99.9), 0,
+            AnalysisOptions.DEFAULT_TOP_SIZE, List.of(Dimension.parse("ipAddress")), SeriesInterval.HOUR);
+        Metrics metrics = new Analyzer(options).analyze(new LogFileReader().readLogs(List.of(SAMPLE_LOG)))
+            .withRejectedLines(Map.of("access.log", new RejectedLines(2, List.of("bad line"))));
+        String key = ResultCache.key("format=markdown", List.of(Path.of(SAMPLE_LOG)));
+
+        new ResultCache(directory, ResultCache.DEFAULT_MEMORY_ENTRIES).put(key, new CachedResult(metrics, "# report"));
+        ResultCache cache = new ResultCache(directory, ResultCache.DEFAULT_MEMORY_ENTRIES);
+
+        assertEquals(new CachedResult(metrics, "# report"), cache.get(key));
+        assertNull(cache.get(ResultCache.key("format=adoc", List.of(Path.of(SAMPLE_LOG)))));
+    }
+
+    @Test
+    void key_changedFileOrQuery_changesKey() throws IOException {
+        Path file = directory.resolve("access.txt");
+        List<String> lines = Files.readAllLines(Path.of(SAMPLE_LOG), StandardCharsets.UTF_8);
+        Files.write(file, lines.subList(0, 100), StandardCharsets.UTF_8);
+        FileTime modified = Files.getLastModifiedTime(file);
+
+        String key = ResultCache.key("filters={}", List.of(file));
+
+        assertEquals(key, ResultCache.key("filters={}", List.of(file)));
+        assertNotEquals(key, ResultCache.key("filters={statusCode=404}", List.of(file)));
+        Files.write(file, lines.subList(100, 101), StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+        assertNotEquals(key, ResultCache.key("filters={}", List.of(file)));
+        // Перезапись тем же объемом данных распознается по времени изменения и отпечатку начала файла
+        Files.write(file, lines.subList(1, 101), StandardCharsets.UTF_8);
+        Files.setLastModifiedTime(file, modified);
+        assertNotEquals(key, ResultCache.key("filters={}", List.of(file)));
+    }
+}
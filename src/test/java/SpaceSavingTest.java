@@ -0,0 +1,131 @@
+import backend.academy.analyzer.AnalysisOptions;
+import backend.academy.analyzer.AnalyzerLogic;
+import backend.academy.analyzer.LogAccumulator;
+import backend.academy.nginx.NginxLog;
+import backend.academy.quantile.QuantileEngine;
+import backend.academy.readers.LogFileReader;
+import backend.academy.topk.SpaceSaving;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SpaceSavingTest {
+
+    private static final String SAMPLE_LOG = "src/main/java/backend/academy/Files/logs.txt";
+    private static final int ITEMS = 100_000;
+    private static final int CAPACITY = 200;
+
+    @Test
+    void add_belowCapacity_countsExactly() {
+        SpaceSaving sketch = new SpaceSaving(10);
+        sketch.add("/a", 1);
+        sketch.add("/b", 3);
+        sketch.add("/a", 1);
+
+        assertEquals(Map.of("/a", 2L, "/b", 3L), sketch.counts());
+        assertEquals(0, sketch.maxError());
+        assertEquals(List.of("/b", "/a"), List.copyOf(sketch.top(2).keySet()));
+    }
+
+    @Test
+    void add_skewedStream_keepsHeavyHittersWithinBound() {
+        List<String> items = skewedItems(new Random(42), ITEMS);
+        SpaceSaving sketch = new SpaceSaving(CAPACITY);
+        items.forEach(item -> sketch.add(item, 1));
+
+        assertWithinBound(exactCounts(items), sketch, ITEMS);
+        assertEquals(exactTop(exactCounts(items), 3), sketch.top(3).keySet());
+    }
+
+    @Test
+    void merge_partialSketches_keepsHeavyHittersWithinBound() {
+        List<String> items = skewedItems(new Random(7), ITEMS);
+        SpaceSaving merged = new SpaceSaving(CAPACITY);
+        for (int part = 0; part < 4; part++) {
+            SpaceSaving sketch = new SpaceSaving(CAPACITY);
+            items.subList(part * ITEMS / 4, (part + 1) * ITEMS / 4).forEach(item -> sketch.add(item, 1));
+            merged.merge(sketch);
+        }
+
+        assertEquals(ITEMS, merged.total());
+        assertWithinBound(exactCounts(items), merged, ITEMS);
+    }
+
+    @Test
+    void writeTo_readFrom_restoresCounters() throws IOException {
+        SpaceSaving sketch = new SpaceSaving(CAPACITY);
+        skewedItems(new Random(1), 10_000).forEach(item -> sketch.add(item, 1));
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        sketch.writeTo(new DataOutputStream(bytes));
+
+        SpaceSaving restored =
+            SpaceSaving.readFrom(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+
+        assertEquals(sketch.counts(), restored.counts());
+        assertEquals(sketch.total(), restored.total());
+        assertEquals(sketch.maxError(), restored.maxError());
+    }
+
+    @Test
+    void boundedAccumulator_sampleLogs_matchesExactTopResources() {
+        List<NginxLog> logs = new LogFileReader().readLogs(List.of(SAMPLE_LOG));
+        AnalysisOptions bounded = new AnalysisOptions(QuantileEngine.HDR, List.of(), 2);
+
+        LogAccumulator exact = logs.stream().collect(LogAccumulator.collector());
+        LogAccumulator approximate = logs.parallelStream().collect(LogAccumulator.collector(bounded));
+
+        AnalyzerLogic logic = new AnalyzerLogic();
+        String expected = logic.generateMetrics(exact, "-", "-").topResources().keySet().iterator().next();
+        Map<String, Long> approximateTop = logic.generateMetrics(approximate, "-", "-").topResources();
+        assertEquals(expected, approximateTop.keySet().iterator().next());
+        assertTrue(approximateTop.get(expected) >= exact.getResourceCountMap().get(expected));
+        assertTrue(approximate.getResourceCountMap().size() <= 2);
+    }
+
+    private static void assertWithinBound(Map<String, Long> exact, SpaceSaving sketch, long total) {
+        long bound = total / sketch.capacity();
+        Map<String, Long> estimates = sketch.counts();
+        exact.forEach((item, count) -> {
+            Long estimate = estimates.get(item);
+            if (count > bound) {
+                assertTrue(estimate != null, item);
+            }
+            if (estimate != null) {
+                assertTrue(estimate >= count && estimate - count <= sketch.error(item) && sketch.error(item) <= bound,
+                    item);
+            }
+        });
+    }
+
+    /**
+     * Ресурсы с распределением, близким к закону Ципфа: несколько частых и длинный хвост редких.
+     */
+    private static List<String> skewedItems(Random random, int count) {
+        return random.ints(count, 0, 1_000_000)
+            .mapToObj(value -> "/resource_" + (int) Math.floor(1_000_000.0 / (value + 1)))
+            .toList();
+    }
+
+    private static Map<String, Long> exactCounts(List<String> items) {
+        Map<String, Long> counts = new HashMap<>();
+        items.forEach(item -> counts.merge(item, 1L, Long::sum));
+        return counts;
+    }
+
+    private static Set<String> exactTop(Map<String, Long> counts, int k) {
+        return new AnalyzerLogic().findMostPopularResources(counts).keySet().stream()
+            .limit(k)
+            .collect(Collectors.toSet());
+    }
+}
@@ -0,0 +1,74 @@
+import backend.academy.nginx.NginxLog;
+import backend.academy.readers.LogFileReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Общие данные и помощники тестов статистики: пример логов, создание записей, запись и чтение
+ * в двоичном виде и разбор таблиц Markdown-отчета.
+ */
+final class TestLogs {
+
+    static final String SAMPLE_LOG = "src/main/java/backend/academy/Files/logs.txt";
+    static final String TIMESTAMP = "21/Jul/2023:12:00:00 +0000";
+
+    private TestLogs() {
+    }
+
+    static List<NginxLog> sampleLogs() {
+        return new LogFileReader().readLogs(List.of(SAMPLE_LOG));
+    }
+
+    static NginxLog log(
+        String ipAddress, String timestamp, String requestMethod, String resource, int statusCode, int responseSize
+    ) {
+        return new NginxLog(ipAddress, "-", "-", timestamp, requestMethod, resource, "HTTP/1.1", statusCode,
+            responseSize);
+    }
+
+    /**
+     * Записывает значение в двоичном виде и читает его обратно.
+     */
+    static <T> T roundTrip(Writer writer, Reader<T> reader) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        writer.writeTo(new DataOutputStream(bytes));
+        return reader.readFrom(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+    }
+
+    /**
+     * Разбирает таблицу Markdown-отчета, следующую за заголовком раздела.
+     *
+     * @return Строки таблицы без заголовка и разделителя; значения ячеек без выравнивающих пробелов.
+     */
+    static List<List<String>> markdownTable(String report, String heading) {
+        int start = report.indexOf(heading + "\n");
+        if (start < 0) {
+            throw new AssertionError("no section " + heading);
+        }
+        List<List<String>> rows = new ArrayList<>();
+        List<String> lines = report.substring(start + heading.length() + 1).lines().toList();
+        for (int i = 2; i < lines.size() && lines.get(i).startsWith("|"); i++) {
+            String line = lines.get(i);
+            rows.add(Arrays.stream(line.substring(1, line.length() - 1).split("\\|")).map(String::trim).toList());
+        }
+        return rows;
+    }
+
+    @FunctionalInterface
+    interface Writer {
+        void writeTo(DataOutput out) throws IOException;
+    }
+
+    @FunctionalInterface
+    interface Reader<T> {
+        T readFrom(DataInput in) throws IOException;
+    }
+}
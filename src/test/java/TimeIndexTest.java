@@ -0,0 +1,104 @@
+import backend.academy.datefilter.DateFilter;
+import backend.academy.datefilter.TimeRange;
+import backend.academy.datefilter.TimestampDecoder;
+import backend.academy.nginx.NginxLog;
+import backend.academy.readers.FileChunk;
+import backend.academy.readers.LogFileReader;
+import backend.academy.readers.TimeIndex;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TimeIndexTest {
+
+    private static final String SAMPLE_LOG = "src/main/java/backend/academy/Files/logs.txt";
+    private static final long BLOCK_SIZE = 4096;
+    private static final String FROM = "17/May/2015:12:00:00 +0000";
+    private static final String TO = "17/May/2015:14:00:00 +0000";
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void readLogs_withTimeRange_returnsAllRecordsInRange() throws IOException {
+        Path file = directory.resolve("access.txt");
+        Files.write(file, sampleLines(), StandardCharsets.UTF_8);
+        LogFileReader reader = new LogFileReader(BLOCK_SIZE);
+        reader.setTimeRange(TimeRange.of(FROM, TO));
+
+        List<NginxLog> indexed = reader.readLogs(List.of(file.toString()));
+
+        assertEquals(inRange(new LogFileReader().readLogs(List.of(file.toString()))), inRange(indexed));
+        assertTrue(indexed.size() < sampleLines().size());
+        assertTrue(Files.exists(TimeIndex.sidecarOf(file)));
+    }
+
+    @Test
+    void select_rangeOutsideFile_skipsWholeFile() throws IOException {
+        Path file = directory.resolve("access.txt");
+        Files.write(file, sampleLines(), StandardCharsets.UTF_8);
+        TimeIndex index = TimeIndex.forFile(file, BLOCK_SIZE);
+
+        List<FileChunk> chunks = index.select(file,
+            TimeRange.of("01/Jan/2016:00:00:00 +0000", "31/Dec/2016:00:00:00 +0000"), BLOCK_SIZE);
+
+        assertEquals(List.of(), chunks);
+        assertTrue(index.minEpochSecond() <= index.maxEpochSecond());
+    }
+
+    @Test
+    void forFile_appendedFile_extendsStoredIndex() throws IOException {
+        List<String> lines = sampleLines();
+        Path file = directory.resolve("access.txt");
+        Files.write(file, lines.subList(0, 700), StandardCharsets.UTF_8);
+        int before = TimeIndex.forFile(file, BLOCK_SIZE).blocks();
+
+        Files.write(file, lines.subList(700, lines.size()), StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+        TimeIndex extended = TimeIndex.forFile(file, BLOCK_SIZE);
+
+        assertTrue(extended.blocks() > before);
+        assertEquals(TimeIndex.forFile(file, BLOCK_SIZE).blocks(), extended.blocks());
+        LogFileReader reader = new LogFileReader(BLOCK_SIZE);
+        reader.setTimeRange(TimeRange.of(FROM, TO));
+        assertEquals(inRange(new LogFileReader().readLogs(List.of(file.toString()))),
+            inRange(reader.readLogs(List.of(file.toString()))));
+    }
+
+    @Test
+    void forFile_rewrittenFile_rebuildsIndex() throws IOException {
+        List<String> lines = sampleLines();
+        Path file = directory.resolve("access.txt");
+        Files.write(file, lines, StandardCharsets.UTF_8);
+        TimeIndex.forFile(file, BLOCK_SIZE);
+
+        Files.write(file, lines.subList(1000, lines.size()), StandardCharsets.UTF_8);
+        TimeIndex rebuilt = TimeIndex.forFile(file, BLOCK_SIZE);
+
+        long expectedMin = lines.subList(1000, lines.size()).stream()
+            .mapToLong(TimeIndexTest::epochSecondOf)
+            .min()
+            .orElseThrow();
+        assertEquals(expectedMin, rebuilt.minEpochSecond());
+    }
+
+    private static List<NginxLog> inRange(List<NginxLog> logs) {
+        DateFilter filter = new DateFilter();
+        filter.setDateFromTo(FROM, TO);
+        return logs.stream().filter(log -> filter.isWithinRange(log.timestamp())).toList();
+    }
+
+    private static long epochSecondOf(String line) {
+        return TimestampDecoder.toEpochSecond(line.substring(line.indexOf('[') + 1, line.indexOf(']')));
+    }
+
+    private static List<String> sampleLines() throws IOException {
+        return Files.readAllLines(Path.of(SAMPLE_LOG), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,133 @@
+import backend.academy.analyzer.AnalysisOptions;
+import backend.academy.analyzer.Analyzer;
+import backend.academy.analyzer.LogAccumulator;
+import backend.academy.nginx.NginxLog;
+import backend.academy.quantile.QuantileEngine;
+import backend.academy.reportformats.MarkdownFormater;
+import backend.academy.series.SeriesInterval;
+import backend.academy.series.SeriesPoint;
+import backend.academy.series.TimeSeries;
+import backend.academy.statistic.Metrics;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class TimeSeriesTest {
+
+    private static final AnalysisOptions HOURLY =
+        new AnalysisOptions(QuantileEngine.HDR, List.of(), 0, 3, List.of(), SeriesInterval.HOUR);
+
+    @Test
+    void accept_outOfOrderRecords_fillsBucketsAndGaps() {
+        TimeSeries series = new TimeSeries(SeriesInterval.MINUTE);
+        series.accept(log("21/Jul/2023:12:03:10 +0000", 200, 100));
+        series.accept(log("21/Jul/2023:12:00:59 +0000", 500, 300));
+        series.accept(log("21/Jul/2023:12:00:01 +0000", 200, 100));
+        series.accept(log("21/Jul/2023:15:02:30 +0300", 404, 50));
+
+        List<SeriesPoint> points = series.points();
+
+        assertEquals(4, points.size());
+        assertEquals(new SeriesPoint("21/Jul/2023:12:00:00 +0000", 2, 400, 50.0, 100, 300), points.get(0));
+        assertEquals(new SeriesPoint("21/Jul/2023:12:01:00 +0000", 0, 0, 0, 0, 0), points.get(1));
+        assertEquals(new SeriesPoint("21/Jul/2023:12:02:00 +0000", 1, 50, 0, 50, 50), points.get(2));
+        assertEquals(1, points.get(3).requests());
+        assertEquals(0, series.skipped());
+    }
+
+    @Test
+    void add_beyondMaxBuckets_isSkipped() {
+        TimeSeries series = new TimeSeries(SeriesInterval.MINUTE);
+        series.add(0, 200, 1);
+        series.add(TimeSeries.MAX_BUCKETS * SeriesInterval.MINUTE.seconds(), 200, 1);
+        series.add(Long.MIN_VALUE, 200, 1);
+
+        assertEquals(1, series.points().size());
+        assertEquals(2, series.skipped());
+    }
+
+    @Test
+    void points_longGap_isCompressedToOneEmptyPoint() {
+        TimeSeries series = new TimeSeries(SeriesInterval.MINUTE);
+        series.add(0, 200, 10);
+        series.add(60, 200, 20);
+        series.add(100_000 * SeriesInterval.MINUTE.seconds(), 500, 30);
+
+        List<SeriesPoint> points = series.points();
+
+        assertEquals(List.of("01/Jan/1970:00:00:00 +0000", "01/Jan/1970:00:01:00 +0000", "01/Jan/1970:00:02:00 +0000",
+            "11/Mar/1970:10:40:00 +0000"), points.stream().map(SeriesPoint::startTime).toList());
+        assertEquals(List.of(1L, 1L, 0L, 1L), points.stream().map(SeriesPoint::requests).toList());
+    }
+
+    @Test
+    void combine_parallelStream_countsRequestsPerHour() {
+        List<NginxLog> logs = TestLogs.sampleLogs();
+
+        LogAccumulator parallel = logs.parallelStream().collect(LogAccumulator.collector(HOURLY));
+
+        assertEquals(hourlyRequests(logs), parallel.getSeries().points().stream()
+            .filter(point -> point.requests() > 0)
+            .collect(Collectors.toMap(SeriesPoint::startTime, SeriesPoint::requests)));
+    }
+
+    @Test
+    void combine_intoEmptyBucket_doesNotShareSketchWithOther() {
+        TimeSeries combined = new TimeSeries(SeriesInterval.MINUTE);
+        TimeSeries other = new TimeSeries(SeriesInterval.MINUTE);
+        other.accept(log("21/Jul/2023:12:00:01 +0000", 200, 100));
+        List<SeriesPoint> before = other.points();
+
+        combined.combine(other);
+        combined.accept(log("21/Jul/2023:12:00:02 +0000", 200, 5000));
+
+        assertEquals(before, other.points());
+        assertEquals(new SeriesPoint("21/Jul/2023:12:00:00 +0000", 2, 5100, 0, 100, 5000),
+            combined.points().getFirst());
+    }
+
+    @Test
+    void writeTo_readFrom_restoresSeries() throws IOException {
+        TimeSeries series = new TimeSeries(SeriesInterval.HOUR);
+        TestLogs.sampleLogs().forEach(series::accept);
+
+        TimeSeries restored = TestLogs.roundTrip(series::writeTo, in -> TimeSeries.readFrom(in, SeriesInterval.HOUR));
+
+        assertEquals(series.points(), restored.points());
+        assertEquals(series.skipped(), restored.skipped());
+    }
+
+    @Test
+    void analyze_series_reportsRequestsPerHour() {
+        List<NginxLog> logs = TestLogs.sampleLogs();
+        Map<String, Long> expected = hourlyRequests(logs);
+
+        Metrics metrics = new Analyzer(HOURLY).analyze(logs);
+        List<List<String>> rows =
+            TestLogs.markdownTable(new MarkdownFormater().format(metrics), "## Динамика по часам");
+
+        assertEquals(SeriesInterval.HOUR, metrics.seriesInterval());
+        assertEquals(metrics.series().size(), rows.size());
+        for (List<String> row : rows) {
+            assertEquals((long) expected.getOrDefault(row.getFirst(), 0L), Long.parseLong(row.get(1)), row.getFirst());
+        }
+        assertEquals(logs.stream().mapToLong(NginxLog::responseSize).sum(),
+            rows.stream().mapToLong(row -> Long.parseLong(row.get(2))).sum());
+    }
+
+    /**
+     * Количество записей по началу часа; все записи примера в поясе +0000.
+     */
+    private static Map<String, Long> hourlyRequests(List<NginxLog> logs) {
+        return logs.stream().collect(Collectors.groupingBy(
+            log -> log.timestamp().substring(0, log.timestamp().indexOf(':') + 3) + ":00:00 +0000",
+            Collectors.counting()));
+    }
+
+    private static NginxLog log(String timestamp, int statusCode, int responseSize) {
+        return TestLogs.log("10.0.0.1", timestamp, "GET", "/index.html", statusCode, responseSize);
+    }
+}